@@ -0,0 +1,67 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks {@code CLIReader} parsing of port ranges
+ * <p>
+ * The host is an address literal, served from the resolver cache after the first parse, so the port
+ * parsing dominates.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+@State ( Scope.Thread )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.MICROSECONDS )
+@Warmup ( iterations = 3, time = 1 )
+@Measurement ( iterations = 5, time = 1 )
+@Fork ( 1 )
+public class CLIReaderBenchmark
+{
+
+	@Param ( { "1-1024", "1-65535", "1-1024,2000-3000,8000-8100,8443,9000-9999" } )
+	String ports;
+
+
+	@Benchmark
+	public CLIReader parse ()
+	{
+		return new CLIReader(Collections.emptySet(), new String[] { "-p", ports, "-h", "127.0.0.1", "-l" });
+	} // parse
+
+} // CLIReaderBenchmark
@@ -0,0 +1,109 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Benchmarks end-to-end connect throughput of each engine against a loopback {@code TargetFarm}
+ * <p>
+ * Each invocation connects to every listener {@code ATTEMPTS} times, and the score is per connect, so the
+ * throughput mode reports connects per second for each engine.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+@State ( Scope.Benchmark )
+@BenchmarkMode ( Mode.Throughput )
+@OutputTimeUnit ( TimeUnit.SECONDS )
+@Warmup ( iterations = 3, time = 2 )
+@Measurement ( iterations = 5, time = 2 )
+@Fork ( 1 )
+public class ConnectBenchmark
+{
+
+	static final int		PORTS		= 200;
+	static final int		ATTEMPTS	= 5;
+
+	@Param ( { "blocking", "virtual", "nio" } )
+	String					engine;
+
+	Inet4Address			loopback;
+	TargetFarm				farm;
+	List< Integer >			ports;
+
+
+	@Setup ( Level.Trial )
+	public void setup ()
+		throws IOException
+	{
+		ReverseNameCache.setEnabled(false);
+		ConnectionTask.setEngine(EngineTypeEnum.getEngineType(engine));
+
+		loopback	= (Inet4Address) InetAddress.getByName("127.0.0.1");
+		farm		= new TargetFarm();
+		ports		= farm.listen(Collections.singletonList(loopback), PORTS, TargetFarm.Behaviour.ACCEPT, 0);
+	} // setup
+
+
+	@TearDown ( Level.Trial )
+	public void teardown ()
+		throws IOException
+	{
+		farm.close();
+	} // teardown
+
+
+	@Benchmark
+	@OperationsPerInvocation ( PORTS * ATTEMPTS )
+	public void connect ( Blackhole bh )
+	{
+		for ( int port : ports )
+		{
+			ConnectionTask.submit(false, loopback, loopback, port, ATTEMPTS);
+		} // for
+		ConnectionTask.forEachResult(bh::consume);
+	} // connect
+
+} // ConnectBenchmark
@@ -0,0 +1,178 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks exporting collated results as CSV, JSON and the compact binary format, and reading binary back to CSV
+ * <p>
+ * The results are a sweep of ports across a handful of named hosts from two interfaces, so the binary dictionary
+ * sees the repetition a real sweep has. The bytes per result of each format are printed at the end of the trial.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+@State ( Scope.Thread )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.MICROSECONDS )
+@Warmup ( iterations = 3, time = 1 )
+@Measurement ( iterations = 5, time = 1 )
+@Fork ( 1 )
+public class ExportBenchmark
+{
+
+	private static final int	HOSTS	= 8;
+
+	@Param ( { "csv", "json", "binary" } )
+	String						format;
+
+	@Param ( { "1024", "16384" } )
+	int							results;
+
+	List< ConnectionResult >	collated;
+	byte[]						binary;
+	long						bytes;
+	OutputStream				counter	= new OutputStream()
+										{
+											@Override
+											public void write ( int b )
+											{
+												bytes++;
+											}
+
+
+											@Override
+											public void write ( byte[] b, int off, int len )
+											{
+												bytes += len;
+											}
+										};
+
+
+	@Setup
+	public void setup ()
+		throws UnknownHostException
+	{
+		ReverseNameCache.setEnabled(false);
+		InetAddress[] locals = { InetAddress.getByName("192.0.2.1"), InetAddress.getByName("192.0.2.2") };
+
+		collated = new ArrayList<>(results);
+		for ( int i = 0; i < results; i++ )
+		{
+			int					host	= i % HOSTS + 1;
+			InetAddress			remote	= InetAddress.getByAddress("lb-198-51-100-" + host + "-iad.example.com",
+					new byte[] { (byte) 198, 51, 100, (byte) host });
+			ConnectionResult	result	= new ConnectionResult(!"csv".equals(format), "4", locals[i % locals.length], remote,
+					1 + i / HOSTS);
+			for ( int a = 0; a < 5; a++ )
+			{
+				result.connects.record(20000000L + i * 7919L + a * 104729L);
+			} // for
+			result.refused = i % 3;
+			result.collate();
+			collated.add(result);
+		} // for
+
+		ByteArrayOutputStream	out		= new ByteArrayOutputStream();
+		BinarySink				sink	= new BinarySink(out);
+		sink.open();
+		collated.forEach(sink::accept);
+		sink.close();
+		binary = out.toByteArray();
+	} // setup
+
+
+	/**
+	 * Write the results through a sink for the format, from open to close
+	 */
+	private void write ( OutputStream out )
+		throws UnsupportedEncodingException
+	{
+		ResultSink sink = "binary".equals(format)
+				? new BinarySink(out)
+				: new StreamSink(new PrintStream(out, false, "UTF-8"), "json".equals(format));
+
+		sink.open();
+		for ( ConnectionResult result : collated )
+		{
+			sink.accept(result);
+		} // for
+		sink.close();
+	} // write
+
+
+	@Benchmark
+	public long export ()
+		throws UnsupportedEncodingException
+	{
+		bytes = 0;
+		write(counter);
+		return bytes;
+	} // export
+
+
+	@Benchmark
+	public int convert ()
+		throws IOException
+	{
+		bytes = 0;
+		return BinaryReader.convert(new ByteArrayInputStream(binary), new PrintStream(counter, false, "UTF-8"), "json".equals(format));
+	} // convert
+
+
+	@TearDown ( Level.Trial )
+	public void report ()
+		throws UnsupportedEncodingException
+	{
+		bytes = 0;
+		write(counter);
+		System.out.printf("%n%s: %d results, %d bytes, %.1f bytes/result%n", format, results, bytes, (double) bytes / results);
+	} // report
+
+
+} // ExportBenchmark
@@ -0,0 +1,87 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Benchmarks the {@code queueConnections()} fan-out of tuples through the scheduler to each engine
+ * <p>
+ * The run is dry, so tasks complete without connecting and the cost measured is building, scheduling,
+ * dispatching and collecting the tuples. There is a tuple per port for each local interface address.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+@State ( Scope.Thread )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.MILLISECONDS )
+@Warmup ( iterations = 3, time = 2 )
+@Measurement ( iterations = 5, time = 2 )
+@Fork ( 1 )
+public class QueueBenchmark
+{
+
+	@Param ( { "blocking", "virtual", "nio" } )
+	String			engine;
+
+	@Param ( { "1-1024", "1-16384" } )
+	String			ports;
+
+	LocalInterface	localInterface;
+	CLIReader		clireader;
+
+
+	@Setup
+	public void setup ()
+	{
+		ReverseNameCache.setEnabled(false);
+		ConnectionTask.setEngine(EngineTypeEnum.getEngineType(engine));
+
+		localInterface	= new LocalInterface();
+		clireader		= new CLIReader(localInterface.getLocalAddresses(),
+			new String[] { "-d", "-i", "4", "-p", ports, "-h", "127.0.0.1", "-l" });
+	} // setup
+
+
+	@Benchmark
+	public void queue ( Blackhole bh )
+	{
+		ConnectOMatic.queueConnections(localInterface, clireader);
+		ConnectionTask.forEachResult(bh::consume);
+	} // queue
+
+} // QueueBenchmark
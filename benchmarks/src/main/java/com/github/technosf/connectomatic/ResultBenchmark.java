@@ -0,0 +1,100 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks {@code ConnectionResult} construction and collation, in CSV and JSON
+ * <p>
+ * Reverse lookups are disabled so that formatting, not DNS, is measured. Run with {@code -prof gc} to see
+ * the allocation per result.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+@State ( Scope.Thread )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.NANOSECONDS )
+@Warmup ( iterations = 3, time = 1 )
+@Measurement ( iterations = 5, time = 1 )
+@Fork ( 1 )
+public class ResultBenchmark
+{
+
+	@Param ( { "false", "true" } )
+	boolean		json;
+
+	@Param ( { "5", "64" } )
+	int			attempts;
+
+	InetAddress	local, remote;
+
+
+	@Setup
+	public void setup ()
+		throws UnknownHostException
+	{
+		ReverseNameCache.setEnabled(false);
+		local	= InetAddress.getByName("192.0.2.1");
+		remote	= InetAddress.getByName("198.51.100.1");
+	} // setup
+
+
+	@Benchmark
+	public ConnectionResult construct ()
+	{
+		return new ConnectionResult(json, "4", local, remote, 443);
+	} // construct
+
+
+	@Benchmark
+	public String collate ()
+	{
+		ConnectionResult result = new ConnectionResult(json, "4", local, remote, 443);
+
+		for ( int i = 0; i < attempts; i++ )
+		{
+			result.connects.record(20000000L + i * 7919L);
+		} // for
+		result.refused = 1;
+
+		result.collate();
+		return result.toString();
+	} // collate
+
+} // ResultBenchmark
@@ -0,0 +1,274 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.math.BigInteger;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * An IPv4 CIDR block or IPv6 prefix of remote addresses, enumerated lazily
+ * <p>
+ * Only the first address and the count are held, so a prefix takes the same memory however many addresses it
+ * spans. Prefixes spanning more addresses than the sample are sampled. IPv4 blocks are sampled at an even
+ * stride across the block. IPv6 prefixes are sampled low-order first, from the start of the prefix upward, as
+ * an even stride across a /64 would only vary the top bits of the interface identifier, where hosts seldom are,
+ * while statically numbered hosts and routers are most often low in the prefix. Either way the addresses are
+ * fixed, so repeated sweeps, deltas and resumed sweeps see the same addresses.
+ * <p>
+ * The network and broadcast addresses of an IPv4 block, or the subnet-router anycast address of an IPv6 prefix,
+ * can be left out, except from the point to point blocks /31, /32, /127 and /128.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class AddressPrefix implements Iterable< InetAddress >
+{
+
+	static final int				SAMPLE_DEFAULT	= 65536;	// An IPv4 /16 is swept whole
+
+	private static final Pattern	REGEX_PREFIX	= Pattern.compile("(\\d{1,3}(?:\\.\\d{1,3}){3}|[0-9a-fA-F:.]*:[0-9a-fA-F:.]*)/(\\d{1,3})");
+
+	private final String			text;
+	private final boolean			v4;
+	private final BigInteger		first;
+	private final BigInteger		count;
+	private final long				size;
+	private final boolean			sampled;
+	private final Set< String >		excluded;
+
+
+	/**
+	 * Parse a prefix from its CIDR notation, with any host bits given masked off
+	 * 
+	 * @param cidr
+	 *                     the prefix, as address/length
+	 * @param sample
+	 *                     the most addresses to take from the prefix
+	 * @param usable
+	 *                     true to leave out the network and broadcast addresses
+	 * @param excluded
+	 *                     host addresses to skip, such as the local interface addresses
+	 * 
+	 * @throws IllegalArgumentException
+	 *                                      if the prefix is not an address literal and a valid length
+	 */
+	AddressPrefix ( String cidr, int sample, boolean usable, Set< String > excluded )
+	{
+		Matcher matcher = REGEX_PREFIX.matcher(cidr.trim());
+
+		if ( !matcher.matches() )
+			throw new IllegalArgumentException("Not an address/length prefix");
+
+		InetAddress address;
+		try
+		{
+			address = InetAddress.getByName(matcher.group(1)); // A literal, so not looked up
+		}
+		catch ( UnknownHostException e )
+		{
+			throw new IllegalArgumentException("Not an address literal");
+		} // try/catch
+
+		v4 = address instanceof Inet4Address;
+
+		int	bits	= v4 ? 32 : 128;
+		int	length	= Integer.parseInt(matcher.group(2));
+
+		if ( length > bits )
+			throw new IllegalArgumentException("Prefix length over " + bits);
+
+		BigInteger	span	= BigInteger.ONE.shiftLeft(bits - length);
+		BigInteger	start	= new BigInteger(1, address.getAddress()).andNot(span.subtract(BigInteger.ONE));
+
+		text = toAddress(start).getHostAddress() + "/" + length;
+
+		if ( usable && length < bits - 1 )
+		{
+			start	= start.add(BigInteger.ONE);
+			span	= span.subtract(v4 ? BigInteger.valueOf(2) : BigInteger.ONE);
+		} // if
+
+		this.first		= start;
+		this.count		= span;
+		this.size		= span.min(BigInteger.valueOf(Math.max(1, sample))).longValue();
+		this.sampled	= span.compareTo(BigInteger.valueOf(size)) > 0;
+		this.excluded	= excluded == null ? Collections.emptySet() : excluded;
+	} // AddressPrefix
+
+
+	/**
+	 * Is the prefix IPv4?
+	 * 
+	 * @return true for IPv4, false for IPv6
+	 */
+	boolean isIPv4 ()
+	{
+		return v4;
+	} // isIPv4
+
+
+	/**
+	 * The count of addresses enumerated, before any excluded addresses are skipped
+	 * 
+	 * @return the addresses, no more than the sample
+	 */
+	long size ()
+	{
+		return size;
+	} // size
+
+
+	/**
+	 * Is the prefix sampled, rather than enumerated whole?
+	 * 
+	 * @return true if sampled
+	 */
+	boolean isSampled ()
+	{
+		return sampled;
+	} // isSampled
+
+
+	/**
+	 * The count of addresses in the prefix
+	 * 
+	 * @return the addresses
+	 */
+	BigInteger getCount ()
+	{
+		return count;
+	} // getCount
+
+
+	/**
+	 * Enumerate the addresses, each made as it is reached
+	 */
+	@Override
+	public Iterator< InetAddress > iterator ()
+	{
+		return new Iterator< InetAddress >()
+		{
+			long		index;
+			InetAddress	next	= advance();
+
+
+			@Override
+			public boolean hasNext ()
+			{
+				return next != null;
+			}
+
+
+			@Override
+			public InetAddress next ()
+			{
+				if ( next == null )
+					throw new NoSuchElementException();
+
+				InetAddress address = next;
+				next = advance();
+				return address;
+			}
+
+
+			/**
+			 * The next address that is not excluded, at the stride across a sampled IPv4 block
+			 */
+			private InetAddress advance ()
+			{
+				while ( index < size )
+				{
+					BigInteger offset = BigInteger.valueOf(index++);
+
+					if ( sampled && v4 )
+					{
+						offset = offset.multiply(count).divide(BigInteger.valueOf(size));
+					} // if
+
+					InetAddress address = toAddress(first.add(offset));
+
+					if ( !excluded.contains(address.getHostAddress()) )
+						return address;
+				} // while
+
+				return null;
+			} // advance
+		};
+	} // iterator
+
+
+	/**
+	 * The prefix in CIDR notation, with any host bits masked off
+	 */
+	@Override
+	public String toString ()
+	{
+		return text;
+	}
+
+
+	/**
+	 * Is the host argument a prefix rather than a hostname or address?
+	 * 
+	 * @param host
+	 *                 the host argument
+	 * 
+	 * @return true if a prefix
+	 */
+	static boolean isPrefix ( String host )
+	{
+		return host.indexOf('/') >= 0;
+	} // isPrefix
+
+
+	/**
+	 * The address of the given number, as IPv4 or IPv6 as the prefix is
+	 */
+	private InetAddress toAddress ( BigInteger number )
+	{
+		byte[]	raw		= number.toByteArray();
+		byte[]	bytes	= new byte[v4 ? 4 : 16];
+		int		n		= Math.min(raw.length, bytes.length);
+
+		System.arraycopy(raw, raw.length - n, bytes, bytes.length - n, n);
+
+		try
+		{
+			return InetAddress.getByAddress(bytes);
+		}
+		catch ( UnknownHostException e )
+		// Not thrown for addresses of a legal length
+		{
+			throw new IllegalStateException(e);
+		} // try/catch
+	} // toAddress
+
+} // AddressPrefix
@@ -0,0 +1,181 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.net.InetAddress;
+
+
+/**
+ * A compact set of IPv4 and IPv6 addresses
+ * <p>
+ * Addresses are held as their 128 bits, IPv4 addresses as IPv4-mapped IPv6, in an open addressed table of
+ * {@code long}s, so each takes a few dozen bytes rather than the hundred or more of an {@code InetAddress}
+ * in a {@code HashSet}. The unspecified address {@code ::}, the table's empty slot, is held apart.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class AddressSet
+{
+
+	private static final int	CAPACITY_DEFAULT	= 1024;	// Slots, a power of two
+	private static final long	V4_MAPPED			= 0xFFFFL << 32;
+
+	private long[]				table;	// The high then low bits of each slot
+	private int					size;
+	private boolean				unspecified;
+
+
+	/**
+	 * An empty set
+	 */
+	AddressSet ()
+	{
+		table = new long[CAPACITY_DEFAULT * 2];
+	}
+
+
+	/**
+	 * Add an address
+	 * 
+	 * @param address
+	 *                    the address
+	 * 
+	 * @return true if the address was not already in the set
+	 */
+	boolean add ( InetAddress address )
+	{
+		byte[]	bytes	= address.getAddress();
+		long	high	= 0;
+		long	low;
+
+		if ( bytes.length == 4 )
+		{
+			low = V4_MAPPED | ( bits(bytes, 0, 4) & 0xFFFFFFFFL );
+		}
+		else
+		{
+			high	= bits(bytes, 0, 8);
+			low		= bits(bytes, 8, 8);
+		} // if
+
+		if ( high == 0 && low == 0 )
+		{
+			boolean added = !unspecified;
+			unspecified = true;
+			size += added ? 1 : 0;
+			return added;
+		} // if
+
+		if ( ( size + 1 ) * 4 > table.length )
+		// Over half full
+		{
+			grow();
+		} // if
+
+		if ( !insert(table, high, low) )
+			return false;
+
+		size++;
+		return true;
+	} // add
+
+
+	/**
+	 * The count of addresses in the set
+	 * 
+	 * @return the addresses
+	 */
+	int size ()
+	{
+		return size;
+	} // size
+
+
+	/**
+	 * Insert an address into a table, probing linearly from its hash
+	 * 
+	 * @return false if the address was already in the table
+	 */
+	private static boolean insert ( long[] table, long high, long low )
+	{
+		int	mask	= table.length / 2 - 1;
+		int	slot	= hash(high, low) & mask;
+
+		while ( table[slot * 2] != 0 || table[slot * 2 + 1] != 0 )
+		{
+			if ( table[slot * 2] == high && table[slot * 2 + 1] == low )
+				return false;
+
+			slot = ( slot + 1 ) & mask;
+		} // while
+
+		table[slot * 2]		= high;
+		table[slot * 2 + 1]	= low;
+		return true;
+	} // insert
+
+
+	/**
+	 * Double the table, reinserting the addresses
+	 */
+	private void grow ()
+	{
+		long[] grown = new long[table.length * 2];
+
+		for ( int i = 0; i < table.length; i += 2 )
+		{
+			if ( table[i] != 0 || table[i + 1] != 0 )
+				insert(grown, table[i], table[i + 1]);
+		} // for
+
+		table = grown;
+	} // grow
+
+
+	/**
+	 * Spread the bits of an address, so neighbouring addresses fall in different slots
+	 */
+	private static int hash ( long high, long low )
+	{
+		long h = ( high * 0x9E3779B97F4A7C15L ) ^ low;
+		h *= 0xC2B2AE3D27D4EB4FL;
+		return (int) ( h ^ ( h >>> 32 ) );
+	} // hash
+
+
+	/**
+	 * The big-endian bits of a run of bytes
+	 */
+	private static long bits ( byte[] bytes, int offset, int length )
+	{
+		long bits = 0;
+
+		for ( int i = offset; i < offset + length; i++ )
+		{
+			bits = ( bits << 8 ) | ( bytes[i] & 0xFF );
+		} // for
+
+		return bits;
+	} // bits
+
+} // AddressSet
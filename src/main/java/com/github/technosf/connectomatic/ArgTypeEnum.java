@@ -26,7 +26,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * 
  * @since 1.0.0
  * 
- * @version 1.2.0
+ * @version 1.3.0
  * 
  * @author technosf
  */
@@ -37,12 +37,32 @@ public enum ArgTypeEnum
 	, IPV ( "i", true )
 	, PORT ( "p", true )
 	, HOST ( "h", true )
+	, HOSTLIST ( "H", true )
 	, ATTEMPTS ( "a", true )
 	, LOCAL ( "l" )
 	, JSON ( "j" )
 	, URI ( "u", true )
 	, QUIET ( "q" )
 	, DRY ( "d" )
+	, ENGINE ( "e", true )
+	, CONCURRENCY ( "c", true )
+	, TIMEOUT ( "t", true )
+	, SORTED ( "s" )
+	, ROLLUP ( "r" )
+	, NUMERIC ( "n" )
+	, RESOLVERS ( "-resolvers", true )
+	, BULK ( "-bulk", true )
+	, RATE ( "-rate", true )
+	, ORDER ( "-order", true )
+	, INTERVAL ( "-interval", true )
+	, METRICS ( "-metrics", true )
+	, DELTA ( "-delta", true )
+	, BINARY ( "-binary", true )
+	, RESUME ( "-resume", true )
+	, PREFIX ( "-prefix", true )
+	, ROUTES ( "-routes", true )
+	, TEARDOWN ( "-teardown", true )
+	, SOURCES ( "-sources", true )
 	, UNKNOWN ( null )
 	, NOT_A_FLAG ( null );
 
@@ -0,0 +1,249 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Streaming reader of the compact binary results format written by {@code BinarySink}
+ * <p>
+ * Reads one result at a time, formatted in the CSV or JSON results layout exactly as {@code ConnectionResult}
+ * collated it, so files of any size convert in constant memory. A stream cut off between records, as by stopping
+ * an {@code --interval} run mid-sweep, reads up to the last whole result.
+ * <p>
+ * Run to convert a binary results file to CSV, or JSON with {@code -j}, on standard out:
+ * <p>
+ * {@code java -cp connectomatic-*.*.*.jar com.github.technosf.connectomatic.BinaryReader results.bin [-j]}
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+public class BinaryReader implements Closeable
+{
+
+	private static final String		USAGE		= "Usage: BinaryReader <binary results file> [-j]";
+	private static final int		BUFFER		= 65536;
+
+	private final DataInputStream	in;
+	private final boolean			json;
+	private final List< String >	dictionary	= new ArrayList<>();
+	private final StringBuilder		sb			= new StringBuilder();
+	private boolean					header		= true;
+	private byte					version;
+	private int						results, total;
+
+
+	/**
+	 * Read results from the given input, which is closed with the reader
+	 * 
+	 * @param in
+	 *                 the binary results
+	 * @param json
+	 *                 true for JSON output, false for CSV
+	 */
+	BinaryReader ( InputStream in, boolean json )
+	{
+		this.in		= new DataInputStream(new BufferedInputStream(in, BUFFER));
+		this.json	= json;
+	}
+
+
+	/**
+	 * Read the next result
+	 * 
+	 * @return the result as a CSV line or JSON object, or null at the end of the input
+	 * 
+	 * @throws IOException
+	 *                         if the input could not be read, is not binary results or is cut off within a record
+	 */
+	String next ()
+		throws IOException
+	{
+		for ( ;; )
+		{
+			if ( header )
+			{
+				int first = in.read();
+				if ( first < 0 )
+					return null;
+
+				int magic = first << 24 | in.readUnsignedByte() << 16 | in.readUnsignedShort();
+				if ( magic != BinarySink.MAGIC )
+					throw new IOException("Not binary results");
+				version = in.readByte();
+				if ( version < 1 || version > BinarySink.VERSION )
+					throw new IOException("Unsupported binary results version");
+
+				dictionary.clear();
+				results	= 0;
+				header	= false;
+			} // if
+
+			int tag = in.read();
+			switch ( tag )
+			{
+				case -1:
+					return null;
+
+				case BinarySink.STRING:
+					dictionary.add(in.readUTF());
+					break;
+
+				case BinarySink.RESULT:
+					results++;
+					total++;
+					return result();
+
+				case BinarySink.END:
+					if ( in.readInt() != results )
+						throw new IOException("Binary results count mismatch");
+					header = true;
+					break;
+
+				default:
+					throw new IOException("Unknown binary results record: " + tag);
+			} // switch
+		} // for
+	} // next
+
+
+	/**
+	 * Format a result record
+	 */
+	private String result ()
+		throws IOException
+	{
+		sb.setLength(0);
+		ConnectionResult.tuple(sb, json, string(), string(), string(), string(), in.readUnsignedShort());
+		ConnectionResult.stats(sb, json, in.readInt(), in.readDouble(), in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+				in.readLong(), in.readDouble(), in.readInt(), in.readDouble(), in.readInt(), in.readInt(), version > 1 ? in.readInt() : 0);
+		return sb.toString();
+	} // result
+
+
+	/**
+	 * Look up the next dictionary index
+	 */
+	private String string ()
+		throws IOException
+	{
+		int index = in.readInt();
+
+		if ( index < 0 || index >= dictionary.size() )
+			throw new IOException("Binary results dictionary index out of range: " + index);
+
+		return dictionary.get(index);
+	} // string
+
+
+	/**
+	 * Get the count of results read
+	 * 
+	 * @return the results
+	 */
+	int getResults ()
+	{
+		return total;
+	} // getResults
+
+
+	@Override
+	public void close ()
+		throws IOException
+	{
+		in.close();
+	} // close
+
+
+	/**
+	 * Convert binary results to the CSV results layout with its header, or to a JSON array
+	 * 
+	 * @param in
+	 *                 the binary results
+	 * @param out
+	 *                 the output
+	 * @param json
+	 *                 true for JSON output, false for CSV
+	 * 
+	 * @return the count of results converted
+	 * 
+	 * @throws IOException
+	 *                         if the binary results could not be read
+	 */
+	static int convert ( InputStream in, PrintStream out, boolean json )
+		throws IOException
+	{
+		try ( BinaryReader reader = new BinaryReader(in, json) )
+		{
+			out.println(json ? "[" : ConnectionResult.CSV_HEADER);
+			for ( String result; ( result = reader.next() ) != null; )
+			{
+				out.print(( json && reader.getResults() > 1 ) ? "," : "");
+				out.println(result);
+			} // for
+			if ( json )
+				out.println("]");
+			out.flush();
+
+			return reader.getResults();
+		} // try
+	} // convert
+
+
+	/**
+	 * Converts a binary results file to standard out
+	 * 
+	 * @param args
+	 *                 the binary results file, then optionally -j for JSON
+	 */
+	public static void main ( String[] args )
+	{
+		if ( args.length == 0 )
+		{
+			System.out.println(USAGE);
+			System.exit(1);
+		} // if
+
+		try
+		{
+			convert(Files.newInputStream(Paths.get(args[0])), System.out, args.length > 1 && "-j".equals(args[1]));
+		}
+		catch ( IOException e )
+		{
+			System.out.println("Could not read binary results " + args[0] + ": " + e.getMessage());
+			System.exit(1);
+		} // try/catch
+
+		System.exit(0);
+	} // main
+
+} // BinaryReader
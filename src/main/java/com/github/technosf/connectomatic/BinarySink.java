@@ -0,0 +1,287 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Writes results in the compact binary results format
+ * <p>
+ * A stream is the {@code MAGIC} and {@code VERSION} header, then records each starting with a tag byte:
+ * <ul>
+ * <li>{@code STRING}: a dictionary string in modified UTF-8, given the next dictionary index from zero</li>
+ * <li>{@code RESULT}: a result as fixed-width big-endian columns, {@code RESULT_BYTES} long after the tag</li>
+ * <li>{@code END}: the count of results in the stream, as an int</li>
+ * </ul>
+ * The IPv, interface, remote address and remote hostname of each result are dictionary indexes, written as an
+ * int each, so each string is written once however many results repeat it. Addresses are looked up by
+ * {@code InetAddress}, so their literals and hostnames are only formatted the first time they are seen. The
+ * remaining columns are the remote port as an unsigned short, the connection count as an int, the connection
+ * mean, min, max, P50, P90, P99 and standard deviation in nanoseconds as doubles and longs, the timeout count
+ * as an int, the timeout mean as a double, and the refused, unreachable and inferred unreachable counts as
+ * ints. Version 1 streams have no inferred count.
+ * <p>
+ * Streams may be concatenated, as successive {@code --interval} sweeps are, each with its own dictionary. A
+ * stream may also be continued from its dictionary, as the {@code ResultJournal} does on resuming.
+ * {@code BinaryReader} reads them back to the CSV or JSON results layout.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class BinarySink implements ResultSink
+{
+
+	static final int							MAGIC			= 0x434F4D42;	// "COMB"
+	static final byte							VERSION			= 2;
+	static final byte							STRING			= 'S';
+	static final byte							RESULT			= 'R';
+	static final byte							END				= 'E';
+	static final int							RESULT_BYTES	= 4 * 4 + 2 + 4 + 8 * 7 + 4 + 8 + 4 + 4 + 4;
+
+	private static final int					BUFFER			= 65536;
+
+	private final DataOutputStream				out;
+	private final Map< String, Integer >		dictionary		= new HashMap<>();
+	private final Map< InetAddress, Integer >	addresses		= new HashMap<>();
+	private final Map< InetAddress, Integer >	hostnames		= new HashMap<>();
+	private final List< String >				continued;
+	private final int							prior;
+	private final boolean						through;
+	private final ByteBuffer					row				= ByteBuffer.allocate(1 + RESULT_BYTES);
+	private int									results;
+	private IOException							error;
+
+
+	/**
+	 * Write results to the given output, which is closed with the sink
+	 * 
+	 * @param out
+	 *                the output
+	 */
+	BinarySink ( OutputStream out )
+	{
+		this(out, null, 0, false);
+	}
+
+
+	/**
+	 * Write results to the given output, continuing a stream, and writing each result through to the output
+	 * as it is accepted so that at most the result being written is lost if the process dies
+	 * 
+	 * @param out
+	 *                       the output
+	 * @param dictionary
+	 *                       the dictionary of the stream written so far, or null to start a new stream
+	 * @param prior
+	 *                       the count of results in the stream written so far
+	 */
+	BinarySink ( OutputStream out, List< String > dictionary, int prior )
+	{
+		this(out, dictionary, prior, true);
+	}
+
+
+	/**
+	 * Write results to the given output
+	 */
+	private BinarySink ( OutputStream out, List< String > continued, int prior, boolean through )
+	{
+		this.out		= new DataOutputStream(new BufferedOutputStream(out, BUFFER));
+		this.continued	= continued;
+		this.prior		= continued == null ? 0 : prior;
+		this.through	= through;
+	}
+
+
+	@Override
+	public void open ()
+	{
+		dictionary.clear();
+		addresses.clear();
+		hostnames.clear();
+		results = 0;
+
+		try
+		{
+			if ( continued == null )
+			{
+				out.writeInt(MAGIC);
+				out.writeByte(VERSION);
+			}
+			else
+			{
+				continued.forEach(string -> dictionary.putIfAbsent(string, dictionary.size()));
+			} // if
+
+			if ( through )
+				out.flush();
+		}
+		catch ( IOException e )
+		{
+			error = e;
+		} // try/catch
+	} // open
+
+
+	@Override
+	public void accept ( ConnectionResult result )
+	{
+		if ( error != null )
+			return;
+
+		result.collate();
+
+		try
+		{
+			row.clear();
+			row.put(RESULT)
+				.putInt(index(result.ipv))
+				.putInt(index(addresses, result.localaddress, false))
+				.putInt(index(addresses, result.remoteaddress, false))
+				.putInt(index(hostnames, result.remoteaddress, true))
+				.putShort((short) result.port)
+				.putInt((int) result.connections)
+				.putDouble(result.mean)
+				.putLong(result.min)
+				.putLong(result.max)
+				.putLong(result.p50)
+				.putLong(result.p90)
+				.putLong(result.p99)
+				.putDouble(result.stddev)
+				.putInt((int) result.timeoutcount)
+				.putDouble(result.timeoutmean)
+				.putInt(result.refused)
+				.putInt(result.unreachable)
+				.putInt(result.inferred);
+			out.write(row.array());
+			if ( through )
+				out.flush();
+			results++;
+		}
+		catch ( IOException e )
+		{
+			error = e;
+		} // try/catch
+	} // accept
+
+
+	@Override
+	public void close ()
+	{
+		try
+		{
+			if ( error == null )
+			{
+				out.writeByte(END);
+				out.writeInt(prior + results);
+			} // if
+			out.close();
+		}
+		catch ( IOException e )
+		{
+			if ( error == null )
+				error = e;
+		} // try/catch
+	} // close
+
+
+	/**
+	 * The dictionary index of an address literal or hostname, looked up by address so the string is only made
+	 * the first time
+	 */
+	private int index ( Map< InetAddress, Integer > indexes, InetAddress address, boolean hostname )
+		throws IOException
+	{
+		Integer index = indexes.get(address);
+
+		if ( index == null )
+		{
+			index = index(hostname ? ReverseNameCache.getName(address) : address.getHostAddress());
+			indexes.put(address, index);
+		} // if
+
+		return index;
+	} // index
+
+
+	/**
+	 * The dictionary index of a string, writing it to the dictionary first if it is new
+	 */
+	private int index ( String string )
+		throws IOException
+	{
+		Integer index = dictionary.get(string);
+
+		if ( index == null )
+		{
+			index = dictionary.size();
+			dictionary.put(string, index);
+			out.writeByte(STRING);
+			out.writeUTF(string);
+		} // if
+
+		return index;
+	} // index
+
+
+	/**
+	 * Get the count of results written
+	 * 
+	 * @return the results
+	 */
+	int getResults ()
+	{
+		return results;
+	} // getResults
+
+
+	/**
+	 * Get the bytes written, once closed
+	 * 
+	 * @return the bytes
+	 */
+	int getBytes ()
+	{
+		return out.size();
+	} // getBytes
+
+
+	/**
+	 * Get the first write error
+	 * 
+	 * @return the error, or null if all was written
+	 */
+	IOException getError ()
+	{
+		return error;
+	} // getError
+
+} // BinarySink
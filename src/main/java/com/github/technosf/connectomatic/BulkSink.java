@@ -0,0 +1,517 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * Streams JSON results to an Elasticsearch/OpenSearch {@code _bulk} endpoint as NDJSON batches
+ * <p>
+ * Each result is an index action line and a document line. Batches are sent as soon as they reach the
+ * document or byte bound, so a large sweep is sent as it runs rather than as one request at the end.
+ * Batches are POSTed with chunked transfer encoding, optionally gzipped, and batches that fail with an
+ * I/O error, including a timeout, a 429 or a 5xx status are retried with exponential backoff.
+ * <p>
+ * A batch accepted with {@code "errors":true} has had some of its items rejected, each with its own status in
+ * the response's {@code items}, in the order they were sent. The items rejected with a 429, such as an
+ * {@code es_rejected_execution_exception}, or a 5xx status are resent on their own with the same backoff, and
+ * the items rejected otherwise, such as for a mapping error, are counted as failed. A response whose item statuses
+ * cannot be matched to the items sent fails the batch rather than resending it, as actions carry no {@code _id}
+ * and a resend would duplicate the items already loaded. Connections are left to the keep-alive cache between
+ * batches.
+ * <p>
+ * The URI should name the index, as in {@code http://localhost:9200/connectomatic/_bulk}.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class BulkSink implements ResultSink
+{
+
+	static final int				DOCS_DEFAULT		= 1000;					// Documents per batch
+	static final int				BYTES_DEFAULT		= 5 * 1024 * 1024;		// Bytes per batch
+	static final int				RETRIES_DEFAULT		= 3;					// Retries of a failed batch
+	static final long				BACKOFF_DEFAULT		= 500;					// Millis before the first retry
+
+	private static final byte[]		ACTION				= "{\"index\":{}}\n".getBytes(StandardCharsets.UTF_8);
+	private static final int		CHUNK				= 64 * 1024;
+	private static final int		HTTP_TIMEOUT		= 30000;				// Millis to connect, and to wait on a response
+	private static final String		CONTENT_TYPE		= "application/x-ndjson";
+	private static final Pattern	REGEX_ERRORS		= Pattern.compile("\"errors\"\\s*:\\s*true");
+
+	private final URI				uri;
+	private final int				maxDocs, maxBytes, retries;
+	private final boolean			gzip;
+	private final long				backoff;
+	private final List< byte[] >	batch				= new ArrayList<>();	// Action and document line pairs
+	private int						batchBytes;
+	private int						documents, batches, failed, failedDocs, status;
+	private String					response;
+
+
+	/**
+	 * Bulk load results to the given URI with the default retries
+	 * 
+	 * @param uri
+	 *                     the {@code _bulk} endpoint
+	 * @param maxDocs
+	 *                     the most documents in a batch
+	 * @param maxBytes
+	 *                     the most bytes in a batch, before any compression
+	 * @param gzip
+	 *                     true to gzip batches
+	 */
+	BulkSink ( URI uri, int maxDocs, int maxBytes, boolean gzip )
+	{
+		this(uri, maxDocs, maxBytes, gzip, RETRIES_DEFAULT, BACKOFF_DEFAULT);
+	}
+
+
+	/**
+	 * Bulk load results to the given URI
+	 * 
+	 * @param uri
+	 *                     the {@code _bulk} endpoint
+	 * @param maxDocs
+	 *                     the most documents in a batch
+	 * @param maxBytes
+	 *                     the most bytes in a batch, before any compression
+	 * @param gzip
+	 *                     true to gzip batches
+	 * @param retries
+	 *                     the retries of a failed batch
+	 * @param backoff
+	 *                     millis before the first retry, doubling for each retry after
+	 */
+	BulkSink ( URI uri, int maxDocs, int maxBytes, boolean gzip, int retries, long backoff )
+	{
+		this.uri		= uri;
+		this.maxDocs	= Math.max(1, maxDocs);
+		this.maxBytes	= Math.max(1, maxBytes);
+		this.gzip		= gzip;
+		this.retries	= Math.max(0, retries);
+		this.backoff	= Math.max(0, backoff);
+	}
+
+
+	@Override
+	public void open ()
+	{
+		// Batches are sent as they fill
+	} // open
+
+
+	@Override
+	public void accept ( ConnectionResult result )
+	{
+		byte[]	doc		= ( result.toString() + "\n" ).getBytes(StandardCharsets.UTF_8);
+		byte[]	item	= new byte[ACTION.length + doc.length];
+
+		System.arraycopy(ACTION, 0, item, 0, ACTION.length);
+		System.arraycopy(doc, 0, item, ACTION.length, doc.length);
+
+		if ( !batch.isEmpty() && batchBytes + item.length > maxBytes )
+		{
+			flush();
+		} // if
+
+		batch.add(item);
+		batchBytes += item.length;
+		documents++;
+
+		if ( batch.size() >= maxDocs || batchBytes >= maxBytes )
+		{
+			flush();
+		} // if
+	} // accept
+
+
+	@Override
+	public void close ()
+	{
+		flush();
+	} // close
+
+
+	/**
+	 * Documents accepted
+	 * 
+	 * @return the document count
+	 */
+	int getDocuments ()
+	{
+		return documents;
+	} // getDocuments
+
+
+	/**
+	 * Batches sent, successfully or not
+	 * 
+	 * @return the batch count
+	 */
+	int getBatches ()
+	{
+		return batches;
+	} // getBatches
+
+
+	/**
+	 * Batches that failed after all retries
+	 * 
+	 * @return the failed batch count
+	 */
+	int getFailed ()
+	{
+		return failed;
+	} // getFailed
+
+
+	/**
+	 * Documents that failed, in failed batches or rejected by the endpoint, after all retries
+	 * 
+	 * @return the failed document count
+	 */
+	int getFailedDocuments ()
+	{
+		return failedDocs;
+	} // getFailedDocuments
+
+
+	/**
+	 * The HTTP status of the last batch sent
+	 * 
+	 * @return the status, or zero if none was received
+	 */
+	int getStatus ()
+	{
+		return status;
+	} // getStatus
+
+
+	/**
+	 * Send the batch, if any, retrying with backoff, and resending only the items rejected with a retryable
+	 * status when the batch is accepted with errors
+	 */
+	private void flush ()
+	{
+		if ( batch.isEmpty() )
+			return;
+
+		List< byte[] >			pending		= new ArrayList<>(batch);
+		Map< Integer, Integer >	rejected	= new TreeMap<>();		// Item statuses rejected, and their counts
+		batch.clear();
+		batchBytes = 0;
+		batches++;
+
+		for ( int attempt = 0; ; attempt++ )
+		{
+			status = post(body(pending));
+
+			if ( status / 100 == 2 )
+			{
+				List< byte[] > retry = retryable(pending, response, rejected, attempt < retries);
+
+				if ( retry == null )
+				/*
+				 * Items that cannot be told apart may have been loaded, so are not resent
+				 */
+				{
+					failed++;
+					failedDocs += pending.size();
+					System.out.println("Error bulk loading results, " + statuses(response).size() + " item statuses for "
+							+ pending.size() + " documents sent, " + pending.size() + " documents in an unknown state\n");
+					return;
+				} // if
+
+				pending = retry;
+				if ( pending.isEmpty() )
+					break;
+			}
+			else if ( !isRetryable(status) || attempt >= retries )
+			{
+				failed++;
+				failedDocs += pending.size();
+				System.out.println("Error POSTing bulk results, HTTP status " + status + ", " + pending.size()
+						+ " documents not loaded\n");
+				break;
+			} // if
+
+			try
+			{
+				Thread.sleep(backoff << attempt);
+			}
+			catch ( InterruptedException e )
+			{
+				Thread.currentThread().interrupt();
+				failed++;
+				failedDocs += pending.size();
+				System.out.println("Interrupted bulk loading results, " + pending.size() + " documents not loaded\n");
+				break;
+			} // try/catch
+		} // for
+
+		if ( !rejected.isEmpty() )
+		{
+			StringBuilder sb = new StringBuilder("Error bulk loading results, documents rejected with item status");
+			for ( Map.Entry< Integer, Integer > r : rejected.entrySet() )
+			{
+				sb.append(' ').append(r.getKey()).append(" x").append(r.getValue());
+			} // for
+			System.out.println(sb.append('\n'));
+		} // if
+	} // flush
+
+
+	/**
+	 * The items of a batch accepted with errors that were rejected with a retryable status, counting the
+	 * items rejected otherwise as failed
+	 * 
+	 * @param sent
+	 *                     the items sent
+	 * @param response
+	 *                     the bulk response
+	 * @param rejected
+	 *                     the counts of the item statuses failed, by status
+	 * @param retry
+	 *                     true if items rejected with a retryable status may be resent, else they are failed
+	 * 
+	 * @return the items to resend, or null if the item statuses do not match the items sent
+	 */
+	private List< byte[] > retryable ( List< byte[] > sent, String response, Map< Integer, Integer > rejected,
+			boolean retry )
+	{
+		List< byte[] > resend = new ArrayList<>();
+
+		if ( response == null || !REGEX_ERRORS.matcher(response).find() )
+			return resend;
+
+		List< Integer > statuses = statuses(response);
+
+		if ( statuses.size() != sent.size() )
+			return null;
+
+		for ( int i = 0; i < sent.size(); i++ )
+		{
+			int s = statuses.get(i);
+
+			if ( retry && isRetryable(s) )
+			{
+				resend.add(sent.get(i));
+			}
+			else if ( s / 100 != 2 )
+			{
+				failedDocs++;
+				rejected.merge(s, 1, Integer::sum);
+			} // if
+		} // for
+
+		return resend;
+	} // retryable
+
+
+	/**
+	 * Concatenate the items of a batch into its body
+	 * 
+	 * @param items
+	 *                  the action and document line pairs
+	 * 
+	 * @return the NDJSON body
+	 */
+	private static byte[] body ( List< byte[] > items )
+	{
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+		for ( byte[] item : items )
+		{
+			body.write(item, 0, item.length);
+		} // for
+
+		return body.toByteArray();
+	} // body
+
+
+	/**
+	 * The statuses of the items in a bulk response, in order, being the {@code status} of the action object of
+	 * each element of the top level {@code items} array
+	 * 
+	 * @param response
+	 *                     the bulk response
+	 * 
+	 * @return the statuses
+	 */
+	static List< Integer > statuses ( String response )
+	{
+		List< Integer >	statuses	= new ArrayList<>();
+		int				depth		= 0, items = -1;
+		String			key			= null;
+
+		for ( int i = 0; i < response.length(); i++ )
+		{
+			char c = response.charAt(i);
+
+			switch ( c )
+			{
+				case '"':
+					int end = i + 1;
+					while ( end < response.length() && response.charAt(end) != '"' )
+					{
+						end += response.charAt(end) == '\\' ? 2 : 1;
+					} // while
+					key	= response.substring(i + 1, Math.min(end, response.length()));
+					i	= end;
+					break;
+				case ':':
+					if ( depth == 1 && "items".equals(key) )
+					{
+						items = 2;
+					}
+					else if ( items > 0 && depth == items + 2 && "status".equals(key) )
+					{
+						int start = i + 1;
+						while ( start < response.length() && response.charAt(start) == ' ' )
+						{
+							start++;
+						} // while
+						int stop = start;
+						while ( stop < response.length() && Character.isDigit(response.charAt(stop)) )
+						{
+							stop++;
+						} // while
+						if ( stop > start )
+							statuses.add(Integer.parseInt(response.substring(start, stop)));
+					} // if
+					key = null;
+					break;
+				case '{':
+				case '[':
+					depth++;
+					break;
+				case '}':
+				case ']':
+					if ( --depth < items )
+						items = -1;
+					break;
+				default:
+					break;
+			} // switch
+		} // for
+
+		return statuses;
+	} // statuses
+
+
+	/**
+	 * POST a batch, keeping the response body of a success
+	 * <p>
+	 * Response bodies are read to the end so the connection can be kept alive for the next batch
+	 * 
+	 * @param body
+	 *                 the NDJSON batch
+	 * 
+	 * @return the HTTP status, or zero on an I/O error
+	 */
+	private int post ( byte[] body )
+	{
+		HttpURLConnection hurl = null;
+
+		try
+		{
+			hurl = (HttpURLConnection) uri.toURL().openConnection();
+			hurl.setDoOutput(true);
+			hurl.setRequestMethod("POST");
+			hurl.setChunkedStreamingMode(CHUNK);
+			hurl.setConnectTimeout(HTTP_TIMEOUT);
+			hurl.setReadTimeout(HTTP_TIMEOUT);
+			hurl.setRequestProperty("Content-Type", CONTENT_TYPE);
+			if ( gzip )
+			{
+				hurl.setRequestProperty("Content-Encoding", "gzip");
+			} // if
+
+			try ( OutputStream os = gzip ? new GZIPOutputStream(hurl.getOutputStream(), CHUNK) : hurl.getOutputStream() )
+			{
+				os.write(body);
+			}
+
+			int code = hurl.getResponseCode();
+			response = read(code / 100 == 2 ? hurl.getInputStream() : hurl.getErrorStream());
+			return code;
+		}
+		catch ( IOException e )
+		{
+			response = null;
+			if ( hurl != null )
+				hurl.disconnect();
+			return 0;
+		} // try/catch
+	} // post
+
+
+	/**
+	 * Is a failed POST worth retrying?
+	 * 
+	 * @param status
+	 *                   the HTTP status, zero for an I/O error
+	 * 
+	 * @return true for I/O errors, 429 Too Many Requests and 5xx statuses
+	 */
+	static boolean isRetryable ( int status )
+	{
+		return status == 0 || status == 429 || status / 100 == 5;
+	} // isRetryable
+
+
+	/**
+	 * Read a response body to the end
+	 */
+	private static String read ( InputStream in )
+		throws IOException
+	{
+		if ( in == null )
+			return null;
+
+		try ( InputStream is = in )
+		{
+			ByteArrayOutputStream	out		= new ByteArrayOutputStream();
+			byte[]					buffer	= new byte[4096];
+			for ( int n; ( n = is.read(buffer) ) >= 0; )
+			{
+				out.write(buffer, 0, n);
+			} // for
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+	} // read
+
+} // BulkSink
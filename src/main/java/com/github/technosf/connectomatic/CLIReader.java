@@ -22,13 +22,20 @@ import java.io.IOException;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.net.URL;
 import java.util.Set;
@@ -43,7 +50,7 @@ import java.util.regex.Pattern;
  * 
  * @since 1.0.0
  * 
- * @version 1.2.0
+ * @version 1.3.0
  * 
  * @author technosf
  */
@@ -54,37 +61,125 @@ public class CLIReader
 	static final int CONNECTS_DEFAULT = 5;
 	private static final int CONNECTS_MAX = 64;
 	private static final int PORT_MAX = 65535;
+	private static final String TIMEOUT_ADAPTIVE = "adaptive";
+	private static final String BULK_GZIP = "gzip";
+	private static final String PREFIX_USABLE = "usable";
+	private static final String ROUTES_OFF = "off";
+	private static final String ROUTES_ON = "on";
+	private static final Pattern REGEX_BYTES = Pattern.compile("(\\d+)([kKmM])[bB]?"); // Regex to capture 999k and 999mb sizes
 	private static final Pattern REGEX_PORT_RANGE = Pattern.compile("(\\d+)-(\\d+)"); // Regex to capture 999-999 ranges
+	private static final Pattern REGEX_PERCENT = Pattern.compile("(\\d+)%"); // Regex to capture 99% precisions
 
   
 // @formatter:off
 	private static final String			HELP_LEGEND		= "Copyright 2023  technosf  [http://github.com/technosf]\n\nHelp:" 
 														+ "\n\t-i\tIPv - 4 and/or 6, defaults to 4 and 6 if absent" 	
 														+ "\n\t-p\tPort numbers, at least one required, can be a hyphenated range" 	
-														+ "\n\t-h\tHosts as hostnames, IPv4 or IPv6 addresses, at least one required"
-														+ "\n\t-a\tAttempts to connect, defaults to 5, but can be 1-255"
+														+ "\n\t-h\tHosts as hostnames, IPv4 or IPv6 addresses, or CIDR prefixes, at least one required. Sampled IPv4 prefixes are taken at an even stride, IPv6 prefixes from their lowest addresses upward"
+														+ "\n\t-H\tHost list file, or - for stdin, of hosts, addresses and CIDR prefixes by line or comma, read and resolved as the sweep runs"
+														+ "\n\t-a\tAttempts to connect, defaults to 5, but can be 1-64, or a range of them to stop each tuple once settled, with an optional budget per tuple and percent precision"
 														+ "\n\t-l\tLocal addresses in the host set should be tested and not ignored"
 														+ "\n\t-j\tProduce JSON output instead of CSV"
 														+ "\n\t-u\tURI, POST JSON results to the provided URI"
 														+ "\n\t-q\tQuiet mode, outputs result only, without preamble or summary"
 														+ "\n\t-d\tDry-run, run through resolving the targets without attempting any connects"
+														+ "\n\t-e\tEngine, 'blocking' (default), 'virtual' (Java 21+) or 'nio', with an optional count of NIO reactor threads"
+														+ "\n\t-c\tConcurrency caps on connections in flight: global, then optionally per local interface and per host. The global cap defaults to the open file limit less a reserve, and for the blocking engine, a thread per connection, to at most 1024"
+														+ "\n\t-t\tTimeout per connect in ms, and/or 'adaptive' to derive it from each route's round trip times"
+														+ "\n\t-s\tSorted output once all results are in, instead of streaming each result as it completes"
+														+ "\n\t-r\tRollups of connection latency percentiles per host, per port and per interface, after the results"
+														+ "\n\t-n\tNumeric, no reverse DNS lookups, remote hostnames are as given or else the address"
+														+ "\n\t--resolvers\tHosts to resolve at once, defaults to 16"
+														+ "\n\t--bulk\tStream results to the URI as Elasticsearch _bulk batches: documents per batch, batch size as 999k or 999m, and/or 'gzip'"
+														+ "\n\t--rate\tPace connect starts per second: globally, then optionally per host, 0 for no limit, and the burst allowed after idling"
+														+ "\n\t--order\tAttempt order: 'tuple' (default) for each tuple's attempts back to back, 'round' for a round of one attempt per tuple at a time, or 'random'"
+														+ "\n\t--interval\tRepeat the sweep every given seconds until stopped, then optionally the most seconds of jitter either way, defaulting to a tenth of the interval"
+														+ "\n\t--metrics\tServe Prometheus metrics of the results on the given port, or address:port, at /metrics"
+														+ "\n\t--delta\tOutput only the results changed from a previous run's CSV, JSON or binary results file, then optionally the percent the P50 may move, defaulting to 25"
+														+ "\n\t--binary\tWrite the results to the file in the compact binary results format, instead of CSV or JSON"
+														+ "\n\t--resume\tJournal each result to the file as it completes, first skipping the tuples the journal has results for"
+														+ "\n\t--prefix\tAddresses to sample from each CIDR prefix in the hosts, defaulting to 65536, and/or 'usable' to leave out network and broadcast addresses"
+														+ "\n\t--routes\tHold routes down, off by default: network unreachable ports in a row that hold a route down, inferring its tuples rather than probing them, or 'on' for 3, then one in how many of them to probe, defaulting to 16"
+														+ "\n\t--teardown\tSocket teardown: 'graceful' (default) closing with a FIN, or 'abort' resetting with SO_LINGER 0 to leave no TIME_WAIT, and/or the percent of the ephemeral ports in TIME_WAIT at which to slow, defaulting to 50"
+														+ "\n\t--sources\tSource ports to bind each attempt to, as a hyphenated range of ports from 1024 up, rotated through per local address, instead of ephemeral ports"
 														+ "\n\t-?\tProduces this message" 
 														+ "\n\nExamples:"
 														+ "\n\tjava -jar connectomatic-*.*.*.jar -p 22 80 -h github.com www.github.com"
 														+ "\n\tjava -jar connectomatic-*.*.*.jar -p 80-90 -h github.com www.github.com localhost -l"
 														+ "\n\tjava -jar connectomatic-*.*.*.jar -i 4,6 -p 22,80-90 -h github.com,www.github.com" 	
 														+ "\n\tjava -jar connectomatic-*.*.*.jar -j -i 4,6 -p 22,80-90 -h github.com,www.github.com" 	
-														+ "\n\tjava -jar connectomatic-*.*.*.jar -a 1 -u http://myobjectdb/index -i 6 -p 22,80-90 -h github.com,www.github.com\n\n";	
+														+ "\n\tjava -jar connectomatic-*.*.*.jar -a 1 -u http://myobjectdb/index -i 6 -p 22,80-90 -h github.com,www.github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar -e nio 2 -p 1-1024 -h github.com,www.github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar -c 512,128,16 -p 1-1024 -h github.com,www.github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar -t 2000 adaptive -p 1-1024 -h github.com,www.github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar -r -a 20 -p 22,80,443 -h github.com,www.github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar -a 2-30 5 10% -p 22,80,443 -h github.com,www.github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar -n -p 22 -h 140.82.112.3,140.82.112.4"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar --resolvers 64 -p 443 -h github.com,gitlab.com,bitbucket.org"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar -u http://localhost:9200/connectomatic/_bulk --bulk 500 1m gzip -p 1-1024 -h github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar --rate 2000 50 -p 1-1024 -h github.com,www.github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar --order random -a 10 -p 22,80,443 -h github.com,www.github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar --interval 300 30 -q -p 22,443 -h github.com,www.github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar --interval 60 --metrics 9464 -q -p 22,443 -h github.com,www.github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar --delta yesterday.csv 50 -q -p 1-1024 -h github.com,www.github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar --binary results.bin -a 10 -p 1-65535 -h github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar --resume sweep.journal -p 1-65535 -h github.com,www.github.com"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar --prefix 1024 usable -n -p 22,443 -h 10.20.0.0/16,2001:db8::/64"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar --routes 5 64 -n -p 1-1024 -h 10.20.0.0/24"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar --teardown abort --rate 20000 -n -p 1-65535 -h 10.20.0.1"
+														+ "\n\tjava -jar connectomatic-*.*.*.jar --sources 20000-59999 --teardown abort -n -p 443 -h 10.20.0.0/16"
+														+ "\n\tcat inventory.txt | java -jar connectomatic-*.*.*.jar -q -p 22,443 -H -\n\n";	
 // @formatter:on
 
-	private boolean						help, valid, IPv4Target, IPv6Target, local, json, quiet, dry;
+	private boolean						help, valid, IPv4Target, IPv6Target, local, json, quiet, dry, sorted, rollup, numeric, bulk, gzip;
 	private Set<ArgTypeEnum>			usedFlags 		= new HashSet<>();
 	private Map< Inet4Address, String >	ipV4Addresses	= new HashMap<>();
 	private Map< Inet6Address, String >	ipV6Addresses	= new HashMap<>();
 	private Set< String >				badHosts		= new HashSet<>();
-	private Set< Integer >				ports			= new HashSet<>();
+	private Set< String >				hosts			= new LinkedHashSet<>();
+	private Set< String >				prefixes		= new LinkedHashSet<>();
+	private String						hostList;
+	private List< AddressPrefix >		ipV4Prefixes	= new ArrayList<>();
+	private List< AddressPrefix >		ipV6Prefixes	= new ArrayList<>();
+	private int							sample			= AddressPrefix.SAMPLE_DEFAULT;
+	private boolean						usable;
+	private int							resolvers		= HostResolver.CONCURRENCY_DEFAULT;
+	private Map< String, HostResolver.Resolution >	resolutions	= Collections.emptyMap();
+	private int							bulkDocs		= BulkSink.DOCS_DEFAULT;
+	private int							bulkBytes		= BulkSink.BYTES_DEFAULT;
+	private double[]					rate			= { ConnectRate.UNLIMITED, ConnectRate.UNLIMITED };
+	private int							rateArgs;
+	private int							burst			= ConnectRate.BURST_DEFAULT;
+	private OrderTypeEnum				order			= OrderTypeEnum.TUPLE;
+	private long[]						interval		= { 0, -1 };	// Millis, the interval and jitter
+	private int							intervalArgs;
+	private InetSocketAddress			metrics;
+	private Path						delta;
+	private double						deltaThreshold	= DeltaIndex.THRESHOLD_DEFAULT;
+	private Path						binary;
+	private Path						resume;
+	private Set< String >				localAddresses;
+	private BitSet						ports			= new BitSet(PORT_MAX + 1);
 	private int							attempts		= CONNECTS_DEFAULT;
+	private int							minAttempts;	// Zero unless adaptive
+	private int							attemptBudget	= CONNECTS_DEFAULT;
+	private int							attemptMax;
+	private boolean						attemptCount;
+	private double						precision		= ConnectAttempts.PRECISION_DEFAULT;
+	private boolean						precisionArg;
 	private URI							httpUri;
+	private EngineTypeEnum				engine			= EngineTypeEnum.BLOCKING;
+	private int							reactors		= ConnectionReactor.REACTORS_DEFAULT;
+	private int[]						concurrency		=
+		{ ConnectionScheduler.DERIVED, ConnectionScheduler.UNCAPPED, ConnectionScheduler.UNCAPPED };
+	private int							concurrencyArgs;
+	private int							timeout			= ConnectTimeout.NONE;
+	private boolean						adaptiveTimeout;
+	private int[]						routes			= { RouteState.OFF, RouteState.SAMPLE_DEFAULT };
+	private int							routeArgs;
+	private TeardownTypeEnum			teardown		= TeardownTypeEnum.GRACEFUL;
+	private int							portThreshold	= PortBudget.THRESHOLD_DEFAULT;
+	private int[]						sources			= { SourcePorts.EPHEMERAL, SourcePorts.EPHEMERAL };
 
 	private StringBuilder				feedback		= new StringBuilder();
 
@@ -103,12 +198,20 @@ public class CLIReader
 	 */
 	CLIReader ( Set< String > localAddresses, String[] args )
 	{
+		this.localAddresses = localAddresses;
 		processArgs( args );
 
+		if ( !help )
+		{
+			resolveHosts();
+			expandPrefixes();
+		} // if
+
 		/*
 		 * Check CLI validity
 		 */
-		if ( ipV4Addresses.isEmpty() && ipV6Addresses.isEmpty() )
+		if ( ipV4Addresses.isEmpty() && ipV6Addresses.isEmpty() && ipV4Prefixes.isEmpty() && ipV6Prefixes.isEmpty()
+				&& hostList == null )
 		{
 			feedback.append("No valid addresses or host specified.\n");
 		} // if
@@ -118,6 +221,41 @@ public class CLIReader
 			feedback.append("No ports specified.\n");
 		} // if
 
+		if ( bulk && httpUri == null )
+		{
+			feedback.append("Bulk loading requires a URI.\n");
+		} // if
+
+		if ( binary != null && ( sorted || httpUri != null ) )
+		{
+			feedback.append("Binary results cannot be sorted, POSTed or bulk loaded.\n");
+		} // if
+
+		if ( resume != null && interval[0] > 0 )
+		{
+			feedback.append("Resuming from a journal cannot be repeated at an interval.\n");
+		} // if
+
+		if ( precisionArg && minAttempts == 0 )
+		{
+			feedback.append("An attempt precision requires a range of attempts.\n");
+		} // if
+
+		if ( minAttempts > 0 && OrderTypeEnum.TUPLE != order )
+		{
+			feedback.append("A range of attempts cannot be interleaved.\n");
+		} // if
+
+		if ( hostList != null && OrderTypeEnum.TUPLE != order )
+		{
+			feedback.append("Hosts streamed from a host list cannot be interleaved.\n");
+		} // if
+
+		if ( HostStream.STDIN.equals(hostList) && interval[0] > 0 )
+		{
+			feedback.append("Hosts from stdin cannot be repeated at an interval.\n");
+		} // if
+
 		if ( feedback.length() > 0 )
 		{
 			return;
@@ -141,10 +279,19 @@ public class CLIReader
 			ipV6Addresses.entrySet().removeIf(e -> localAddresses.contains(e.getValue()));
 		}
 
+		if ( minAttempts > 0 )
+		// Adaptive, making up to the range's maximum
+		{
+			attemptBudget	= attemptCount ? attempts : CONNECTS_DEFAULT;
+			attempts		= attemptMax;
+		} // if
+
 		attempts		= dry ? 0 : attempts;
+		json			= json || bulk;
 		ipV4Addresses	= Collections.unmodifiableMap(ipV4Addresses);
 		ipV6Addresses	= Collections.unmodifiableMap(ipV6Addresses);
-		ports			= Collections.unmodifiableSet(ports);
+		ipV4Prefixes	= Collections.unmodifiableList(ipV4Prefixes);
+		ipV6Prefixes	= Collections.unmodifiableList(ipV6Prefixes);
 		badHosts		= Collections.unmodifiableSet(badHosts);
 
 		valid			= true;
@@ -240,6 +387,39 @@ public class CLIReader
 	} // isQuiet
 
 
+	/**
+	 * Was sorted output, buffered until all results are in, requested?
+	 * 
+	 * @return true for Sorted, false for streamed output
+	 */
+	public boolean isSorted ()
+	{
+		return sorted;
+	} // isSorted
+
+
+	/**
+	 * Were latency rollups per host, port and interface requested?
+	 * 
+	 * @return true for Rollups
+	 */
+	public boolean isRollup ()
+	{
+		return rollup;
+	} // isRollup
+
+
+	/**
+	 * Were reverse DNS lookups of remote hostnames to be skipped?
+	 * 
+	 * @return true for Numeric
+	 */
+	public boolean isNumeric ()
+	{
+		return numeric;
+	} // isNumeric
+
+
 	/**
 	 * Was JSON output (no CSV) requested?
 	 * 
@@ -273,6 +453,39 @@ public class CLIReader
 	} // getIPv6Addresses
 
 
+	/**
+	 * Get the host list to stream hosts from
+	 * 
+	 * @return the host list file, or {@code -} for stdin, or null if not requested
+	 */
+	public String getHostList ()
+	{
+		return hostList;
+	} // getHostList
+
+
+	/**
+	 * Get the IPv4 CIDR blocks in the hosts
+	 * 
+	 * @return the IPv4 prefixes
+	 */
+	List< AddressPrefix > getIpV4Prefixes ()
+	{
+		return ipV4Prefixes;
+	} // getIpV4Prefixes
+
+
+	/**
+	 * Get the IPv6 prefixes in the hosts
+	 * 
+	 * @return the IPv6 prefixes
+	 */
+	List< AddressPrefix > getIpV6Prefixes ()
+	{
+		return ipV6Prefixes;
+	} // getIpV6Prefixes
+
+
 	/**
 	 * Returns hosts that could not be resolved or reached
 	 * 
@@ -287,24 +500,68 @@ public class CLIReader
 	/**
 	 * Get the ports that were requested
 	 * 
-	 * @return requested ports
+	 * @return requested ports, a copy set by port number
 	 */
-	public Set< Integer > getPorts ()
+	public BitSet getPorts ()
 	{
-		return ports;
+		return (BitSet) ports.clone();
 	} // getPorts
 
 
 	/**
 	 * Get the number of connection attempts requested
 	 * 
-	 * @return requested attempts
+	 * @return requested attempts, the most a tuple makes if adaptive
 	 */
 	public int getAttempts ()
 	{
 		return attempts;
 	} // getAttempts
 
+
+	/**
+	 * Was the attempt count to be adapted to each tuple's results?
+	 * 
+	 * @return true for adaptive attempts
+	 */
+	public boolean isAdaptiveAttempts ()
+	{
+		return minAttempts > 0;
+	} // isAdaptiveAttempts
+
+
+	/**
+	 * Get the fewest connection attempts a tuple makes, if adaptive
+	 * 
+	 * @return the fewest attempts
+	 */
+	public int getMinAttempts ()
+	{
+		return minAttempts;
+	} // getMinAttempts
+
+
+	/**
+	 * Get the attempts budgeted to each tuple, if adaptive
+	 * 
+	 * @return the attempt budget
+	 */
+	public int getAttemptBudget ()
+	{
+		return attemptBudget;
+	} // getAttemptBudget
+
+
+	/**
+	 * Get the precision an adaptive tuple's mean connect time settles within
+	 * 
+	 * @return the confidence interval half width, as a fraction of the mean
+	 */
+	public double getPrecision ()
+	{
+		return precision;
+	} // getPrecision
+
 	
 	/**
 	 * Get the Http URI to POST JSON results to
@@ -317,261 +574,1374 @@ public class CLIReader
 		return httpUri;
 	} // getHttpUri
 
-	//---------------------------------------------------------------------
 
 	/**
+	 * Get the connection engine requested
 	 * 
-	 * @param arg
+	 * @return the engine, blocking by default
 	 */
-	private void processArgs( String[] args )
+	public EngineTypeEnum getEngine ()
 	{
-		ArgTypeEnum currentState = ArgTypeEnum.NOT_A_FLAG; // The current state arg type
-		boolean argReqParams = false;
-
-		for ( String arg : args )
-		{
-			ArgTypeEnum thisArgType = ArgTypeEnum.getArgType(arg);
+		return engine;
+	} // getEngine
 
-			if ( ArgTypeEnum.HELP == thisArgType )
-			/*
-				* If help was requested provide the legend as feedback and exit
-				*/
-			{
-				help = true;
-				feedback.setLength(0);
-				feedback.append(HELP_LEGEND);
-				ipV4Addresses.clear();
-				ipV6Addresses.clear();
-				badHosts.clear();
-				ports.clear();
-				return;
-			}
 
-			if ( thisArgType.isFlag() )
-			/*
-				* This arg is a valid flag - reset the current state and break to parse the
-				* next arg
-				*/
-			{
-				if ( usedFlags.contains(thisArgType) ) // Found a repeating flag
-					feedback.append("Duplicate flag \'").append(arg).append("\'\n");
+	/**
+	 * Get the number of NIO reactor threads requested
+	 * 
+	 * @return reactor thread count
+	 */
+	public int getReactors ()
+	{
+		return reactors;
+	} // getReactors
 
-				if ( argReqParams )	// Require param flag found for last arg type
-					feedback.append("Missing param for flag \'").append(currentState.getFlag()).append("\'\n");
 
-				usedFlags.add(thisArgType);
-				currentState = thisArgType;
-				argReqParams = currentState.reqParm();
-				
-				switch ( currentState )
-				/* Set any boolean flgs */
-				{
-					case LOCAL:
-						local	= true;
-						continue;
-					case JSON:
-						json 	= true;
-						continue;
-					case QUIET:
-						quiet	= true;
-						continue;
-					case DRY:
-						dry	= true;
-						continue;
-					default:
-						continue;
-				} // switch
-			} // if
+	/**
+	 * Get the global in-flight connection cap
+	 * 
+	 * @return the global cap, or {@code ConnectionScheduler.DERIVED} to derive it for the engine by default
+	 */
+	public int getMaxInFlight ()
+	{
+		return concurrency[0];
+	} // getMaxInFlight
 
 
-			if ( ArgTypeEnum.NOT_A_FLAG == currentState && !thisArgType.isFlag() )
-			/*
-				* The current state is unset, so the first flag has not yet been found,
-				* and this arg is not a flag either (See prior clause too), so
-				* error condition.
-				*/
-			{
-				feedback.append("Expected an argument flag, but got: \'").append(arg).append("\'\n");
-				continue;
-			} // if
+	/**
+	 * Get the in-flight connection cap per local interface address
+	 * 
+	 * @return the per interface cap
+	 */
+	public int getMaxPerInterface ()
+	{
+		return concurrency[1];
+	} // getMaxPerInterface
 
-			//Process params
-			argReqParams = false;
-			
-			/*
-				* Parse the set of args globbed in this string.
-				*/
-			for ( String splitarg : arg.trim().split(",") )
-			{
-				switch ( currentState )
-				{
-					case IPV:
-						processIPV(splitarg);
-						break;
-					case PORT:
-						processPort(splitarg);
-						break;
-					case HOST:
-						processHost(splitarg);
-						break;
-					case ATTEMPTS:
-						processAttempts(splitarg);
-						break;
-					case URI:
-						processUrl(splitarg);
-						break;
-					default:
-						feedback.append("Unknown argument: \'").append(splitarg).append("\'\n");
-				} // switch
-			} // for
-		}
-	}
 
 	/**
-	 * Processes IPv flag arguments
+	 * Get the in-flight connection cap per remote host address
 	 * 
-	 * @param splitarg
-	 *                     the IPv flag arguments
+	 * @return the per host cap
 	 */
-	private void processIPV ( String splitarg )
+	public int getMaxPerHost ()
 	{
-		switch ( splitarg )
-		{
-			case "4":
-				IPv4Target = true;
-				break;
-			case "6":
-				IPv6Target = true;
-				break;
-			default:
-				feedback.append("Unknown IPv: \'").append(splitarg).append("\'\n");
-		} // switch
-	} // processIPV
+		return concurrency[2];
+	} // getMaxPerHost
 
 
 	/**
-	 * Processes Port flag arguments
+	 * Get the connect timeout requested
 	 * 
-	 * @param splitarg
-	 *                     the port flag arguments
+	 * @return the timeout in millis, the ceiling if adaptive, or zero to wait for the OS
 	 */
-	private void processPort ( String splitarg )
+	public int getTimeout ()
 	{
-		Matcher matcher = REGEX_PORT_RANGE.matcher( splitarg );		
+		return timeout;
+	} // getTimeout
 
-		try
-		{
 
-			if ( matcher.matches() )
-			// Process port ranges
-			{
-				Integer portStart = Integer.decode( matcher.group(1) );
-				Integer portEnd = Integer.decode( matcher.group(2) );
+	/**
+	 * Were adaptive timeouts requested?
+	 * 
+	 * @return true for adaptive timeouts
+	 */
+	public boolean isAdaptiveTimeout ()
+	{
+		return adaptiveTimeout;
+	} // isAdaptiveTimeout
 
-				if ( ( portEnd < portStart ) || ( portEnd > PORT_MAX ) )
-				{
-					feedback.append("Invalid port range: \'").append(splitarg).append("\'\n");
-				}				
-				else
-				{
-					while ( portStart <= portEnd ) ports.add(portStart++);
-				}
 
-				return;
-			}
+	/**
+	 * Get the number of hosts to be resolved at once
+	 * 
+	 * @return the resolver concurrency
+	 */
+	public int getResolvers ()
+	{
+		return resolvers;
+	} // getResolvers
 
-			// Process individual port number 
-			Integer port = Integer.decode(splitarg);
 
-			if ( ( port < 1 ) || ( port > PORT_MAX ) )
-			{
-				feedback.append("Invalid port range: \'").append(splitarg).append("\'\n");
-			}
-			else
-			{
-				ports.add(port);
-			}			
+	/**
+	 * Was bulk loading of the results to the URI requested?
+	 * 
+	 * @return true for Bulk
+	 */
+	public boolean isBulk ()
+	{
+		return bulk;
+	} // isBulk
 
-		} // try
-		catch ( NumberFormatException e )
+
+	/**
+	 * Were bulk batches to be gzipped?
+	 * 
+	 * @return true for gzip
+	 */
+	public boolean isGzip ()
+	{
+		return gzip;
+	} // isGzip
+
+
+	/**
+	 * Get the most documents in a bulk batch
+	 * 
+	 * @return documents per batch
+	 */
+	public int getBulkDocs ()
+	{
+		return bulkDocs;
+	} // getBulkDocs
+
+
+	/**
+	 * Get the most bytes in a bulk batch
+	 * 
+	 * @return bytes per batch
+	 */
+	public int getBulkBytes ()
+	{
+		return bulkBytes;
+	} // getBulkBytes
+
+
+	/**
+	 * Get the global rate of connect starts
+	 * 
+	 * @return connect starts per second, or zero for no limit
+	 */
+	public double getRate ()
+	{
+		return rate[0];
+	} // getRate
+
+
+	/**
+	 * Get the rate of connect starts to each remote host
+	 * 
+	 * @return connect starts per second, or zero for no limit
+	 */
+	public double getPerHostRate ()
+	{
+		return rate[1];
+	} // getPerHostRate
+
+
+	/**
+	 * Get the connect starts that may be made at once after idling
+	 * 
+	 * @return the burst
+	 */
+	public int getBurst ()
+	{
+		return burst;
+	} // getBurst
+
+
+	/**
+	 * Get the network unreachable ports in a row that hold a route down
+	 * 
+	 * @return the ports, or {@code RouteState.OFF} if routes are not held down, by default
+	 */
+	public int getRouteConfirm ()
+	{
+		return routes[0];
+	} // getRouteConfirm
+
+
+	/**
+	 * Get one in how many of the tuples on a route held down are probed
+	 * 
+	 * @return the sample
+	 */
+	public int getRouteSample ()
+	{
+		return routes[1];
+	} // getRouteSample
+
+
+	/**
+	 * Get how the sockets of attempts are torn down
+	 * 
+	 * @return the teardown
+	 */
+	public TeardownTypeEnum getTeardown ()
+	{
+		return teardown;
+	} // getTeardown
+
+
+	/**
+	 * Get the percent of the ephemeral ports in TIME_WAIT at which the scheduler is slowed
+	 * 
+	 * @return the percent, 100 to never slow
+	 */
+	public int getPortThreshold ()
+	{
+		return portThreshold;
+	} // getPortThreshold
+
+
+	/**
+	 * Get the first source port of the range to bind attempts to
+	 * 
+	 * @return the port, zero for ephemeral ports
+	 */
+	public int getSourceFirst ()
+	{
+		return sources[0];
+	} // getSourceFirst
+
+
+	/**
+	 * Get the last source port of the range to bind attempts to
+	 * 
+	 * @return the port, zero for ephemeral ports
+	 */
+	public int getSourceLast ()
+	{
+		return sources[1];
+	} // getSourceLast
+
+
+	/**
+	 * Get the order requested for the connection attempts
+	 * 
+	 * @return the attempt order
+	 */
+	public OrderTypeEnum getOrder ()
+	{
+		return order;
+	} // getOrder
+
+
+	/**
+	 * Get the interval between repeated sweeps
+	 * 
+	 * @return the interval in millis, or zero for a single sweep
+	 */
+	public long getInterval ()
+	{
+		return interval[0];
+	} // getInterval
+
+
+	/**
+	 * Get the most the start of each repeated sweep is moved either way
+	 * 
+	 * @return the jitter in millis, a tenth of the interval unless given
+	 */
+	public long getJitter ()
+	{
+		return interval[1] < 0 ? interval[0] / 10 : interval[1];
+	} // getJitter
+
+
+	/**
+	 * Get the address to serve metrics on
+	 * 
+	 * @return the metrics address, or null if not requested
+	 */
+	public InetSocketAddress getMetrics ()
+	{
+		return metrics;
+	} // getMetrics
+
+
+	/**
+	 * Get the previous run's results file to report changes from
+	 * 
+	 * @return the results file, or null if not requested
+	 */
+	public Path getDelta ()
+	{
+		return delta;
+	} // getDelta
+
+
+	/**
+	 * Get the percent a P50 may move before a result is reported as changed
+	 * 
+	 * @return the threshold percent
+	 */
+	public double getDeltaThreshold ()
+	{
+		return deltaThreshold;
+	} // getDeltaThreshold
+
+
+	/**
+	 * Get the file to write binary results to
+	 * 
+	 * @return the binary results file, or null if not requested
+	 */
+	public Path getBinary ()
+	{
+		return binary;
+	} // getBinary
+
+
+	/**
+	 * Get the journal file to resume from and journal results to
+	 * 
+	 * @return the journal file, or null if not requested
+	 */
+	public Path getResume ()
+	{
+		return resume;
+	} // getResume
+
+
+	/**
+	 * Get the resolution of each host, with the time spent resolving it
+	 * 
+	 * @return the resolutions, in the order the hosts were given
+	 */
+	Map< String, HostResolver.Resolution > getResolutions ()
+	{
+		return resolutions;
+	} // getResolutions
+
+	//---------------------------------------------------------------------
+
+	/**
+	 * 
+	 * @param arg
+	 */
+	private void processArgs( String[] args )
+	{
+		ArgTypeEnum currentState = ArgTypeEnum.NOT_A_FLAG; // The current state arg type
+		boolean argReqParams = false;
+
+		for ( String arg : args )
+		{
+			ArgTypeEnum thisArgType = ArgTypeEnum.getArgType(arg);
+
+			if ( ArgTypeEnum.HELP == thisArgType )
+			/*
+				* If help was requested provide the legend as feedback and exit
+				*/
+			{
+				help = true;
+				feedback.setLength(0);
+				feedback.append(HELP_LEGEND);
+				ipV4Addresses.clear();
+				ipV6Addresses.clear();
+				badHosts.clear();
+				hosts.clear();
+				prefixes.clear();
+				ports.clear();
+				return;
+			}
+
+			if ( thisArgType.isFlag() )
+			/*
+				* This arg is a valid flag - reset the current state and break to parse the
+				* next arg
+				*/
+			{
+				if ( usedFlags.contains(thisArgType) ) // Found a repeating flag
+					feedback.append("Duplicate flag \'").append(arg).append("\'\n");
+
+				if ( argReqParams )	// Require param flag found for last arg type
+					feedback.append("Missing param for flag \'").append(currentState.getFlag()).append("\'\n");
+
+				usedFlags.add(thisArgType);
+				currentState = thisArgType;
+				argReqParams = currentState.reqParm();
+				
+				switch ( currentState )
+				/* Set any boolean flgs */
+				{
+					case LOCAL:
+						local	= true;
+						continue;
+					case JSON:
+						json 	= true;
+						continue;
+					case QUIET:
+						quiet	= true;
+						continue;
+					case DRY:
+						dry	= true;
+						continue;
+					case SORTED:
+						sorted	= true;
+						continue;
+					case ROLLUP:
+						rollup	= true;
+						continue;
+					case NUMERIC:
+						numeric	= true;
+						continue;
+					default:
+						continue;
+				} // switch
+			} // if
+
+
+			if ( ArgTypeEnum.NOT_A_FLAG == currentState && !thisArgType.isFlag() )
+			/*
+				* The current state is unset, so the first flag has not yet been found,
+				* and this arg is not a flag either (See prior clause too), so
+				* error condition.
+				*/
+			{
+				feedback.append("Expected an argument flag, but got: \'").append(arg).append("\'\n");
+				continue;
+			} // if
+
+			//Process params
+			argReqParams = false;
+			
+			/*
+				* Parse the set of args globbed in this string.
+				*/
+			for ( String splitarg : arg.trim().split(",") )
+			{
+				switch ( currentState )
+				{
+					case IPV:
+						processIPV(splitarg);
+						break;
+					case PORT:
+						processPort(splitarg);
+						break;
+					case HOST:
+						processHost(splitarg);
+						break;
+					case HOSTLIST:
+						processHostList(splitarg);
+						break;
+					case ATTEMPTS:
+						processAttempts(splitarg);
+						break;
+					case URI:
+						processUrl(splitarg);
+						break;
+					case ENGINE:
+						processEngine(splitarg);
+						break;
+					case CONCURRENCY:
+						processConcurrency(splitarg);
+						break;
+					case TIMEOUT:
+						processTimeout(splitarg);
+						break;
+					case RESOLVERS:
+						processResolvers(splitarg);
+						break;
+					case BULK:
+						processBulk(splitarg);
+						break;
+					case RATE:
+						processRate(splitarg);
+						break;
+					case ORDER:
+						processOrder(splitarg);
+						break;
+					case INTERVAL:
+						processInterval(splitarg);
+						break;
+					case METRICS:
+						processMetrics(splitarg);
+						break;
+					case DELTA:
+						processDelta(splitarg);
+						break;
+					case BINARY:
+						processBinary(splitarg);
+						break;
+					case RESUME:
+						processResume(splitarg);
+						break;
+					case PREFIX:
+						processPrefix(splitarg);
+						break;
+					case ROUTES:
+						processRoutes(splitarg);
+						break;
+					case TEARDOWN:
+						processTeardown(splitarg);
+						break;
+					case SOURCES:
+						processSources(splitarg);
+						break;
+					default:
+						feedback.append("Unknown argument: \'").append(splitarg).append("\'\n");
+				} // switch
+			} // for
+		}
+	}
+
+	/**
+	 * Processes IPv flag arguments
+	 * 
+	 * @param splitarg
+	 *                     the IPv flag arguments
+	 */
+	private void processIPV ( String splitarg )
+	{
+		switch ( splitarg )
+		{
+			case "4":
+				IPv4Target = true;
+				break;
+			case "6":
+				IPv6Target = true;
+				break;
+			default:
+				feedback.append("Unknown IPv: \'").append(splitarg).append("\'\n");
+		} // switch
+	} // processIPV
+
+
+	/**
+	 * Processes Port flag arguments
+	 * 
+	 * @param splitarg
+	 *                     the port flag arguments
+	 */
+	private void processPort ( String splitarg )
+	{
+		Matcher matcher = REGEX_PORT_RANGE.matcher( splitarg );		
+
+		try
+		{
+
+			if ( matcher.matches() )
+			// Process port ranges
+			{
+				Integer portStart = Integer.decode( matcher.group(1) );
+				Integer portEnd = Integer.decode( matcher.group(2) );
+
+				if ( ( portEnd < portStart ) || ( portEnd > PORT_MAX ) )
+				{
+					feedback.append("Invalid port range: \'").append(splitarg).append("\'\n");
+				}				
+				else
+				{
+					ports.set(portStart, portEnd + 1);
+				}
+
+				return;
+			}
+
+			// Process individual port number 
+			Integer port = Integer.decode(splitarg);
+
+			if ( ( port < 1 ) || ( port > PORT_MAX ) )
+			{
+				feedback.append("Invalid port range: \'").append(splitarg).append("\'\n");
+			}
+			else
+			{
+				ports.set(port);
+			}			
+
+		} // try
+		catch ( NumberFormatException e )
+		{
+			feedback.append("Unknown port: \'").append(splitarg).append("\'\n");
+		} // catch
+	} // processPort
+
+
+	/**
+	 * Processes Hosts flag arguments, which are resolved, or expanded if prefixes, once all the args are in
+	 * 
+	 * @param splitarg
+	 *                     the hosts flag arguments
+	 */
+	private void processHost ( String splitarg )
+	{
+		if ( AddressPrefix.isPrefix(splitarg) )
+		{
+			prefixes.add(splitarg.trim());
+		}
+		else
+		{
+			hosts.add(splitarg);
+		} // if
+	} // processHost
+
+
+	/**
+	 * Processes Host list flag arguments, the file to read hosts from, or stdin
+	 * 
+	 * @param splitarg
+	 *                     the host list flag arguments
+	 */
+	private void processHostList ( String splitarg )
+	{
+		String	source	= splitarg.trim();
+		Path	file	= Paths.get(source);
+
+		if ( hostList == null && ( HostStream.STDIN.equals(source) || ( Files.isReadable(file) && !Files.isDirectory(file) ) ) )
+		{
+			hostList = source;
+			return;
+		} // if
+
+		feedback.append("Error on Host list (requires a readable file, or - for stdin): \'").append(splitarg).append("\'\n");
+	} // processHostList
+
+
+	/**
+	 * Opens the host list as a stream, with the prefix settings and local address scrubbing of the hosts
+	 * 
+	 * @return the host list stream
+	 * 
+	 * @throws IOException
+	 *                         if the host list cannot be opened
+	 */
+	HostStream openHostList ()
+		throws IOException
+	{
+		return new HostStream(hostList, System.in, resolvers, this::prefix, local ? Collections.emptySet() : localAddresses);
+	} // openHostList
+
+
+	/**
+	 * Makes a prefix with the sample and usable settings, skipping local addresses unless they are to be tested
+	 * 
+	 * @param cidr
+	 *                 the prefix
+	 * 
+	 * @return the prefix
+	 * 
+	 * @throws IllegalArgumentException
+	 *                                      if the prefix is not valid
+	 */
+	private AddressPrefix prefix ( String cidr )
+	{
+		return new AddressPrefix(cidr, sample, usable, local ? null : localAddresses);
+	} // prefix
+
+
+	/**
+	 * Parses the prefixes in the hosts, sorting them into IPv4 and IPv6
+	 * <p>
+	 * The prefixes are enumerated as the sweep reaches them, so their addresses are never held. Local addresses
+	 * in a prefix are skipped unless local addresses are to be tested.
+	 */
+	private void expandPrefixes ()
+	{
+		for ( String cidr : prefixes )
+		{
+			try
+			{
+				AddressPrefix prefix = prefix(cidr);
+
+				if ( prefix.isIPv4() )
+				{
+					ipV4Prefixes.add(prefix);
+				}
+				else
+				{
+					ipV6Prefixes.add(prefix);
+				} // if
+			}
+			catch ( IllegalArgumentException e )
+			{
+				badHosts.add(cidr);
+				feedback.append("Error on Prefix: \'").append(cidr).append(FMT_ERROR).append(e.getMessage()).append("\'\n");
+			} // try/catch
+		} // for
+	} // expandPrefixes
+
+
+	/**
+	 * Resolves the hosts in parallel, sorting the addresses into IPv4 and IPv6
+	 */
+	private void resolveHosts ()
+	{
+		resolutions = Collections.unmodifiableMap(HostResolver.resolve(hosts, resolvers));
+
+		for ( HostResolver.Resolution resolution : resolutions.values() )
+		{
+			String host = resolution.host;
+
+			if ( !resolution.isResolved() )
+			{
+				badHosts.add(host);
+				feedback.append("Error on Host/Address: \'").append(host).append(FMT_ERROR)
+						.append(resolution.failure.getMessage()).append("\'\n");
+				continue;
+			} // if
+
+			if ( !sortAddresses(resolution, ipV4Addresses, ipV6Addresses) )
+			{
+				badHosts.add(host);
+			} // if
+		} // for
+	} // resolveHosts
+
+
+	/**
+	 * Re-resolves the hosts for a repeated sweep
+	 * <p>
+	 * The hosts are resolved through the {@code HostResolver} cache, so only those whose entries have expired
+	 * are looked up again. Hosts that no longer resolve are left out of the sweep, and show in the resolutions.
+	 */
+	void refresh ()
+	{
+		Map< Inet4Address, String >	v4	= new HashMap<>();
+		Map< Inet6Address, String >	v6	= new HashMap<>();
+
+		resolutions = Collections.unmodifiableMap(HostResolver.resolve(hosts, resolvers));
+
+		for ( HostResolver.Resolution resolution : resolutions.values() )
+		{
+			sortAddresses(resolution, v4, v6);
+		} // for
+
+		if ( !local )
+		// Scrub local addresses from lists
+		{
+			v4.entrySet().removeIf(e -> localAddresses.contains(e.getValue()));
+			v6.entrySet().removeIf(e -> localAddresses.contains(e.getValue()));
+		}
+
+		ipV4Addresses	= Collections.unmodifiableMap(v4);
+		ipV6Addresses	= Collections.unmodifiableMap(v6);
+	} // refresh
+
+
+	/**
+	 * Sorts a resolution's addresses into IPv4 and IPv6
+	 * 
+	 * @param resolution
+	 *                       the host resolution
+	 * @param v4
+	 *                       the IPv4 addresses, to their host
+	 * @param v6
+	 *                       the IPv6 addresses, to their host
+	 * 
+	 * @return false if an address was neither IPv4 nor IPv6
+	 */
+	private static boolean sortAddresses ( HostResolver.Resolution resolution, Map< Inet4Address, String > v4,
+			Map< Inet6Address, String > v6 )
+	{
+		boolean sorted = true;
+
+		for ( InetAddress address : resolution.addresses )
+		{
+			if ( address instanceof Inet4Address )
+			{
+				v4.put((Inet4Address) address, resolution.host);
+			} // if
+			else if ( address instanceof Inet6Address )
+			{
+				v6.put((Inet6Address) address, resolution.host);
+			} // else if
+			else
+			{
+				sorted = false;
+			} // else
+		} // for
+
+		return sorted;
+	} // sortAddresses
+
+
+	private void processUrl(String splitarg) 
+	{
+		try {
+			URL httpUrl = new URL(splitarg);
+			httpUri = httpUrl.toURI();
+			httpUrl.openConnection();			
+		} 
+		catch (MalformedURLException e) 
+		{			
+			feedback.append("Error with URL format: \'").append(splitarg).append(FMT_ERROR).append(e.getMessage())
+					.append("\'\n");
+		} 
+		catch (URISyntaxException e) 
+		{
+			feedback.append("Error with URL syntax: \'").append(splitarg).append(FMT_ERROR).append(e.getMessage())
+					.append("\'\n");
+		} 
+		catch (IOException e) 
+		{
+			feedback.append("Error with URL endpoint: \'").append(splitarg).append(FMT_ERROR).append(e.getMessage())
+					.append("\'\n");
+		}
+    } // processUri
+
+
+	/**
+	 * Processes Engine flag arguments, an engine name and optional NIO reactor thread count
+	 * 
+	 * @param splitarg
+	 *                     the engine flag arguments
+	 */
+	private void processEngine ( String splitarg )
+	{
+		EngineTypeEnum e = EngineTypeEnum.getEngineType(splitarg);
+
+		if ( e != null )
+		{
+			engine = e;
+			return;
+		} // if
+
+		try
+		{
+			int r = Integer.parseInt(splitarg);
+
+			if ( r > 0 )
+			{
+				reactors = r;
+				return;
+			} // if
+		}
+		catch ( NumberFormatException ex )
+		{
+			//
+		} // try/catch
+
+		feedback.append("Unknown engine: \'").append(splitarg).append("\'\n");
+	} // processEngine
+
+
+	/**
+	 * Processes Concurrency flag arguments, the global, per interface and per host caps in that order
+	 * 
+	 * @param splitarg
+	 *                     the concurrency flag arguments
+	 */
+	private void processConcurrency ( String splitarg )
+	{
+		try
+		{
+			int c = Integer.parseInt(splitarg);
+
+			if ( c > 0 && concurrencyArgs < concurrency.length )
+			{
+				concurrency[concurrencyArgs++] = c;
+				return;
+			} // if
+		}
+		catch ( NumberFormatException e )
+		{
+			//
+		} // try/catch
+
+		feedback.append("Error on Concurrency (requires up to three positive integers): \'").append(splitarg).append("\'\n");
+	} // processConcurrency
+
+
+	/**
+	 * Processes Timeout flag arguments, a timeout in millis and/or the adaptive keyword
+	 * 
+	 * @param splitarg
+	 *                     the timeout flag arguments
+	 */
+	private void processTimeout ( String splitarg )
+	{
+		if ( TIMEOUT_ADAPTIVE.equalsIgnoreCase(splitarg.trim()) )
+		{
+			adaptiveTimeout = true;
+			return;
+		} // if
+
+		try
+		{
+			int t = Integer.parseInt(splitarg);
+
+			if ( t > 0 )
+			{
+				timeout = t;
+				return;
+			} // if
+		}
+		catch ( NumberFormatException e )
+		{
+			//
+		} // try/catch
+
+		feedback.append("Error on Timeout (requires a positive integer of ms and/or 'adaptive'): \'").append(splitarg).append("\'\n");
+	} // processTimeout
+
+
+	/**
+	 * Processes Resolvers flag arguments, the number of hosts to resolve at once
+	 * 
+	 * @param splitarg
+	 *                     the resolvers flag arguments
+	 */
+	private void processResolvers ( String splitarg )
+	{
+		try
+		{
+			int r = Integer.parseInt(splitarg);
+
+			if ( r > 0 )
+			{
+				resolvers = r;
+				return;
+			} // if
+		}
+		catch ( NumberFormatException e )
+		{
+			//
+		} // try/catch
+
+		feedback.append("Error on Resolvers (requires a positive integer): \'").append(splitarg).append("\'\n");
+	} // processResolvers
+
+
+	/**
+	 * Processes Bulk flag arguments, the documents and/or bytes per batch and/or the gzip keyword
+	 * 
+	 * @param splitarg
+	 *                     the bulk flag arguments
+	 */
+	private void processBulk ( String splitarg )
+	{
+		bulk = true;
+
+		if ( BULK_GZIP.equalsIgnoreCase(splitarg.trim()) )
 		{
-			feedback.append("Unknown port: \'").append(splitarg).append("\'\n");
-		} // catch
-	} // processPort
+			gzip = true;
+			return;
+		} // if
+
+		try
+		{
+			Matcher m = REGEX_BYTES.matcher(splitarg.trim());
+
+			if ( m.matches() )
+			{
+				long b = Long.parseLong(m.group(1)) * ( "kK".contains(m.group(2)) ? 1024 : 1024 * 1024 );
+				if ( b > 0 && b <= Integer.MAX_VALUE )
+				{
+					bulkBytes = (int) b;
+					return;
+				} // if
+			}
+			else
+			{
+				int d = Integer.parseInt(splitarg.trim());
+				if ( d > 0 )
+				{
+					bulkDocs = d;
+					return;
+				} // if
+			} // if
+		}
+		catch ( NumberFormatException e )
+		{
+			//
+		} // try/catch
+
+		feedback.append("Error on Bulk (requires documents per batch, a batch size as 999k or 999m, and/or 'gzip'): \'")
+			.append(splitarg).append("\'\n");
+	} // processBulk
 
 
 	/**
-	 * Processes Hosts flag arguments
+	 * Processes Rate flag arguments, the global and per host connect starts per second then the burst, in that order
 	 * 
 	 * @param splitarg
-	 *                     the hosts flag arguments
+	 *                     the rate flag arguments
 	 */
-	private void processHost ( String splitarg )
+	private void processRate ( String splitarg )
 	{
 		try
 		{
-			for ( InetAddress address : InetAddress.getAllByName(splitarg) )
+			if ( rateArgs < rate.length )
 			{
-				if ( address instanceof Inet4Address )
+				double r = Double.parseDouble(splitarg);
+				if ( r >= 0 && r < Double.POSITIVE_INFINITY )
 				{
-					ipV4Addresses.put((Inet4Address) address, splitarg);
+					rate[rateArgs++] = r;
+					return;
 				} // if
-				else if ( address instanceof Inet6Address )
-				{
-					ipV6Addresses.put((Inet6Address) address, splitarg);
-				} // else if
-				else
+			}
+			else if ( rateArgs++ == rate.length )
+			{
+				int b = Integer.parseInt(splitarg);
+				if ( b > 0 )
 				{
-					badHosts.add(splitarg);
-				} // else
-			} // for
-		} // try
-		catch ( UnknownHostException e )
+					burst = b;
+					return;
+				} // if
+			} // if
+		}
+		catch ( NumberFormatException e )
 		{
-			badHosts.add(splitarg);
-			feedback.append("Error on Host/Address: \'").append(splitarg).append(FMT_ERROR).append(e.getMessage())
-					.append("\'\n");
-		} // catch
-	} // processHost
+			//
+		} // try/catch
 
+		feedback.append("Error on Rate (requires starts per second, then optionally per host and a positive burst): \'")
+			.append(splitarg).append("\'\n");
+	} // processRate
 
-	private void processUrl(String splitarg) 
+
+	/**
+	 * Processes Interval flag arguments, the seconds between sweeps then the seconds of jitter
+	 * 
+	 * @param splitarg
+	 *                     the interval flag arguments
+	 */
+	private void processInterval ( String splitarg )
 	{
-		try {
-			URL httpUrl = new URL(splitarg);
-			httpUri = httpUrl.toURI();
-			httpUrl.openConnection();			
-		} 
-		catch (MalformedURLException e) 
-		{			
-			feedback.append("Error with URL format: \'").append(splitarg).append(FMT_ERROR).append(e.getMessage())
-					.append("\'\n");
-		} 
-		catch (URISyntaxException e) 
+		try
 		{
-			feedback.append("Error with URL syntax: \'").append(splitarg).append(FMT_ERROR).append(e.getMessage())
-					.append("\'\n");
-		} 
-		catch (IOException e) 
+			double	seconds	= Double.parseDouble(splitarg);
+			long	millis	= Math.round(seconds * 1000);
+
+			if ( intervalArgs < interval.length && ( millis > 0 || intervalArgs > 0 && millis == 0 ) && seconds < Integer.MAX_VALUE )
+			// A positive interval, then any jitter
+			{
+				interval[intervalArgs++] = millis;
+				return;
+			} // if
+		}
+		catch ( NumberFormatException e )
 		{
-			feedback.append("Error with URL endpoint: \'").append(splitarg).append(FMT_ERROR).append(e.getMessage())
-					.append("\'\n");
+			//
+		} // try/catch
+
+		feedback.append("Error on Interval (requires positive seconds, then optionally seconds of jitter): \'")
+			.append(splitarg).append("\'\n");
+	} // processInterval
+
+
+	/**
+	 * Processes Metrics flag arguments, a port or an address and port
+	 * 
+	 * @param splitarg
+	 *                     the metrics flag arguments
+	 */
+	private void processMetrics ( String splitarg )
+	{
+		String	arg		= splitarg.trim();
+		int		colon	= arg.lastIndexOf(':');
+
+		try
+		{
+			int port = Integer.parseInt(arg.substring(colon + 1));
+
+			if ( port >= 0 && port <= PORT_MAX )
+			{
+				metrics = colon < 0
+						? new InetSocketAddress(port)
+						: new InetSocketAddress(arg.substring(0, colon).replace("[", "").replace("]", ""), port);
+				if ( !metrics.isUnresolved() )
+					return;
+			} // if
 		}
-    } // processUri
+		catch ( NumberFormatException e )
+		{
+			//
+		} // try/catch
+
+		feedback.append("Error on Metrics (requires a port, or an address:port): \'").append(splitarg).append("\'\n");
+	} // processMetrics
+
+
+	/**
+	 * Processes Delta flag arguments, the results file then the threshold percent
+	 * 
+	 * @param splitarg
+	 *                     the delta flag arguments
+	 */
+	private void processDelta ( String splitarg )
+	{
+		if ( delta == null )
+		{
+			Path file = Paths.get(splitarg.trim());
+			if ( Files.isReadable(file) )
+			{
+				delta = file;
+				return;
+			} // if
+
+			feedback.append("Error on Delta (results file not readable): \'").append(splitarg).append("\'\n");
+			return;
+		} // if
+
+		try
+		{
+			double t = Double.parseDouble(splitarg);
+
+			if ( t >= 0 && t < Double.POSITIVE_INFINITY )
+			{
+				deltaThreshold = t;
+				return;
+			} // if
+		}
+		catch ( NumberFormatException e )
+		{
+			//
+		} // try/catch
+
+		feedback.append("Error on Delta (requires a results file, then optionally a percent): \'").append(splitarg).append("\'\n");
+	} // processDelta
+
+
+	/**
+	 * Processes Binary flag arguments, the file to write
+	 * 
+	 * @param splitarg
+	 *                     the binary flag arguments
+	 */
+	private void processBinary ( String splitarg )
+	{
+		if ( binary == null && ( binary = writable(splitarg) ) != null )
+			return;
+
+		feedback.append("Error on Binary (requires a file to write): \'").append(splitarg).append("\'\n");
+	} // processBinary
+
+
+	/**
+	 * Processes Prefix flag arguments, the addresses to sample from each prefix and/or the usable keyword
+	 * 
+	 * @param splitarg
+	 *                     the prefix flag arguments
+	 */
+	private void processPrefix ( String splitarg )
+	{
+		if ( PREFIX_USABLE.equalsIgnoreCase(splitarg.trim()) )
+		{
+			usable = true;
+			return;
+		} // if
+
+		try
+		{
+			int n = Integer.parseInt(splitarg.trim());
+
+			if ( n > 0 )
+			{
+				sample = n;
+				return;
+			} // if
+		}
+		catch ( NumberFormatException e )
+		{
+			//
+		} // try/catch
+
+		feedback.append("Error on Prefix (requires a positive integer of addresses to sample and/or 'usable'): \'").append(splitarg).append("\'\n");
+	} // processPrefix
+
+
+	/**
+	 * Processes Routes flag arguments, the unreachable ports that hold a route down, or the on keyword for the
+	 * default, then the sample probed, or the off keyword
+	 * 
+	 * @param splitarg
+	 *                     the routes flag arguments
+	 */
+	private void processRoutes ( String splitarg )
+	{
+		if ( ROUTES_OFF.equalsIgnoreCase(splitarg.trim()) )
+		{
+			routes[0] = RouteState.OFF;
+			return;
+		} // if
+
+		if ( ROUTES_ON.equalsIgnoreCase(splitarg.trim()) && routeArgs == 0 )
+		{
+			routes[routeArgs++] = RouteState.CONFIRM_DEFAULT;
+			return;
+		} // if
+
+		try
+		{
+			int n = Integer.parseInt(splitarg.trim());
+
+			if ( n > 0 && routeArgs < routes.length )
+			{
+				routes[routeArgs++] = n;
+				return;
+			} // if
+		}
+		catch ( NumberFormatException e )
+		{
+			//
+		} // try/catch
+
+		feedback.append("Error on Routes (requires a positive integer of unreachable ports or 'on', then optionally the sample, or 'off'): '")
+			.append(splitarg).append("'\n");
+	} // processRoutes
+
+
+	/**
+	 * Processes Teardown flag arguments, the teardown and/or the percent of the ephemeral ports in TIME_WAIT at
+	 * which to slow
+	 * 
+	 * @param splitarg
+	 *                     the teardown flag arguments
+	 */
+	private void processTeardown ( String splitarg )
+	{
+		TeardownTypeEnum t = TeardownTypeEnum.getTeardownType(splitarg);
+
+		if ( t != null )
+		{
+			teardown = t;
+			return;
+		} // if
+
+		try
+		{
+			int p = Integer.parseInt(splitarg.trim());
+
+			if ( p > 0 && p <= 100 )
+			{
+				portThreshold = p;
+				return;
+			} // if
+		}
+		catch ( NumberFormatException e )
+		{
+			//
+		} // try/catch
+
+		feedback.append("Error on Teardown (requires 'graceful' or 'abort' and/or a percent of 1 to 100): '").append(splitarg).append("'\n");
+	} // processTeardown
+
+
+	/**
+	 * Processes Sources flag arguments, the range of source ports
+	 * 
+	 * @param splitarg
+	 *                     the sources flag arguments
+	 */
+	private void processSources ( String splitarg )
+	{
+		Matcher range = REGEX_PORT_RANGE.matcher(splitarg.trim());
+
+		if ( range.matches() )
+		{
+			try
+			{
+				int first = Integer.parseInt(range.group(1));
+				int last = Integer.parseInt(range.group(2));
+
+				if ( first >= SourcePorts.FIRST_MIN && first <= last && last <= PORT_MAX )
+				{
+					sources[0]	= first;
+					sources[1]	= last;
+					return;
+				} // if
+			}
+			catch ( NumberFormatException e )
+			{
+				//
+			} // try/catch
+		} // if
+
+		feedback.append("Error on Sources (requires a range of ports from 1024 to 65535): \'").append(splitarg).append("\'\n");
+	} // processSources
+
+
+	/**
+	 * Processes Resume flag arguments, the journal file, which need not exist yet
+	 * 
+	 * @param splitarg
+	 *                     the resume flag arguments
+	 */
+	private void processResume ( String splitarg )
+	{
+		if ( resume == null && ( resume = writable(splitarg) ) != null )
+			return;
+
+		feedback.append("Error on Resume (requires a journal file to write): \'").append(splitarg).append("\'\n");
+	} // processResume
+
+
+	/**
+	 * A file that can be written, in a directory that exists
+	 * 
+	 * @param name
+	 *                 the file name
+	 * 
+	 * @return the file, or null if it cannot be written
+	 */
+	private static Path writable ( String name )
+	{
+		Path	file		= Paths.get(name.trim()).toAbsolutePath();
+		Path	directory	= file.getParent();
+
+		if ( directory != null && Files.isDirectory(directory) && Files.isWritable(directory) && !Files.isDirectory(file)
+				&& ( !Files.exists(file) || Files.isWritable(file) ) )
+			return file;
+
+		return null;
+	} // writable
+
+
+	/**
+	 * Processes Order flag arguments
+	 * 
+	 * @param splitarg
+	 *                     the order flag arguments
+	 */
+	private void processOrder ( String splitarg )
+	{
+		OrderTypeEnum o = OrderTypeEnum.getOrderType(splitarg);
+
+		if ( o != null )
+		{
+			order = o;
+			return;
+		} // if
+
+		feedback.append("Unknown order: \'").append(splitarg).append("\'\n");
+	} // processOrder
 
 
     private void processAttempts(String splitarg) 
 	{
-		int a;
+		Matcher range = REGEX_PORT_RANGE.matcher(splitarg.trim());
+		Matcher percent = REGEX_PERCENT.matcher(splitarg.trim());
 
 		try 
 		{	
-			a = Integer.parseInt(splitarg);
+			if ( range.matches() )
+			// An adaptive range of attempts
+			{
+				int min = Integer.parseInt(range.group(1));
+				int max = Integer.parseInt(range.group(2));
 
-			if ( a > 0 && a <= CONNECTS_MAX ) 
+				if ( min > 0 && min <= max && max <= CONNECTS_MAX )
+				{
+					minAttempts	= min;
+					attemptMax	= max;
+					return;
+				}
+			}
+			else if ( percent.matches() )
+			// The precision of an adaptive range
 			{
-				attempts = a;
-				return;
+				int p = Integer.parseInt(percent.group(1));
+
+				if ( p > 0 && p < 100 )
+				{
+					precision		= p / 100d;
+					precisionArg	= true;
+					return;
+				}
+			}
+			else
+			{
+				int a = Integer.parseInt(splitarg);
+
+				if ( a > 0 && a <= CONNECTS_MAX ) 
+				{
+					attempts		= a;
+					attemptCount	= true;
+					return;
+				}
 			}
 		}
 		catch (NumberFormatException e)
@@ -579,7 +1949,7 @@ public class CLIReader
 			//
 		}
 		
-		feedback.append("Error on Attempts (requires a integer of 1 to 50): \'").append(splitarg).append("\'\n");
+		feedback.append("Error on Attempts (requires a integer of 1 to 64, a range of them and/or a percent precision): \'").append(splitarg).append("\'\n");
 	} // processAttempts
 
 } // CLIReader
@@ -0,0 +1,252 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Connect attempts per tuple, fixed or adapted to each tuple's results
+ * <p>
+ * A fixed count makes every tuple's attempts. In adaptive mode each tuple makes at least the minimum attempts
+ * and at most the maximum, and stops once its outcome has settled: every attempt so far failed the same way,
+ * refused, unreachable or timed out, or every attempt connected and the 95% confidence interval of the mean
+ * connect time is within the precision of the mean. The interval is Student's t, so few attempts need a
+ * tighter spread.
+ * <p>
+ * Each tuple is budgeted a share of attempts. The attempts a settled tuple does not use are saved to a pool
+ * shared by the sweep, which tuples still unsettled at their budget draw on for further attempts, up to the
+ * maximum, so the sweep makes no more attempts than the budget of each tuple would.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class ConnectAttempts
+{
+
+	static final double				PRECISION_DEFAULT	= 0.1;	// Interval half width as a fraction of the mean
+
+	private static final double		Z_95				= 1.96;
+	private static final double[]	T_95				=		// Two sided 95% t by degrees of freedom
+		{ 0, 12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228, 2.201, 2.179, 2.160, 2.145, 2.131, 2.120,
+				2.110, 2.101, 2.093, 2.086, 2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042 };
+
+	private final int				min, max, budget;
+	private final double			precision;
+	private final boolean			adaptive;
+	private final AtomicLong		pool				= new AtomicLong();
+	private final AtomicLong		made				= new AtomicLong();
+	private final AtomicLong		settled				= new AtomicLong();
+	private final AtomicLong		extended			= new AtomicLong();
+
+
+	/**
+	 * Fixed attempts
+	 * 
+	 * @param count
+	 *                  the attempts each tuple makes
+	 */
+	ConnectAttempts ( int count )
+	{
+		this.min		= count;
+		this.max		= count;
+		this.budget		= count;
+		this.precision	= PRECISION_DEFAULT;
+		this.adaptive	= false;
+	}
+
+
+	/**
+	 * Adaptive attempts
+	 * 
+	 * @param min
+	 *                      the fewest attempts a tuple makes
+	 * @param max
+	 *                      the most attempts a tuple makes
+	 * @param budget
+	 *                      the attempts budgeted to each tuple, between the fewest and most
+	 * @param precision
+	 *                      the confidence interval half width to settle within, as a fraction of the mean
+	 */
+	ConnectAttempts ( int min, int max, int budget, double precision )
+	{
+		this.min		= Math.max(1, min);
+		this.max		= Math.max(this.min, max);
+		this.budget		= Math.min(this.max, Math.max(this.min, budget));
+		this.precision	= precision;
+		this.adaptive	= true;
+	}
+
+
+	/**
+	 * Is the attempt count adapted to each tuple's results?
+	 * 
+	 * @return true if adaptive
+	 */
+	boolean isAdaptive ()
+	{
+		return adaptive;
+	} // isAdaptive
+
+
+	/**
+	 * Should a tuple make another attempt?
+	 * <p>
+	 * Once over its budget, each further attempt a tuple makes is drawn from the pool
+	 * 
+	 * @param result
+	 *                     the tuple's result so far
+	 * @param attempts
+	 *                     the attempts the tuple has made
+	 * 
+	 * @return true to make another attempt
+	 */
+	boolean another ( ConnectionResult result, int attempts )
+	{
+		if ( !adaptive || attempts < min )
+			return true;
+
+		if ( attempts >= max || isSettled(result, attempts) )
+			return false;
+
+		if ( attempts < budget )
+			return true;
+
+		if ( pool.getAndUpdate(p -> p > 0 ? p - 1 : p) > 0 )
+		{
+			extended.incrementAndGet();
+			return true;
+		} // if
+
+		return false;
+	} // another
+
+
+	/**
+	 * Account for a tuple's attempts once it is done, saving the attempts of its budget it did not use
+	 * 
+	 * @param attempts
+	 *                     the attempts the tuple made
+	 */
+	void done ( int attempts )
+	{
+		made.addAndGet(attempts);
+
+		if ( adaptive && attempts < budget )
+		{
+			settled.incrementAndGet();
+			pool.addAndGet(budget - attempts);
+		} // if
+	} // done
+
+
+	/**
+	 * Has a tuple's outcome settled?
+	 * 
+	 * @param result
+	 *                     the tuple's result so far
+	 * @param attempts
+	 *                     the attempts the tuple has made
+	 * 
+	 * @return true if every attempt failed the same way, or connected with a mean known to the precision
+	 */
+	boolean isSettled ( ConnectionResult result, int attempts )
+	{
+		if ( attempts == 0 )
+			return false;
+
+		if ( result.refused == attempts || result.unreachable == attempts || result.timeouts.count() == attempts )
+			return true;
+
+		long n = result.connects.count();
+
+		if ( n != attempts || n < 2 )
+			return false;
+
+		double halfwidth = ( n - 1 < T_95.length ? T_95[(int) n - 1] : Z_95 ) * result.connects.stddev() / Math.sqrt(n);
+
+		return halfwidth <= precision * result.connects.mean();
+	} // isSettled
+
+
+	/**
+	 * The most attempts a tuple makes
+	 * 
+	 * @return the attempts
+	 */
+	int getMax ()
+	{
+		return max;
+	} // getMax
+
+
+	/**
+	 * The attempts made by the tuples done
+	 * 
+	 * @return the attempts
+	 */
+	long getMade ()
+	{
+		return made.get();
+	} // getMade
+
+
+	/**
+	 * The tuples that settled under their budget
+	 * 
+	 * @return the tuples
+	 */
+	long getSettled ()
+	{
+		return settled.get();
+	} // getSettled
+
+
+	/**
+	 * The attempts made over budget, drawn from the pool
+	 * 
+	 * @return the attempts
+	 */
+	long getExtended ()
+	{
+		return extended.get();
+	} // getExtended
+
+
+	/**
+	 * The attempts saved and not yet drawn
+	 * 
+	 * @return the attempts
+	 */
+	long getPool ()
+	{
+		return pool.get();
+	} // getPool
+
+
+	@Override
+	public String toString ()
+	{
+		return adaptive ? min + "-" + max + " budget " + budget + " within " + Math.round(precision * 100) + "%" : Integer.toString(max);
+	}
+
+} // ConnectAttempts
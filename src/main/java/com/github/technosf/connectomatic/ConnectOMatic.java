@@ -21,12 +21,23 @@ package com.github.technosf.connectomatic;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
-import java.net.Inet4Address;
-import java.net.Inet6Address;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.Manifest;
+import java.util.stream.StreamSupport;
 
 
 /**
@@ -38,11 +49,13 @@ import java.util.jar.Manifest;
  * THis class then collates and outputs the results.
  * <p>
  * Results can be in <i>.csv</i> format that can be saved of for examination in a spreadsheet, or
- * <i>JSON</i>, or posted to an URL as <i>JSON</i>
+ * <i>JSON</i>, or posted to an URL as <i>JSON</i>, or written to a file in a compact binary format. Results are streamed as each completes, unless sorted
+ * output is requested. Given an interval, the sweep is repeated until stopped, with the results of each sweep
+ * output in turn.
  * 
  * @since 1.0.0
  * 
- * @version 1.2.0
+ * @version 1.3.0
  * 
  * @author technosf
  */
@@ -51,16 +64,77 @@ public class ConnectOMatic
 	private static final String		CONST_FORMAT_DRYRUN
 			= "==> Dry Run\n";
 
+	private static final String		CONST_FORMAT_RESOLVED
+			= "\tResolved \t%-32s \t%10.3f ms \t%s\n";
+
+	private static final String		CONST_FORMAT_PREFIX
+			= "\tPrefix \t%-32s \t%s address(es)%s\n";
+
+	private static final String		CONST_FORMAT_BULK
+			= "\tBulk \tDocuments: %d \tBatches: %d \tFailed batches: %d \tFailed documents: %d \tLast status: %d\n";
+
+	private static final String		CONST_FORMAT_SWEEP
+			= "==> Sweep %d: %s\n";
+
+	private static final String		CONST_FORMAT_SWEEP_FAILED
+			= "==> Sweep %d failed, %d of %d sweeps failed%s\n";
+
+	private static final String		CONST_FORMAT_METRICS
+			= "==> Metrics on http://%s:%d" + MetricsSink.PATH + "\n";
+
+	private static final String		CONST_FORMAT_DELTA
+			= "==> Reporting changes from %d results in %s\n";
+
+	private static final String		CONST_FORMAT_DELTA_SUMMARY
+			= "\n\tDelta \tChanged: %d \tUnchanged: %d \tMissing: %d";
+
+	private static final String		CONST_FORMAT_RESUME
+			= "==> Resuming from %d results in %s\n";
+
+	private static final String		CONST_FORMAT_JOURNAL_SUMMARY
+			= "\n\tJournal \tResumed: %d \tJournaled: %d";
+
+	private static final String		CONST_FORMAT_HOSTLIST_SUMMARY
+			= "\n\tHost list \tEntries: %d \tAddresses: %d \tDuplicates: %d \tUnresolved: %d";
+
+	private static final String		CONST_FORMAT_BINARY
+			= "\tBinary \tResults: %d \tBytes: %d \tFile: %s\n";
+
+	private static final String		CONST_FORMAT_ATTEMPTS
+			= "\n\tAttempts \tAdaptive: %s \tMade: %d \tSettled early: %d \tExtended: %d \tUnspent: %d";
+
+	private static final String		CONST_FORMAT_ROUTES
+			= "\n\tRoutes \tHeld down: %d \tInferred unreachable: %d \tConfirmed: %s";
+
+	private static final String		CONST_FORMAT_PORTS
+			= "\n\tPorts \tTeardown: %s \tPeak TIME_WAIT: %d of %d \tSlowed to: %.0f%%";
+
+	private static final String		CONST_FORMAT_SOURCES
+			= "\n\tSource ports \tRange: %s \tIn use: %d \tFell back: %d";
+
+	private static final String		CONST_FORMAT_RATE
+			= "\n\tPacing \tRate: %.1f/s \tPer host: %.1f/s \tAchieved: %.1f/s";
+
+	private static final String		CONST_FORMAT_NOVIRTUAL
+			= "==> Virtual threads need Java 21, using the blocking engine\n";
+
 	private static final String		CONST_FORMAT_HELP	
 			= "Output by default is .csv with header - JSON via a switch.\nFields are:"
 			+ "\n\t• IPv\n\t• Local Interface\n\t• Remote Address\n\t• Remote Hostname\n\t• Remote Port"
-			+ "\n\t• Connections\n\t• Connection μs Avg\n\t• Connection μs Min\n\t• Connection μs Max\n\t• Timeouts\n\t• Timeout μs Avg"
-			+ "\n\t• Refused connection count\n\t• Unreachable network count\n";
+			+ "\n\t• Connections\n\t• Connection μs Avg\n\t• Connection μs Min\n\t• Connection μs Max\n\t• Connection μs P50\n\t• Connection μs P90\n\t• Connection μs P99\n\t• Connection μs StdDev\n\t• Timeouts\n\t• Timeout μs Avg"
+			+ "\n\t• Refused connection count\n\t• Unreachable network count\n\t• Inferred unreachable count, held down routes not attempted\n";
 
 
 	private static LocalInterface	localInterface;
 	private static CLIReader		clireader;
 	private static StringBuilder 	data = new StringBuilder();
+	private static LatencyRollup	rollup;
+	private static MetricsSink		metrics;
+	private static DeltaIndex		delta;
+	private static ResultJournal	journal;
+	private static HostStream		hosts;
+	private static int				connects, timeouts, refused, unreachable, sweeps;
+	private static boolean			recurring;		// The last sweep failed in a way every sweep after would
 	
 	/**
 	 * Entry point for the executable .jar
@@ -114,51 +188,393 @@ public class ConnectOMatic
 			System.exit(1);
 		}
 
+		if ( !clireader.isQuiet() )
+		/*
+		 * Report the time spent resolving each host, telling slow DNS from slow targets
+		 */
+		{
+			System.out.println(resolved());
+		}
+
 		if ( clireader.isDryrun() )
 		{
 			System.out.println(CONST_FORMAT_DRYRUN);
 		}
 
-		queueConnections();
-		System.out.println(tryConnections());
-		System.exit(0);
+		ReverseNameCache.setEnabled(!clireader.isNumeric());
+		ConnectionReactor.setReactorCount(clireader.getReactors());
+		if ( ConnectionTask.setEngine(clireader.getEngine()) != clireader.getEngine() && !clireader.isQuiet() )
+		{
+			System.out.println(CONST_FORMAT_NOVIRTUAL);
+		}
+		ConnectionTask.setTimeout(clireader.getTimeout(), clireader.isAdaptiveTimeout());
+		ConnectionTask.setConcurrency(clireader.getMaxInFlight(), clireader.getMaxPerInterface(), clireader.getMaxPerHost());
+		ConnectionTask.setOrder(clireader.getOrder());
+		ConnectionTask.setTeardown(clireader.getTeardown());
+		ConnectionTask.setSources(clireader.getSourceFirst() == SourcePorts.EPHEMERAL ? new SourcePorts()
+				: new SourcePorts(clireader.getSourceFirst(), clireader.getSourceLast()));
+		if ( !clireader.isDryrun() )
+			ConnectionTask.setPortBudget(clireader.getPortThreshold());
+
+		if ( clireader.getDelta() != null )
+		/*
+		 * Index the previous results to report changes from
+		 */
+		{
+			try
+			{
+				delta = DeltaIndex.load(clireader.getDelta(), clireader.getDeltaThreshold());
+			}
+			catch ( IOException e )
+			{
+				System.out.println("Could not read previous results " + clireader.getDelta() + ": " + e.getMessage());
+				System.exit(1);
+			} // try/catch
+
+			if ( !clireader.isQuiet() )
+			{
+				System.out.println(String.format(CONST_FORMAT_DELTA, delta.size(), clireader.getDelta()));
+			}
+		} // if
+
+		if ( clireader.getResume() != null )
+		/*
+		 * Replay the journal, to skip the tuples it completed
+		 */
+		{
+			try
+			{
+				journal = ResultJournal.open(clireader.getResume());
+			}
+			catch ( IOException e )
+			{
+				System.out.println("Could not open results journal " + clireader.getResume() + ": " + e.getMessage());
+				System.exit(1);
+			} // try/catch
+
+			if ( !clireader.isQuiet() )
+			{
+				System.out.println(String.format(CONST_FORMAT_RESUME, journal.getCompleted(), clireader.getResume()));
+			}
+		} // if
+
+		if ( clireader.getMetrics() != null )
+		/*
+		 * Serve the metrics for the life of the run
+		 */
+		{
+			metrics = new MetricsSink(clireader.getMetrics());
+			try
+			{
+				metrics.start();
+			}
+			catch ( IOException e )
+			{
+				System.out.println("Could not serve metrics on " + clireader.getMetrics() + ": " + e.getMessage());
+				System.exit(1);
+			} // try/catch
+
+			if ( !clireader.isQuiet() )
+			{
+				System.out.println(String.format(CONST_FORMAT_METRICS, clireader.getMetrics().getHostString(), metrics.getPort()));
+			}
+		} // if
+
+		if ( clireader.getInterval() > 0 )
+		/*
+		 * Sweep repeatedly until stopped
+		 */
+		{
+			System.exit(monitor());
+		} // if
+
+		int status = sweep();
+		if ( journal != null && journal.getError() != null )
+		{
+			System.out.println("Could not write results journal " + clireader.getResume() + ": " + journal.getError().getMessage());
+			status = 1;
+		} // if
+
+		System.exit(status);
 
 	} // main
 
 
 	/**
-	 * Contruct all connection attempts
+	 * Sweep repeatedly at the interval, with jitter, keeping the local interfaces and targets between sweeps
+	 * <p>
+	 * Sweeps are scheduled from the first sweep's start, so the interval does not drift with the sweep times.
+	 * Between sweeps the hosts are re-resolved, only those whose DNS entries have expired being looked up again.
+	 * Failed sweeps are reported, and sweeping stops on a failure that would recur on every sweep after, such as
+	 * an unwritable binary file or a bulk endpoint rejecting every document.
 	 * 
+	 * @return the exit status, non-zero if stopped by a recurring failure
 	 */
-	private static void queueConnections ()  
+	private static int monitor ()
 	{
-		for ( int port : clireader.getPorts() )
+		Random	random		= new Random();
+		long	interval	= TimeUnit.MILLISECONDS.toNanos(clireader.getInterval());
+		long	jitter		= TimeUnit.MILLISECONDS.toNanos(clireader.getJitter());
+		long	start		= System.nanoTime();
+		int		failed		= 0;
+
+		for ( int sweep = 1;; sweep++ )
 		{
-			if ( clireader.isIPv4Target() )
-			/*
-			 * Process IPv4 hosts connections
-			 */
+			if ( !clireader.isQuiet() )
+			{
+				System.out.println(String.format(CONST_FORMAT_SWEEP, sweep, LocalDateTime.now()));
+			}
+
+			if ( sweep() != 0 )
+			{
+				failed++;
+				System.out.println(String.format(CONST_FORMAT_SWEEP_FAILED, sweep, failed, sweep, recurring ? ", stopping" : ""));
+				if ( recurring )
+					return 1;
+			} // if
+
+			long wait = start + sweep * interval + (long) ( ( random.nextDouble() * 2 - 1 ) * jitter ) - System.nanoTime();
+			if ( wait > 0 )
 			{
-				for ( Inet4Address localif : localInterface.getIpV4Addresses().keySet() )
+				try
 				{
-					clireader.getIpV4Addresses()
-							.forEach(remoteaddr -> ConnectionTask.submit( clireader.isJson(), localif, remoteaddr, port, clireader.getAttempts()));
+					TimeUnit.NANOSECONDS.sleep(wait);
 				}
-			} // for ipv4
+				catch ( InterruptedException e )
+				{
+					return failed > 0 ? 1 : 0;
+				} // try/catch
+			} // if
+
+			clireader.refresh();
+			if ( !clireader.isQuiet() )
+			{
+				System.out.println(resolved());
+			}
+		} // for
+	} // monitor
+
+
+	/**
+	 * Make one sweep of the connection attempts and output its results
+	 * 
+	 * @return the exit status, non-zero if any bulk document failed or the binary results could not be written
+	 */
+	private static int sweep ()
+	{
+		recurring	= false;
+		connects	= timeouts = refused = unreachable = 0;
+		sweeps++;
+		data		= new StringBuilder();
+		rollup		= clireader.isRollup() ? new LatencyRollup(clireader.isJson()) : null;
+		if ( delta != null )
+			delta.reset();
+		ConnectionTask.setRate(clireader.getRate(), clireader.getPerHostRate(), clireader.getBurst());
+		ConnectionTask.setAttempts(clireader.isAdaptiveAttempts()
+				? new ConnectAttempts(clireader.getMinAttempts(), clireader.getAttempts(), clireader.getAttemptBudget(), clireader.getPrecision())
+				: new ConnectAttempts(clireader.getAttempts()));
+		ConnectionTask.setRoutes(new RouteState(clireader.getRouteConfirm(), clireader.getRouteSample()));
+		queueConnections(localInterface, clireader);
+
+		if ( clireader.isBulk() )
+		/*
+		 * Send the results to the URI in bulk batches as they complete
+		 */
+		{
+			BulkSink bulk = new BulkSink(clireader.getHttpUri(), clireader.getBulkDocs(), clireader.getBulkBytes(), clireader.isGzip());
+
+			streamConnections(sinks(bulk));
+			if ( rollup != null )
+			{
+				System.out.print(rollup);
+			} // if
+
+			System.out.println(String.format(CONST_FORMAT_BULK, bulk.getDocuments(), bulk.getBatches(), bulk.getFailed(), bulk.getFailedDocuments(),
+					bulk.getStatus()));
+			if ( !clireader.isQuiet() )
+			{
+				System.out.println(summary());
+			}
 
-			if ( clireader.isIPv6Target() )
 			/*
-			 * Process IPv6 hosts connections
+			 * An endpoint that refuses every document without a retryable status will refuse them every sweep
 			 */
+			recurring = bulk.getDocuments() > 0 && bulk.getFailedDocuments() == bulk.getDocuments()
+					&& !BulkSink.isRetryable(bulk.getStatus());
+			return bulk.getFailedDocuments() > 0 ? 1 : 0;
+		}
+		else if ( clireader.getBinary() != null )
+		/*
+		 * Write the results to the file in binary as they complete, appending each sweep after the first
+		 */
+		{
+			BinarySink binary;
+			try
+			{
+				binary = new BinarySink(Files.newOutputStream(clireader.getBinary(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						sweeps > 1 ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING));
+			}
+			catch ( IOException e )
+			{
+				System.out.println("Could not write binary results " + clireader.getBinary() + ": " + e.getMessage());
+				recurring = true;
+				return 1;
+			} // try/catch
+
+			streamConnections(sinks(binary));
+			if ( rollup != null )
+			{
+				System.out.print(rollup);
+			} // if
+
+			System.out.println(String.format(CONST_FORMAT_BINARY, binary.getResults(), binary.getBytes(), clireader.getBinary()));
+			if ( binary.getError() != null )
+			{
+				System.out.println("Could not write binary results " + clireader.getBinary() + ": " + binary.getError().getMessage());
+			} // if
+			if ( !clireader.isQuiet() )
+			{
+				System.out.println(summary());
+			}
+
+			recurring = binary.getError() != null;
+			return binary.getError() != null ? 1 : 0;
+		}
+		else if ( clireader.isSorted() || clireader.getHttpUri() != null )
+		/*
+		 * Buffer, order and output the results once all are in
+		 */
+		{
+			System.out.println(tryConnections());
+		}
+		else
+		/*
+		 * Output each result as it completes
+		 */
+		{
+			streamConnections(sinks(new StreamSink(System.out, clireader.isJson())));
+			if ( rollup != null )
+			{
+				System.out.print("\n" + rollup);
+			} // if
+
+			if ( !clireader.isQuiet() )
 			{
-				for ( Inet6Address localif : localInterface.getIpV6Addresses().keySet() )
+				System.out.println("\n" + summary());
+			}
+		} // if
+
+		return 0;
+	} // sweep
+
+
+	/**
+	 * Submit the connection attempts of the target space, skipping the tuples the journal has completed
+	 * <p>
+	 * The tuples are made lazily as the scheduler has room for them, unless an attempt order interleaves them.
+	 * Hosts in a host list are then streamed in as they are read and resolved, while the space is swept
+	 * 
+	 * @param localInterface
+	 *                           the local interfaces to connect from
+	 * @param clireader
+	 *                           the targets, ports and attempts to connect with
+	 */
+	static void queueConnections ( LocalInterface localInterface, CLIReader clireader )  
+	{
+		TargetSpace space = new TargetSpace(clireader.getPorts(),
+				clireader.isIPv4Target() ? localInterface.getIpV4Addresses().keySet() : Collections.emptySet(),
+				clireader.getIpV4Addresses(),
+				clireader.getIpV4Prefixes(),
+				clireader.isIPv6Target() ? localInterface.getIpV6Addresses().keySet() : Collections.emptySet(),
+				clireader.getIpV6Addresses(),
+				clireader.getIpV6Prefixes());
+
+		ConnectionTask.submit(unjournaled(space.iterator()), clireader.isJson(), clireader.getAttempts());
+
+		ConnectionTask.interleave();
+
+		if ( clireader.getHostList() != null )
+		{
+			streamHosts(space, clireader);
+		} // if
+	} // queueConnections
+
+
+	/**
+	 * Read the host list on its own thread, streaming the tuples of each new address to the scheduler
+	 * 
+	 * @param space
+	 *                      the target space, for the local addresses and ports
+	 * @param clireader
+	 *                      the host list and attempts to connect with
+	 */
+	private static void streamHosts ( TargetSpace space, CLIReader clireader )
+	{
+		try
+		{
+			hosts = clireader.openHostList();
+		}
+		catch ( IOException e )
+		{
+			System.out.println("Could not read host list " + clireader.getHostList() + ": " + e.getMessage());
+			return;
+		} // try/catch
+
+		hosts.seed(clireader.getIpV4Addresses());
+		hosts.seed(clireader.getIpV6Addresses());
+
+		HostStream stream = hosts;
+		ConnectionTask.open();
+
+		Thread reader = new Thread(() ->
+		{
+			try ( HostStream s = stream )
+			{
+				s.forEach(address ->
 				{
-					clireader.getIpV6Addresses()
-							.forEach(remoteaddr -> ConnectionTask.submit( clireader.isJson(), localif, remoteaddr, port, clireader.getAttempts()));
-				}
-			} // for ipv6
-		} // for port
-	}
+					try
+					{
+						ConnectionTask.stream(unjournaled(space.targets(address)), clireader.isJson(), clireader.getAttempts());
+					}
+					catch ( InterruptedException e )
+					{
+						Thread.currentThread().interrupt();
+						throw new IllegalStateException(e);
+					} // try/catch
+				});
+			}
+			catch ( IOException | IllegalStateException e )
+			{
+				System.out.println("Could not read host list " + clireader.getHostList() + ": " + e.getMessage());
+			}
+			finally
+			{
+				ConnectionTask.close();
+			} // try/catch
+		}, "connectomatic-hostlist");
+
+		reader.setDaemon(true);
+		reader.start();
+	} // streamHosts
+
+
+	/**
+	 * Skip the tuples the journal has completed, if resuming
+	 * 
+	 * @param targets
+	 *                    the tuples
+	 * 
+	 * @return the tuples not yet completed
+	 */
+	private static Iterator< TargetSpace.Target > unjournaled ( Iterator< TargetSpace.Target > targets )
+	{
+		if ( journal == null )
+			return targets;
+
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(targets, Spliterator.ORDERED), false)
+				.filter(t -> !journal.isCompleted(t.localaddress, t.remoteaddress, t.port))
+				.iterator();
+	} // unjournaled
 
 	/**
 	 * Run through and retrieve all connection attempts
@@ -167,19 +583,31 @@ public class ConnectOMatic
 	 */
 	private static String tryConnections ()  
 	{
-		int	connects = 0,timeouts = 0,refused = 0, unreachable = 0;
 		boolean place = false;
+
+		if ( journal != null )
+			journal.open();
+		Map< String, ConnectionResult > results = ConnectionTask.getResults(result ->
+		{
+			if ( journal != null )
+				journal.accept(result);
+		});
+		if ( journal != null )
+			journal.close();
 		
-		for ( ConnectionResult result : ConnectionTask.getResults().values() )
+		for ( ConnectionResult result : results.values() )
 		{
 			result.collate();
+			tally(result);
+			if ( rollup != null )
+				rollup.accept(result);
+			if ( metrics != null )
+				metrics.accept(result);
+			if ( delta != null && !delta.isChanged(result) )
+				continue;
 			data.append( ( place && clireader.isJson() ) ? "," : "") 
 				.append(result.toString())
 				.append("\n");
-			connects += result.connects_millis.size();
-			timeouts += result.timeouts_millis.size();
-			refused += result.refused;
-			unreachable += result.unreachable;
 			place = true;
 		}
 
@@ -207,17 +635,175 @@ public class ConnectOMatic
 
 		if (!clireader.isQuiet())
 		{
-			header.append("\tSummary \tConnects: ").append(connects)
-			.append(" \tTimeouts: ").append(timeouts)
-			.append(" \tRefused: ").append(refused)
-			.append(" \tUnreachable: ").append(unreachable)
-			.append("\n\n\n");
+			header.append(summary());
 		}
 
 		header.append(data);
+
+		if ( rollup != null )
+		{
+			header.append("\n").append(rollup);
+		}
 		
 		return header.toString();
-	} // main
+	} // tryConnections
+
+
+	/**
+	 * Retrieve each connection attempt as it completes and pass it to the sinks
+	 * 
+	 * @param sinks
+	 *                  the destinations for the results
+	 */
+	static void streamConnections ( ResultSink... sinks )
+	{
+		for ( ResultSink sink : sinks )
+			sink.open();
+		ConnectionTask.forEachResult(result ->
+		{
+			result.collate();
+			for ( ResultSink sink : sinks )
+				sink.accept(result);
+			tally(result);
+		});
+		for ( ResultSink sink : sinks )
+			sink.close();
+	} // streamConnections
+
+
+	/**
+	 * The sinks for a sweep's results: the journal first if resuming, so each result is kept before it is output,
+	 * then the output, filtered to the changes if a delta is requested, then the rollup and metrics if requested
+	 * 
+	 * @param output
+	 *                   the output sink
+	 * 
+	 * @return the sinks
+	 */
+	private static ResultSink[] sinks ( ResultSink output )
+	{
+		List< ResultSink > sinks = new ArrayList<>();
+
+		if ( journal != null )
+			sinks.add(journal);
+		sinks.add(delta == null ? output : delta.filter(output));
+		if ( rollup != null )
+			sinks.add(rollup);
+		if ( metrics != null )
+			sinks.add(metrics);
+
+		return sinks.toArray(new ResultSink[sinks.size()]);
+	} // sinks
+
+
+	/**
+	 * Add a result to the summary counts
+	 * 
+	 * @param result
+	 *                   the collated result
+	 */
+	private static void tally ( ConnectionResult result )
+	{
+		connects += result.connects.count();
+		timeouts += result.timeouts.count();
+		refused += result.refused;
+		unreachable += result.unreachable;
+	} // tally
+
+
+	/**
+	 * The resolution time of each host, and the addresses of each prefix
+	 * 
+	 * @return the resolution report
+	 */
+	private static String resolved ()
+	{
+		StringBuilder sb = new StringBuilder();
+
+		for ( HostResolver.Resolution r : clireader.getResolutions().values() )
+		{
+			sb.append(String.format(CONST_FORMAT_RESOLVED, r.host, r.nanos / 1000000d,
+					!r.isResolved() ? r.failure.getMessage() : r.cached ? "cached" : r.addresses.length + " address(es)"));
+		} // for
+
+		for ( AddressPrefix p : clireader.getIpV4Prefixes() )
+		{
+			sb.append(String.format(CONST_FORMAT_PREFIX, p, p.getCount(), p.isSampled() ? ", sampling " + p.size() : ""));
+		} // for
+
+		for ( AddressPrefix p : clireader.getIpV6Prefixes() )
+		{
+			sb.append(String.format(CONST_FORMAT_PREFIX, p, p.getCount(), p.isSampled() ? ", sampling " + p.size() : ""));
+		} // for
+
+		return sb.toString();
+	} // resolved
+
+
+	/**
+	 * The summary of all results tallied
+	 * 
+	 * @return the summary
+	 */
+	private static String summary ()
+	{
+		StringBuilder sb = new StringBuilder("\tSummary \tConnects: ").append(connects)
+			.append(" \tTimeouts: ").append(timeouts)
+			.append(" \tRefused: ").append(refused)
+			.append(" \tUnreachable: ").append(unreachable)
+			.append("\n\tScheduler \tIn-flight cap: ").append(ConnectionTask.getScheduler().getMaxInFlight())
+			.append(" \tPeak queue depth: ").append(ConnectionTask.getScheduler().getPeakQueueDepth());
+
+		if ( delta != null )
+		{
+			sb.append(String.format(CONST_FORMAT_DELTA_SUMMARY, delta.getChanged(), delta.getUnchanged(), delta.getMissing()));
+		} // if
+
+		if ( hosts != null )
+		{
+			sb.append(String.format(CONST_FORMAT_HOSTLIST_SUMMARY, hosts.getEntries(), hosts.getAddresses(), hosts.getDuplicates(),
+					hosts.getUnresolved()));
+		} // if
+
+		if ( journal != null )
+		{
+			sb.append(String.format(CONST_FORMAT_JOURNAL_SUMMARY, journal.getCompleted(), journal.getJournaled()));
+		} // if
+
+		ConnectAttempts attempts = ConnectionTask.getAttempts();
+		if ( attempts.isAdaptive() )
+		{
+			sb.append(String.format(CONST_FORMAT_ATTEMPTS, attempts, attempts.getMade(), attempts.getSettled(), attempts.getExtended(),
+					attempts.getPool()));
+		} // if
+
+		RouteState routes = ConnectionTask.getRoutes();
+		if ( routes.getDown() > 0 || routes.getInferred() > 0 )
+		{
+			sb.append(String.format(CONST_FORMAT_ROUTES, routes.getDown(), routes.getInferred(), routes));
+		} // if
+
+		PortBudget ports = ConnectionTask.getPortBudget();
+		if ( ports != null && ports.getSlowest() < 1 )
+		{
+			sb.append(String.format(CONST_FORMAT_PORTS, ConnectionTask.getTeardown().getName(), ports.getPeak(), ports.getRange(),
+					ports.getSlowest() * 100));
+		} // if
+
+		SourcePorts sources = ConnectionTask.getSources();
+		if ( sources.isExplicit() )
+		{
+			sb.append(String.format(CONST_FORMAT_SOURCES, sources, sources.getCollisions(), sources.getFallbacks()));
+		} // if
+
+		ConnectRate rate = ConnectionTask.getRate();
+		if ( rate.isPaced() )
+		{
+			sb.append(String.format(CONST_FORMAT_RATE, rate.getRate(), rate.getPerHostRate(), rate.getAchieved()));
+		} // if
+
+		return sb.append("\n\n\n").toString();
+	} // summary
 
 
 	/**
@@ -0,0 +1,268 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Connect start pacing, globally and per remote host
+ * <p>
+ * Each rate is a token bucket, kept as the theoretical arrival time of the next token (GCRA): an attempt may
+ * start once the bucket's next slot has come round, less the burst it may run ahead by. Slots are reserved
+ * from the host's bucket first and then from the global bucket no earlier than that, so an attempt holds
+ * one slot in each and starts when the later comes round. Time is kept in fractional nanoseconds from
+ * {@code System.nanoTime()}, so sub-millisecond intervals do not drift.
+ * <p>
+ * Callers that can block wait for the slot in {@code acquire}, which parks until just short of it and then
+ * spins; the NIO reactor reserves the slot and defers the attempt itself. Each actual start is counted,
+ * giving the rate achieved.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class ConnectRate
+{
+
+	static final double							UNLIMITED		= 0;		// No pacing
+	static final int							BURST_DEFAULT	= 1;		// Tokens a bucket may hold
+	static final long							SPIN_NANOS		= 50000;	// Spin rather than park this close to a slot
+
+	private static final double					SECOND			= 1e9;
+
+	private final double						rate, perHost;
+	private final int							burst;
+	private final long							origin			= System.nanoTime();
+	private final Bucket						global;
+	private final Map< InetAddress, Bucket >	hosts			= new ConcurrentHashMap<>();
+
+	private final Object						lock			= new Object();
+	private long								starts, first, last;
+
+
+	/**
+	 * A token bucket, as the theoretical arrival time of its next token
+	 */
+	private static final class Bucket
+	{
+
+		final double	interval, tolerance;	// nanos
+		double			tat;					// nanos from origin
+
+
+		Bucket ( double rate, int burst )
+		{
+			interval	= SECOND / rate;
+			tolerance	= interval * ( burst - 1 );
+		} // Bucket
+
+
+		synchronized double reserve ( double earliest )
+		{
+			double slot = Math.max(earliest, tat - tolerance);
+			tat = Math.max(tat, slot) + interval;
+			return slot;
+		} // reserve
+
+
+		synchronized void hold ( double slot )
+		{
+			tat = Math.max(tat, slot + interval);
+		} // hold
+
+	};
+
+
+	/**
+	 * Pacing configuration
+	 * 
+	 * @param rate
+	 *                    global connect starts per second, or {@code UNLIMITED}
+	 * @param perHost
+	 *                    connect starts per second to each remote host, or {@code UNLIMITED}
+	 * @param burst
+	 *                    the starts each bucket may make at once after idling, at least one
+	 */
+	ConnectRate ( double rate, double perHost, int burst )
+	{
+		this.rate		= rate;
+		this.perHost	= perHost;
+		this.burst		= Math.max(BURST_DEFAULT, burst);
+		this.global		= rate > UNLIMITED ? new Bucket(rate, this.burst) : null;
+	}
+
+
+	/**
+	 * Are connect starts paced?
+	 * 
+	 * @return true if either rate is set
+	 */
+	boolean isPaced ()
+	{
+		return rate > UNLIMITED || perHost > UNLIMITED;
+	} // isPaced
+
+
+	/**
+	 * The global rate
+	 * 
+	 * @return connect starts per second, or {@code UNLIMITED}
+	 */
+	double getRate ()
+	{
+		return rate;
+	} // getRate
+
+
+	/**
+	 * The rate per remote host
+	 * 
+	 * @return connect starts per second, or {@code UNLIMITED}
+	 */
+	double getPerHostRate ()
+	{
+		return perHost;
+	} // getPerHostRate
+
+
+	/**
+	 * Reserve the next start slot to a remote host
+	 * 
+	 * @param remote
+	 *                   the remote host
+	 * 
+	 * @return the {@code System.nanoTime()} the attempt may start at, now or later
+	 */
+	long reserve ( InetAddress remote )
+	{
+		long	now		= System.nanoTime();
+		double	slot	= now - origin;
+
+		if ( perHost > UNLIMITED )
+		{
+			Bucket host = hosts.computeIfAbsent(remote, r -> new Bucket(perHost, burst));
+			slot = host.reserve(slot);
+			if ( global != null )
+			{
+				double g = global.reserve(slot);
+				if ( g > slot )
+					host.hold(g);
+				slot = g;
+			} // if
+		}
+		else if ( global != null )
+		{
+			slot = global.reserve(slot);
+		} // if
+
+		return Math.max(now, origin + (long) Math.ceil(slot));
+	} // reserve
+
+
+	/**
+	 * Wait for a start slot, parking until close to it and spinning the rest of the way
+	 * 
+	 * @param slot
+	 *                 the {@code System.nanoTime()} to wait for
+	 */
+	static void await ( long slot )
+	{
+		long wait;
+
+		while ( ( wait = slot - System.nanoTime() ) > 0 )
+		{
+			if ( wait > SPIN_NANOS )
+			{
+				LockSupport.parkNanos(wait - SPIN_NANOS);
+			}
+			else
+			{
+				Thread.yield();
+			} // if
+		} // while
+	} // await
+
+
+	/**
+	 * Wait for the next start slot to a remote host, counting the start
+	 * 
+	 * @param remote
+	 *                   the remote host
+	 */
+	void acquire ( InetAddress remote )
+	{
+		if ( !isPaced() )
+			return;
+		await(reserve(remote));
+		started();
+	} // acquire
+
+
+	/**
+	 * Count a connect start
+	 */
+	void started ()
+	{
+		long now = System.nanoTime();
+
+		synchronized ( lock )
+		{
+			if ( starts++ == 0 )
+				first = now;
+			last = now;
+		} // synchronized
+	} // started
+
+
+	/**
+	 * The connect starts counted
+	 * 
+	 * @return the starts
+	 */
+	long getStarts ()
+	{
+		synchronized ( lock )
+		{
+			return starts;
+		} // synchronized
+	} // getStarts
+
+
+	/**
+	 * The rate achieved between the first and last starts counted
+	 * 
+	 * @return connect starts per second, zero until two starts are counted
+	 */
+	double getAchieved ()
+	{
+		synchronized ( lock )
+		{
+			if ( starts < 2 || last == first )
+				return 0;
+			return ( starts - 1 ) * SECOND / ( last - first );
+		} // synchronized
+	} // getAchieved
+
+} // ConnectRate
@@ -0,0 +1,192 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Connect timeouts, fixed or adapted per route
+ * <p>
+ * A fixed timeout applies the same limit to every attempt. In adaptive mode a smoothed round trip time and
+ * round trip time variance are kept per {@code Route}, as TCP does for its retransmission timeout (RFC 6298),
+ * and each attempt's timeout is derived from them: <i>SRTT + 4 &times; RTTVAR</i>, bounded by a floor and by
+ * the fixed timeout as a ceiling. Connects that are refused also measure a round trip and are sampled;
+ * timeouts are not sampled, but double the route's timeout until the next sample.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class ConnectTimeout
+{
+
+	static final int						NONE				= 0;		// Wait for the OS to give up
+	static final int						ADAPTIVE_DEFAULT	= 3000;		// Ceiling when adaptive without a timeout
+	static final int						ADAPTIVE_MIN		= 10;		// Floor on adaptive timeouts
+
+	private static final String				TIMED_OUT			= "timed out";
+
+	private final int						millis;
+	private final boolean					adaptive;
+	private final Map< Route, Estimator >	routes				= new ConcurrentHashMap<>();
+
+
+	/**
+	 * Round trip estimator for one route
+	 */
+	private static final class Estimator
+	{
+
+		double	srtt, rttvar;	// millis
+		boolean	sampled;
+		int		backoff;
+
+
+		synchronized void sample ( double rtt )
+		{
+			if ( !sampled )
+			{
+				srtt	= rtt;
+				rttvar	= rtt / 2;
+				sampled	= true;
+			}
+			else
+			{
+				rttvar	= 0.75 * rttvar + 0.25 * Math.abs(srtt - rtt);
+				srtt	= 0.875 * srtt + 0.125 * rtt;
+			} // if
+			backoff = 0;
+		} // sample
+
+
+		synchronized void expired ()
+		{
+			backoff = Math.min(backoff + 1, 16);
+		} // expired
+
+
+		synchronized int rto ( int ceiling )
+		{
+			if ( !sampled )
+				return ceiling;
+			double rto = ( srtt + Math.max(1, 4 * rttvar) ) * ( 1 << backoff );
+			return (int) Math.min(ceiling, Math.max(ADAPTIVE_MIN, Math.ceil(rto)));
+		} // rto
+
+	};
+
+
+	/**
+	 * Timeout configuration
+	 * 
+	 * @param millis
+	 *                     the fixed timeout, or the adaptive ceiling, {@code NONE} to wait for the OS
+	 * @param adaptive
+	 *                     adapt timeouts to each route's round trip times
+	 */
+	ConnectTimeout ( int millis, boolean adaptive )
+	{
+		this.adaptive	= adaptive;
+		this.millis		= adaptive && millis == NONE ? ADAPTIVE_DEFAULT : millis;
+	}
+
+
+	/**
+	 * Is the timeout adaptive?
+	 * 
+	 * @return true if adaptive
+	 */
+	boolean isAdaptive ()
+	{
+		return adaptive;
+	} // isAdaptive
+
+
+	/**
+	 * The timeout for the next attempt on a route
+	 * 
+	 * @param route
+	 *                  the route
+	 * 
+	 * @return timeout in millis, or {@code NONE}
+	 */
+	int millis ( Route route )
+	{
+		if ( !adaptive )
+			return millis;
+		return estimator(route).rto(millis);
+	} // millis
+
+
+	/**
+	 * Record an attempt's round trip on a route
+	 * 
+	 * @param route
+	 *                  the route
+	 * @param rtt
+	 *                  the round trip in millis
+	 */
+	void sample ( Route route, float rtt )
+	{
+		if ( adaptive )
+			estimator(route).sample(rtt);
+	} // sample
+
+
+	/**
+	 * Record a timed out attempt on a route
+	 * 
+	 * @param route
+	 *                  the route
+	 */
+	void expired ( Route route )
+	{
+		if ( adaptive )
+			estimator(route).expired();
+	} // expired
+
+
+	private Estimator estimator ( Route route )
+	{
+		return routes.computeIfAbsent(route, r -> new Estimator());
+	} // estimator
+
+
+	/**
+	 * Is the connect failure a timeout, either ours or the OS giving up on the SYN retries?
+	 * 
+	 * @param e
+	 *              the connect failure
+	 * 
+	 * @return true for a timeout
+	 */
+	static boolean isTimeout ( IOException e )
+	{
+		return e instanceof SocketTimeoutException
+				|| ( e instanceof ConnectException && e.getMessage() != null && e.getMessage().contains(TIMED_OUT) );
+	} // isTimeout
+
+} // ConnectTimeout
@@ -0,0 +1,746 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+
+/**
+ * Non-blocking connection engine
+ * <p>
+ * Drives connection attempts with non-blocking {@code SocketChannel}s from a small set of {@code Selector}
+ * reactor threads, so the number of in-flight connects is not bound to the number of threads.
+ * Each attempt is timed from {@code connect()} to the {@code OP_CONNECT}/{@code finishConnect()} that completes it,
+ * and the outcome is recorded in the same {@code ConnectionResult} counters as the blocking {@code ConnectionTask}.
+ * Connect timeouts are enforced by the reactor, which keeps the pending attempts ordered by deadline and wakes
+ * for the earliest of them. Paced attempts that may not start yet are held in start slot order, and the reactor
+ * wakes for them too, parking rather than selecting for the last millisecond.
+ * <p>
+ * Connections are spread round-robin over the reactors, which are started on first use.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class ConnectionReactor implements Runnable
+{
+
+	static final int							REACTORS_DEFAULT
+		= Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	/*
+	 * select() failures in a row that take the selector as dead
+	 */
+	private static final int					SELECT_FAILURES	= 3;
+
+	private static final Object					LOCK	= new Object();
+	private static final AtomicInteger			NEXT	= new AtomicInteger();
+	private static int							reactorCount	= REACTORS_DEFAULT;
+	private static ConnectionReactor[]			reactors;
+
+	private final Selector						selector;
+	private final Queue< Connection >			pending		= new ConcurrentLinkedQueue<>();
+	private final PriorityQueue< Deadline >		deadlines	= new PriorityQueue<>();
+	private final PriorityQueue< Connection >	starts		= new PriorityQueue<>(Comparator.comparingLong(c -> c.slot));
+	private final Set< Connection >				registered	= new HashSet<>();
+	private volatile boolean					dead;
+
+
+	/**
+	 * The state of one (local, remote, port) tuple as it cycles through its attempts
+	 */
+	private static final class Connection
+	{
+
+		final ConnectionResult					result;
+		final InetSocketAddress					local;
+		final InetSocketAddress					remote;
+		final int								pingcount;
+		final Consumer< ConnectionResult >		done;
+		final Route								route;
+		final ConnectRate						rates;
+		final ConnectAttempts					attempts;
+		final RouteState						routes;
+		final boolean							abort;
+		final SourcePorts						sources;
+		int										ping;
+		long									nanotime;
+		long									slot;
+		boolean									paced;
+		boolean									completed;
+		SelectionKey							key;
+
+
+		Connection ( ConnectionResult result, InetAddress localaddress, InetAddress remoteaddress, int port, int pingcount,
+				Consumer< ConnectionResult > done )
+		{
+			this.result		= result;
+			this.local		= new InetSocketAddress(localaddress, 0);
+			this.remote		= new InetSocketAddress(remoteaddress, port);
+			this.pingcount	= pingcount;
+			this.done		= done;
+			this.route		= new Route(localaddress, remoteaddress);
+			this.rates		= ConnectionTask.getRate();
+			this.attempts	= ConnectionTask.getAttempts();
+			this.routes		= ConnectionTask.getRoutes();
+			this.abort		= TeardownTypeEnum.ABORT == ConnectionTask.getTeardown();
+			this.sources	= ConnectionTask.getSources();
+		} // Connection
+
+	};
+
+
+	/**
+	 * The deadline of a connection's attempt, stale once the attempt has completed
+	 */
+	private static final class Deadline implements Comparable< Deadline >
+	{
+
+		final long			nanotime;
+		final Connection	connection;
+		final int			ping;
+
+
+		Deadline ( long nanotime, Connection connection )
+		{
+			this.nanotime	= nanotime;
+			this.connection	= connection;
+			this.ping		= connection.ping;
+		} // Deadline
+
+
+		boolean isStale ()
+		{
+			return connection.ping != ping || connection.key == null;
+		} // isStale
+
+
+		@Override
+		public int compareTo ( Deadline o )
+		{
+			return Long.compare(nanotime, o.nanotime);
+		} // compareTo
+
+	};
+
+
+	/**
+	 * Opens the reactor selector
+	 * 
+	 * @throws IOException
+	 *                         if the selector could not be opened
+	 */
+	private ConnectionReactor ()
+		throws IOException
+	{
+		selector = Selector.open();
+	}
+
+
+	/**
+	 * Sets the number of reactor threads to be started on first use
+	 * 
+	 * @param count
+	 *                  the number of reactor threads, at least one
+	 */
+	static void setReactorCount ( int count )
+	{
+		synchronized ( LOCK )
+		{
+			reactorCount = Math.max(1, count);
+		} // synchronized
+	} // setReactorCount
+
+
+	/**
+	 * Submit a tuple to be connected {@code pingcount} times by the next reactor
+	 * 
+	 * @param result
+	 *                          the result to record attempts in
+	 * @param localaddress
+	 *                          the local address to connection from
+	 * @param remoteaddress
+	 *                          the remote address to connection to
+	 * @param port
+	 *                          the port to connect to
+	 * @param pingcount
+	 *                          the number of times to try and connect
+	 * @param done
+	 *                          called with the result once all attempts have been made
+	 */
+	static void submit ( ConnectionResult result, InetAddress localaddress, InetAddress remoteaddress, int port, int pingcount,
+			Consumer< ConnectionResult > done )
+	{
+		ConnectionReactor[] r = getReactors();
+		ConnectionReactor reactor = r[Math.floorMod(NEXT.getAndIncrement(), r.length)];
+		reactor.pending.add(new Connection(result, localaddress, remoteaddress, port, pingcount, done));
+		if ( reactor.dead )
+		/*
+		 * Too late for the reactor loop to pick it up
+		 */
+		{
+			reactor.failPending();
+			return;
+		} // if
+		reactor.selector.wakeup();
+	} // submit
+
+
+	/**
+	 * Returns the reactors, starting them if need be
+	 * 
+	 * @return the reactors
+	 */
+	private static ConnectionReactor[] getReactors ()
+	{
+		synchronized ( LOCK )
+		{
+			if ( reactors != null )
+				return reactors;
+
+			ConnectionReactor[] r = new ConnectionReactor[reactorCount];
+			try
+			{
+				for ( int i = 0; i < r.length; i++ )
+				{
+					r[i] = new ConnectionReactor();
+					Thread t = new Thread(r[i], "connectomatic-reactor-" + i);
+					t.setDaemon(true);
+					t.start();
+				} // for
+			}
+			catch ( IOException e )
+			{
+				throw new IllegalStateException("Could not open reactor selector", e);
+			} // try/catch
+
+			reactors = r;
+			return reactors;
+		} // synchronized
+	} // getReactors
+
+
+	/**
+	 * Reactor loop
+	 * <p>
+	 * Starts newly submitted connections and completes those whose connects have resolved. A connection that fails
+	 * unexpectedly is completed with the attempts it has made, and the loop carries on; should the selector itself
+	 * fail, every outstanding connection is completed before the reactor stops.
+	 */
+	@Override
+	public void run ()
+	{
+		int failures = 0;
+
+		while ( true )
+		{
+			try
+			{
+				pace();
+				long wait = expire();
+				Connection next = starts.peek();
+				if ( next != null )
+				/*
+				 * Wake for the next paced start, parking for waits too fine for select()
+				 */
+				{
+					long nanos = next.slot - System.nanoTime();
+					if ( nanos < 1000000 )
+					{
+						ConnectRate.await(next.slot);
+						wait = 0;
+					}
+					else
+					{
+						wait = wait < 0 ? nanos / 1000000 : Math.min(wait, nanos / 1000000);
+					} // if
+				} // if
+
+				if ( wait < 0 )
+				{
+					selector.select();
+				}
+				else if ( wait == 0 )
+				{
+					selector.selectNow();
+				}
+				else
+				{
+					selector.select(wait);
+				} // if
+				failures = 0;
+			}
+			catch ( IOException | ClosedSelectorException e )
+			{
+				System.out.println("Unexpected Exception in Connection Reactor select()");
+				e.printStackTrace();
+				if ( !selector.isOpen() || ++failures >= SELECT_FAILURES )
+				/*
+				 * The selector is dead, so nothing outstanding on it will complete
+				 */
+				{
+					stop();
+					return;
+				} // if
+				continue;
+			} // try/catch
+
+			Connection c;
+			while ( ( c = pending.poll() ) != null )
+			{
+				start(c);
+			} // while
+
+			Iterator< SelectionKey > keys = selector.selectedKeys().iterator();
+			while ( keys.hasNext() )
+			{
+				SelectionKey key = keys.next();
+				keys.remove();
+				try
+				{
+					if ( key.isValid() && key.isConnectable() )
+					{
+						finish(key);
+					} // if
+				}
+				catch ( RuntimeException e )
+				{
+					fail((Connection) key.attachment(), e);
+				} // try/catch
+			} // while
+		} // while
+	} // run
+
+
+	/**
+	 * Start a connection's attempts, failing it should they throw unexpectedly
+	 * 
+	 * @param c
+	 *              the connection
+	 */
+	private void start ( Connection c )
+	{
+		try
+		{
+			connect(c);
+		}
+		catch ( RuntimeException e )
+		{
+			fail(c, e);
+		} // try/catch
+	} // start
+
+
+	/**
+	 * Fail a connection that threw unexpectedly, completing it with the attempts it has made
+	 * 
+	 * @param c
+	 *              the connection
+	 * @param e
+	 *              the failure
+	 */
+	private void fail ( Connection c, Exception e )
+	{
+		System.out.print("Unexpected Exception in Connection Reactor connecting ");
+		System.out.print(c.local.getAddress());
+		System.out.print(" - ");
+		System.out.println(c.remote);
+		e.printStackTrace();
+
+		if ( c.key != null )
+		{
+			c.key.cancel();
+			close((SocketChannel) c.key.channel());
+			c.key = null;
+		} // if
+		registered.remove(c);
+		starts.remove(c);
+		c.paced = false;
+		complete(c);
+	} // fail
+
+
+	/**
+	 * Complete a connection, once, handing its result on
+	 * 
+	 * @param c
+	 *              the connection
+	 */
+	private static void complete ( Connection c )
+	{
+		if ( c.completed )
+			return;
+		c.completed = true;
+		c.attempts.done(c.ping);
+		c.done.accept(c.result);
+	} // complete
+
+
+	/**
+	 * Stop the reactor on a dead selector, completing every connection outstanding on it
+	 */
+	private void stop ()
+	{
+		dead = true;
+
+		for ( Connection c : registered )
+		{
+			if ( c.key != null )
+				close((SocketChannel) c.key.channel());
+			c.key = null;
+			complete(c);
+		} // for
+		registered.clear();
+
+		Connection c;
+		while ( ( c = starts.poll() ) != null )
+		{
+			complete(c);
+		} // while
+		deadlines.clear();
+		failPending();
+
+		try
+		{
+			selector.close();
+		}
+		catch ( IOException e )
+		{
+			// Auto close exception - ignore
+		} // try/catch
+	} // stop
+
+
+	/**
+	 * Complete the connections submitted to a dead reactor without attempting them
+	 */
+	private void failPending ()
+	{
+		Connection c;
+
+		while ( ( c = pending.poll() ) != null )
+		{
+			complete(c);
+		} // while
+	} // failPending
+
+
+	/**
+	 * Start connection attempts until one is left pending on the selector, or all attempts are done
+	 * 
+	 * @param c
+	 *              the connection
+	 */
+	private void connect ( Connection c )
+	{
+		if ( c.ping == 0 && !c.paced && c.routes.infer(c.route) )
+		/*
+		 * On a route held down as unreachable, so inferred without attempts
+		 */
+		{
+			while ( c.ping < c.pingcount && c.attempts.another(c.result, c.ping) )
+			{
+				c.result.unreachable++;
+				c.result.inferred++;
+				c.ping++;
+			} // while
+			complete(c);
+			return;
+		} // if
+
+		while ( c.ping < c.pingcount && ( c.paced || c.attempts.another(c.result, c.ping) ) )
+		/*
+		 * Attempt to connect from given localaddress/any port to remoteaddress/port, unless held for its start
+		 * slot and so already granted
+		 */
+		{
+			SocketChannel channel = null;
+
+			if ( c.rates.isPaced() )
+			/*
+			 * Hold the attempt until its start slot comes round
+			 */
+			{
+				if ( !c.paced )
+				{
+					c.slot	= c.rates.reserve(c.remote.getAddress());
+					c.paced	= true;
+					if ( c.slot - System.nanoTime() > 0 )
+					{
+						starts.add(c);
+						return;
+					} // if
+				} // if
+				c.paced = false;
+				c.rates.started();
+			} // if
+
+			try
+			// Get local socket
+			{
+				channel = SocketChannel.open();
+				channel.configureBlocking(false);
+				if ( c.abort )
+					channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+				c.sources.bind(c.local.getAddress(), channel::bind);
+			}
+			catch ( IOException e )
+			{
+				System.out.println("Unexprected Exception in Connection Reactor connect() binding socket");
+				e.printStackTrace();
+				if ( channel != null )
+					close(channel);
+				complete(c);
+				return;
+			} // try/catch
+
+			c.ping++;
+
+			try
+			// Attempt connection
+			{
+				int millis = ConnectionTask.getTimeout().millis(c.route);
+				c.nanotime = System.nanoTime();
+				if ( channel.connect(c.remote) )
+				// Connected immediately, typically loopback
+				{
+					connected(c);
+					close(channel);
+					continue;
+				} // if
+
+				c.key = channel.register(selector, SelectionKey.OP_CONNECT, c);
+				registered.add(c);
+				if ( millis > 0 )
+				{
+					deadlines.add(new Deadline(c.nanotime + millis * 1000000L, c));
+				} // if
+				return;
+			}
+			catch ( IOException e )
+			{
+				record(c, e);
+				close(channel);
+			} // try/catch
+		} // while
+
+		complete(c);
+	} // connect
+
+
+	/**
+	 * Complete a pending connect and start the next attempt
+	 * 
+	 * @param key
+	 *                the selection key of the connectable channel
+	 */
+	private void finish ( SelectionKey key )
+	{
+		Connection		c		= (Connection) key.attachment();
+		SocketChannel	channel	= (SocketChannel) key.channel();
+
+		try
+		{
+			if ( !channel.finishConnect() )
+				return;
+			connected(c);
+		}
+		catch ( IOException e )
+		{
+			record(c, e);
+		} // try/catch
+
+		c.key = null;
+		registered.remove(c);
+		key.cancel();
+		close(channel);
+		connect(c);
+	} // finish
+
+
+	/**
+	 * Start the held attempts whose start slots have come round
+	 */
+	private void pace ()
+	{
+		Connection c;
+
+		while ( ( c = starts.peek() ) != null && c.slot - System.nanoTime() <= 0 )
+		{
+			starts.poll();
+			start(c);
+		} // while
+	} // pace
+
+
+	/**
+	 * Time out pending attempts whose deadlines have passed
+	 * 
+	 * @return millis until the next deadline, or -1 if none
+	 */
+	private long expire ()
+	{
+		Deadline d;
+
+		while ( ( d = deadlines.peek() ) != null )
+		{
+			if ( d.isStale() )
+			{
+				deadlines.poll();
+				continue;
+			} // if
+
+			long wait = d.nanotime - System.nanoTime();
+			if ( wait > 0 )
+				return Math.max(1, wait / 1000000);
+
+			deadlines.poll();
+			Connection c = d.connection;
+			try
+			{
+				timedOut(c);
+				c.key.cancel();
+				close((SocketChannel) c.key.channel());
+				c.key = null;
+				registered.remove(c);
+				connect(c);
+			}
+			catch ( RuntimeException e )
+			{
+				fail(c, e);
+			} // try/catch
+		} // while
+
+		return pending.isEmpty() ? -1 : 0;
+	} // expire
+
+
+	/**
+	 * Record a successful connection attempt against the result
+	 * 
+	 * @param c
+	 *              the connection
+	 */
+	private static void connected ( Connection c )
+	{
+		long elapsed = System.nanoTime() - c.nanotime;
+		c.result.connects.record(elapsed);
+		ConnectionTask.getTimeout().sample(c.route, elapsed / 1000000f);
+		c.routes.reached(c.route);
+	} // connected
+
+
+	/**
+	 * Record a timed out connection attempt against the result
+	 * 
+	 * @param c
+	 *              the connection
+	 */
+	private static void timedOut ( Connection c )
+	{
+		c.result.timeouts.record(System.nanoTime() - c.nanotime);
+		ConnectionTask.getTimeout().expired(c.route);
+	} // timedOut
+
+
+	/**
+	 * Record a failed connection attempt against the result
+	 * 
+	 * @param c
+	 *              the connection
+	 * @param e
+	 *              the connect failure
+	 */
+	private static void record ( Connection c, IOException e )
+	{
+		if ( ConnectTimeout.isTimeout(e) )
+		/*
+		 * Connection timed out by the OS
+		 */
+		{
+			timedOut(c);
+		}
+		else if ( e instanceof ConnectException )
+		/*
+		 * Connection refused
+		 */
+		{
+			c.result.refused++;
+			ConnectionTask.getTimeout().sample(c.route, ( System.nanoTime() - c.nanotime ) / 1000000f);
+			c.routes.reached(c.route);
+		}
+		else if ( e instanceof SocketException )
+		/*
+		 * Connection unreachable
+		 */
+		{
+			c.result.unreachable++;
+			if ( RouteState.isNetworkUnreachable(e) )
+				c.routes.unreachable(c.route, c.remote.getPort());
+		}
+		else
+		{
+			System.out.print("Unexpected Exception in Connection Reactor opening socket");
+			System.out.print(c.local.getAddress());
+			System.out.print(" - ");
+			System.out.println(c.remote.getAddress());
+			e.printStackTrace();
+		} // if
+	} // record
+
+
+	/**
+	 * Quietly close a channel
+	 * 
+	 * @param channel
+	 *                    the channel to close
+	 */
+	private static void close ( SocketChannel channel )
+	{
+		try
+		{
+			channel.close();
+		}
+		catch ( IOException e )
+		{
+			// Auto close exception - ignore
+		}
+	} // close
+
+} // ConnectionReactor
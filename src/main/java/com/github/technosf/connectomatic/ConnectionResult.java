@@ -20,18 +20,21 @@
 package com.github.technosf.connectomatic;
 
 import java.net.InetAddress;
-import java.util.ArrayList;
-import java.util.List;
 
 
 /**
  * Connection Result POJO
  * <p>
  * Broken out from {@code ConnectionTask}
+ * <p>
+ * Connection and timeout times are recorded in nanoseconds into {@code LatencyHistogram}s, from which
+ * the averages, extremes, percentiles and standard deviation are reported.
+ * The remote hostname is resolved by the {@code ReverseNameCache} while the connects run, and is filled in
+ * when the result is first output.
  * 
  * @since 1.2.0
  * 
- * @version 1.2.0
+ * @version 1.3.0
  * 
  * @author technosf
  *
@@ -39,22 +42,38 @@ import java.util.List;
 public class ConnectionResult
 {
 
-	public static final String	CSV_HEADER		= "\"IPv\",\"Interface\",\"Remote Address\",\"Remote Hostname\",\"Remote Port\",\"Connections\",\"Connection μs Avg\",\"Connection μs Min\",\"Connection μs Max\",\"Timeouts\",\"Timeout μs Avg\",\"Refused\",\"Unreachable\"";
+	public static final String	CSV_HEADER		= "\"IPv\",\"Interface\",\"Remote Address\",\"Remote Hostname\",\"Remote Port\",\"Connections\",\"Connection μs Avg\",\"Connection μs Min\",\"Connection μs Max\",\"Connection μs P50\",\"Connection μs P90\",\"Connection μs P99\",\"Connection μs StdDev\",\"Timeouts\",\"Timeout μs Avg\",\"Refused\",\"Unreachable\",\"Inferred\"";
 	private static final String	JSON_1_FORMAT	= "{\"IPv\":\"%s\",\"Interface\":\"%s\",\"Remote Address\":\"%s\",\"Remote Hostname\":\"%s\",\"Remote Port\":%s";
-	private static final String	JSON_2_FORMAT	= ",\"Connections\":%d,\"Connection μs Avg\":%f,\"Connection μs Min\":%f,\"Connection μs Max\":%f,\"Timeouts\":%d,\"Timeout μs Avg\":%f,\"Refused\":%d,\"Unreachable\":%d}";
+	private static final String	JSON_2_FORMAT	= ",\"Connections\":%d,\"Connection μs Avg\":%f,\"Connection μs Min\":%f,\"Connection μs Max\":%f,\"Connection μs P50\":%f,\"Connection μs P90\":%f,\"Connection μs P99\":%f,\"Connection μs StdDev\":%f,\"Timeouts\":%d,\"Timeout μs Avg\":%f,\"Refused\":%d,\"Unreachable\":%d,\"Inferred\":%d}";
+	private static final double	NANOS			= 1000000d;	// Reported timings are nanos / 10^6
 
 
 	private String				result;
 	private boolean				collated;	
 	private StringBuilder		sb			= new StringBuilder();
 	private boolean				json;
+
+	/*
+	 * The tuple the result is for
+	 */
+	final String				ipv;
+	final InetAddress			localaddress;
+	final InetAddress			remoteaddress;
+	final int					port;
 	
 	/*
 	 * Allow the results to be directly modified by calling object
 	 */
-	List< Float >				connects_millis;
-	List< Float >				timeouts_millis;
+	LatencyHistogram			connects;
+	LatencyHistogram			timeouts;
 	int							refused, unreachable;
+	int							inferred;	// Of the unreachable, those inferred from a route held down
+
+	/*
+	 * The statistics as collated, in nanos, so sinks need not recompute them
+	 */
+	long						connections, min, max, p50, p90, p99, timeoutcount;
+	double						mean, stddev, timeoutmean;
 
 
 	/**
@@ -70,92 +89,189 @@ public class ConnectionResult
 	 *                          remote address connection attempts were made to
 	 * @param port
 	 *                          the remote port
-	 * @param pingcount
-	 *                          times connection attempts are to made, used to preallocate result array
 	 */
-	ConnectionResult ( boolean json, String ipv, InetAddress localaddress, InetAddress remoteaddress, int port)//, int pingcount )
+	ConnectionResult ( boolean json, String ipv, InetAddress localaddress, InetAddress remoteaddress, int port)
+	{
+		this.json 			= json;
+		this.ipv			= ipv;
+		this.localaddress	= localaddress;
+		this.remoteaddress	= remoteaddress;
+		this.port			= port;
+		connects			= new LatencyHistogram();
+		timeouts			= new LatencyHistogram();
+
+		ReverseNameCache.resolve(remoteaddress);
+	}
+
+
+	/**
+	 * Format the tuple the result is for
+	 * <p>
+	 * Formatted on first use rather than on construction, so the remote hostname, resolved asynchronously,
+	 * is only waited on when output
+	 */
+	private void digest ()
+	{
+		tuple(sb, json, ipv, localaddress.getHostAddress(), remoteaddress.getHostAddress(), ReverseNameCache.getName(remoteaddress), port);
+		result = sb.toString();		
+	} // digest
+
+
+	/**
+	 * Collate the results
+	 */
+	public void collate ()
 	{
-		this.json 		= json;
-		connects_millis	= new ArrayList< >();
-		timeouts_millis	= new ArrayList< >();
+		if ( collated )
+			return;
+
+		if ( result == null )
+			digest();
+
+		connections		= connects.count();
+		mean			= connects.mean();
+		min				= connects.min();
+		max				= connects.max();
+		p50				= connects.valueAtPercentile(50);
+		p90				= connects.valueAtPercentile(90);
+		p99				= connects.valueAtPercentile(99);
+		stddev			= connects.stddev();
+		timeoutcount	= timeouts.count();
+		timeoutmean		= timeouts.mean();
+
+		stats(sb, json, connections, mean, min, max, p50, p90, p99, stddev, timeoutcount, timeoutmean, refused, unreachable, inferred);
+
+		result		= sb.toString();
+		collated	= true;
+	}
+
 
+	/**
+	 * Output the result connection digest, and also the results once collated.
+	 */
+	@Override
+	public String toString ()
+	{
+		if ( result == null )
+			digest();
+		return result;
+	}
 
+
+	/**
+	 * Format the tuple a result is for, as CSV fields or the opening JSON fields
+	 * <p>
+	 * Shared with {@code BinaryReader} so that converted results are output exactly as they were collated
+	 * 
+	 * @param sb
+	 *                          the builder to append to
+	 * @param json
+	 *                          true for JSON output, false for CSV
+	 * @param ipv
+	 *                          the IPv
+	 * @param localaddress
+	 *                          local address used for connections
+	 * @param remoteaddress
+	 *                          remote address connection attempts were made to
+	 * @param hostname
+	 *                          the remote hostname
+	 * @param port
+	 *                          the remote port
+	 */
+	static void tuple ( StringBuilder sb, boolean json, String ipv, String localaddress, String remoteaddress, String hostname, int port )
+	{
 		if (json)
 		// JSON
 		{
-			sb.append(
-				String.format(JSON_1_FORMAT
-				,	ipv
-				,	localaddress.getHostAddress()
-				,	remoteaddress.getHostAddress()
-				,	remoteaddress.getHostName()
-				,	port
-				)
-			);
+			sb.append(String.format(JSON_1_FORMAT, ipv, localaddress, remoteaddress, hostname, port));
 		}
 		else
 		// CSV
 		{				
-		sb.append(ipv).append(",")
-			.append(localaddress.getHostAddress()).append(",")
-			.append(remoteaddress.getHostAddress()).append(",")
-			.append(remoteaddress.getHostName()).append(",")
-			.append(port);
+			sb.append(ipv).append(",")
+				.append(localaddress).append(",")
+				.append(remoteaddress).append(",")
+				.append(hostname).append(",")
+				.append(port);
 		}
-
-		result = sb.toString();		
-	}
+	} // tuple
 
 
 	/**
-	 * Collate the results
+	 * Format a result's statistics, from nanoseconds, as CSV fields or the closing JSON fields
+	 * 
+	 * @param sb
+	 *                        the builder to append to
+	 * @param json
+	 *                        true for JSON output, false for CSV
+	 * @param connections
+	 *                        connection count
+	 * @param mean
+	 *                        connection mean
+	 * @param min
+	 *                        connection minimum
+	 * @param max
+	 *                        connection maximum
+	 * @param p50
+	 *                        connection 50th percentile
+	 * @param p90
+	 *                        connection 90th percentile
+	 * @param p99
+	 *                        connection 99th percentile
+	 * @param stddev
+	 *                        connection standard deviation
+	 * @param timeouts
+	 *                        timeout count
+	 * @param timeoutmean
+	 *                        timeout mean
+	 * @param refused
+	 *                        refused count
+	 * @param unreachable
+	 *                        unreachable count
+	 * @param inferred
+	 *                        inferred unreachable count
 	 */
-	public void collate ()
+	static void stats ( StringBuilder sb, boolean json, long connections, double mean, long min, long max, long p50, long p90, long p99,
+			double stddev, long timeouts, double timeoutmean, int refused, int unreachable, int inferred )
 	{
-		if ( collated )
-			return;
-
 		if (json)
 		// JSON
 		{
 			sb.append(
 				String.format(JSON_2_FORMAT
-					, 	connects_millis.size()
-					,	connects_millis.stream().mapToDouble(Float::doubleValue).average().orElse(0)
-					,	connects_millis.stream().mapToDouble(Float::doubleValue).min().orElse(0)
-					,	connects_millis.stream().mapToDouble(Float::doubleValue).max().orElse(0)
-					,	timeouts_millis.size()
-					,	timeouts_millis.stream().mapToDouble(Float::doubleValue).average().orElse(0)
+					, 	connections
+					,	mean / NANOS
+					,	min / NANOS
+					,	max / NANOS
+					,	p50 / NANOS
+					,	p90 / NANOS
+					,	p99 / NANOS
+					,	stddev / NANOS
+					,	timeouts
+					,	timeoutmean / NANOS
 					,	refused
-					,	unreachable)
+					,	unreachable
+					,	inferred)
 				);
 		}
 		else
 		// CSV
 		{				
 			sb.append(",")
-				.append(connects_millis.size()).append(",")
-				.append(connects_millis.stream().mapToDouble(Float::doubleValue).average().orElse(0)).append(",")
-				.append(connects_millis.stream().mapToDouble(Float::doubleValue).min().orElse(0)).append(",")
-				.append(connects_millis.stream().mapToDouble(Float::doubleValue).max().orElse(0)).append(",")
-				.append(timeouts_millis.size()).append(",")
-				.append(timeouts_millis.stream().mapToDouble(Float::doubleValue).average().orElse(0)).append(",")
+				.append(connections).append(",")
+				.append(mean / NANOS).append(",")
+				.append(min / NANOS).append(",")
+				.append(max / NANOS).append(",")
+				.append(p50 / NANOS).append(",")
+				.append(p90 / NANOS).append(",")
+				.append(p99 / NANOS).append(",")
+				.append(stddev / NANOS).append(",")
+				.append(timeouts).append(",")
+				.append(timeoutmean / NANOS).append(",")
 				.append(refused).append(",")
-				.append(unreachable);
+				.append(unreachable).append(",")
+				.append(inferred);
 		}
-
-		result		= sb.toString();
-		collated	= true;
-	}
-
-
-	/**
-	 * Output the result connection digest, and also the results once collated.
-	 */
-	@Override
-	public String toString ()
-	{
-		return result;
-	}
+	} // stats
 
 } // Result
\ No newline at end of file
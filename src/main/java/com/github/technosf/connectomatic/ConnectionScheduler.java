@@ -0,0 +1,441 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+
+
+/**
+ * Bounded connection scheduler
+ * <p>
+ * Caps the number of {@code ConnectionTask}s in flight globally, per local interface address and per remote
+ * host address. Tasks over any cap are queued, per remote host, and started round-robin across the hosts as
+ * in-flight tasks are released.
+ * <p>
+ * Tasks may also be fed from sources that make them lazily. Tasks are pulled from a source only while fewer
+ * than {@code WINDOW} are queued, so a sweep's tasks are made as the caps admit them rather than all up front.
+ * <p>
+ * The default global cap is derived from the soft open file limit in {@code /proc/self/limits}, as each
+ * in-flight task holds one socket. The blocking engine's tasks each hold a pool thread too, so its default is
+ * also bounded by the thread budget. The scheduler may be throttled to a fraction of the tasks in flight when it
+ * was first throttled, so that fewer tasks start while the ephemeral ports run short.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class ConnectionScheduler
+{
+
+	static final int										INFLIGHT_FALLBACK	= 1024;	// Cap when the fd limit is unknown
+	static final int										FD_RESERVE			= 64;	// Descriptors held back for the JVM
+	static final int										THREAD_BUDGET		= 1024;	// Blocking pool threads by default
+	static final int										UNCAPPED			= Integer.MAX_VALUE;
+	static final int										DERIVED				= 0;	// Global cap derived for the engine
+	static final int										WINDOW				= 4096;	// Tasks queued ahead from sources
+
+	private static final String								LIMITS_FILE			= "/proc/self/limits";
+	private static final String								LIMITS_NOFILE		= "Max open files";
+
+	private final Consumer< ConnectionTask >				dispatcher;
+	private final Map< InetAddress, ArrayDeque< ConnectionTask > >	queued		= new HashMap<>();
+	private final ArrayDeque< InetAddress >					hosts				= new ArrayDeque<>();
+	private final ArrayDeque< Iterator< ConnectionTask > >	sources				= new ArrayDeque<>();
+	private final Map< InetAddress, Integer >				interfaceInFlight	= new HashMap<>();
+	private final Map< InetAddress, Integer >				hostInFlight		= new HashMap<>();
+
+	private int												maxInFlight			= defaultInFlight();
+	private int												maxPerInterface		= UNCAPPED;
+	private int												maxPerHost			= UNCAPPED;
+	private double											throttle			= 1;	// Fraction of the load allowed
+	private int												throttled;		// In flight when first throttled
+	private int												inFlight, queueDepth, peakQueueDepth;
+
+
+	/**
+	 * Creates a scheduler that starts tasks with the given dispatcher
+	 * 
+	 * @param dispatcher
+	 *                       starts a task on a connection engine
+	 */
+	ConnectionScheduler ( Consumer< ConnectionTask > dispatcher )
+	{
+		this.dispatcher = dispatcher;
+	}
+
+
+	/**
+	 * Sets the in-flight caps
+	 * 
+	 * @param global
+	 *                         the global in-flight cap
+	 * @param perInterface
+	 *                         the in-flight cap per local interface address
+	 * @param perHost
+	 *                         the in-flight cap per remote host address
+	 */
+	synchronized void setLimits ( int global, int perInterface, int perHost )
+	{
+		maxInFlight		= Math.max(1, global);
+		maxPerInterface	= Math.max(1, perInterface);
+		maxPerHost		= Math.max(1, perHost);
+		drain();
+	} // setLimits
+
+
+	/**
+	 * Throttles the tasks in flight to a fraction of those in flight when first throttled, with at least one,
+	 * starting queued tasks if the throttle is eased
+	 * 
+	 * @param fraction
+	 *                     the fraction of the load allowed, 1 to lift the throttle
+	 */
+	synchronized void setThrottle ( double fraction )
+	{
+		fraction = Math.max(0, Math.min(1, fraction));
+		if ( fraction < 1 && throttle == 1 )
+			throttled = Math.max(1, inFlight);
+		throttle = fraction;
+		drain();
+	} // setThrottle
+
+
+	/**
+	 * Queue a task, starting it straight away if no cap has been reached
+	 * 
+	 * @param task
+	 *                 the task to schedule
+	 */
+	synchronized void submit ( ConnectionTask task )
+	{
+		enqueue(task);
+		drain();
+	} // submit
+
+
+	/**
+	 * Feed tasks from a source, pulling them as the queue has room, after any sources already feeding
+	 * 
+	 * @param source
+	 *                   the tasks, made as they are pulled
+	 */
+	synchronized void feed ( Iterator< ConnectionTask > source )
+	{
+		sources.add(source);
+		drain();
+	} // feed
+
+
+	/**
+	 * Wait until the sources feeding have been pulled through, so a source fed from another thread is made no
+	 * further ahead of the queue than the sources before it
+	 * 
+	 * @throws InterruptedException
+	 *                                  if interrupted while waiting
+	 */
+	synchronized void awaitFed ()
+		throws InterruptedException
+	{
+		while ( !sources.isEmpty() )
+		{
+			wait();
+		} // while
+	} // awaitFed
+
+
+	/**
+	 * Are there sources with tasks yet to be pulled?
+	 * 
+	 * @return true if feeding
+	 */
+	synchronized boolean isFeeding ()
+	{
+		return !sources.isEmpty();
+	} // isFeeding
+
+
+	/**
+	 * Release a finished task's slots and start queued tasks that can now run
+	 * 
+	 * @param task
+	 *                 the finished task
+	 */
+	synchronized void release ( ConnectionTask task )
+	{
+		inFlight--;
+		decrement(interfaceInFlight, task.getLocalAddress());
+		decrement(hostInFlight, task.getRemoteAddress());
+		drain();
+	} // release
+
+
+	/**
+	 * The global in-flight cap
+	 * 
+	 * @return the cap
+	 */
+	synchronized int getMaxInFlight ()
+	{
+		return maxInFlight;
+	} // getMaxInFlight
+
+
+	/**
+	 * Tasks currently in flight
+	 * 
+	 * @return in-flight task count
+	 */
+	synchronized int getInFlight ()
+	{
+		return inFlight;
+	} // getInFlight
+
+
+	/**
+	 * Tasks currently queued behind a cap
+	 * 
+	 * @return queued task count
+	 */
+	synchronized int getQueueDepth ()
+	{
+		return queueDepth;
+	} // getQueueDepth
+
+
+	/**
+	 * The deepest the queue has been
+	 * 
+	 * @return peak queued task count
+	 */
+	synchronized int getPeakQueueDepth ()
+	{
+		return peakQueueDepth;
+	} // getPeakQueueDepth
+
+
+	/**
+	 * Start as many queued tasks as the caps allow, taking one task per remote host in turn, and pulling more
+	 * tasks from the sources as the queue empties
+	 */
+	private void drain ()
+	{
+		boolean	started	= true;
+		int		cap		= throttle < 1 ? Math.max(1, (int) Math.ceil(Math.min(maxInFlight, throttled) * throttle)) : maxInFlight;
+
+		while ( started )
+		{
+			started = false;
+			fill();
+
+			for ( int i = hosts.size(); i > 0 && inFlight < cap; i-- )
+			{
+				InetAddress						host	= hosts.poll();
+				ArrayDeque< ConnectionTask >	q		= queued.get(host);
+				ConnectionTask					task	= count(hostInFlight, host) < maxPerHost ? take(q) : null;
+
+				if ( q.isEmpty() )
+				{
+					queued.remove(host);
+				}
+				else
+				{
+					hosts.add(host);
+				} // if
+
+				if ( task != null )
+				{
+					start(task);
+					started = true;
+				} // if
+			} // for
+		} // while
+
+		peakQueueDepth = Math.max(peakQueueDepth, queueDepth);
+	} // drain
+
+
+	/**
+	 * Pull tasks from the sources until the queue holds a window of them or the sources are exhausted
+	 */
+	private void fill ()
+	{
+		while ( queueDepth < WINDOW && !sources.isEmpty() )
+		{
+			Iterator< ConnectionTask > source = sources.peek();
+
+			if ( source.hasNext() )
+			{
+				enqueue(source.next());
+			}
+			else
+			{
+				sources.poll();
+				if ( sources.isEmpty() )
+					notifyAll();
+			} // if
+		} // while
+	} // fill
+
+
+	/**
+	 * Queue a task behind its remote host's
+	 * 
+	 * @param task
+	 *                 the task to queue
+	 */
+	private void enqueue ( ConnectionTask task )
+	{
+		ArrayDeque< ConnectionTask > q = queued.get(task.getRemoteAddress());
+
+		if ( q == null )
+		{
+			q = new ArrayDeque<>();
+			queued.put(task.getRemoteAddress(), q);
+			hosts.add(task.getRemoteAddress());
+		} // if
+
+		q.add(task);
+		queueDepth++;
+	} // enqueue
+
+
+	/**
+	 * Remove the first task in a host queue whose local interface address is below its cap
+	 * 
+	 * @param q
+	 *              the host queue
+	 * 
+	 * @return the task, or null if every queued task is capped
+	 */
+	private ConnectionTask take ( ArrayDeque< ConnectionTask > q )
+	{
+		Iterator< ConnectionTask > it = q.iterator();
+
+		while ( it.hasNext() )
+		{
+			ConnectionTask task = it.next();
+			if ( count(interfaceInFlight, task.getLocalAddress()) < maxPerInterface )
+			{
+				it.remove();
+				return task;
+			} // if
+		} // while
+
+		return null;
+	} // take
+
+
+	/**
+	 * Account for and dispatch a task
+	 * 
+	 * @param task
+	 *                 the task to start
+	 */
+	private void start ( ConnectionTask task )
+	{
+		queueDepth--;
+		inFlight++;
+		interfaceInFlight.merge(task.getLocalAddress(), 1, Integer::sum);
+		hostInFlight.merge(task.getRemoteAddress(), 1, Integer::sum);
+		dispatcher.accept(task);
+	} // start
+
+
+	private static int count ( Map< InetAddress, Integer > counts, InetAddress address )
+	{
+		return counts.getOrDefault(address, 0);
+	} // count
+
+
+	private static void decrement ( Map< InetAddress, Integer > counts, InetAddress address )
+	{
+		counts.computeIfPresent(address, ( a, c ) -> c > 1 ? c - 1 : null);
+	} // decrement
+
+
+	/**
+	 * Derive the default global in-flight cap from the open file limit
+	 * 
+	 * @return the default cap
+	 */
+	static int defaultInFlight ()
+	{
+		long limit = fileDescriptorLimit();
+
+		if ( limit <= FD_RESERVE )
+			return INFLIGHT_FALLBACK;
+
+		return (int) Math.min(Integer.MAX_VALUE, limit - FD_RESERVE);
+	} // defaultInFlight
+
+
+	/**
+	 * Derive the default global in-flight cap for an engine
+	 * <p>
+	 * The reactor and virtual thread engines hold a socket per task, so take the cap from the open file limit.
+	 * The blocking engine also holds a platform thread, with its stack, per task, so its cap is bounded by the
+	 * thread budget as well.
+	 * 
+	 * @param engine
+	 *                   the connection engine
+	 * 
+	 * @return the default cap
+	 */
+	static int defaultInFlight ( EngineTypeEnum engine )
+	{
+		return EngineTypeEnum.BLOCKING == engine ? Math.min(THREAD_BUDGET, defaultInFlight()) : defaultInFlight();
+	} // defaultInFlight
+
+
+	/**
+	 * Read the soft open file limit from {@code /proc/self/limits}
+	 * 
+	 * @return the soft limit, or -1 if unknown or unlimited
+	 */
+	static long fileDescriptorLimit ()
+	{
+		try
+		{
+			for ( String line : Files.readAllLines(Paths.get(LIMITS_FILE)) )
+			{
+				if ( line.startsWith(LIMITS_NOFILE) )
+				{
+					return Long.parseLong(line.substring(LIMITS_NOFILE.length()).trim().split("\\s+")[0]);
+				} // if
+			} // for
+		}
+		catch ( IOException | NumberFormatException e )
+		{
+			// No proc filesystem, or unlimited
+		} // try/catch
+
+		return -1;
+	} // fileDescriptorLimit
+
+} // ConnectionScheduler
@@ -26,44 +26,108 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 
 /**
  * A runnable task that makes a number of connection attempts from a given interface to a given address and
  * port number
  * <p>
- * Connection tasks are created using a static submit method that creates and runs the task in its own
- * execution service. Results are collated as CSV lines, or JSON array lines.
+ * Connection tasks are created using a static submit method that queues the task on a bounded
+ * {@code ConnectionScheduler}, which runs it in its own execution service, or hands it to the non-blocking
+ * {@code ConnectionReactor} when the NIO engine is selected. Results are collated as CSV lines, or JSON array lines.
+ * <p>
+ * When attempts are interleaved, the tuples are held until {@code interleave} is called, then each is split into
+ * single attempt tasks that are submitted in rounds or in a random permutation. Each split task records into its
+ * own result, merged into the tuple's result when it finishes, and the last of them to finish reports the tuple.
  * 
  * @since 1.0.0
  * 
- * @version 1.2.0
+ * @version 1.3.0
  * 
  * @author technosf
  */
 public class ConnectionTask implements Callable< ConnectionResult >
 {
 
+	private static final BlockingQueue< Future< ConnectionResult > >	COMPLETED	= new LinkedBlockingQueue<>();
+
+	private static final ConnectionScheduler					SCHEDULER	= new ConnectionScheduler(ConnectionTask::dispatch);
+
+	private static final ThreadPoolExecutor						EXECUTOR	
+		= new ThreadPoolExecutor(
+			1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>()
+		);
+
 	private static final CompletionService< ConnectionResult >	CONNPOOL	
 		= new ExecutorCompletionService< >(
-			Executors.newCachedThreadPool()
+			EXECUTOR, COMPLETED
 		);
 
-	private static final Object		LOCK	= new Object();
-	private static int				futures;
+	private static final ScheduledThreadPoolExecutor			PACER	
+		= new ScheduledThreadPoolExecutor(1, r ->
+		{
+			Thread t = new Thread(r, "connectomatic-pacer");
+			t.setDaemon(true);
+			return t;
+		});
+
+	private static final Object				LOCK	= new Object();
+	private static final AtomicInteger		FUTURES	= new AtomicInteger();	// Results yet to be collected
+	private static final AtomicInteger		STREAMS	= new AtomicInteger();	// Streams still feeding tasks
+	private static volatile EngineTypeEnum	engine	= EngineTypeEnum.BLOCKING;
+	private static volatile ConnectTimeout	timeout	= new ConnectTimeout(ConnectTimeout.NONE, false);
+	private static volatile ConnectRate		rate	= new ConnectRate(ConnectRate.UNLIMITED, ConnectRate.UNLIMITED, ConnectRate.BURST_DEFAULT);
+	private static volatile ConnectAttempts	attempts	= new ConnectAttempts(CLIReader.CONNECTS_DEFAULT);
+	private static volatile RouteState		routes	= new RouteState(RouteState.OFF, RouteState.SAMPLE_DEFAULT);
+	private static volatile TeardownTypeEnum	teardown	= TeardownTypeEnum.GRACEFUL;
+	private static volatile PortBudget		ports;
+	private static volatile SourcePorts		sources	= new SourcePorts();
+	private static OrderTypeEnum			order	= OrderTypeEnum.TUPLE;
+	private static final List< ConnectionTask >	INTERLEAVED	= new ArrayList<>();
+	private static CompletionService< ConnectionResult >	virtualpool;
+	private static final int[]				CONCURRENCY	=	// The caps requested, the global derived for the engine by default
+		{ ConnectionScheduler.DERIVED, ConnectionScheduler.UNCAPPED, ConnectionScheduler.UNCAPPED };
+
+	static
+	/*
+	 * Pool threads are only held while the scheduler has work in flight
+	 */
+	{
+		EXECUTOR.allowCoreThreadTimeOut(true);
+		limit();
+	};
 
 	private ConnectionResult		result;
 	private int						port;
 	private int						pingcount;
 	private InetAddress				localaddress;
 	private InetAddress				remoteaddress;
+	private ConnectionResult		tally;			// The tuple's result, which split tasks merge into
+	private AtomicInteger			remaining;		// Split tasks of the tuple yet to finish, null if not split
+	private int						ping;			// Attempts made
+	private long					slot;			// Start slot of the next attempt, when paced
+	private boolean					paced;			// Holding a start slot for the next attempt
 
 
 	/**
@@ -74,7 +138,7 @@ public class ConnectionTask implements Callable< ConnectionResult >
 
 
 	/**
-	 * Private generic constructor that configures the object
+	 * Generic constructor that configures the object
 	 * 
 	 * @param ipv
 	 *                          the IPv
@@ -87,7 +151,7 @@ public class ConnectionTask implements Callable< ConnectionResult >
 	 * @param pingcount
 	 *                          times connection attempts are to made
 	 */
-	private ConnectionTask ( boolean json, String ipv, InetAddress localaddress, InetAddress remoteaddress, int port, int pingcount )
+	ConnectionTask ( boolean json, String ipv, InetAddress localaddress, InetAddress remoteaddress, int port, int pingcount )
 	{
 		super();
 		result					= new ConnectionResult( json, ipv, localaddress, remoteaddress, port); 
@@ -95,6 +159,27 @@ public class ConnectionTask implements Callable< ConnectionResult >
 		this.pingcount			= pingcount;
 		this.localaddress		= localaddress;
 		this.remoteaddress		= remoteaddress;
+		this.tally				= result;
+	}
+
+
+	/**
+	 * Split constructor, making a single attempt of the given tuple's
+	 * <p>
+	 * The split task's own result is created when it is dispatched
+	 * 
+	 * @param tuple
+	 *                  the tuple task being split
+	 */
+	private ConnectionTask ( ConnectionTask tuple )
+	{
+		super();
+		port				= tuple.port;
+		pingcount			= 1;
+		localaddress		= tuple.localaddress;
+		remoteaddress		= tuple.remoteaddress;
+		tally				= tuple.tally;
+		remaining			= tuple.remaining;
 	}
 
 
@@ -120,6 +205,289 @@ public class ConnectionTask implements Callable< ConnectionResult >
 	}
 
 
+	/**
+	 * Selects the engine that subsequently submitted tasks are run by
+	 * <p>
+	 * The virtual engine falls back to the blocking pool where the JVM has no virtual threads
+	 * 
+	 * @param engineType
+	 *                        the connection engine
+	 * 
+	 * @return the engine selected
+	 */
+	public static EngineTypeEnum setEngine ( EngineTypeEnum engineType )
+	{
+		synchronized ( LOCK )
+		{
+			if ( EngineTypeEnum.VIRTUAL == engineType )
+			{
+				if ( !VirtualThreads.isSupported() )
+				{
+					engineType = EngineTypeEnum.BLOCKING;
+				}
+				else if ( virtualpool == null )
+				{
+					virtualpool = new ExecutorCompletionService< >(VirtualThreads.newExecutor(), COMPLETED);
+				} // if
+			} // if
+
+			engine = engineType;
+			limit();
+			return engine;
+		} // synchronized
+	} // setEngine
+
+
+	/**
+	 * Sets the scheduler in-flight caps, and sizes the blocking pool to match
+	 * <p>
+	 * A global cap of {@code ConnectionScheduler.DERIVED} is derived for the engine selected, and derived again
+	 * if another engine is selected, so the blocking pool stays within the thread budget by default
+	 * 
+	 * @param global
+	 *                         the global in-flight cap, or {@code ConnectionScheduler.DERIVED}
+	 * @param perInterface
+	 *                         the in-flight cap per local interface address
+	 * @param perHost
+	 *                         the in-flight cap per remote host address
+	 */
+	public static void setConcurrency ( int global, int perInterface, int perHost )
+	{
+		synchronized ( LOCK )
+		{
+			CONCURRENCY[0]	= global;
+			CONCURRENCY[1]	= perInterface;
+			CONCURRENCY[2]	= perHost;
+			limit();
+		} // synchronized
+	} // setConcurrency
+
+
+	/**
+	 * Applies the caps requested to the scheduler for the engine selected, and sizes the blocking pool to match
+	 */
+	private static void limit ()
+	{
+		synchronized ( LOCK )
+		{
+			SCHEDULER.setLimits(CONCURRENCY[0] != ConnectionScheduler.DERIVED ? CONCURRENCY[0] : ConnectionScheduler.defaultInFlight(engine),
+					CONCURRENCY[1], CONCURRENCY[2]);
+			int size = SCHEDULER.getMaxInFlight();
+			if ( size > EXECUTOR.getMaximumPoolSize() )
+			{
+				EXECUTOR.setMaximumPoolSize(size);
+				EXECUTOR.setCorePoolSize(size);
+			}
+			else
+			{
+				EXECUTOR.setCorePoolSize(size);
+				EXECUTOR.setMaximumPoolSize(size);
+			} // if
+		} // synchronized
+	} // limit
+
+
+	/**
+	 * Sets the connect timeout for subsequent attempts
+	 * 
+	 * @param millis
+	 *                     the timeout in millis, the ceiling if adaptive, or zero to wait for the OS
+	 * @param adaptive
+	 *                     adapt the timeout to each route's round trip times
+	 */
+	public static void setTimeout ( int millis, boolean adaptive )
+	{
+		timeout = new ConnectTimeout(millis, adaptive);
+	} // setTimeout
+
+
+	/**
+	 * Returns the connect timeout shared by the engines
+	 * 
+	 * @return the connect timeout
+	 */
+	static ConnectTimeout getTimeout ()
+	{
+		return timeout;
+	} // getTimeout
+
+
+	/**
+	 * Sets the order that subsequently submitted tuples' attempts are made in
+	 * 
+	 * @param orderType
+	 *                       the attempt order
+	 */
+	public static void setOrder ( OrderTypeEnum orderType )
+	{
+		synchronized ( LOCK )
+		{
+			order = orderType;
+		} // synchronized
+	} // setOrder
+
+
+	/**
+	 * Sets the pacing of subsequent connect starts
+	 * 
+	 * @param global
+	 *                    global connect starts per second, or zero for no limit
+	 * @param perHost
+	 *                    connect starts per second to each remote host, or zero for no limit
+	 * @param burst
+	 *                    the starts that may be made at once after idling
+	 */
+	public static void setRate ( double global, double perHost, int burst )
+	{
+		rate = new ConnectRate(global, perHost, burst);
+	} // setRate
+
+
+	/**
+	 * Returns the connect start pacing shared by the engines
+	 * 
+	 * @return the connect rate
+	 */
+	static ConnectRate getRate ()
+	{
+		return rate;
+	} // getRate
+
+
+	/**
+	 * Sets how many attempts subsequent tuples make, fixed or adapted to their results
+	 * 
+	 * @param connectAttempts
+	 *                            the attempts, whose budget pool is shared by the tuples made with it
+	 */
+	public static void setAttempts ( ConnectAttempts connectAttempts )
+	{
+		attempts = connectAttempts;
+	} // setAttempts
+
+
+	/**
+	 * Returns the connect attempts shared by the engines
+	 * 
+	 * @return the connect attempts
+	 */
+	static ConnectAttempts getAttempts ()
+	{
+		return attempts;
+	} // getAttempts
+
+
+	/**
+	 * Sets the route state that subsequent tuples record their unreachable attempts in, and are inferred from
+	 * 
+	 * @param routeState
+	 *                       the route state, shared by the tuples made with it
+	 */
+	public static void setRoutes ( RouteState routeState )
+	{
+		routes = routeState;
+	} // setRoutes
+
+
+	/**
+	 * Returns the route state shared by the engines
+	 * 
+	 * @return the route state
+	 */
+	static RouteState getRoutes ()
+	{
+		return routes;
+	} // getRoutes
+
+
+	/**
+	 * Sets how the sockets of subsequent attempts are torn down
+	 * 
+	 * @param teardownType
+	 *                         the teardown
+	 */
+	public static void setTeardown ( TeardownTypeEnum teardownType )
+	{
+		teardown = teardownType;
+	} // setTeardown
+
+
+	/**
+	 * Returns how the sockets of attempts are torn down
+	 * 
+	 * @return the teardown
+	 */
+	static TeardownTypeEnum getTeardown ()
+	{
+		return teardown;
+	} // getTeardown
+
+
+	/**
+	 * Monitors the ephemeral ports in TIME_WAIT, slowing the scheduler once they pass the threshold of the
+	 * ephemeral range, or of the source port range if explicit
+	 * 
+	 * @param percent
+	 *                    the percent of the ephemeral range in TIME_WAIT at which the scheduler is slowed
+	 * 
+	 * @return the port budget, or null if there is no proc filesystem to monitor
+	 */
+	public static PortBudget setPortBudget ( int percent )
+	{
+		synchronized ( LOCK )
+		{
+			PortBudget budget = sources.isExplicit() ? new PortBudget(percent, sources.getFirst(), sources.getLast()) : new PortBudget(percent);
+			ports = budget.monitor(SCHEDULER) ? budget : null;
+			return ports;
+		} // synchronized
+	} // setPortBudget
+
+
+	/**
+	 * Returns the ephemeral port budget being monitored
+	 * 
+	 * @return the port budget, or null if not monitored
+	 */
+	static PortBudget getPortBudget ()
+	{
+		return ports;
+	} // getPortBudget
+
+
+	/**
+	 * Sets the source ports that subsequent attempts bind their local addresses to
+	 * 
+	 * @param sourcePorts
+	 *                        the source ports, ephemeral or from an explicit range
+	 */
+	public static void setSources ( SourcePorts sourcePorts )
+	{
+		sources = sourcePorts;
+	} // setSources
+
+
+	/**
+	 * Returns the source ports shared by the engines
+	 * 
+	 * @return the source ports
+	 */
+	static SourcePorts getSources ()
+	{
+		return sources;
+	} // getSources
+
+
+	/**
+	 * Returns the scheduler that caps in-flight tasks
+	 * 
+	 * @return the scheduler
+	 */
+	static ConnectionScheduler getScheduler ()
+	{
+		return SCHEDULER;
+	} // getScheduler
+
+
 	/**
 	 * Submit a new {@code ConnectionTask} for IPv4
 	 * 
@@ -136,8 +504,7 @@ public class ConnectionTask implements Callable< ConnectionResult >
 	{
 		synchronized ( LOCK )
 		{
-			CONNPOOL.submit(new ConnectionTask( json, localaddress, remoteaddress, port, pingcount ));
-			futures++;
+			queue(new ConnectionTask( json, localaddress, remoteaddress, port, pingcount ));
 		}
 	}
 
@@ -158,30 +525,295 @@ public class ConnectionTask implements Callable< ConnectionResult >
 	{
 		synchronized ( LOCK )
 		{
-			CONNPOOL.submit(new ConnectionTask( json, localaddress, remoteaddress, port, pingcount ));
-			futures++;
+			queue(new ConnectionTask( json, localaddress, remoteaddress, port, pingcount ));
 		} // synchronized
 	} // submit
 
 
 	/**
-	 * Returns the results of all submitted {@code ConnectionTask}up until this point
+	 * Submit {@code ConnectionTask}s for the targets, made lazily as the scheduler has room for them
+	 * <p>
+	 * Tuples to be interleaved are all made and held, as the order of their attempts spans them all
 	 * 
-	 * Results are ordered by a digest of the input parameters
+	 * @param targets
+	 *                      the targets, enumerated as the tasks are made
+	 * @param json
+	 *                      true for JSON results, false for CSV
+	 * @param pingcount
+	 *                      the number of times to try and connect
+	 */
+	public static void submit ( Iterator< TargetSpace.Target > targets, boolean json, int pingcount )
+	{
+		synchronized ( LOCK )
+		{
+			if ( OrderTypeEnum.TUPLE == order || pingcount == 0 )
+			{
+				SCHEDULER.feed(tasks(targets, json, pingcount));
+			}
+			else
+			{
+				targets.forEachRemaining(target -> INTERLEAVED
+						.add(new ConnectionTask(json, target.ipv, target.localaddress, target.remoteaddress, target.port, pingcount)));
+			} // if
+		} // synchronized
+	} // submit
+
+
+	/**
+	 * Open a stream, that feeds tasks from another thread as its targets become known. Results are collected
+	 * until each stream opened is closed
+	 */
+	static void open ()
+	{
+		STREAMS.incrementAndGet();
+	} // open
+
+
+	/**
+	 * Feed {@code ConnectionTask}s for the targets of a stream in tuple order, made lazily as the scheduler has
+	 * room for them, once the targets fed before them have been made
 	 * 
-	 * @return An ordered map of the results
+	 * @param targets
+	 *                      the targets, enumerated as the tasks are made
+	 * @param json
+	 *                      true for JSON results, false for CSV
+	 * @param pingcount
+	 *                      the number of times to try and connect
+	 * 
+	 * @throws InterruptedException
+	 *                                  if interrupted waiting on the scheduler
 	 */
-	public static Map< String, ConnectionResult > getResults ()
+	static void stream ( Iterator< TargetSpace.Target > targets, boolean json, int pingcount )
+		throws InterruptedException
+	{
+		SCHEDULER.awaitFed();
+		SCHEDULER.feed(tasks(targets, json, pingcount));
+	} // stream
+
+
+	/**
+	 * Close a stream, waking the collection of results to see if all have been collected
+	 */
+	static void close ()
+	{
+		FUTURES.incrementAndGet();
+		STREAMS.decrementAndGet();
+		COMPLETED.add(CompletableFuture.completedFuture(null));
+	} // close
+
+
+	/**
+	 * Make tasks for the targets as they are pulled, counting each as a result to be collected
+	 */
+	private static Iterator< ConnectionTask > tasks ( Iterator< TargetSpace.Target > targets, boolean json, int pingcount )
+	{
+		return new Iterator< ConnectionTask >()
+		{
+			@Override
+			public boolean hasNext ()
+			{
+				return targets.hasNext();
+			}
+
+
+			@Override
+			public ConnectionTask next ()
+			{
+				TargetSpace.Target target = targets.next();
+				FUTURES.incrementAndGet();
+				return new ConnectionTask(json, target.ipv, target.localaddress, target.remoteaddress, target.port, pingcount);
+			}
+		};
+	} // tasks
+
+
+	/**
+	 * Schedule a tuple, or hold it to be interleaved
+	 * 
+	 * @param task
+	 *                 the tuple task
+	 */
+	private static void queue ( ConnectionTask task )
+	{
+		if ( OrderTypeEnum.TUPLE == order || task.pingcount == 0 )
+		{
+			FUTURES.incrementAndGet();
+			SCHEDULER.submit(task);
+		}
+		else
+		{
+			INTERLEAVED.add(task);
+		} // if
+	} // queue
+
+
+	/**
+	 * Split the tuples held for interleaving into single attempts, and schedule them in the order set
+	 */
+	public static void interleave ()
+	{
+		synchronized ( LOCK )
+		{
+			for ( ConnectionTask task : split(INTERLEAVED, order, new Random()) )
+			{
+				FUTURES.incrementAndGet();
+				SCHEDULER.submit(task);
+			} // for
+			INTERLEAVED.clear();
+		} // synchronized
+	} // interleave
+
+
+	/**
+	 * Split tuples into single attempt tasks, in rounds of one attempt per tuple, permuted if random
+	 * 
+	 * @param tuples
+	 *                       the tuple tasks
+	 * @param orderType
+	 *                       the attempt order
+	 * @param random
+	 *                       the source of the random permutation
+	 * 
+	 * @return the single attempt tasks in the order to be scheduled
+	 */
+	static List< ConnectionTask > split ( List< ConnectionTask > tuples, OrderTypeEnum orderType, Random random )
+	{
+		List< ConnectionTask >	tasks	= new ArrayList<>();
+		int						rounds	= 0;
+
+		for ( ConnectionTask tuple : tuples )
+		{
+			tuple.remaining	= new AtomicInteger(tuple.pingcount);
+			rounds			= Math.max(rounds, tuple.pingcount);
+		} // for
+
+		for ( int round = 0; round < rounds; round++ )
+		{
+			for ( ConnectionTask tuple : tuples )
+			{
+				if ( round < tuple.pingcount )
+					tasks.add(new ConnectionTask(tuple));
+			} // for
+		} // for
+
+		if ( OrderTypeEnum.RANDOM == orderType )
+		{
+			Collections.shuffle(tasks, random);
+		} // if
+
+		return tasks;
+	} // split
+
+
+	/**
+	 * Hands a task released by the scheduler to the selected engine
+	 * 
+	 * @param task
+	 *                 the task to run
+	 */
+	private static void dispatch ( ConnectionTask task )
+	{
+		if ( task.result == null )
+		// Split task, recording into its own result until it finishes
+		{
+			task.result = new ConnectionResult(false, task.tally.ipv, task.localaddress, task.remoteaddress, task.port);
+		} // if
+
+		switch ( engine )
+		{
+			case NIO:
+				ConnectionReactor.submit(task.result, task.localaddress, task.remoteaddress, task.port, task.pingcount,
+						r -> task.complete());
+				break;
+			case VIRTUAL:
+				virtualpool.submit(task);
+				break;
+			default:
+				CONNPOOL.submit(task);
+		} // switch
+	} // dispatch
+
+
+	/**
+	 * Releases the task from the scheduler and queues its result, completed outside of the pool, for collection
+	 * by {@code getResults}
+	 */
+	private void complete ()
+	{
+		SCHEDULER.release(this);
+		COMPLETED.add(CompletableFuture.completedFuture(settle()));
+	} // complete
+
+
+	/**
+	 * Settles a finished task's result, merging a split task's result into its tuple's
+	 * 
+	 * @return the tuple's result, or null if split tasks of the tuple have yet to finish
+	 */
+	private ConnectionResult settle ()
+	{
+		if ( remaining == null )
+			return result;
+
+		synchronized ( tally )
+		{
+			tally.connects.merge(result.connects);
+			tally.timeouts.merge(result.timeouts);
+			tally.refused += result.refused;
+			tally.unreachable += result.unreachable;
+		} // synchronized
+
+		result = null;
+		return remaining.decrementAndGet() == 0 ? tally : null;
+	} // settle
+
+
+	/**
+	 * The local address connections are made from
+	 * 
+	 * @return the local address
+	 */
+	InetAddress getLocalAddress ()
+	{
+		return localaddress;
+	} // getLocalAddress
+
+
+	/**
+	 * The remote address connections are made to
+	 * 
+	 * @return the remote address
+	 */
+	InetAddress getRemoteAddress ()
+	{
+		return remoteaddress;
+	} // getRemoteAddress
+
+
+	/**
+	 * Passes the result of each submitted {@code ConnectionTask} up until this point to the consumer, in the
+	 * order they complete, waiting on those still in progress. Split tasks pass their tuple's result once, when
+	 * the last of them completes
+	 * 
+	 * @param consumer
+	 *                     receives each result
+	 */
+	public static void forEachResult ( Consumer< ConnectionResult > consumer )
 	{
 		synchronized ( LOCK )
 		{
-			Map< String, ConnectionResult > results = new TreeMap<>();
-			while ( futures-- > 0 )
+			/*
+			 * Tasks are counted as they are pulled from a source, before the source reads as exhausted, and a
+			 * stream counts its close as a result to be collected before it closes
+			 */
+			while ( STREAMS.get() > 0 || SCHEDULER.isFeeding() || FUTURES.get() > 0 )
 			{
 				try
 				{
-					ConnectionResult result = CONNPOOL.take().get();
-					results.put(result.toString(), result);
+					ConnectionResult result = COMPLETED.take().get();
+					FUTURES.decrementAndGet();
+					if ( result != null )
+						consumer.accept(result);
 				}
 				catch ( NullPointerException e )
 				{
@@ -195,64 +827,195 @@ public class ConnectionTask implements Callable< ConnectionResult >
 					System.exit(1);
 				} // try
 			} // while
-			return results;
 		} // synchronized
+	} // forEachResult
+
+
+	/**
+	 * Returns the results of all submitted {@code ConnectionTask}up until this point
+	 * 
+	 * Results are ordered by a digest of the input parameters
+	 * 
+	 * @return An ordered map of the results
+	 */
+	public static Map< String, ConnectionResult > getResults ()
+	{
+		return getResults(result -> {});
+	} // getResults
+
+
+	/**
+	 * Returns the results of all submitted {@code ConnectionTask}up until this point, passing each to the
+	 * consumer as it completes
+	 * 
+	 * Results are ordered by a digest of the input parameters
+	 * 
+	 * @param completed
+	 *                      the consumer of each result as it completes
+	 * 
+	 * @return An ordered map of the results
+	 */
+	public static Map< String, ConnectionResult > getResults ( Consumer< ConnectionResult > completed )
+	{
+		Map< String, ConnectionResult > results = new TreeMap<>();
+		forEachResult(result ->
+		{
+			results.put(result.toString(), result);
+			completed.accept(result);
+		});
+		return results;
 	} // getResults
 
 
 	/**
 	 * Callable routine that performs the connection task
 	 * 
-	 * Performs the connection several time, calculating the time to open the connection
+	 * Performs the connection several time, then releases the task's scheduler slots. A paced task whose next
+	 * start slot has yet to come round is requeued for its slot, returning no result and keeping its scheduler
+	 * slots, rather than holding its pool thread while it waits
 	 */
 	@Override
 	public ConnectionResult call ()
 	{
-		float				nanotime	= 0;
-		InetSocketAddress	local		= new InetSocketAddress(localaddress, 0);
+		boolean held = false;
+
+		try
+		{
+			held = !connect();
+			return held ? null : settle();
+		}
+		finally
+		{
+			if ( !held )
+				SCHEDULER.release(this);
+		} // try/finally
+	} // call
+
+
+	/**
+	 * Requeue the task on its pool once its start slot comes round, counting the result to be collected from
+	 * its next run
+	 */
+	private void hold ()
+	{
+		FUTURES.incrementAndGet();
+		PACER.schedule(() -> ( EngineTypeEnum.VIRTUAL == engine ? virtualpool : CONNPOOL ).submit(this),
+				slot - System.nanoTime(), TimeUnit.NANOSECONDS);
+	} // hold
+
+
+	/**
+	 * Performs the connection several time, calculating the time to open the connection, stopping early once the
+	 * outcome has settled if the attempts are adaptive
+	 * <p>
+	 * Tuples on a route held down as unreachable are inferred, recording their attempts as unreachable without
+	 * making them. Paced attempts reserve their start slot, waiting for it only if it is close, and otherwise
+	 * holding the task to be run again when it comes round
+	 * 
+	 * @return true if the attempts are done, false if held for the next attempt's start slot
+	 */
+	private boolean connect ()
+	{
+		long				nanotime	= 0;
 		InetSocketAddress	remote		= new InetSocketAddress(remoteaddress, port);
+		Route				route		= new Route(localaddress, remoteaddress);
+		ConnectTimeout		timeouts	= timeout;
+		ConnectRate			rates		= rate;
+		ConnectAttempts		tries		= attempts;
+		RouteState			state		= routes;
+		boolean				abort		= TeardownTypeEnum.ABORT == teardown;
+		SourcePorts			binds		= sources;
+
+		if ( ping == 0 && !paced && state.infer(route) )
+		{
+			for ( ; ping < pingcount && tries.another(result, ping); ping++ )
+			{
+				result.unreachable++;
+				result.inferred++;
+			} // for
+			tries.done(ping);
+			return true;
+		} // if
 
-		for ( int ping = 0; ping < pingcount; ping++ )
+		for ( ; ping < pingcount && ( paced || tries.another(result, ping) ); ping++ )
 		/*
-		 * Attempt to connect from given localaddress/any port to remoteaddress/port
+		 * Attempt to connect from given localaddress/any port to remoteaddress/port, unless held for its start
+		 * slot and so already granted
 		 */
 		{
+			if ( rates.isPaced() )
+			/*
+			 * Hold the task until its start slot comes round, parking for waits too fine to requeue for
+			 */
+			{
+				if ( !paced )
+				{
+					slot	= rates.reserve(remoteaddress);
+					paced	= true;
+					if ( slot - System.nanoTime() >= 1000000 )
+					{
+						hold();
+						return false;
+					} // if
+				} // if
+				ConnectRate.await(slot);
+				paced = false;
+				rates.started();
+			} // if
+
 			try ( Socket socket = new Socket() )
 			{
 				try
 				// Get local socket
 				{
-					socket.bind(local);
+					if ( abort )
+						socket.setSoLinger(true, 0);
+					binds.bind(localaddress, socket::bind);
 				}
 				catch ( IOException e )
 				{
 					System.out.println("Unexprected Exception in Connection Task call() binding socket");
 					e.printStackTrace();
-					return result;
+					tries.done(ping);
+					return true;
 				} // try/catch
 
 				try
 				// Attempt connection
 				{
-					nanotime = 0f - System.nanoTime();
-					socket.connect(remote);
-					nanotime += System.nanoTime();
-
-					if ( socket.isConnected() )
-					{
-						result.connects_millis.add(nanotime / 1000000);
-					}
-					else
-					{
-						result.timeouts_millis.add(nanotime / 1000000);
-					}
+					int millis = timeouts.millis(route);
+					nanotime = System.nanoTime();
+					socket.connect(remote, millis);
+					long elapsed = System.nanoTime() - nanotime;
+					result.connects.record(elapsed);
+					timeouts.sample(route, elapsed / 1000000f);
+					state.reached(route);
+				}
+				catch ( SocketTimeoutException e )
+				/*
+				 * Connection timed out
+				 */
+				{
+					result.timeouts.record(System.nanoTime() - nanotime);
+					timeouts.expired(route);
 				}
 				catch ( ConnectException e )
 				/*
-				 * Connection refused
+				 * Connection refused, or timed out by the OS
 				 */
 				{
-					result.refused++;
+					long elapsed = System.nanoTime() - nanotime;
+					if ( ConnectTimeout.isTimeout(e) )
+					{
+						result.timeouts.record(elapsed);
+						timeouts.expired(route);
+					}
+					else
+					{
+						result.refused++;
+						timeouts.sample(route, elapsed / 1000000f);
+						state.reached(route);
+					} // if
 				}
 				catch ( SocketException e )
 				/*
@@ -260,6 +1023,8 @@ public class ConnectionTask implements Callable< ConnectionResult >
 				 */
 				{
 					result.unreachable++;
+					if ( RouteState.isNetworkUnreachable(e) )
+						state.unreachable(route, port);
 				}
 				catch ( Exception e )
 				{
@@ -276,7 +1041,8 @@ public class ConnectionTask implements Callable< ConnectionResult >
 			}
 		} // for
 
-		return result;
-	} // call
+		tries.done(ping);
+		return true;
+	} // connect
 
 } // ConnectionTask
@@ -0,0 +1,493 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * Index of a previous run's results, to report only the tuples that have changed since
+ * <p>
+ * The results file is the CSV or JSON output of an earlier run, with or without its preamble and summary, or
+ * its binary results. It is streamed a line, or a binary result, at a time, CSV columns being found by their
+ * index in the header, and JSON results being one or more objects to a line as they are output.
+ * Each tuple is indexed by its digest, {@code IPv,Interface,Remote Address,Remote Port}, to a single
+ * {@code long} packing its outcome class, the set of outcomes seen (connected, timed out, refused, unreachable),
+ * and its connection time P50, or the average where the file has no P50. Unreachables inferred from a route held
+ * down count as unreachable, as which of a route's tuples are probed varies from run to run. The digests and
+ * their packed values are held in an open addressed table of parallel arrays, so the index holds no boxed values.
+ * <p>
+ * A result has changed if the tuple is new, its outcome class differs, or its P50 has moved by more than the
+ * threshold percentage of the previous P50.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class DeltaIndex
+{
+
+	static final double						THRESHOLD_DEFAULT	= 25;	// Percent the P50 may move unreported
+
+	static final int						CONNECTED			= 1;
+	static final int						TIMEDOUT			= 2;
+	static final int						REFUSED				= 4;
+	static final int						UNREACHABLE			= 8;
+
+	private static final double				NANOS				= 1000000d;	// As ConnectionResult reports timings
+	private static final int				BUFFER				= 65536;
+	private static final int				CAPACITY			= 1024;		// Initial table slots, a power of two
+	private static final String				CSV_IPV				= "\"IPv\"";
+	private static final String				JSON_IPV			= "{\"IPv\"";
+	private static final String				P50					= "Connection μs P50";
+	private static final String				AVG					= "Connection μs Avg";
+	private static final Columns			COLUMNS				= new Columns(names(ConnectionResult.CSV_HEADER));
+	private static final Map< String, Integer >	JSON_COLUMNS	= new HashMap<>();
+	private static final Pattern			REGEX_JSON_OBJECT	= Pattern.compile("\\{[^{}]*\\}");
+	private static final Pattern			REGEX_JSON_FIELD	= Pattern.compile("\"([^\"]+)\":(?:\"([^\"]*)\"|([^,}]+))");
+
+	static
+	{
+		for ( int i = 0; i < COLUMNS.names.size(); i++ )
+		{
+			JSON_COLUMNS.put(COLUMNS.names.get(i), i);
+		} // for
+	};
+
+	private final double					threshold;
+	private String[]						keys				= new String[CAPACITY];
+	private long[]							values				= new long[CAPACITY];
+	private final BitSet					seen				= new BitSet();
+	private String[]						fields				= new String[COLUMNS.names.size()];
+	private int								size, changed, unchanged;
+
+
+	/**
+	 * The column indexes of a results layout, -1 where it has no such column
+	 */
+	private static final class Columns
+	{
+
+		final List< String >	names;
+		final int				ipv, localaddress, remoteaddress, port, connections, p50, avg, timeouts, refused, unreachable;
+
+
+		Columns ( List< String > names )
+		{
+			this.names		= names;
+			ipv				= names.indexOf("IPv");
+			localaddress	= names.indexOf("Interface");
+			remoteaddress	= names.indexOf("Remote Address");
+			port			= names.indexOf("Remote Port");
+			connections		= names.indexOf("Connections");
+			p50				= names.indexOf(P50);
+			avg				= names.indexOf(AVG);
+			timeouts		= names.indexOf("Timeouts");
+			refused			= names.indexOf("Refused");
+			unreachable		= names.indexOf("Unreachable");
+		}
+
+	};
+
+
+	/**
+	 * An empty index
+	 * 
+	 * @param threshold
+	 *                      the percent the P50 may move before a result is reported
+	 */
+	DeltaIndex ( double threshold )
+	{
+		this.threshold = threshold;
+	}
+
+
+	/**
+	 * Load a previous run's CSV, JSON or binary results, streaming them
+	 * 
+	 * @param file
+	 *                      the results file
+	 * @param threshold
+	 *                      the percent the P50 may move before a result is reported
+	 * 
+	 * @return the index
+	 * 
+	 * @throws IOException
+	 *                         if the file could not be read
+	 */
+	static DeltaIndex load ( Path file, double threshold )
+		throws IOException
+	{
+		DeltaIndex index = new DeltaIndex(threshold);
+
+		try ( InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER) )
+		{
+			in.mark(4);
+			int magic = in.read() << 24 | in.read() << 16 | in.read() << 8 | in.read();
+			in.reset();
+
+			if ( magic == BinarySink.MAGIC )
+			{
+				index.loadBinary(in);
+			}
+			else
+			{
+				index.loadText(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER));
+			} // if
+		} // try
+
+		return index;
+	} // load
+
+
+	/**
+	 * Index binary results, read back a result at a time in the CSV layout
+	 */
+	private void loadBinary ( InputStream in )
+		throws IOException
+	{
+		BinaryReader reader = new BinaryReader(in, false);
+
+		for ( String line; ( line = reader.next() ) != null; )
+		{
+			loadCsv(line, COLUMNS);
+		} // for
+	} // loadBinary
+
+
+	/**
+	 * Index CSV or JSON result lines, CSV by the columns of the last header line seen
+	 */
+	private void loadText ( BufferedReader reader )
+		throws IOException
+	{
+		Columns columns = COLUMNS;
+
+		for ( String line; ( line = reader.readLine() ) != null; )
+		{
+			if ( line.startsWith(CSV_IPV) )
+			{
+				columns = new Columns(names(line));
+				if ( columns.names.size() > fields.length )
+					fields = new String[columns.names.size()];
+			}
+			else if ( line.contains(JSON_IPV) )
+			{
+				loadJson(line);
+			}
+			else
+			{
+				loadCsv(line, columns);
+			} // if
+		} // for
+	} // loadText
+
+
+	/**
+	 * Index a CSV result line, skipping lines that are not results
+	 */
+	private void loadCsv ( String line, Columns columns )
+	{
+		int count = 0;
+
+		for ( int from = 0, to; from <= line.length(); from = to + 1, count++ )
+		{
+			to = line.indexOf(',', from);
+			if ( to < 0 )
+				to = line.length();
+			if ( count < fields.length )
+				fields[count] = line.substring(from, to);
+		} // for
+
+		if ( count == columns.names.size() && ( "4".equals(fields[columns.ipv]) || "6".equals(fields[columns.ipv]) ) )
+			put(columns);
+	} // loadCsv
+
+
+	/**
+	 * Index the JSON result objects on a line, by their fields' columns in the CSV layout
+	 */
+	private void loadJson ( String line )
+	{
+		Matcher object = REGEX_JSON_OBJECT.matcher(line);
+
+		while ( object.find() )
+		{
+			Matcher field = REGEX_JSON_FIELD.matcher(object.group());
+
+			Arrays.fill(fields, null);
+			while ( field.find() )
+			{
+				Integer column = JSON_COLUMNS.get(field.group(1));
+				if ( column != null )
+					fields[column] = field.group(2) != null ? field.group(2) : field.group(3).trim();
+			} // while
+			put(COLUMNS);
+		} // while
+	} // loadJson
+
+
+	/**
+	 * Index one result's fields, skipping those that are not results
+	 */
+	private void put ( Columns columns )
+	{
+		try
+		{
+			String	p50		= columns.p50 >= 0 && fields[columns.p50] != null ? fields[columns.p50] : fields[columns.avg];
+			int		outcome	= outcome(Long.parseLong(fields[columns.connections]), Long.parseLong(fields[columns.timeouts]),
+					Long.parseLong(fields[columns.refused]), Long.parseLong(fields[columns.unreachable]));
+
+			put(key(fields[columns.ipv], fields[columns.localaddress], fields[columns.remoteaddress], fields[columns.port]),
+					pack(outcome, Double.parseDouble(p50)));
+		}
+		catch ( NullPointerException | NumberFormatException | ArrayIndexOutOfBoundsException e )
+		{
+			// Not a result
+		} // try/catch
+	} // put
+
+
+	/**
+	 * Index a tuple's packed outcome and P50, growing the table to keep it at most three quarters full
+	 */
+	private void put ( String key, long value )
+	{
+		if ( ( size + 1 ) * 4 > keys.length * 3 )
+		{
+			String[]	oldkeys		= keys;
+			long[]		oldvalues	= values;
+
+			keys	= new String[oldkeys.length * 2];
+			values	= new long[oldkeys.length * 2];
+			for ( int i = 0; i < oldkeys.length; i++ )
+			{
+				if ( oldkeys[i] != null )
+				{
+					int slot = slot(oldkeys[i]);
+					keys[slot]		= oldkeys[i];
+					values[slot]	= oldvalues[i];
+				} // if
+			} // for
+		} // if
+
+		int slot = slot(key);
+		if ( keys[slot] == null )
+		{
+			keys[slot] = key;
+			size++;
+		} // if
+		values[slot] = value;
+	} // put
+
+
+	/**
+	 * The table slot holding a key, or the empty slot it would go in
+	 */
+	private int slot ( String key )
+	{
+		int mask	= keys.length - 1;
+		int h		= key.hashCode();
+		int slot	= ( h ^ ( h >>> 16 ) ) & mask;
+
+		while ( keys[slot] != null && !keys[slot].equals(key) )
+		{
+			slot = ( slot + 1 ) & mask;
+		} // while
+
+		return slot;
+	} // slot
+
+
+	/**
+	 * Has a result changed since the indexed run? Counts the result as changed or unchanged.
+	 * 
+	 * @param result
+	 *                   the collated result
+	 * 
+	 * @return true if new, of a different outcome, or its P50 has moved beyond the threshold
+	 */
+	synchronized boolean isChanged ( ConnectionResult result )
+	{
+		int		slot	= slot(key(result.ipv, result.localaddress.getHostAddress(), result.remoteaddress.getHostAddress(),
+				Integer.toString(result.port)));
+		boolean	change	= true;
+
+		if ( keys[slot] != null )
+		{
+			seen.set(slot);
+			long	previous	= values[slot];
+			int		outcome		= outcome(result.connects.count(), result.timeouts.count(), result.refused, result.unreachable);
+			double	was			= Float.intBitsToFloat((int) ( previous & 0xffffffffL ));
+			double	now			= result.connects.valueAtPercentile(50) / NANOS;
+
+			change = outcome != (int) ( previous >>> 32 )
+					|| ( ( outcome & CONNECTED ) != 0 && Math.abs(now - was) > was * threshold / 100 );
+		} // if
+
+		if ( change )
+			changed++;
+		else
+			unchanged++;
+		return change;
+	} // isChanged
+
+
+	/**
+	 * Filter the results passed to a sink to those that have changed
+	 * 
+	 * @param sink
+	 *                 the sink to pass changed results to
+	 * 
+	 * @return the filtering sink
+	 */
+	ResultSink filter ( ResultSink sink )
+	{
+		return new ResultSink()
+		{
+
+			@Override
+			public void open ()
+			{
+				sink.open();
+			} // open
+
+
+			@Override
+			public void accept ( ConnectionResult result )
+			{
+				if ( isChanged(result) )
+					sink.accept(result);
+			} // accept
+
+
+			@Override
+			public void close ()
+			{
+				sink.close();
+			} // close
+
+		};
+	} // filter
+
+
+	/**
+	 * Clear the counts for another sweep
+	 */
+	synchronized void reset ()
+	{
+		seen.clear();
+		changed		= 0;
+		unchanged	= 0;
+	} // reset
+
+
+	/**
+	 * Tuples indexed
+	 * 
+	 * @return the index size
+	 */
+	synchronized int size ()
+	{
+		return size;
+	} // size
+
+
+	/**
+	 * Results that have changed, including new tuples
+	 * 
+	 * @return changed count
+	 */
+	synchronized int getChanged ()
+	{
+		return changed;
+	} // getChanged
+
+
+	/**
+	 * Results that have not changed
+	 * 
+	 * @return unchanged count
+	 */
+	synchronized int getUnchanged ()
+	{
+		return unchanged;
+	} // getUnchanged
+
+
+	/**
+	 * Indexed tuples with no result since the last reset
+	 * 
+	 * @return missing count
+	 */
+	synchronized int getMissing ()
+	{
+		return size - seen.cardinality();
+	} // getMissing
+
+
+	/**
+	 * The outcome class of a tuple, the set of outcomes its attempts had, inferred unreachables being unreachable
+	 * 
+	 * @return the outcome bits
+	 */
+	static int outcome ( long connects, long timeouts, long refused, long unreachable )
+	{
+		return ( connects > 0 ? CONNECTED : 0 ) | ( timeouts > 0 ? TIMEDOUT : 0 ) | ( refused > 0 ? REFUSED : 0 )
+				| ( unreachable > 0 ? UNREACHABLE : 0 );
+	} // outcome
+
+
+	private static String key ( String ipv, String localaddress, String remoteaddress, String port )
+	{
+		return ipv + "," + localaddress + "," + remoteaddress + "," + port;
+	} // key
+
+
+	/**
+	 * The column names of a CSV header line
+	 */
+	private static List< String > names ( String header )
+	{
+		return Arrays.asList(header.replace("\"", "").split(","));
+	} // names
+
+
+	private static long pack ( int outcome, double p50 )
+	{
+		return ( (long) outcome << 32 ) | ( Float.floatToIntBits((float) p50) & 0xffffffffL );
+	} // pack
+
+} // DeltaIndex
@@ -0,0 +1,99 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Connection engines that can drive the connection attempts
+ * <p>
+ * {@code BLOCKING} runs each {@code ConnectionTask} on a pool thread with a blocking {@code Socket},
+ * {@code VIRTUAL} runs the same blocking code on a virtual thread per task where the JVM supports them,
+ * {@code NIO} drives all connects from a handful of {@code Selector} reactor threads.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+public enum EngineTypeEnum
+{
+
+	BLOCKING ( "blocking" )
+	, VIRTUAL ( "virtual" )
+	, NIO ( "nio" );
+
+
+	private static final Map< String, EngineTypeEnum >	NAME_INDEX;		// Store for an index of engine names
+
+	private final String								NAME;			// The engine name as used on the CLI
+
+
+	/**
+	 * Constructs the enum for an engine type
+	 * 
+	 * @param name
+	 *                 the CLI name of the engine
+	 */
+	private EngineTypeEnum ( String name )
+	{
+		NAME = name;
+	}
+
+
+	static
+	/*
+	 * Create a name index
+	 */
+	{
+		NAME_INDEX = new ConcurrentHashMap<>();
+		for ( EngineTypeEnum e : EngineTypeEnum.values() )
+		{
+			NAME_INDEX.put(e.NAME, e);
+		}
+	};
+
+
+	/**
+	 * Returns the enum for the given engine name
+	 * 
+	 * @param name
+	 *                 an engine name
+	 * 
+	 * @return enum for the engine name, or null if unknown
+	 */
+	static EngineTypeEnum getEngineType ( String name )
+	{
+		return NAME_INDEX.get(name.trim().toLowerCase());
+	}
+
+
+	/**
+	 * Returns the CLI name of the engine
+	 * 
+	 * @return the engine name
+	 */
+	String getName ()
+	{
+		return NAME;
+	}
+
+}
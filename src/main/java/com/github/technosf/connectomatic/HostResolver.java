@@ -0,0 +1,251 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Forward DNS resolution of hosts, in parallel and through a TTL-respecting cache
+ * <p>
+ * Hosts are resolved with {@code InetAddress.getAllByName()} on a pool of up to the requested number of
+ * threads, so a long host list is not resolved serially. Each resolution is timed, so slow DNS can be told
+ * apart from slow targets.
+ * <p>
+ * Resolutions, and failures, are cached for the lifetime the JVM's own address cache gives them, the
+ * {@code networkaddress.cache.ttl} and {@code networkaddress.cache.negative.ttl} security properties, as the
+ * JDK resolver does not expose record TTLs. The cache is shared, so repeated runs in one JVM reuse it.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class HostResolver
+{
+
+	static final int								CONCURRENCY_DEFAULT	= 16;	// Concurrent forward lookups
+	static final int								TTL_DEFAULT			= 30;	// Secs, as the JDK without a security manager
+	static final int								NEGATIVE_TTL_DEFAULT	= 10;	// Secs, as the JDK
+
+	static final String								PROP_TTL			= "networkaddress.cache.ttl";
+	static final String								PROP_NEGATIVE_TTL	= "networkaddress.cache.negative.ttl";
+
+	private static final Map< String, Resolution >	CACHE				= new ConcurrentHashMap<>();
+
+
+	/**
+	 * The outcome of resolving one host
+	 */
+	static final class Resolution
+	{
+
+		final String				host;
+		final InetAddress[]			addresses;
+		final UnknownHostException	failure;
+		final long					nanos;		// Time spent resolving
+		final long					expires;	// nanoTime the resolution expires from the cache
+		final boolean				cached;
+
+
+		private Resolution ( String host, InetAddress[] addresses, UnknownHostException failure, long nanos,
+				long expires, boolean cached )
+		{
+			this.host		= host;
+			this.addresses	= addresses;
+			this.failure	= failure;
+			this.nanos		= nanos;
+			this.expires	= expires;
+			this.cached		= cached;
+		} // Resolution
+
+
+		/**
+		 * Was the host resolved?
+		 * 
+		 * @return true if resolved to at least one address
+		 */
+		boolean isResolved ()
+		{
+			return failure == null;
+		} // isResolved
+
+
+		/**
+		 * This resolution, as served from the cache
+		 */
+		private Resolution fromCache ()
+		{
+			return new Resolution(host, addresses, failure, 0, expires, true);
+		} // fromCache
+
+	};
+
+
+	/**
+	 * Resolve hosts in parallel, from the cache where it holds unexpired resolutions
+	 * 
+	 * @param hosts
+	 *                        the hostnames or address literals to resolve
+	 * @param concurrency
+	 *                        the most lookups to run at once
+	 * 
+	 * @return the resolutions, in the order of the hosts
+	 */
+	static Map< String, Resolution > resolve ( Collection< String > hosts, int concurrency )
+	{
+		Map< String, Resolution > resolutions = new LinkedHashMap<>();
+
+		if ( hosts.isEmpty() )
+			return resolutions;
+
+		ExecutorService				pool	= Executors.newFixedThreadPool(Math.max(1, Math.min(concurrency, hosts.size())));
+		List< Future< Resolution > >	futures	= new ArrayList<>();
+
+		for ( String host : hosts )
+		{
+			futures.add(pool.submit(() -> resolve(host)));
+		} // for
+
+		try
+		{
+			for ( Future< Resolution > future : futures )
+			{
+				Resolution r = future.get();
+				resolutions.put(r.host, r);
+			} // for
+		}
+		catch ( InterruptedException | ExecutionException e )
+		{
+			throw new IllegalStateException("Host resolution interrupted", e);
+		}
+		finally
+		{
+			pool.shutdown();
+		} // try/catch
+
+		return resolutions;
+	} // resolve
+
+
+	/**
+	 * Resolve a host, from the cache if it holds an unexpired resolution
+	 * 
+	 * @param host
+	 *                 the hostname or address literal
+	 * 
+	 * @return the resolution
+	 */
+	static Resolution resolve ( String host )
+	{
+		Resolution r = CACHE.get(host);
+
+		if ( r != null && r.expires - System.nanoTime() > 0 )
+			return r.fromCache();
+
+		r = lookup(host);
+		CACHE.put(host, r);
+		return r;
+	} // resolve
+
+
+	/**
+	 * Resolve a host without caching the resolution, for hosts too many to hold, leaving any caching to the JVM
+	 * 
+	 * @param host
+	 *                 the hostname or address literal
+	 * 
+	 * @return the resolution
+	 */
+	static Resolution lookup ( String host )
+	{
+		Resolution	r;
+		long		nanotime	= System.nanoTime();
+
+		try
+		{
+			InetAddress[]	addresses	= InetAddress.getAllByName(host);
+			long			elapsed		= System.nanoTime() - nanotime;
+			r = new Resolution(host, addresses, null, elapsed, expiry(PROP_TTL, TTL_DEFAULT), false);
+		}
+		catch ( UnknownHostException e )
+		{
+			long elapsed = System.nanoTime() - nanotime;
+			r = new Resolution(host, new InetAddress[0], e, elapsed, expiry(PROP_NEGATIVE_TTL, NEGATIVE_TTL_DEFAULT), false);
+		} // try/catch
+
+		return r;
+	} // lookup
+
+
+	/**
+	 * Empty the cache
+	 */
+	static void clear ()
+	{
+		CACHE.clear();
+	} // clear
+
+
+	/**
+	 * The nanoTime a resolution made now expires, from a TTL security property
+	 * 
+	 * @param property
+	 *                       the TTL property, in seconds, negative to cache forever
+	 * @param fallback
+	 *                       the TTL if the property is not set
+	 * 
+	 * @return the expiry nanoTime
+	 */
+	static long expiry ( String property, int fallback )
+	{
+		long ttl = fallback;
+
+		try
+		{
+			String value = Security.getProperty(property);
+			if ( value != null )
+				ttl = Long.parseLong(value.trim());
+		}
+		catch ( NumberFormatException e )
+		{
+			// Use the fallback
+		} // try/catch
+
+		if ( ttl < 0 )
+			return System.nanoTime() + Long.MAX_VALUE / 2;
+
+		return System.nanoTime() + TimeUnit.SECONDS.toNanos(ttl);
+	} // expiry
+
+} // HostResolver
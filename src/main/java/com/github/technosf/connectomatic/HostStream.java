@@ -0,0 +1,411 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+
+/**
+ * A list of hosts, addresses and prefixes read from a file or stdin as a stream
+ * <p>
+ * Files are memory mapped a chunk at a time and stdin is read a line at a time. Entries are separated by lines,
+ * commas or whitespace, and anything after a {@code #} is a comment. Hosts are resolved as they are read, up to
+ * the resolvers at once without caching, and prefixes are expanded as an {@code AddressPrefix}. Each new address
+ * is passed on as soon as it is known, with duplicates dropped through a compact {@code AddressSet}, so the
+ * list need never be held whole.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class HostStream implements Closeable
+{
+
+	static final String									STDIN		= "-";
+
+	private static final int							MAP_CHUNK	= 1 << 26;	// Bytes mapped at a time
+	private static final Pattern						REGEX_SPLIT	= Pattern.compile("[,\\s]+");
+
+	private final String								source;
+	private final FileChannel							channel;
+	private final BufferedReader						reader;
+	private final int									resolvers;
+	private final int									chunk;
+	private final Function< String, AddressPrefix >	prefixes;
+	private final Set< String >							excluded;
+	private final AddressSet							seen		= new AddressSet();
+	private MappedByteBuffer							buffer;
+	private long										mapped;		// File offset the buffer is mapped from
+	private volatile long								entries, addresses, duplicates, unresolved;
+
+
+	/**
+	 * Open a host list
+	 * 
+	 * @param source
+	 *                      the file, or {@code -} for stdin
+	 * @param stdin
+	 *                      the stream read for stdin
+	 * @param resolvers
+	 *                      the hosts to resolve at once
+	 * @param prefixes
+	 *                      makes an {@code AddressPrefix} of a prefix entry
+	 * @param excluded
+	 *                      host addresses to skip, such as the local interface addresses
+	 * 
+	 * @throws IOException
+	 *                         if the file cannot be opened or mapped
+	 */
+	HostStream ( String source, InputStream stdin, int resolvers, Function< String, AddressPrefix > prefixes,
+			Set< String > excluded )
+		throws IOException
+	{
+		this(source, stdin, resolvers, prefixes, excluded, MAP_CHUNK);
+	} // HostStream
+
+
+	/**
+	 * Open a host list, mapping a file the given bytes at a time
+	 * 
+	 * @param source
+	 *                      the file, or {@code -} for stdin
+	 * @param stdin
+	 *                      the stream read for stdin
+	 * @param resolvers
+	 *                      the hosts to resolve at once
+	 * @param prefixes
+	 *                      makes an {@code AddressPrefix} of a prefix entry
+	 * @param excluded
+	 *                      host addresses to skip, such as the local interface addresses
+	 * @param chunk
+	 *                      the bytes of the file to map at a time
+	 * 
+	 * @throws IOException
+	 *                         if the file cannot be opened or mapped
+	 */
+	HostStream ( String source, InputStream stdin, int resolvers, Function< String, AddressPrefix > prefixes,
+			Set< String > excluded, int chunk )
+		throws IOException
+	{
+		this.source		= source;
+		this.chunk		= chunk;
+		this.resolvers	= Math.max(1, resolvers);
+		this.prefixes	= prefixes;
+		this.excluded	= excluded;
+
+		if ( STDIN.equals(source) )
+		{
+			channel	= null;
+			reader	= new BufferedReader(new InputStreamReader(stdin, StandardCharsets.UTF_8));
+		}
+		else
+		{
+			channel	= FileChannel.open(Paths.get(source), StandardOpenOption.READ);
+			reader	= null;
+			map(0, chunk);
+		} // if
+	} // HostStream
+
+
+	/**
+	 * Mark addresses as already seen, so they are not passed on again
+	 * 
+	 * @param seed
+	 *                 the addresses
+	 */
+	void seed ( Collection< ? extends InetAddress > seed )
+	{
+		seed.forEach(seen::add);
+	} // seed
+
+
+	/**
+	 * Read the list through, passing on each new address as it is resolved or expanded
+	 * 
+	 * @param consumer
+	 *                     receives each new address
+	 * 
+	 * @throws IOException
+	 *                         if the list cannot be read
+	 */
+	void forEach ( Consumer< InetAddress > consumer )
+		throws IOException
+	{
+		ExecutorService						pool	= Executors.newFixedThreadPool(resolvers, r ->
+												{
+													Thread thread = new Thread(r, "connectomatic-hosts");
+													thread.setDaemon(true);
+													return thread;
+												});
+		ArrayDeque< Future< HostResolver.Resolution > >	pending	= new ArrayDeque<>();
+
+		try
+		{
+			for ( String line; ( line = readLine() ) != null; )
+			{
+				int comment = line.indexOf('#');
+
+				for ( String entry : REGEX_SPLIT.split(comment < 0 ? line : line.substring(0, comment)) )
+				{
+					if ( entry.isEmpty() )
+						continue;
+
+					entries++;
+
+					if ( AddressPrefix.isPrefix(entry) )
+					{
+						expand(entry, consumer);
+						continue;
+					} // if
+
+					pending.add(pool.submit(() -> HostResolver.lookup(entry)));
+					if ( pending.size() >= resolvers )
+					{
+						pass(pending.poll().get(), consumer);
+					} // if
+				} // for
+			} // for
+
+			while ( !pending.isEmpty() )
+			{
+				pass(pending.poll().get(), consumer);
+			} // while
+		}
+		catch ( InterruptedException | ExecutionException e )
+		{
+			throw new IOException("Host resolution interrupted", e);
+		}
+		finally
+		{
+			pool.shutdownNow();
+		} // try/catch
+	} // forEach
+
+
+	/**
+	 * Pass on the addresses of a prefix entry
+	 */
+	private void expand ( String entry, Consumer< InetAddress > consumer )
+	{
+		try
+		{
+			for ( InetAddress address : prefixes.apply(entry) )
+			{
+				offer(address, consumer);
+			} // for
+		}
+		catch ( IllegalArgumentException e )
+		{
+			unresolved++;
+		} // try/catch
+	} // expand
+
+
+	/**
+	 * Pass on the addresses of a host resolution
+	 */
+	private void pass ( HostResolver.Resolution resolution, Consumer< InetAddress > consumer )
+	{
+		if ( !resolution.isResolved() )
+		{
+			unresolved++;
+			return;
+		} // if
+
+		for ( InetAddress address : resolution.addresses )
+		{
+			offer(address, consumer);
+		} // for
+	} // pass
+
+
+	/**
+	 * Pass on an address if it has not been seen and is not excluded
+	 */
+	private void offer ( InetAddress address, Consumer< InetAddress > consumer )
+	{
+		if ( excluded.contains(address.getHostAddress()) )
+			return;
+
+		if ( seen.add(address) )
+		{
+			addresses++;
+			consumer.accept(address);
+		}
+		else
+		{
+			duplicates++;
+		} // if
+	} // offer
+
+
+	/**
+	 * Read the next line, from stdin or from the mapped file, remapping the file as the line crosses a chunk
+	 * 
+	 * @return the line, or null at the end of the list
+	 */
+	private String readLine ()
+		throws IOException
+	{
+		if ( reader != null )
+			return reader.readLine();
+
+		while ( true )
+		{
+			int start = buffer.position();
+
+			for ( int i = start; i < buffer.limit(); i++ )
+			{
+				if ( buffer.get(i) == '\n' )
+				{
+					return decode(start, i, i + 1);
+				} // if
+			} // for
+
+			if ( mapped + buffer.limit() >= channel.size() )
+			// The last line
+			{
+				return start == buffer.limit() ? null : decode(start, buffer.limit(), buffer.limit());
+			} // if
+
+			/*
+			 * Remap from the start of the line, widening the map for a line as long as it
+			 */
+			map(mapped + start, start == 0 ? buffer.limit() * 2L : chunk);
+		} // while
+	} // readLine
+
+
+	/**
+	 * Decode a line from the buffer, and move past it
+	 */
+	private String decode ( int start, int end, int next )
+	{
+		byte[] bytes = new byte[end - start];
+
+		for ( int i = 0; i < bytes.length; i++ )
+		{
+			bytes[i] = buffer.get(start + i);
+		} // for
+
+		buffer.position(next);
+		return new String(bytes, StandardCharsets.UTF_8);
+	} // decode
+
+
+	/**
+	 * Map the file from the given offset, up to the given bytes
+	 */
+	private void map ( long offset, long length )
+		throws IOException
+	{
+		mapped	= offset;
+		buffer	= channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(Math.min(length, Integer.MAX_VALUE), channel.size() - offset));
+	} // map
+
+
+	/**
+	 * Where the list is read from
+	 * 
+	 * @return the file, or {@code -} for stdin
+	 */
+	String getSource ()
+	{
+		return source;
+	} // getSource
+
+
+	/**
+	 * The count of entries read
+	 * 
+	 * @return the entries
+	 */
+	long getEntries ()
+	{
+		return entries;
+	} // getEntries
+
+
+	/**
+	 * The count of new addresses passed on
+	 * 
+	 * @return the addresses
+	 */
+	long getAddresses ()
+	{
+		return addresses;
+	} // getAddresses
+
+
+	/**
+	 * The count of addresses dropped as already seen
+	 * 
+	 * @return the duplicates
+	 */
+	long getDuplicates ()
+	{
+		return duplicates;
+	} // getDuplicates
+
+
+	/**
+	 * The count of entries that did not resolve or were not valid prefixes
+	 * 
+	 * @return the unresolved entries
+	 */
+	long getUnresolved ()
+	{
+		return unresolved;
+	} // getUnresolved
+
+
+	/**
+	 * Close the file, leaving stdin open
+	 */
+	@Override
+	public void close ()
+		throws IOException
+	{
+		if ( channel != null )
+			channel.close();
+	} // close
+
+} // HostStream
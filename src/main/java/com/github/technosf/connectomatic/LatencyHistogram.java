@@ -0,0 +1,286 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.util.Arrays;
+
+
+/**
+ * Compact log-linear latency histogram of nanosecond values
+ * <p>
+ * In the manner of an HDR histogram, values below {@code 2^SUB_BUCKET_BITS} are counted exactly, and above
+ * that each power of two is split into {@code 2^(SUB_BUCKET_BITS - 1)} linear sub-buckets, so any recorded
+ * value is known to within 1/64 of itself. Only the span of buckets between the lowest and highest values
+ * recorded is allocated, which keeps a histogram of clustered latencies to a few hundred bytes.
+ * <p>
+ * Count, sum, sum of squares, min and max are kept exactly, so the mean and standard deviation are exact
+ * and percentiles are clamped to the recorded range. Histograms merge, so rollups need not keep samples.
+ * <p>
+ * Not thread safe, a histogram is recorded into by one thread at a time.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class LatencyHistogram
+{
+
+	static final int	SUB_BUCKET_BITS		= 7;
+	static final int	SUB_BUCKET_COUNT	= 1 << SUB_BUCKET_BITS;
+	static final int	SUB_BUCKET_HALF		= SUB_BUCKET_COUNT >> 1;
+
+	private int[]		counts;
+	private int			offset;				// Bucket index of counts[0]
+	private long		count, min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+	private double		sum, sumSquares;
+
+
+	/**
+	 * Record a value
+	 * 
+	 * @param nanos
+	 *                  the value in nanoseconds, negative values are recorded as zero
+	 */
+	void record ( long nanos )
+	{
+		long value = Math.max(0, nanos);
+		increment(index(value), 1);
+		count++;
+		sum			+= value;
+		sumSquares	+= (double) value * value;
+		min			= Math.min(min, value);
+		max			= Math.max(max, value);
+	} // record
+
+
+	/**
+	 * Add another histogram's values into this one
+	 * 
+	 * @param other
+	 *                  the histogram to merge
+	 */
+	void merge ( LatencyHistogram other )
+	{
+		if ( other.count == 0 )
+			return;
+
+		for ( int i = 0; i < other.counts.length; i++ )
+		{
+			if ( other.counts[i] > 0 )
+				increment(other.offset + i, other.counts[i]);
+		} // for
+
+		count		+= other.count;
+		sum			+= other.sum;
+		sumSquares	+= other.sumSquares;
+		min			= Math.min(min, other.min);
+		max			= Math.max(max, other.max);
+	} // merge
+
+
+	/**
+	 * Values recorded
+	 * 
+	 * @return the count
+	 */
+	long count ()
+	{
+		return count;
+	} // count
+
+
+	/**
+	 * Lowest value recorded
+	 * 
+	 * @return the min, zero if none
+	 */
+	long min ()
+	{
+		return count == 0 ? 0 : min;
+	} // min
+
+
+	/**
+	 * Highest value recorded
+	 * 
+	 * @return the max, zero if none
+	 */
+	long max ()
+	{
+		return count == 0 ? 0 : max;
+	} // max
+
+
+	/**
+	 * Mean of the values recorded
+	 * 
+	 * @return the mean, zero if none
+	 */
+	double mean ()
+	{
+		return count == 0 ? 0 : sum / count;
+	} // mean
+
+
+	/**
+	 * Sum of the values recorded
+	 * 
+	 * @return the sum, zero if none
+	 */
+	double sum ()
+	{
+		return sum;
+	} // sum
+
+
+	/**
+	 * Values recorded in the buckets up to and including the bucket holding a value
+	 * 
+	 * @param nanos
+	 *                  the value
+	 * 
+	 * @return the count at or below the value, to the histogram's precision
+	 */
+	long countAtOrBelow ( long nanos )
+	{
+		if ( count == 0 || nanos < min )
+			return 0;
+		if ( nanos >= max )
+			return count;
+
+		long	seen	= 0;
+		int		last	= Math.min(counts.length, index(nanos) - offset + 1);
+
+		for ( int i = 0; i < last; i++ )
+		{
+			seen += counts[i];
+		} // for
+
+		return seen;
+	} // countAtOrBelow
+
+
+	/**
+	 * Population standard deviation of the values recorded
+	 * 
+	 * @return the standard deviation, zero if none
+	 */
+	double stddev ()
+	{
+		if ( count == 0 )
+			return 0;
+		double mean = sum / count;
+		return Math.sqrt(Math.max(0, sumSquares / count - mean * mean));
+	} // stddev
+
+
+	/**
+	 * The value at a percentile, as the highest value equivalent to the bucket holding that rank,
+	 * clamped to the recorded range
+	 * 
+	 * @param percentile
+	 *                       the percentile, 0 to 100
+	 * 
+	 * @return the value, zero if none
+	 */
+	long valueAtPercentile ( double percentile )
+	{
+		if ( count == 0 )
+			return 0;
+
+		long	rank	= Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+		long	seen	= 0;
+
+		for ( int i = 0; i < counts.length; i++ )
+		{
+			seen += counts[i];
+			if ( seen >= rank )
+				return Math.max(min, Math.min(max, highestEquivalent(offset + i)));
+		} // for
+
+		return max;
+	} // valueAtPercentile
+
+
+	/**
+	 * The bucket index for a value
+	 * 
+	 * @param value
+	 *                  a non-negative value
+	 * 
+	 * @return the bucket index
+	 */
+	static int index ( long value )
+	{
+		if ( value < SUB_BUCKET_COUNT )
+			return (int) value;
+
+		int shift = 63 - Long.numberOfLeadingZeros(value) - ( SUB_BUCKET_BITS - 1 );
+		return SUB_BUCKET_COUNT + ( shift - 1 ) * SUB_BUCKET_HALF + (int) ( value >>> shift ) - SUB_BUCKET_HALF;
+	} // index
+
+
+	/**
+	 * The highest value that falls in a bucket
+	 * 
+	 * @param index
+	 *                  the bucket index
+	 * 
+	 * @return the highest value
+	 */
+	static long highestEquivalent ( int index )
+	{
+		if ( index < SUB_BUCKET_COUNT )
+			return index;
+
+		int		shift	= ( index - SUB_BUCKET_COUNT ) / SUB_BUCKET_HALF + 1;
+		long	sub		= ( index - SUB_BUCKET_COUNT ) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+		return ( ( sub + 1 ) << shift ) - 1;
+	} // highestEquivalent
+
+
+	/**
+	 * Add to a bucket count, widening the allocated span of buckets if need be
+	 */
+	private void increment ( int index, int by )
+	{
+		if ( counts == null )
+		{
+			counts	= new int[SUB_BUCKET_HALF];
+			offset	= Math.max(0, index - SUB_BUCKET_HALF / 2);
+		}
+		else if ( index < offset )
+		{
+			int lower = Math.max(0, Math.min(index, offset - SUB_BUCKET_HALF));
+			int[] widened = new int[counts.length + offset - lower];
+			System.arraycopy(counts, 0, widened, offset - lower, counts.length);
+			counts	= widened;
+			offset	= lower;
+		}
+		else if ( index >= offset + counts.length )
+		{
+			counts = Arrays.copyOf(counts, Math.max(index - offset + 1, counts.length + SUB_BUCKET_HALF));
+		} // if
+
+		counts[index - offset] += by;
+	} // increment
+
+} // LatencyHistogram
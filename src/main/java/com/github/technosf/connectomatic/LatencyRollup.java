@@ -0,0 +1,171 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Rolls connection latencies up per remote host, per remote port and per local interface
+ * <p>
+ * Each result's connection histogram is merged into the rollups it belongs to as the result arrives, so the
+ * rollups cost a histogram per key however many attempts are made. The rollup report is the sink's
+ * {@code toString()}, as CSV lines with a header or as a JSON object.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class LatencyRollup implements ResultSink
+{
+
+	public static final String	CSV_HEADER	= "\"Rollup\",\"Key\",\"Connections\",\"Connection μs Avg\",\"Connection μs P50\",\"Connection μs P90\",\"Connection μs P99\",\"Connection μs Max\",\"Connection μs StdDev\",\"Timeouts\"";
+	private static final String	JSON_FORMAT	= "{\"Rollup\":\"%s\",\"Key\":\"%s\",\"Connections\":%d,\"Connection μs Avg\":%f,\"Connection μs P50\":%f,\"Connection μs P90\":%f,\"Connection μs P99\":%f,\"Connection μs Max\":%f,\"Connection μs StdDev\":%f,\"Timeouts\":%d}";
+	private static final double	NANOS		= 1000000d;	// Reported timings are nanos / 10^6
+
+	static final String			HOST		= "host";
+	static final String			PORT		= "port";
+	static final String			INTERFACE	= "interface";
+
+	private final boolean		json;
+
+	/*
+	 * Rollups keyed on rollup type, then on host, port or interface
+	 */
+	private final Map< String, Map< String, LatencyHistogram > >	connects	= new TreeMap<>();
+	private final Map< String, Map< String, Long > >				timeouts	= new TreeMap<>();
+
+
+	/**
+	 * Roll up results for output in the given format
+	 * 
+	 * @param json
+	 *                 true for JSON output, false for CSV
+	 */
+	LatencyRollup ( boolean json )
+	{
+		this.json = json;
+	}
+
+
+	@Override
+	public void open ()
+	{
+		// Nothing to output until all results are in
+	} // open
+
+
+	@Override
+	public void accept ( ConnectionResult result )
+	{
+		rollup(HOST, result.remoteaddress.getHostAddress(), result);
+		rollup(PORT, Integer.toString(result.port), result);
+		rollup(INTERFACE, result.localaddress.getHostAddress(), result);
+	} // accept
+
+
+	@Override
+	public void close ()
+	{
+		// The report is produced on demand
+	} // close
+
+
+	/**
+	 * The rolled up connection histogram for a key
+	 * 
+	 * @param rollup
+	 *                   the rollup type, {@code HOST}, {@code PORT} or {@code INTERFACE}
+	 * @param key
+	 *                   the host, port or interface
+	 * 
+	 * @return the histogram, or null if no result had the key
+	 */
+	LatencyHistogram get ( String rollup, String key )
+	{
+		Map< String, LatencyHistogram > keys = connects.get(rollup);
+		return keys == null ? null : keys.get(key);
+	} // get
+
+
+	/**
+	 * Merge a result into a rollup
+	 */
+	private void rollup ( String rollup, String key, ConnectionResult result )
+	{
+		connects.computeIfAbsent(rollup, r -> new TreeMap<>())
+			.computeIfAbsent(key, k -> new LatencyHistogram())
+			.merge(result.connects);
+		timeouts.computeIfAbsent(rollup, r -> new TreeMap<>())
+			.merge(key, result.timeouts.count(), Long::sum);
+	} // rollup
+
+
+	/**
+	 * Output the rollups
+	 */
+	@Override
+	public String toString ()
+	{
+		StringBuilder	sb		= new StringBuilder(json ? "{\"Rollups\":[" : CSV_HEADER + "\n");
+		boolean			place	= false;
+
+		for ( String rollup : new String[] { HOST, PORT, INTERFACE } )
+		{
+			if ( !connects.containsKey(rollup) )
+				continue;
+
+			for ( Map.Entry< String, LatencyHistogram > entry : connects.get(rollup).entrySet() )
+			{
+				LatencyHistogram	h		= entry.getValue();
+				long				t		= timeouts.get(rollup).get(entry.getKey());
+
+				if ( json )
+				// JSON
+				{
+					sb.append(place ? "," : "")
+						.append(String.format(JSON_FORMAT, rollup, entry.getKey(), h.count(), h.mean() / NANOS,
+							h.valueAtPercentile(50) / NANOS, h.valueAtPercentile(90) / NANOS,
+							h.valueAtPercentile(99) / NANOS, h.max() / NANOS, h.stddev() / NANOS, t));
+				}
+				else
+				// CSV
+				{
+					sb.append(rollup).append(",")
+						.append(entry.getKey()).append(",")
+						.append(h.count()).append(",")
+						.append(h.mean() / NANOS).append(",")
+						.append(h.valueAtPercentile(50) / NANOS).append(",")
+						.append(h.valueAtPercentile(90) / NANOS).append(",")
+						.append(h.valueAtPercentile(99) / NANOS).append(",")
+						.append(h.max() / NANOS).append(",")
+						.append(h.stddev() / NANOS).append(",")
+						.append(t).append("\n");
+				} // if
+				place = true;
+			} // for
+		} // for
+
+		return json ? sb.append("]}\n").toString() : sb.toString();
+	} // toString
+
+} // LatencyRollup
@@ -0,0 +1,153 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+
+/**
+ * Loopback pipeline benchmark
+ * <p>
+ * Stands up a {@code TargetFarm} listening on a set of ports across loopback addresses, then runs the whole
+ * {@code queueConnections()} to {@code getResults()} pipeline against it with each connection engine,
+ * connecting from each local IPv4 interface address. For each engine it reports:
+ * <ul>
+ * <li>connects per second</li>
+ * <li>scheduler overhead per tuple, from a dry run that schedules and collects tuples without connecting</li>
+ * <li>heap retained per tuple by the results</li>
+ * </ul>
+ * Run from the packaged jar so that the multi-release overlay is used and the virtual engine is available on
+ * Java 21+:
+ * <p>
+ * {@code java -cp connectomatic-*.*.*.jar com.github.technosf.connectomatic.LoopbackBenchmark [addresses] [ports] [attempts]}
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+public class LoopbackBenchmark
+{
+
+	private static final String	FMT			= "%-10s %-10s %8d tuples %8d connects %6d failed %10d ms %12.1f connects/s %10.2f μs/tuple overhead %8d bytes/tuple%n";
+	private static final String	NO_IPV4		= "No local IPv4 interface address to connect from";
+	private static final int	ADDRESSES	= 4;
+	private static final int	PORTS		= 200;
+	private static final int	ATTEMPTS	= 5;
+
+
+	/**
+	 * Runs the benchmark for each engine
+	 * 
+	 * @param args
+	 *                 optional loopback address count, ports per address and attempts per tuple
+	 * 
+	 * @throws IOException
+	 *                         if the target farm cannot listen
+	 */
+	public static void main ( String[] args )
+		throws IOException
+	{
+		int				addresses		= args.length > 0 ? Integer.parseInt(args[0]) : ADDRESSES;
+		int				ports			= args.length > 1 ? Integer.parseInt(args[1]) : PORTS;
+		int				attempts		= args.length > 2 ? Integer.parseInt(args[2]) : ATTEMPTS;
+		LocalInterface	localInterface	= new LocalInterface();
+
+		if ( localInterface.getIpV4Addresses().isEmpty() )
+		{
+			System.out.println(NO_IPV4);
+			System.exit(1);
+		} // if
+
+		ReverseNameCache.setEnabled(false);
+
+		try ( TargetFarm farm = new TargetFarm() )
+		{
+			List< InetAddress >	targets		= TargetFarm.loopbacks(addresses, false);
+			List< Integer >		listening	= farm.listen(targets, ports, TargetFarm.Behaviour.ACCEPT, 0);
+			StringJoiner		hosts		= new StringJoiner(",");
+			StringJoiner		portlist	= new StringJoiner(",");
+
+			targets.forEach(t -> hosts.add(t.getHostAddress()));
+			listening.forEach(p -> portlist.add(p.toString()));
+
+			String[]	live	= { "-i", "4", "-l", "-n", "-a", Integer.toString(attempts), "-p", portlist.toString(), "-h", hosts.toString() };
+			String[]	dry		= Arrays.copyOf(live, live.length + 1);
+			dry[live.length] = "-d";
+
+			CLIReader	liveReader	= new CLIReader(localInterface.getLocalAddresses(), live);
+			CLIReader	dryReader	= new CLIReader(localInterface.getLocalAddresses(), dry);
+
+			for ( EngineTypeEnum requested : EngineTypeEnum.values() )
+			{
+				EngineTypeEnum engine = ConnectionTask.setEngine(requested);
+
+				/*
+				 * Dry run, scheduling and collecting the tuples only
+				 */
+				long nanotime = System.nanoTime();
+				ConnectOMatic.queueConnections(localInterface, dryReader);
+				int		tuples		= ConnectionTask.getResults().size();
+				double	overhead	= ( System.nanoTime() - nanotime ) / 1000d / Math.max(1, tuples);
+
+				/*
+				 * Live run, with the heap retained by the results
+				 */
+				long heap = usedHeap();
+				nanotime = System.nanoTime();
+				ConnectOMatic.queueConnections(localInterface, liveReader);
+				Map< String, ConnectionResult > results = ConnectionTask.getResults();
+				long millis = ( System.nanoTime() - nanotime ) / 1000000;
+				long retained = ( usedHeap() - heap ) / Math.max(1, results.size());
+
+				int connects = 0, failed = 0;
+				for ( ConnectionResult result : results.values() )
+				{
+					connects += result.connects.count();
+					failed += result.timeouts.count() + result.refused + result.unreachable;
+				} // for
+
+				System.out.printf(FMT, requested.getName(), "(" + engine.getName() + ")", results.size(), connects, failed,
+						millis, connects * 1000d / Math.max(1, millis), overhead, retained);
+			} // for
+		} // try
+
+		System.exit(0);
+	} // main
+
+
+	/**
+	 * Heap in use after a garbage collection
+	 * 
+	 * @return used bytes
+	 */
+	private static long usedHeap ()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	} // usedHeap
+
+} // LoopbackBenchmark
@@ -0,0 +1,318 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+
+/**
+ * Exposes the results as Prometheus metrics on an embedded HTTP endpoint
+ * <p>
+ * Each tuple is a series, labelled by IPv, interface, remote address and port, with counters of its connects,
+ * timeouts, refusals and unreachables, of which those inferred, and a histogram of its connect times in
+ * seconds. Each result accepted is added to its tuple's series, so with repeated sweeps the counters keep
+ * counting. The scheduler's in-flight and queue depth gauges are read at each scrape.
+ * <p>
+ * A series' labels are formatted once, when the tuple is first seen, and its counters and bucket counts are
+ * kept as plain numbers, so a scrape appends a line per series and bucket whatever the history behind them.
+ * The endpoint serves the Prometheus text exposition format, version 0.0.4, on {@code /metrics}.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class MetricsSink implements ResultSink
+{
+
+	static final String					PATH			= "/metrics";
+	static final double[]				BUCKETS			=									// Connect time bounds, secs
+		{ 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+
+	private static final String			CONTENT_TYPE	= "text/plain; version=0.0.4; charset=utf-8";
+	private static final String			PREFIX			= "connectomatic_";
+	private static final double			SECOND			= 1e9;
+	private static final long[]			BUCKET_NANOS	= new long[BUCKETS.length];
+	private static final String[]		BUCKET_LABELS	= new String[BUCKETS.length + 1];
+
+	private final InetSocketAddress		address;
+	private final Map< String, Series >	series			= new LinkedHashMap<>();
+	private HttpServer					server;
+	private ExecutorService				executor;
+
+	static
+	/*
+	 * The bucket bounds as nanos, and as le labels
+	 */
+	{
+		for ( int i = 0; i < BUCKETS.length; i++ )
+		{
+			BUCKET_NANOS[i]		= (long) ( BUCKETS[i] * SECOND );
+			BUCKET_LABELS[i]	= ",le=\"" + BigDecimal.valueOf(BUCKETS[i]).stripTrailingZeros().toPlainString() + "\"} ";
+		} // for
+		BUCKET_LABELS[BUCKETS.length] = ",le=\"+Inf\"} ";
+	};
+
+
+	/**
+	 * The counts of one tuple, and its labels formatted once
+	 */
+	private static final class Series
+	{
+
+		final String	labels;
+		final long[]	buckets	= new long[BUCKETS.length];
+		long			connects, timeouts, refused, unreachable, inferred;
+		double			seconds;
+
+
+		Series ( ConnectionResult result )
+		{
+			labels = new StringBuilder("{ipv=\"").append(escape(result.ipv))
+				.append("\",interface=\"").append(escape(result.localaddress.getHostAddress()))
+				.append("\",address=\"").append(escape(result.remoteaddress.getHostAddress()))
+				.append("\",port=\"").append(result.port)
+				.append('"').toString();
+		} // Series
+
+
+		void add ( ConnectionResult result )
+		{
+			connects	+= result.connects.count();
+			timeouts	+= result.timeouts.count();
+			refused		+= result.refused;
+			unreachable	+= result.unreachable;
+			inferred	+= result.inferred;
+			seconds		+= result.connects.sum() / SECOND;
+			for ( int i = 0; i < buckets.length; i++ )
+			{
+				buckets[i] += result.connects.countAtOrBelow(BUCKET_NANOS[i]);
+			} // for
+		} // add
+
+	};
+
+
+	/**
+	 * Metrics to be served on the given address once started
+	 * 
+	 * @param address
+	 *                    the address and port to listen on
+	 */
+	MetricsSink ( InetSocketAddress address )
+	{
+		this.address = address;
+	}
+
+
+	/**
+	 * Start serving the metrics
+	 * 
+	 * @throws IOException
+	 *                         if the address could not be bound
+	 */
+	void start ()
+		throws IOException
+	{
+		server		= HttpServer.create(address, 0);
+		executor	= Executors.newSingleThreadExecutor(r ->
+					{
+						Thread t = new Thread(r, "connectomatic-metrics");
+						t.setDaemon(true);
+						return t;
+					});
+		server.setExecutor(executor);
+		server.createContext(PATH, this::handle);
+		server.start();
+	} // start
+
+
+	/**
+	 * Stop serving the metrics
+	 */
+	void stop ()
+	{
+		if ( server != null )
+		{
+			server.stop(0);
+			executor.shutdown();
+		} // if
+	} // stop
+
+
+	/**
+	 * The port the metrics are served on
+	 * 
+	 * @return the bound port
+	 */
+	int getPort ()
+	{
+		return server.getAddress().getPort();
+	} // getPort
+
+
+	@Override
+	public void open ()
+	{
+		// Served until stopped, across sweeps
+	} // open
+
+
+	@Override
+	public synchronized void accept ( ConnectionResult result )
+	{
+		String	key	= result.ipv + "," + result.localaddress.getHostAddress() + "," + result.remoteaddress.getHostAddress() + "," + result.port;
+		Series	s	= series.get(key);
+
+		if ( s == null )
+		{
+			s = new Series(result);
+			series.put(key, s);
+		} // if
+
+		s.add(result);
+	} // accept
+
+
+	@Override
+	public void close ()
+	{
+		// Served until stopped, across sweeps
+	} // close
+
+
+	/**
+	 * Write the metrics in the text exposition format
+	 * 
+	 * @return the metrics
+	 */
+	synchronized String scrape ()
+	{
+		ConnectionScheduler	scheduler	= ConnectionTask.getScheduler();
+		StringBuilder		sb			= new StringBuilder(256 + series.size() * 64 * ( BUCKETS.length + 7 ));
+
+		gauge(sb, "in_flight", "Connection tasks in flight", scheduler.getInFlight());
+		gauge(sb, "in_flight_cap", "Cap on connection tasks in flight", scheduler.getMaxInFlight());
+		gauge(sb, "queue_depth", "Connection tasks queued behind a cap", scheduler.getQueueDepth());
+		gauge(sb, "queue_depth_peak", "Deepest the connection task queue has been", scheduler.getPeakQueueDepth());
+		gauge(sb, "tuples", "Tuples with results", series.size());
+
+		header(sb, "connects_total", "counter", "Successful connects");
+		for ( Series s : series.values() )
+			line(sb, "connects_total", s.labels).append(s.connects).append('\n');
+
+		header(sb, "timeouts_total", "counter", "Timed out connects");
+		for ( Series s : series.values() )
+			line(sb, "timeouts_total", s.labels).append(s.timeouts).append('\n');
+
+		header(sb, "refused_total", "counter", "Refused connects");
+		for ( Series s : series.values() )
+			line(sb, "refused_total", s.labels).append(s.refused).append('\n');
+
+		header(sb, "unreachable_total", "counter", "Connects to unreachable networks");
+		for ( Series s : series.values() )
+			line(sb, "unreachable_total", s.labels).append(s.unreachable).append('\n');
+
+		header(sb, "inferred_total", "counter", "Unreachable connects inferred from routes held down, not attempted");
+		for ( Series s : series.values() )
+			line(sb, "inferred_total", s.labels).append(s.inferred).append('\n');
+
+		header(sb, "connect_seconds", "histogram", "Successful connect times");
+		for ( Series s : series.values() )
+		{
+			for ( int i = 0; i < BUCKETS.length; i++ )
+				sb.append(PREFIX).append("connect_seconds_bucket").append(s.labels).append(BUCKET_LABELS[i]).append(s.buckets[i]).append('\n');
+			sb.append(PREFIX).append("connect_seconds_bucket").append(s.labels).append(BUCKET_LABELS[BUCKETS.length]).append(s.connects).append('\n');
+			line(sb, "connect_seconds_sum", s.labels).append(s.seconds).append('\n');
+			line(sb, "connect_seconds_count", s.labels).append(s.connects).append('\n');
+		} // for
+
+		return sb.toString();
+	} // scrape
+
+
+	/**
+	 * Serve a scrape
+	 * 
+	 * @param exchange
+	 *                     the HTTP exchange
+	 * 
+	 * @throws IOException
+	 *                         if the response could not be written
+	 */
+	private void handle ( HttpExchange exchange )
+		throws IOException
+	{
+		byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+
+		exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+		exchange.sendResponseHeaders(200, body.length);
+		try ( OutputStream out = exchange.getResponseBody() )
+		{
+			out.write(body);
+		} // try
+	} // handle
+
+
+	private static void header ( StringBuilder sb, String name, String type, String help )
+	{
+		sb.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+		sb.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+	} // header
+
+
+	private static StringBuilder line ( StringBuilder sb, String name, String labels )
+	{
+		return sb.append(PREFIX).append(name).append(labels).append("} ");
+	} // line
+
+
+	private static void gauge ( StringBuilder sb, String name, String help, long value )
+	{
+		header(sb, name, "gauge", help);
+		sb.append(PREFIX).append(name).append(' ').append(value).append('\n');
+	} // gauge
+
+
+	/**
+	 * Escape a label value
+	 * 
+	 * @param value
+	 *                  the label value
+	 * 
+	 * @return the value with backslashes, quotes and newlines escaped
+	 */
+	static String escape ( String value )
+	{
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	} // escape
+
+} // MetricsSink
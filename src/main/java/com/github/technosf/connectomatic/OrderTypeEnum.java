@@ -0,0 +1,100 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Orders in which the connection attempts can be made
+ * <p>
+ * {@code TUPLE} makes all of a tuple's attempts back to back in one {@code ConnectionTask}, tuples in the order
+ * they are queued. {@code ROUND} splits each tuple's attempts into single attempt tasks and makes them in
+ * rounds, one attempt to each tuple per round, and {@code RANDOM} makes the same single attempts in a random
+ * permutation, so consecutive connects go to different destinations.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+public enum OrderTypeEnum
+{
+
+	TUPLE ( "tuple" )
+	, ROUND ( "round" )
+	, RANDOM ( "random" );
+
+
+	private static final Map< String, OrderTypeEnum >	NAME_INDEX;		// Store for an index of order names
+
+	private final String								NAME;			// The order name as used on the CLI
+
+
+	/**
+	 * Constructs the enum for an order type
+	 * 
+	 * @param name
+	 *                 the CLI name of the order
+	 */
+	private OrderTypeEnum ( String name )
+	{
+		NAME = name;
+	}
+
+
+	static
+	/*
+	 * Create a name index
+	 */
+	{
+		NAME_INDEX = new ConcurrentHashMap<>();
+		for ( OrderTypeEnum e : OrderTypeEnum.values() )
+		{
+			NAME_INDEX.put(e.NAME, e);
+		}
+	};
+
+
+	/**
+	 * Returns the enum for the given order name
+	 * 
+	 * @param name
+	 *                 an order name
+	 * 
+	 * @return enum for the order name, or null if unknown
+	 */
+	static OrderTypeEnum getOrderType ( String name )
+	{
+		return NAME_INDEX.get(name.trim().toLowerCase());
+	}
+
+
+	/**
+	 * Returns the CLI name of the order
+	 * 
+	 * @return the order name
+	 */
+	String getName ()
+	{
+		return NAME;
+	}
+
+}
@@ -0,0 +1,311 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Ephemeral port budget, slowing the scheduler as TIME_WAIT sockets fill the ephemeral port range
+ * <p>
+ * Each attempt binds a local port, ephemeral unless {@code --sources} gives the ports, which a graceful close
+ * leaves in TIME_WAIT for a minute or so. At high connect rates these add up until binds fail for want of a
+ * port. The monitor reads the TIME_WAIT sockets from {@code /proc/net/tcp} and {@code /proc/net/tcp6} each
+ * period, counting those on ports in the range per local address as each address has its own ports, and
+ * compares the busiest address's count with the size of the range, that in
+ * {@code /proc/sys/net/ipv4/ip_local_port_range} unless the source ports are explicit. Once past the threshold,
+ * the scheduler is throttled to a fraction of the tasks in flight when it was first throttled, falling in step
+ * with the ports left to a single task in flight as the range runs out, and is eased again as the TIME_WAIT
+ * sockets expire.
+ * <p>
+ * Where there is no proc filesystem the monitor does not run.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class PortBudget implements Runnable
+{
+
+	static final int				THRESHOLD_DEFAULT	= 50;		// Percent of the range in TIME_WAIT to slow at
+	static final int[]				RANGE_FALLBACK		= { 32768, 60999 };	// Linux default
+	static final long				PERIOD				= 1000;		// Millis between samples
+
+	private static final Path[]		TCP_FILES			= { Paths.get("/proc/net/tcp"), Paths.get("/proc/net/tcp6") };
+	private static final Path		PORT_RANGE_FILE		= Paths.get("/proc/sys/net/ipv4/ip_local_port_range");
+	private static final String		TIME_WAIT			= "06";			// TCP_TIME_WAIT state in hex
+
+	private final double			threshold;
+	private final int				first, last;
+	private ConnectionScheduler		scheduler;
+	private volatile int			peak;
+	private volatile double			slowest				= 1;
+
+
+	/**
+	 * Ephemeral port budget
+	 * 
+	 * @param percent
+	 *                    the percent of the ephemeral range in TIME_WAIT at which the scheduler is slowed
+	 */
+	PortBudget ( int percent )
+	{
+		this(percent, portRange());
+	}
+
+
+	private PortBudget ( int percent, int[] range )
+	{
+		this(percent, range[0], range[1]);
+	}
+
+
+	/**
+	 * Port budget for the given range
+	 * 
+	 * @param percent
+	 *                    the percent of the range in TIME_WAIT at which the scheduler is slowed
+	 * @param first
+	 *                    the first port of the range
+	 * @param last
+	 *                    the last port of the range
+	 */
+	PortBudget ( int percent, int first, int last )
+	{
+		this.threshold	= percent / 100d;
+		this.first		= first;
+		this.last		= Math.max(first, last);
+	}
+
+
+	/**
+	 * Start monitoring the TIME_WAIT sockets, slowing the scheduler as they fill the range
+	 * 
+	 * @param connectionScheduler
+	 *                                the scheduler to slow
+	 * 
+	 * @return true if monitoring, false if there is no proc filesystem to read
+	 */
+	boolean monitor ( ConnectionScheduler connectionScheduler )
+	{
+		if ( !Files.isReadable(TCP_FILES[0]) )
+			return false;
+
+		scheduler = connectionScheduler;
+		Thread t = new Thread(this, "connectomatic-ports");
+		t.setDaemon(true);
+		t.start();
+		return true;
+	} // monitor
+
+
+	/**
+	 * Sample the TIME_WAIT sockets each period
+	 */
+	@Override
+	public void run ()
+	{
+		while ( true )
+		{
+			try
+			{
+				TimeUnit.MILLISECONDS.sleep(PERIOD);
+			}
+			catch ( InterruptedException e )
+			{
+				return;
+			} // try/catch
+
+			scheduler.setThrottle(sample(timeWaits(first, last)));
+		} // while
+	} // run
+
+
+	/**
+	 * Record a sample of the TIME_WAIT sockets of the busiest local address
+	 * 
+	 * @param timewaits
+	 *                      the sockets in TIME_WAIT
+	 * 
+	 * @return the fraction of the load in flight to allow
+	 */
+	double sample ( int timewaits )
+	{
+		double throttle = throttle(timewaits);
+
+		peak	= Math.max(peak, timewaits);
+		slowest	= Math.min(slowest, throttle);
+		return throttle;
+	} // sample
+
+
+	/**
+	 * The fraction of the load in flight to allow with the sockets in TIME_WAIT, falling from all of it at the
+	 * threshold to none as the range fills
+	 * 
+	 * @param timewaits
+	 *                      the sockets in TIME_WAIT
+	 * 
+	 * @return the fraction
+	 */
+	double throttle ( int timewaits )
+	{
+		double fill = (double) timewaits / getRange();
+
+		if ( fill <= threshold || threshold >= 1 )
+			return 1;
+
+		return Math.max(0, ( 1 - fill ) / ( 1 - threshold ));
+	} // throttle
+
+
+	/**
+	 * The most sockets seen in TIME_WAIT on a local address
+	 * 
+	 * @return the sockets
+	 */
+	int getPeak ()
+	{
+		return peak;
+	} // getPeak
+
+
+	/**
+	 * The ports in the ephemeral range
+	 * 
+	 * @return the ports
+	 */
+	int getRange ()
+	{
+		return last - first + 1;
+	} // getRange
+
+
+	/**
+	 * The smallest fraction of the load in flight allowed
+	 * 
+	 * @return the fraction, 1 if never slowed
+	 */
+	double getSlowest ()
+	{
+		return slowest;
+	} // getSlowest
+
+
+	/**
+	 * Count the sockets in TIME_WAIT on ports in the range on the busiest local address
+	 * 
+	 * @param first
+	 *                  the first port of the range
+	 * @param last
+	 *                  the last port of the range
+	 * 
+	 * @return the sockets
+	 */
+	static int timeWaits ( int first, int last )
+	{
+		Map< String, Integer > counts = new HashMap<>();
+
+		for ( Path file : TCP_FILES )
+		{
+			try ( BufferedReader in = Files.newBufferedReader(file, StandardCharsets.US_ASCII) )
+			{
+				timeWaits(in, counts, first, last);
+			}
+			catch ( IOException | NumberFormatException e )
+			{
+				// No proc filesystem, or no IPv6
+			} // try/catch
+		} // for
+
+		int max = 0;
+		for ( int count : counts.values() )
+		{
+			max = Math.max(max, count);
+		} // for
+		return max;
+	} // timeWaits
+
+
+	/**
+	 * Count the sockets in TIME_WAIT on ports in the range per local address in a {@code /proc/net/tcp} table,
+	 * whose lines after the heading are the slot, the local and remote hex address:port, then the state
+	 * 
+	 * @param in
+	 *                   the table
+	 * @param counts
+	 *                   the counts per local hex address, added to
+	 * @param first
+	 *                   the first port of the range
+	 * @param last
+	 *                   the last port of the range
+	 * 
+	 * @throws IOException
+	 *                         if the table cannot be read
+	 */
+	static void timeWaits ( BufferedReader in, Map< String, Integer > counts, int first, int last )
+		throws IOException
+	{
+		String line = in.readLine();	// Heading
+
+		while ( ( line = in.readLine() ) != null )
+		{
+			String[] fields = line.trim().split("\\s+", 5);
+
+			int colon = fields.length > 3 && TIME_WAIT.equals(fields[3]) ? fields[1].indexOf(':') : -1;
+
+			if ( colon > 0 )
+			{
+				int port = Integer.parseInt(fields[1].substring(colon + 1), 16);
+				if ( port >= first && port <= last )
+					counts.merge(fields[1].substring(0, colon), 1, Integer::sum);
+			} // if
+		} // while
+	} // timeWaits
+
+
+	/**
+	 * Read the ephemeral port range
+	 * 
+	 * @return the first and last ports of the range, or {@code RANGE_FALLBACK} if unknown
+	 */
+	static int[] portRange ()
+	{
+		try
+		{
+			String[] range = new String(Files.readAllBytes(PORT_RANGE_FILE), StandardCharsets.US_ASCII).trim().split("\\s+");
+			return new int[] { Integer.parseInt(range[0]), Integer.parseInt(range[1]) };
+		}
+		catch ( IOException | NumberFormatException | ArrayIndexOutOfBoundsException e )
+		{
+			return RANGE_FALLBACK;
+		} // try/catch
+	} // portRange
+
+} // PortBudget
@@ -0,0 +1,272 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Append-only journal of the results of a sweep, one record per completed tuple, from which an interrupted
+ * sweep is resumed
+ * <p>
+ * The journal is binary results, as written by {@code BinarySink}, appended to a {@code FileChannel} and written
+ * through as each result is accepted, so the results completed before the process dies, whether from running out
+ * of memory, Ctrl-C or a failed task, are kept by the operating system. On opening, the journal is replayed to the
+ * set of tuples already completed, any record cut off by the process dying is truncated, and new results continue
+ * the journal's dictionary. A completed journal converts with {@code BinaryReader} to the whole sweep's results.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class ResultJournal implements ResultSink
+{
+
+	private static final int		BUFFER	= 65536;
+
+	private final Set< String >		completed;
+	private final BinarySink		sink;
+
+
+	/**
+	 * Journal to a replayed channel
+	 */
+	private ResultJournal ( FileChannel channel, List< String > dictionary, int results, Set< String > completed )
+	{
+		this.completed	= completed;
+		this.sink		= new BinarySink(Channels.newOutputStream(channel), dictionary, results);
+	}
+
+
+	/**
+	 * Open a journal, creating it if need be, and replay the tuples it has completed
+	 * 
+	 * @param file
+	 *                 the journal file
+	 * 
+	 * @return the journal, positioned to append
+	 * 
+	 * @throws IOException
+	 *                         if the journal could not be opened or is not binary results
+	 */
+	static ResultJournal open ( Path file )
+		throws IOException
+	{
+		FileChannel		channel		= FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		List< String >	dictionary	= null;
+		Set< String >	completed	= new HashSet<>();
+		int				results		= 0;	// Results in the last stream
+		long			valid		= 0;	// Length of the whole records replayed
+		ByteBuffer		row			= ByteBuffer.allocate(BinarySink.RESULT_BYTES);
+
+		try
+		{
+			DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER));
+
+			for ( boolean replaying = true; replaying; )
+			{
+				if ( dictionary == null )
+				{
+					int first = in.read();
+					if ( first < 0 )
+						break;
+
+					if ( ( first << 24 | in.readUnsignedByte() << 16 | in.readUnsignedShort() ) != BinarySink.MAGIC
+							|| in.readByte() != BinarySink.VERSION )
+						throw new IOException("Not a results journal");
+
+					dictionary	= new ArrayList<>();
+					results		= 0;
+					valid		+= 5;
+					continue;
+				} // if
+
+				switch ( in.read() )
+				{
+					case BinarySink.STRING:
+						String string = in.readUTF();
+						dictionary.add(string);
+						valid += 1 + 2 + utflength(string);
+						break;
+
+					case BinarySink.RESULT:
+						in.readFully(row.array());
+						completed.add(key(string(dictionary, row.getInt(4)), string(dictionary, row.getInt(8)), row.getShort(16) & 0xFFFF));
+						results++;
+						valid += 1 + BinarySink.RESULT_BYTES;
+						break;
+
+					case BinarySink.END:
+						in.readInt();
+						dictionary	= null;
+						valid		+= 5;
+						break;
+
+					default:
+						/*
+						 * The end, or a record cut off by the process dying
+						 */
+						replaying = false;
+				} // switch
+			} // for
+		}
+		catch ( EOFException e )
+		{
+			/*
+			 * A record cut off by the process dying
+			 */
+		}
+		catch ( IOException e )
+		{
+			channel.close();
+			throw e;
+		} // try/catch
+
+		channel.truncate(valid);
+		channel.position(valid);
+		return new ResultJournal(channel, dictionary, results, completed);
+	} // open
+
+
+	/**
+	 * Has the journal a result for the tuple?
+	 * 
+	 * @param localaddress
+	 *                          the local address
+	 * @param remoteaddress
+	 *                          the remote address
+	 * @param port
+	 *                          the remote port
+	 * 
+	 * @return true if the tuple was completed before
+	 */
+	boolean isCompleted ( InetAddress localaddress, InetAddress remoteaddress, int port )
+	{
+		return completed.contains(key(localaddress.getHostAddress(), remoteaddress.getHostAddress(), port));
+	} // isCompleted
+
+
+	/**
+	 * Get the count of tuples completed before, as replayed
+	 * 
+	 * @return the tuples
+	 */
+	int getCompleted ()
+	{
+		return completed.size();
+	} // getCompleted
+
+
+	/**
+	 * Get the count of results journaled since opening
+	 * 
+	 * @return the results
+	 */
+	int getJournaled ()
+	{
+		return sink.getResults();
+	} // getJournaled
+
+
+	/**
+	 * Get the first write error
+	 * 
+	 * @return the error, or null if all was written
+	 */
+	IOException getError ()
+	{
+		return sink.getError();
+	} // getError
+
+
+	@Override
+	public void open ()
+	{
+		sink.open();
+	} // open
+
+
+	@Override
+	public void accept ( ConnectionResult result )
+	{
+		sink.accept(result);
+	} // accept
+
+
+	@Override
+	public void close ()
+	{
+		sink.close();
+	} // close
+
+
+	/**
+	 * The tuple key for completed results
+	 */
+	private static String key ( String localaddress, String remoteaddress, int port )
+	{
+		return localaddress + "," + remoteaddress + "," + port;
+	} // key
+
+
+	/**
+	 * Look up a dictionary index
+	 */
+	private static String string ( List< String > dictionary, int index )
+		throws IOException
+	{
+		if ( index < 0 || index >= dictionary.size() )
+			throw new IOException("Results journal dictionary index out of range: " + index);
+
+		return dictionary.get(index);
+	} // string
+
+
+	/**
+	 * The length of a string in modified UTF-8, as written by {@code DataOutput.writeUTF}
+	 */
+	private static int utflength ( String string )
+	{
+		int length = 0;
+
+		for ( int i = 0; i < string.length(); i++ )
+		{
+			char c = string.charAt(i);
+			length += ( c >= 0x0001 && c <= 0x007F ) ? 1 : ( c <= 0x07FF ) ? 2 : 3;
+		} // for
+
+		return length;
+	} // utflength
+
+} // ResultJournal
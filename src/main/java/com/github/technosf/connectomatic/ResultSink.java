@@ -0,0 +1,57 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+
+/**
+ * A destination for connection results as each completes
+ * <p>
+ * Sinks are opened before the first result, accept collated results in completion order, and are closed
+ * after the last, so output need not be held in memory for the whole run.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+interface ResultSink
+{
+
+	/**
+	 * Start the output, before any result
+	 */
+	void open ();
+
+
+	/**
+	 * Output a collated result
+	 * 
+	 * @param result
+	 *                   the result
+	 */
+	void accept ( ConnectionResult result );
+
+
+	/**
+	 * Finish the output, after the last result
+	 */
+	void close ();
+
+} // ResultSink
@@ -0,0 +1,235 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ * Shared cache of remote hostnames, resolved per address off the connection path
+ * <p>
+ * {@code InetAddress.getHostName()} blocks on a reverse (PTR) lookup when the address was not resolved from
+ * a name, which can take seconds where PTR records are missing. Addresses resolved from a name keep that
+ * name, for the rest lookups are started on a small pool of daemon threads when a result is created, so they
+ * run in parallel with the connects. A result formatted before its lookup has finished is output with the
+ * address itself rather than waiting on it.
+ * <p>
+ * Names are cached for the lifetime {@code HostResolver} gives forward resolutions, and missing names for its
+ * negative lifetime, so repeated sweeps with {@code --interval} pick up PTR changes. The cache holds at most
+ * {@code CAPACITY} names, dropping finished lookups when full, besides the lookups still running.
+ * <p>
+ * With PTR lookups disabled, addresses not resolved from a name are output as the address itself.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class ReverseNameCache
+{
+
+	static final int										LOOKUPS		= 8;		// Concurrent reverse lookups
+	static final int										CAPACITY	= 65536;	// Names cached
+
+	private static final Map< InetAddress, CompletableFuture< Name > >	NAMES	= new ConcurrentHashMap<>();
+	private static final ExecutorService					POOL		= Executors.newFixedThreadPool(LOOKUPS, r ->
+																		{
+																			Thread t = new Thread(r, "connectomatic-ptr");
+																			t.setDaemon(true);
+																			return t;
+																		});
+
+	private static volatile boolean							enabled		= true;
+
+
+	/**
+	 * The hostname looked up for an address
+	 */
+	private static final class Name
+	{
+
+		final String	name;
+		final long		expires;	// nanoTime the name expires from the cache
+
+
+		Name ( String name, long expires )
+		{
+			this.name		= name;
+			this.expires	= expires;
+		} // Name
+
+	};
+
+
+	/**
+	 * Enable or disable reverse lookups
+	 * 
+	 * @param ptr
+	 *                true to look up PTR records, false to use forward names and addresses only
+	 */
+	static void setEnabled ( boolean ptr )
+	{
+		enabled = ptr;
+	} // setEnabled
+
+
+	/**
+	 * Are reverse lookups enabled?
+	 * 
+	 * @return true if PTR records are looked up
+	 */
+	static boolean isEnabled ()
+	{
+		return enabled;
+	} // isEnabled
+
+
+	/**
+	 * Start resolving the hostname of an address without a forward name, if it is not already resolved or
+	 * resolving, or its name has expired
+	 * 
+	 * @param address
+	 *                    the remote address
+	 * 
+	 * @return the lookup, or null if the address is not looked up
+	 */
+	static CompletableFuture< ? > resolve ( InetAddress address )
+	{
+		if ( !enabled || forwardName(address) != null )
+			return null;
+
+		return name(address);
+	} // resolve
+
+
+	/**
+	 * The hostname of an address, if its lookup has finished
+	 * 
+	 * @param address
+	 *                    the remote address
+	 * 
+	 * @return the hostname, or the address literal if it has none or its lookup is still running
+	 */
+	static String getName ( InetAddress address )
+	{
+		String name = forwardName(address);
+
+		if ( name != null )
+			return name;
+
+		if ( !enabled )
+			return address.getHostAddress();
+
+		Name n = name(address).getNow(null);
+		return n == null ? address.getHostAddress() : n.name;
+	} // getName
+
+
+	/**
+	 * The name an address was resolved from, without a lookup
+	 * 
+	 * @param address
+	 *                    the address
+	 * 
+	 * @return the forward name, or null if none
+	 */
+	static String forwardName ( InetAddress address )
+	{
+		String name = address.toString();
+		name = name.substring(0, name.lastIndexOf('/'));
+		return name.isEmpty() ? null : name;
+	} // forwardName
+
+
+	/**
+	 * The cached lookup of an address, started afresh if there is none or its name has expired
+	 * 
+	 * @param address
+	 *                    the address
+	 * 
+	 * @return the lookup
+	 */
+	private static CompletableFuture< Name > name ( InetAddress address )
+	{
+		if ( NAMES.size() >= CAPACITY )
+		/*
+		 * Full, so drop the names already looked up
+		 */
+		{
+			NAMES.values().removeIf(CompletableFuture::isDone);
+		} // if
+
+		return NAMES.compute(address, ( a, f ) -> f == null || isExpired(f) ? lookup(a) : f);
+	} // name
+
+
+	/**
+	 * Look up the hostname of an address on the pool
+	 * <p>
+	 * A fresh {@code InetAddress} is looked up each time, as an address keeps the first name it looked up
+	 * 
+	 * @param address
+	 *                    the address
+	 * 
+	 * @return the lookup
+	 */
+	private static CompletableFuture< Name > lookup ( InetAddress address )
+	{
+		return CompletableFuture.supplyAsync(() ->
+		{
+			String literal = address.getHostAddress(), name = literal;
+
+			try
+			{
+				name = InetAddress.getByAddress(address.getAddress()).getHostName();
+			}
+			catch ( UnknownHostException e )
+			{
+				// Address of illegal length, so left as the literal
+			} // try/catch
+
+			return new Name(name, literal.equals(name)
+					? HostResolver.expiry(HostResolver.PROP_NEGATIVE_TTL, HostResolver.NEGATIVE_TTL_DEFAULT)
+					: HostResolver.expiry(HostResolver.PROP_TTL, HostResolver.TTL_DEFAULT));
+		}, POOL);
+	} // lookup
+
+
+	/**
+	 * Has a finished lookup's name expired?
+	 * 
+	 * @param lookup
+	 *                   the lookup
+	 * 
+	 * @return true if finished and expired
+	 */
+	private static boolean isExpired ( CompletableFuture< Name > lookup )
+	{
+		Name n = lookup.getNow(null);
+		return n != null && n.expires - System.nanoTime() <= 0;
+	} // isExpired
+
+} // ReverseNameCache
@@ -0,0 +1,80 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.net.InetAddress;
+
+
+/**
+ * A route, the pairing of a local interface address and a remote host address
+ * <p>
+ * Route state, such as round trip times, is independent of the remote port.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+final class Route
+{
+
+	final InetAddress	local;
+	final InetAddress	remote;
+
+
+	/**
+	 * Route from a local address to a remote address
+	 * 
+	 * @param local
+	 *                   the local interface address
+	 * @param remote
+	 *                   the remote host address
+	 */
+	Route ( InetAddress local, InetAddress remote )
+	{
+		this.local	= local;
+		this.remote	= remote;
+	} // Route
+
+
+	@Override
+	public int hashCode ()
+	{
+		return 31 * local.hashCode() + remote.hashCode();
+	}
+
+
+	@Override
+	public boolean equals ( Object obj )
+	{
+		if ( !( obj instanceof Route ) )
+			return false;
+		Route r = (Route) obj;
+		return local.equals(r.local) && remote.equals(r.remote);
+	}
+
+
+	@Override
+	public String toString ()
+	{
+		return local.getHostAddress() + " -> " + remote.getHostAddress();
+	}
+
+} // Route
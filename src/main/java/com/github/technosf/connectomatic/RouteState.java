@@ -0,0 +1,224 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Route state shared by the engines, inferring the tuples on routes confirmed unreachable
+ * <p>
+ * A network unreachable failure, {@code ENETUNREACH}, is the local routing's verdict on the {@code Route}, the
+ * pairing of local interface and remote address, and not on the port. Once that many distinct ports on a route
+ * have been network unreachable in a row, the route is held down, and the tuples that reach it are inferred
+ * unreachable without any attempts being made. Repeated attempts at one port count once, so no tuple holds its
+ * route down alone. One in every sample of the inferred tuples is still probed, so a route that comes back is
+ * seen: a connect or a refusal on the route lifts it. Timeouts say nothing of the route and leave its state as
+ * it is. Host unreachable failures, {@code EHOSTUNREACH}, are not counted, as a firewall rejecting one port
+ * with an ICMP prohibited reply fails the same way.
+ * <p>
+ * Holding routes down is off unless asked for.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class RouteState
+{
+
+	static final int					OFF				= 0;	// Every tuple is probed
+	static final int					CONFIRM_DEFAULT	= 3;	// Unreachable ports in a row that hold a route down, when on
+	static final int					SAMPLE_DEFAULT	= 16;	// One in so many inferred tuples is probed
+
+	private static final String			NETWORK_UNREACHABLE	= "Network is unreachable";	// ENETUNREACH
+
+	private final int					confirm, sample;
+	private final Map< Route, State >	routes			= new ConcurrentHashMap<>();
+	private final AtomicLong			down			= new AtomicLong();
+	private final AtomicLong			inferred		= new AtomicLong();
+
+
+	/**
+	 * The state of one route
+	 */
+	private static final class State
+	{
+
+		final Set< Integer >	ports	= new HashSet<>();	// Unreachable in a row
+		int						tuples;		// Reaching the route since it went down
+		boolean					isDown;
+
+	};
+
+
+	/**
+	 * Route state configuration
+	 * 
+	 * @param confirm
+	 *                    distinct unreachable ports in a row that hold a route down, or {@code OFF}
+	 * @param sample
+	 *                    one in so many of the tuples on a route held down is probed
+	 */
+	RouteState ( int confirm, int sample )
+	{
+		this.confirm	= Math.max(OFF, confirm);
+		this.sample		= Math.max(1, sample);
+	}
+
+
+	/**
+	 * Are tuples on routes held down inferred?
+	 * 
+	 * @return true if enabled
+	 */
+	boolean isEnabled ()
+	{
+		return confirm != OFF;
+	} // isEnabled
+
+
+	/**
+	 * Should a tuple on the route be inferred unreachable rather than probed?
+	 * 
+	 * @param route
+	 *                  the tuple's route
+	 * 
+	 * @return true to infer the tuple
+	 */
+	boolean infer ( Route route )
+	{
+		State state = confirm == OFF ? null : routes.get(route);
+
+		if ( state == null )
+			return false;
+
+		synchronized ( state )
+		{
+			if ( !state.isDown || state.tuples++ % sample == sample - 1 )
+				return false;
+		} // synchronized
+
+		inferred.incrementAndGet();
+		return true;
+	} // infer
+
+
+	/**
+	 * Record a network unreachable attempt on a route, holding it down once confirmed by distinct ports
+	 * 
+	 * @param route
+	 *                  the route
+	 * @param port
+	 *                  the remote port attempted
+	 */
+	void unreachable ( Route route, int port )
+	{
+		if ( confirm == OFF )
+			return;
+
+		State state = routes.computeIfAbsent(route, r -> new State());
+
+		synchronized ( state )
+		{
+			if ( !state.isDown && state.ports.add(port) && state.ports.size() >= confirm )
+			{
+				state.ports.clear();
+				state.isDown	= true;
+				state.tuples	= 0;
+				down.incrementAndGet();
+			} // if
+		} // synchronized
+	} // unreachable
+
+
+	/**
+	 * Record an attempt that reached the remote address, connected or refused, lifting the route if held down
+	 * 
+	 * @param route
+	 *                  the route
+	 */
+	void reached ( Route route )
+	{
+		State state = confirm == OFF ? null : routes.get(route);
+
+		if ( state == null )
+			return;
+
+		synchronized ( state )
+		{
+			state.ports.clear();
+			if ( state.isDown )
+			{
+				state.isDown = false;
+				down.decrementAndGet();
+			} // if
+		} // synchronized
+	} // reached
+
+
+	/**
+	 * Is the connect failure the route's, a network unreachable, rather than the host's or the port's?
+	 * 
+	 * @param e
+	 *              the connect failure
+	 * 
+	 * @return true for a network unreachable failure
+	 */
+	static boolean isNetworkUnreachable ( IOException e )
+	{
+		return e.getMessage() != null && e.getMessage().contains(NETWORK_UNREACHABLE);
+	} // isNetworkUnreachable
+
+
+	/**
+	 * The routes held down
+	 * 
+	 * @return the routes
+	 */
+	long getDown ()
+	{
+		return down.get();
+	} // getDown
+
+
+	/**
+	 * The tuples inferred unreachable without being probed
+	 * 
+	 * @return the tuples
+	 */
+	long getInferred ()
+	{
+		return inferred.get();
+	} // getInferred
+
+
+	@Override
+	public String toString ()
+	{
+		return confirm == OFF ? "off" : confirm + " in a row, probing 1 in " + sample;
+	}
+
+} // RouteState
@@ -0,0 +1,210 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Source port allocation for the local end of each attempt
+ * <p>
+ * By default each attempt binds its local address to port zero, leaving the kernel's ephemeral allocator to
+ * search for a free port under its bind locks. With an explicit range, each local address rotates through the
+ * range from its own cursor, so the addresses of an interface each have the whole range and allocation is a
+ * counter increment. A port still held, typically by a socket in TIME_WAIT, fails to bind with
+ * {@code EADDRINUSE} and the next port is tried, up to {@code RETRIES} of them, before falling back to an
+ * ephemeral port. {@code SO_REUSEADDR} is not set, so a port is never reused for a connection the remote may
+ * still hold in TIME_WAIT.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class SourcePorts
+{
+
+	static final int								EPHEMERAL	= 0;	// Port zero, for the kernel to allocate
+	static final int								RETRIES		= 16;	// Ports tried before falling back
+	static final int								FIRST_MIN	= 1024;	// Lowest port of a range
+
+	private final int								first, count;
+	private final Map< InetAddress, AtomicInteger >	cursors		= new ConcurrentHashMap<>();
+	private final AtomicLong						collisions	= new AtomicLong();
+	private final AtomicLong						fallbacks	= new AtomicLong();
+
+
+	/**
+	 * Binds the local address of a socket or channel
+	 */
+	@FunctionalInterface
+	interface Binder
+	{
+
+		void bind ( InetSocketAddress local )
+			throws IOException;
+
+	};
+
+
+	/**
+	 * Ephemeral ports, allocated by the kernel
+	 */
+	SourcePorts ()
+	{
+		this.first	= EPHEMERAL;
+		this.count	= 0;
+	}
+
+
+	/**
+	 * Explicit ports from a range
+	 * 
+	 * @param first
+	 *                  the first port of the range
+	 * @param last
+	 *                  the last port of the range
+	 */
+	SourcePorts ( int first, int last )
+	{
+		this.first	= first;
+		this.count	= Math.max(0, last - first + 1);
+	}
+
+
+	/**
+	 * Are source ports allocated from an explicit range?
+	 * 
+	 * @return true if explicit
+	 */
+	boolean isExplicit ()
+	{
+		return count > 0;
+	} // isExplicit
+
+
+	/**
+	 * The first port in the range
+	 * 
+	 * @return the port
+	 */
+	int getFirst ()
+	{
+		return first;
+	} // getFirst
+
+
+	/**
+	 * The last port in the range
+	 * 
+	 * @return the port
+	 */
+	int getLast ()
+	{
+		return first + count - 1;
+	} // getLast
+
+
+	/**
+	 * The next port in the range for a local address
+	 * 
+	 * @param local
+	 *                  the local address
+	 * 
+	 * @return the port
+	 */
+	int next ( InetAddress local )
+	{
+		if ( count == 0 )
+			return EPHEMERAL;
+		return first + Math.floorMod(cursors.computeIfAbsent(local, l -> new AtomicInteger()).getAndIncrement(), count);
+	} // next
+
+
+	/**
+	 * Bind to the local address on the next free port in the range, trying the ports after a port in use, and
+	 * falling back to an ephemeral port if none of them are free
+	 * 
+	 * @param local
+	 *                   the local address
+	 * @param binder
+	 *                   binds the socket or channel
+	 * 
+	 * @throws IOException
+	 *                         if the bind fails other than for a port in use
+	 */
+	void bind ( InetAddress local, Binder binder )
+		throws IOException
+	{
+		for ( int i = Math.min(count, RETRIES); i > 0; i-- )
+		{
+			try
+			{
+				binder.bind(new InetSocketAddress(local, next(local)));
+				return;
+			}
+			catch ( BindException e )
+			{
+				collisions.incrementAndGet();
+			} // try/catch
+		} // for
+
+		if ( count > 0 )
+			fallbacks.incrementAndGet();
+		binder.bind(new InetSocketAddress(local, EPHEMERAL));
+	} // bind
+
+
+	/**
+	 * The binds that found their port in use
+	 * 
+	 * @return the binds
+	 */
+	long getCollisions ()
+	{
+		return collisions.get();
+	} // getCollisions
+
+
+	/**
+	 * The attempts that fell back to an ephemeral port
+	 * 
+	 * @return the attempts
+	 */
+	long getFallbacks ()
+	{
+		return fallbacks.get();
+	} // getFallbacks
+
+
+	@Override
+	public String toString ()
+	{
+		return count == 0 ? "ephemeral" : first + "-" + getLast();
+	}
+
+} // SourcePorts
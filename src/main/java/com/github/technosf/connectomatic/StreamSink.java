@@ -0,0 +1,84 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.PrintStream;
+
+
+/**
+ * Streams results to a {@code PrintStream} as CSV lines, with the header first, or as a JSON array
+ * <p>
+ * Each result is flushed as it is written so that long runs show results as they complete.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class StreamSink implements ResultSink
+{
+
+	private final PrintStream	out;
+	private final boolean		json;
+	private boolean				place;
+
+
+	/**
+	 * Stream results to the given output
+	 * 
+	 * @param out
+	 *                 the output
+	 * @param json
+	 *                 true for JSON output, false for CSV
+	 */
+	StreamSink ( PrintStream out, boolean json )
+	{
+		this.out	= out;
+		this.json	= json;
+	}
+
+
+	@Override
+	public void open ()
+	{
+		out.println(json ? "[" : ConnectionResult.CSV_HEADER);
+		out.flush();
+	} // open
+
+
+	@Override
+	public void accept ( ConnectionResult result )
+	{
+		out.print(( place && json ) ? "," : "");
+		out.println(result.toString());
+		out.flush();
+		place = true;
+	} // accept
+
+
+	@Override
+	public void close ()
+	{
+		if ( json )
+			out.println("]");
+		out.flush();
+	} // close
+
+} // StreamSink
@@ -0,0 +1,427 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Loopback target farm for load testing the connection engines
+ * <p>
+ * Listens on sets of ports across loopback addresses, {@code 127.0.0.0/8} and {@code ::1}, from one
+ * {@code Selector} thread. Each set of listeners either accepts connections straight away, refuses them by
+ * not listening, or delays each accept, so that once a listener's backlog is full further connects stall as
+ * they would on a slow or overloaded host.
+ * <p>
+ * A port set is bound on the same port numbers on every address, so the farm can be targeted as hosts and
+ * ports like any other.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class TargetFarm implements Closeable, Runnable
+{
+
+	static final int						BACKLOG_DEFAULT	= 1024;
+	static final int						BIND_RETRIES	= 16;	// Attempts to find a port free on all addresses
+
+	/**
+	 * What a listener does with connections
+	 */
+	enum Behaviour
+	{
+		ACCEPT, REFUSE, DELAY
+	};
+
+	private final Selector					selector;
+	private final Queue< Listener >			pending		= new ConcurrentLinkedQueue<>();
+	private final PriorityQueue< Listener >	delayed		= new PriorityQueue<>();
+	private final List< ServerSocketChannel >	servers	= new ArrayList<>();
+	private final AtomicLong				accepted	= new AtomicLong();
+
+
+	/**
+	 * A listening port and its accept delay
+	 */
+	private static final class Listener implements Comparable< Listener >
+	{
+
+		final ServerSocketChannel	server;
+		final long					delay;		// Nanos
+		long						due;		// nanoTime the next accept is due
+		SelectionKey				key;
+
+
+		Listener ( ServerSocketChannel server, long delay )
+		{
+			this.server	= server;
+			this.delay	= delay;
+		} // Listener
+
+
+		@Override
+		public int compareTo ( Listener o )
+		{
+			return Long.compare(due, o.due);
+		} // compareTo
+
+	};
+
+
+	/**
+	 * Opens the farm selector and starts its thread
+	 * 
+	 * @throws IOException
+	 *                         if the selector could not be opened
+	 */
+	TargetFarm ()
+		throws IOException
+	{
+		selector = Selector.open();
+		Thread t = new Thread(this, "connectomatic-target-farm");
+		t.setDaemon(true);
+		t.start();
+	}
+
+
+	/**
+	 * The first {@code count} loopback addresses in {@code 127.0.0.0/8}, from {@code 127.0.0.1}, and
+	 * optionally {@code ::1}
+	 * 
+	 * @param count
+	 *                  the number of IPv4 loopback addresses
+	 * @param ipv6
+	 *                  true to add the IPv6 loopback address
+	 * 
+	 * @return the addresses
+	 * 
+	 * @throws UnknownHostException
+	 *                                  never for loopback literals
+	 */
+	static List< InetAddress > loopbacks ( int count, boolean ipv6 )
+		throws UnknownHostException
+	{
+		List< InetAddress > addresses = new ArrayList<>();
+
+		for ( int i = 1; i <= Math.min(count, 0xFFFFFE); i++ )
+		{
+			addresses.add(InetAddress.getByAddress(new byte[] { 127, (byte) ( i >> 16 ), (byte) ( i >> 8 ), (byte) i }));
+		} // for
+
+		if ( ipv6 )
+		{
+			addresses.add(InetAddress.getByName("::1"));
+		} // if
+
+		return addresses;
+	} // loopbacks
+
+
+	/**
+	 * Listen on a set of ports on every given address
+	 * 
+	 * @param addresses
+	 *                      the loopback addresses
+	 * @param ports
+	 *                      the number of ports
+	 * @param behaviour
+	 *                      what to do with connections
+	 * @param delay
+	 *                      millis to delay each accept, for {@code DELAY}
+	 * @param backlog
+	 *                      the listen backlog of each port
+	 * 
+	 * @return the port numbers, bound on every address
+	 * 
+	 * @throws IOException
+	 *                         if ports could not be bound
+	 */
+	List< Integer > listen ( List< InetAddress > addresses, int ports, Behaviour behaviour, long delay, int backlog )
+		throws IOException
+	{
+		List< Integer > numbers = new ArrayList<>();
+
+		for ( int p = 0; p < ports; p++ )
+		{
+			List< ServerSocketChannel > bound = bind(addresses, backlog);
+			numbers.add(bound.get(0).socket().getLocalPort());
+
+			if ( Behaviour.REFUSE == behaviour )
+			/*
+			 * Nothing listening, connects are refused
+			 */
+			{
+				for ( ServerSocketChannel server : bound )
+				{
+					server.close();
+				} // for
+				continue;
+			} // if
+
+			for ( ServerSocketChannel server : bound )
+			{
+				synchronized ( servers )
+				{
+					servers.add(server);
+				} // synchronized
+				pending.add(new Listener(server, Behaviour.DELAY == behaviour ? TimeUnit.MILLISECONDS.toNanos(delay) : 0));
+			} // for
+		} // for
+
+		selector.wakeup();
+		return numbers;
+	} // listen
+
+
+	/**
+	 * Listen on a set of ports on every given address with the default backlog
+	 * 
+	 * @param addresses
+	 *                      the loopback addresses
+	 * @param ports
+	 *                      the number of ports
+	 * @param behaviour
+	 *                      what to do with connections
+	 * @param delay
+	 *                      millis to delay each accept, for {@code DELAY}
+	 * 
+	 * @return the port numbers, bound on every address
+	 * 
+	 * @throws IOException
+	 *                         if ports could not be bound
+	 */
+	List< Integer > listen ( List< InetAddress > addresses, int ports, Behaviour behaviour, long delay )
+		throws IOException
+	{
+		return listen(addresses, ports, behaviour, delay, BACKLOG_DEFAULT);
+	} // listen
+
+
+	/**
+	 * Connections accepted so far
+	 * 
+	 * @return the accepted count
+	 */
+	long getAccepted ()
+	{
+		return accepted.get();
+	} // getAccepted
+
+
+	/**
+	 * Stop listening
+	 */
+	@Override
+	public void close ()
+		throws IOException
+	{
+		selector.close();
+		synchronized ( servers )
+		{
+			for ( ServerSocketChannel server : servers )
+			{
+				server.close();
+			} // for
+			servers.clear();
+		} // synchronized
+	} // close
+
+
+	/**
+	 * Farm loop
+	 * <p>
+	 * Registers new listeners, accepts and closes connections, and accepts on delayed listeners once due
+	 */
+	@Override
+	public void run ()
+	{
+		while ( selector.isOpen() )
+		{
+			try
+			{
+				Listener	next	= delayed.peek();
+				long		wait	= next == null ? -1 : next.due - System.nanoTime();
+
+				if ( next == null )
+				{
+					selector.select();
+				}
+				else if ( wait > 1000000 )
+				{
+					selector.select(wait / 1000000);
+				}
+				else
+				{
+					selector.selectNow();
+				} // if
+
+				Listener l;
+				while ( ( l = pending.poll() ) != null )
+				{
+					l.server.configureBlocking(false);
+					l.key = l.server.register(selector, SelectionKey.OP_ACCEPT, l);
+				} // while
+
+				Iterator< SelectionKey > keys = selector.selectedKeys().iterator();
+				while ( keys.hasNext() )
+				{
+					SelectionKey key = keys.next();
+					keys.remove();
+					if ( key.isValid() && key.isAcceptable() )
+					{
+						accept((Listener) key.attachment());
+					} // if
+				} // while
+
+				while ( ( l = delayed.peek() ) != null && l.due - System.nanoTime() <= 0 )
+				{
+					delayed.poll();
+					acceptOne(l.server);
+					if ( l.key.isValid() )
+					{
+						l.key.interestOps(SelectionKey.OP_ACCEPT);
+					} // if
+				} // while
+			}
+			catch ( IOException | RuntimeException e )
+			{
+				// Selector closed, or listener closed under it
+			} // try/catch
+		} // while
+	} // run
+
+
+	/**
+	 * Accept all pending connections, or schedule a delayed accept
+	 * 
+	 * @param l
+	 *              the listener with connections pending
+	 */
+	private void accept ( Listener l )
+		throws IOException
+	{
+		if ( l.delay > 0 )
+		/*
+		 * Stop selecting the listener until its accept is due, leaving connects in the backlog
+		 */
+		{
+			l.key.interestOps(0);
+			l.due = System.nanoTime() + l.delay;
+			delayed.add(l);
+			return;
+		} // if
+
+		while ( acceptOne(l.server) )
+		{
+			// Drain the backlog
+		} // while
+	} // accept
+
+
+	/**
+	 * Accept and close one connection
+	 * 
+	 * @param server
+	 *                   the listener
+	 * 
+	 * @return true if a connection was accepted, false if none was pending or the listener is closed
+	 */
+	private boolean acceptOne ( ServerSocketChannel server )
+	{
+		try
+		{
+			SocketChannel channel = server.accept();
+			if ( channel == null )
+				return false;
+			channel.close();
+			accepted.incrementAndGet();
+			return true;
+		}
+		catch ( IOException e )
+		{
+			return false;
+		} // try/catch
+	} // acceptOne
+
+
+	/**
+	 * Bind a port free on every address
+	 * 
+	 * @param addresses
+	 *                      the addresses
+	 * @param backlog
+	 *                      the listen backlog
+	 * 
+	 * @return a listener per address, all on the same port
+	 * 
+	 * @throws IOException
+	 *                         if no port could be bound on every address
+	 */
+	private static List< ServerSocketChannel > bind ( List< InetAddress > addresses, int backlog )
+		throws IOException
+	{
+		for ( int attempt = 0; attempt < BIND_RETRIES; attempt++ )
+		{
+			List< ServerSocketChannel >	bound	= new ArrayList<>();
+			int							port	= 0;
+
+			try
+			{
+				for ( InetAddress address : addresses )
+				{
+					ServerSocketChannel server = ServerSocketChannel.open();
+					bound.add(server);
+					server.bind(new InetSocketAddress(address, port), backlog);
+					port = server.socket().getLocalPort();
+				} // for
+				return bound;
+			}
+			catch ( BindException e )
+			{
+				for ( ServerSocketChannel server : bound )
+				{
+					server.close();
+				} // for
+			} // try/catch
+		} // for
+
+		throw new BindException("No port free on all " + addresses.size() + " addresses");
+	} // bind
+
+} // TargetFarm
@@ -0,0 +1,268 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+
+/**
+ * The tuples of a sweep, held compactly and enumerated lazily
+ * <p>
+ * The ports are a {@code BitSet}, and each local interface address is held once paired with the remote
+ * addresses of its IPv and once with each remote {@code AddressPrefix}, so the space takes the same memory
+ * however many tuples it spans. Tuples are enumerated port by port, and for each port the IPv4 pairs then the
+ * IPv6 pairs, each local interface address to each remote address then to each address of each prefix.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+class TargetSpace implements Iterable< TargetSpace.Target >
+{
+
+	/**
+	 * A tuple of the space
+	 */
+	static final class Target
+	{
+		final String		ipv;
+		final InetAddress	localaddress;
+		final InetAddress	remoteaddress;
+		final int			port;
+
+
+		private Target ( String ipv, InetAddress localaddress, InetAddress remoteaddress, int port )
+		{
+			this.ipv			= ipv;
+			this.localaddress	= localaddress;
+			this.remoteaddress	= remoteaddress;
+			this.port			= port;
+		}
+
+	} // Target
+
+
+	private final BitSet									ports;
+	private final List< String >							ipvs		= new ArrayList<>();
+	private final List< InetAddress >						locals		= new ArrayList<>();
+	private final List< Iterable< ? extends InetAddress > >	remotes		= new ArrayList<>();
+	private final List< InetAddress >						v4locals	= new ArrayList<>();
+	private final List< InetAddress >						v6locals	= new ArrayList<>();
+	private long											pairs;
+
+
+	/**
+	 * The space of the given ports from each local interface address to each remote address of the same IPv
+	 * 
+	 * @param ports
+	 *                        the remote ports
+	 * @param v4locals
+	 *                        the local IPv4 interface addresses
+	 * @param v4remotes
+	 *                        the remote IPv4 addresses
+	 * @param v6locals
+	 *                        the local IPv6 interface addresses
+	 * @param v6remotes
+	 *                        the remote IPv6 addresses
+	 */
+	TargetSpace ( BitSet ports, Collection< Inet4Address > v4locals, Collection< Inet4Address > v4remotes,
+			Collection< Inet6Address > v6locals, Collection< Inet6Address > v6remotes )
+	{
+		this(ports, v4locals, v4remotes, Collections.emptyList(), v6locals, v6remotes, Collections.emptyList());
+	}
+
+
+	/**
+	 * The space of the given ports from each local interface address to each remote address, and each address of
+	 * the remote prefixes, of the same IPv
+	 * 
+	 * @param ports
+	 *                        the remote ports
+	 * @param v4locals
+	 *                        the local IPv4 interface addresses
+	 * @param v4remotes
+	 *                        the remote IPv4 addresses
+	 * @param v4prefixes
+	 *                        the remote IPv4 CIDR blocks, enumerated as they are reached
+	 * @param v6locals
+	 *                        the local IPv6 interface addresses
+	 * @param v6remotes
+	 *                        the remote IPv6 addresses
+	 * @param v6prefixes
+	 *                        the remote IPv6 prefixes, enumerated as they are reached
+	 */
+	TargetSpace ( BitSet ports, Collection< Inet4Address > v4locals, Collection< Inet4Address > v4remotes,
+			Collection< AddressPrefix > v4prefixes, Collection< Inet6Address > v6locals, Collection< Inet6Address > v6remotes,
+			Collection< AddressPrefix > v6prefixes )
+	{
+		this.ports = (BitSet) ports.clone();
+		this.v4locals.addAll(v4locals);
+		this.v6locals.addAll(v6locals);
+		pair("4", v4locals, v4remotes, v4prefixes);
+		pair("6", v6locals, v6remotes, v6prefixes);
+	}
+
+
+	/**
+	 * Add each local address paired with the remote addresses, then with each remote prefix
+	 */
+	private void pair ( String ipv, Collection< ? extends InetAddress > locals, Collection< ? extends InetAddress > addresses,
+			Collection< AddressPrefix > prefixes )
+	{
+		for ( InetAddress local : locals )
+		{
+			if ( !addresses.isEmpty() )
+			{
+				group(ipv, local, addresses, addresses.size());
+			} // if
+
+			for ( AddressPrefix prefix : prefixes )
+			{
+				group(ipv, local, prefix, prefix.size());
+			} // for
+		} // for
+	} // pair
+
+
+	/**
+	 * Add a local address paired with a group of remote addresses
+	 */
+	private void group ( String ipv, InetAddress local, Iterable< ? extends InetAddress > group, long count )
+	{
+		ipvs.add(ipv);
+		locals.add(local);
+		remotes.add(group);
+		pairs += count;
+	} // group
+
+
+	/**
+	 * The count of tuples in the space, before any local addresses in the remote prefixes are skipped
+	 * 
+	 * @return the tuples
+	 */
+	long size ()
+	{
+		return ports.cardinality() * pairs;
+	} // size
+
+
+	/**
+	 * Enumerate the tuples of a remote address outside the space, such as one streamed from a host list, port by
+	 * port from each local interface address of its IPv
+	 * 
+	 * @param remote
+	 *                   the remote address
+	 * 
+	 * @return the tuples, each made as it is reached
+	 */
+	Iterator< Target > targets ( InetAddress remote )
+	{
+		String				ipv		= remote instanceof Inet4Address ? "4" : "6";
+		List< InetAddress >	from	= remote instanceof Inet4Address ? v4locals : v6locals;
+
+		return new Iterator< Target >()
+		{
+			int	port	= from.isEmpty() ? -1 : ports.nextSetBit(0);
+			int	local;
+
+
+			@Override
+			public boolean hasNext ()
+			{
+				return port >= 0;
+			}
+
+
+			@Override
+			public Target next ()
+			{
+				if ( port < 0 )
+					throw new NoSuchElementException();
+
+				Target target = new Target(ipv, from.get(local), remote, port);
+
+				if ( ++local == from.size() )
+				{
+					local	= 0;
+					port	= ports.nextSetBit(port + 1);
+				} // if
+
+				return target;
+			}
+		};
+	} // targets
+
+
+	/**
+	 * Enumerate the tuples, each made as it is reached
+	 */
+	@Override
+	public Iterator< Target > iterator ()
+	{
+		return new Iterator< Target >()
+		{
+			int									port	= ports.nextSetBit(0);
+			int									group	= -1;
+			Iterator< ? extends InetAddress >	remote	= Collections.emptyIterator();
+
+
+			@Override
+			public boolean hasNext ()
+			{
+				while ( !remote.hasNext() && port >= 0 )
+				{
+					if ( ++group == remotes.size() )
+					{
+						group	= -1;
+						port	= ports.nextSetBit(port + 1);
+					}
+					else
+					{
+						remote = remotes.get(group).iterator();
+					} // if
+				} // while
+
+				return remote.hasNext();
+			}
+
+
+			@Override
+			public Target next ()
+			{
+				if ( !hasNext() )
+					throw new NoSuchElementException();
+
+				return new Target(ipvs.get(group), locals.get(group), remote.next(), port);
+			}
+		};
+	} // iterator
+
+} // TargetSpace
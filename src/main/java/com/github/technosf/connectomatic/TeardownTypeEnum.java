@@ -0,0 +1,98 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * How the socket of each connection attempt is torn down
+ * <p>
+ * {@code GRACEFUL} closes with a FIN, leaving the socket in TIME_WAIT on the local side for twice the maximum
+ * segment lifetime, holding its ephemeral port. {@code ABORT} sets {@code SO_LINGER} to zero so the close
+ * resets the connection, and no TIME_WAIT is left behind.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+public enum TeardownTypeEnum
+{
+
+	GRACEFUL ( "graceful" )
+	, ABORT ( "abort" );
+
+
+	private static final Map< String, TeardownTypeEnum >	NAME_INDEX;		// Store for an index of teardown names
+
+	private final String									NAME;			// The teardown name as used on the CLI
+
+
+	/**
+	 * Constructs the enum for a teardown type
+	 * 
+	 * @param name
+	 *                 the CLI name of the teardown
+	 */
+	private TeardownTypeEnum ( String name )
+	{
+		NAME = name;
+	}
+
+
+	static
+	/*
+	 * Create a name index
+	 */
+	{
+		NAME_INDEX = new ConcurrentHashMap<>();
+		for ( TeardownTypeEnum e : TeardownTypeEnum.values() )
+		{
+			NAME_INDEX.put(e.NAME, e);
+		}
+	};
+
+
+	/**
+	 * Returns the enum for the given teardown name
+	 * 
+	 * @param name
+	 *                 a teardown name
+	 * 
+	 * @return enum for the teardown name, or null if unknown
+	 */
+	static TeardownTypeEnum getTeardownType ( String name )
+	{
+		return NAME_INDEX.get(name.trim().toLowerCase());
+	}
+
+
+	/**
+	 * Returns the CLI name of the teardown
+	 * 
+	 * @return the teardown name
+	 */
+	String getName ()
+	{
+		return NAME;
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.util.concurrent.ExecutorService;
+
+
+/**
+ * Virtual thread support
+ * <p>
+ * This is the Java 8 implementation, which reports that virtual threads are unsupported so that the
+ * virtual engine falls back to the blocking pool. The multi-release jar carries a Java 21 overlay of this
+ * class, under {@code META-INF/versions/21}, that provides a virtual thread per task executor.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+final class VirtualThreads
+{
+
+	/**
+	 * Not instantiable
+	 */
+	private VirtualThreads ()
+	{}
+
+
+	/**
+	 * Does this JVM run tasks on virtual threads?
+	 * 
+	 * @return false, virtual threads need Java 21
+	 */
+	static boolean isSupported ()
+	{
+		return false;
+	} // isSupported
+
+
+	/**
+	 * Creates an executor that runs each task on a new virtual thread
+	 * 
+	 * @return never, virtual threads need Java 21
+	 * 
+	 * @throws UnsupportedOperationException
+	 *                                           always, on this JVM
+	 */
+	static ExecutorService newExecutor ()
+	{
+		throw new UnsupportedOperationException("Virtual threads require Java 21");
+	} // newExecutor
+
+} // VirtualThreads
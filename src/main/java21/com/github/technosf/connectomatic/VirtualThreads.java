@@ -0,0 +1,67 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ * Virtual thread support
+ * <p>
+ * Java 21 overlay of the Java 8 class, packaged under {@code META-INF/versions/21} of the multi-release jar.
+ * 
+ * @since 1.3.0
+ * 
+ * @version 1.3.0
+ * 
+ * @author technosf
+ */
+final class VirtualThreads
+{
+
+	/**
+	 * Not instantiable
+	 */
+	private VirtualThreads ()
+	{}
+
+
+	/**
+	 * Does this JVM run tasks on virtual threads?
+	 * 
+	 * @return true
+	 */
+	static boolean isSupported ()
+	{
+		return true;
+	} // isSupported
+
+
+	/**
+	 * Creates an executor that runs each task on a new virtual thread
+	 * 
+	 * @return the virtual thread per task executor
+	 */
+	static ExecutorService newExecutor ()
+	{
+		return Executors.newVirtualThreadPerTaskExecutor();
+	} // newExecutor
+
+} // VirtualThreads
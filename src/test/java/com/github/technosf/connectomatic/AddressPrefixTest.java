@@ -0,0 +1,137 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+public class AddressPrefixTest
+{
+
+	private static List< String > addresses ( AddressPrefix prefix )
+	{
+		List< String > addresses = new ArrayList<>();
+		for ( InetAddress address : prefix )
+		{
+			addresses.add(address.getHostAddress());
+		}
+		return addresses;
+	}
+
+
+	@Test
+	public void ipv4Test ()
+	{
+		AddressPrefix aut = new AddressPrefix("192.168.1.9/30", AddressPrefix.SAMPLE_DEFAULT, false, null);
+		assertTrue(aut.isIPv4(), "IPv4");
+		assertFalse(aut.isSampled(), "Whole");
+		assertEquals(aut.toString(), "192.168.1.8/30", "Host bits masked off");
+		assertEquals(aut.size(), 4, "Size");
+		assertEquals(addresses(aut), Arrays.asList("192.168.1.8", "192.168.1.9", "192.168.1.10", "192.168.1.11"), "Addresses");
+
+		assertEquals(addresses(new AddressPrefix("10.0.0.1/32", 1, true, null)), Collections.singletonList("10.0.0.1"), "Host");
+	}
+
+
+	@Test
+	public void usableTest ()
+	{
+		AddressPrefix aut = new AddressPrefix("192.168.1.0/29", AddressPrefix.SAMPLE_DEFAULT, true, null);
+		List< String > addresses = addresses(aut);
+		assertEquals(addresses.size(), 6, "Network and broadcast left out");
+		assertEquals(addresses.get(0), "192.168.1.1", "First");
+		assertEquals(addresses.get(5), "192.168.1.6", "Last");
+
+		assertEquals(new AddressPrefix("192.168.1.0/31", AddressPrefix.SAMPLE_DEFAULT, true, null).size(), 2, "Point to point");
+		assertEquals(addresses(new AddressPrefix("2001:db8::/126", AddressPrefix.SAMPLE_DEFAULT, true, null)).get(0), "2001:db8:0:0:0:0:0:1",
+				"Subnet-router anycast left out");
+	}
+
+
+	@Test
+	public void sampleTest ()
+	{
+		AddressPrefix aut = new AddressPrefix("2001:db8::/64", 4, false, null);
+		assertFalse(aut.isIPv4(), "IPv6");
+		assertTrue(aut.isSampled(), "Sampled");
+		assertEquals(aut.getCount(), BigInteger.ONE.shiftLeft(64), "Count");
+		assertEquals(aut.size(), 4, "Size");
+
+		List< String > addresses = addresses(aut);
+		assertEquals(addresses.size(), 4, "Sample");
+		assertEquals(addresses.get(0), "2001:db8:0:0:0:0:0:0", "First");
+		assertEquals(addresses.get(1), "2001:db8:0:0:0:0:0:1", "Low-order first");
+		assertEquals(addresses.get(3), "2001:db8:0:0:0:0:0:3", "Last");
+		assertEquals(addresses(aut), addresses, "Same sample each time");
+
+		assertEquals(addresses(new AddressPrefix("2001:db8::/64", 2, true, null)), Arrays.asList("2001:db8:0:0:0:0:0:1", "2001:db8:0:0:0:0:0:2"),
+				"Usable from ::1");
+	}
+
+
+	@Test
+	public void strideTest ()
+	{
+		AddressPrefix aut = new AddressPrefix("10.20.0.0/16", 4, false, null);
+		assertTrue(aut.isSampled(), "Sampled");
+		assertEquals(addresses(aut), Arrays.asList("10.20.0.0", "10.20.64.0", "10.20.128.0", "10.20.192.0"), "Even stride");
+	}
+
+
+	@Test
+	public void excludedTest ()
+	{
+		AddressPrefix aut = new AddressPrefix("127.0.0.0/30", AddressPrefix.SAMPLE_DEFAULT, false, Collections.singleton("127.0.0.1"));
+		assertEquals(addresses(aut), Arrays.asList("127.0.0.0", "127.0.0.2", "127.0.0.3"), "Local skipped");
+
+		assertFalse(new AddressPrefix("127.0.0.1/32", 1, false, Collections.singleton("127.0.0.1")).iterator().hasNext(), "All skipped");
+	}
+
+
+	@Test
+	public void invalidTest ()
+	{
+		for ( String cidr : new String[] { "10.0.0.0", "10.0.0.0/33", "::/129", "github.com/16", "10.0.0/8", "10.0.0.0/x" } )
+		{
+			try
+			{
+				new AddressPrefix(cidr, 1, false, null);
+				fail("Accepted " + cidr);
+			}
+			catch ( IllegalArgumentException e )
+			{
+				//
+			}
+		}
+		assertTrue(AddressPrefix.isPrefix("10.0.0.0/8"), "Prefix");
+		assertFalse(AddressPrefix.isPrefix("github.com"), "Host");
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.testng.annotations.Test;
+
+public class AddressSetTest
+{
+
+	@Test
+	public void addTest ()
+		throws UnknownHostException
+	{
+		AddressSet aut = new AddressSet();
+
+		assertTrue(aut.add(InetAddress.getByName("10.0.0.1")), "IPv4");
+		assertFalse(aut.add(InetAddress.getByName("10.0.0.1")), "IPv4 again");
+		assertTrue(aut.add(InetAddress.getByName("2001:db8::1")), "IPv6");
+		assertFalse(aut.add(InetAddress.getByName("2001:db8:0::1")), "IPv6 again");
+		assertTrue(aut.add(InetAddress.getByName("::a00:1")), "IPv4-compatible is not IPv4");
+		assertTrue(aut.add(InetAddress.getByName("::")), "Unspecified");
+		assertFalse(aut.add(InetAddress.getByName("::")), "Unspecified again");
+		assertTrue(aut.add(InetAddress.getByName("0.0.0.0")), "IPv4 any");
+		assertEquals(aut.size(), 5, "Size");
+	}
+
+
+	@Test
+	public void growTest ()
+		throws UnknownHostException
+	{
+		AddressSet aut = new AddressSet();
+
+		for ( int i = 0; i < 100000; i++ )
+		{
+			assertTrue(aut.add(InetAddress.getByAddress(new byte[] { 10, (byte) ( i >> 16 ), (byte) ( i >> 8 ), (byte) i })), "Added");
+		}
+		for ( int i = 0; i < 100000; i += 997 )
+		{
+			assertFalse(aut.add(InetAddress.getByAddress(new byte[] { 10, (byte) ( i >> 16 ), (byte) ( i >> 8 ), (byte) i })), "Kept");
+		}
+		assertEquals(aut.size(), 100000, "Size");
+	}
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static com.github.technosf.connectomatic.ResultFixture.LOOPBACK;
+import static com.github.technosf.connectomatic.ResultFixture.REMOTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.util.Arrays;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class BinarySinkTest
+{
+
+	private ResultFixture result ( boolean json, InetAddress address, int port )
+	{
+		return ResultFixture.result(port).json(json).remote(address).connects(1000000 + port, 7000000).timeouts(5000000).refused(2)
+				.unreachable(1).inferred(1);
+	}
+
+
+	private byte[] write ( int results )
+	{
+		ByteArrayOutputStream	bytes	= new ByteArrayOutputStream();
+		BinarySink				aut		= new BinarySink(bytes);
+
+		aut.open();
+		for ( int port = 1; port <= results; port++ )
+		{
+			aut.accept(result(false, port % 2 == 0 ? LOOPBACK : REMOTE, 65536 - port).collate());
+		}
+		aut.close();
+
+		assertEquals(aut.getResults(), results, "Results");
+		assertEquals(aut.getBytes(), bytes.size(), "Bytes");
+		assertNull(aut.getError(), "Error");
+		return bytes.toByteArray();
+	}
+
+
+	@DataProvider
+	public static Object[][] formats ()
+	{
+		return new Object[][] { { false }, { true } };
+	}
+
+
+	@Test ( dataProvider = "formats" )
+	public void roundTripTest ( boolean json )
+		throws IOException
+	{
+		try ( BinaryReader aut = new BinaryReader(new ByteArrayInputStream(write(3)), json) )
+		{
+			for ( int port = 1; port <= 3; port++ )
+			{
+				assertEquals(aut.next(), result(json, port % 2 == 0 ? LOOPBACK : REMOTE, 65536 - port).collate().toString(), "Result " + port);
+			}
+			assertNull(aut.next(), "End");
+			assertEquals(aut.getResults(), 3, "Results");
+		}
+	}
+
+
+	@Test
+	public void dictionaryTest ()
+	{
+		// IPv, interface and remote address, the hostname being the address without reverse lookups
+		int strings = 3 * ( 1 + 2 ) + "4".length() + "127.0.0.1".length() + "127.0.0.2".length();
+
+		assertEquals(write(1).length, 5 + strings + 1 + BinarySink.RESULT_BYTES + 5, "One result");
+		assertEquals(write(2).length - write(1).length, 1 + BinarySink.RESULT_BYTES, "Repeated strings not rewritten");
+	}
+
+
+	@Test
+	public void concatenatedTest ()
+		throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		bytes.write(write(2));
+		bytes.write(write(3));
+
+		ByteArrayOutputStream	csv		= new ByteArrayOutputStream();
+		int						results	= BinaryReader.convert(new ByteArrayInputStream(bytes.toByteArray()), new PrintStream(csv, true, "UTF-8"), false);
+
+		String[] lines = new String(csv.toByteArray(), "UTF-8").split("\n");
+		assertEquals(results, 5, "Results");
+		assertEquals(lines.length, 6, "Header and results");
+		assertEquals(lines[0], ConnectionResult.CSV_HEADER, "Header");
+		assertEquals(lines[3], result(false, REMOTE, 65535).collate().toString(), "Second stream");
+	}
+
+
+	@Test
+	public void jsonTest ()
+		throws IOException
+	{
+		ByteArrayOutputStream json = new ByteArrayOutputStream();
+		BinaryReader.convert(new ByteArrayInputStream(write(2)), new PrintStream(json, true, "UTF-8"), true);
+
+		String[] lines = new String(json.toByteArray(), "UTF-8").split("\n");
+		assertEquals(lines.length, 4, "Array");
+		assertEquals(lines[0], "[", "Open");
+		assertTrue(lines[2].startsWith(",{\"IPv\":\"4\""), "Separated");
+		assertEquals(lines[3], "]", "Close");
+	}
+
+
+	@Test
+	public void truncatedTest ()
+		throws IOException
+	{
+		byte[] bytes = write(3);
+
+		try ( BinaryReader aut = new BinaryReader(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 5)), false) )
+		{
+			int results = 0;
+			while ( aut.next() != null )
+			{
+				results++;
+			}
+			assertEquals(results, 3, "Cut off between records");
+		}
+	}
+
+
+	@Test
+	public void versionOneTest ()
+		throws IOException
+	{
+		byte[]	bytes	= write(1);
+		byte[]	v1		= new byte[bytes.length - 4];
+
+		// Version 1 rows end at the unreachable count, without the inferred count
+		System.arraycopy(bytes, 0, v1, 0, bytes.length - 9);
+		System.arraycopy(bytes, bytes.length - 5, v1, bytes.length - 9, 5);
+		v1[4] = 1;
+
+		ConnectionResult expected = result(false, REMOTE, 65535).inferred(0).collate();
+
+		try ( BinaryReader aut = new BinaryReader(new ByteArrayInputStream(v1), false) )
+		{
+			assertEquals(aut.next(), expected.toString(), "No inferred count");
+			assertNull(aut.next(), "End");
+		}
+	}
+
+
+	@Test ( expectedExceptions = IOException.class )
+	public void cutOffTest ()
+		throws IOException
+	{
+		byte[] bytes = write(1);
+
+		try ( BinaryReader aut = new BinaryReader(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 10)), false) )
+		{
+			aut.next();
+		}
+	}
+
+
+	@Test ( expectedExceptions = IOException.class )
+	public void notBinaryTest ()
+		throws IOException
+	{
+		try ( BinaryReader aut = new BinaryReader(new ByteArrayInputStream(ConnectionResult.CSV_HEADER.getBytes("UTF-8")), false) )
+		{
+			aut.next();
+		}
+	}
+
+}
@@ -0,0 +1,253 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class BulkSinkTest
+{
+
+	MockWebServer	mockServer;
+	URI				uri;
+
+
+	@BeforeMethod
+	public void setup ()
+		throws IOException
+	{
+		mockServer = new MockWebServer();
+		mockServer.start();
+		uri = mockServer.url("/connectomatic/_bulk").uri();
+	}
+
+
+	@AfterMethod
+	public void teardown ()
+		throws IOException
+	{
+		mockServer.shutdown();
+	}
+
+
+	private ConnectionResult result ( int port )
+	{
+		return ResultFixture.result(port).json(true).remote(ResultFixture.LOOPBACK).connects(1000000).collate();
+	}
+
+
+	@Test
+	public void batchTest ()
+		throws InterruptedException
+	{
+		for ( int i = 0; i < 3; i++ )
+		{
+			mockServer.enqueue(new MockResponse());
+		}
+
+		BulkSink aut = new BulkSink(uri, 2, BulkSink.BYTES_DEFAULT, false);
+		aut.open();
+		for ( int port = 1; port <= 5; port++ )
+		{
+			aut.accept(result(port));
+		}
+		assertEquals(mockServer.getRequestCount(), 2, "Sent while running");
+		aut.close();
+
+		assertEquals(aut.getDocuments(), 5, "Documents");
+		assertEquals(aut.getBatches(), 3, "Batches");
+		assertEquals(aut.getFailed(), 0, "Failed");
+
+		RecordedRequest request = mockServer.takeRequest(1, TimeUnit.SECONDS);
+		assertEquals(request.getMethod(), "POST", "Method");
+		assertEquals(request.getPath(), "/connectomatic/_bulk", "Path");
+		assertEquals(request.getHeader("Content-Type"), "application/x-ndjson", "Content type");
+		assertEquals(request.getHeader("Transfer-Encoding"), "chunked", "Chunked");
+
+		String[] lines = request.getBody().readUtf8().split("\n");
+		assertEquals(lines.length, 4, "Action and document lines");
+		assertEquals(lines[0], "{\"index\":{}}", "Action");
+		assertEquals(lines[1], result(1).toString(), "Document");
+	}
+
+
+	@Test
+	public void sizeTest ()
+	{
+		int docBytes = result(1).toString().getBytes(StandardCharsets.UTF_8).length + 14;
+
+		for ( int i = 0; i < 3; i++ )
+		{
+			mockServer.enqueue(new MockResponse());
+		}
+
+		BulkSink aut = new BulkSink(uri, 100, docBytes * 2, false);
+		for ( int port = 1; port <= 5; port++ )
+		{
+			aut.accept(result(port));
+		}
+		aut.close();
+
+		assertEquals(aut.getBatches(), 3, "Batches bounded by size");
+	}
+
+
+	@Test
+	public void gzipTest ()
+		throws InterruptedException, IOException
+	{
+		mockServer.enqueue(new MockResponse());
+
+		BulkSink aut = new BulkSink(uri, 10, BulkSink.BYTES_DEFAULT, true);
+		aut.accept(result(80));
+		aut.close();
+
+		RecordedRequest request = mockServer.takeRequest(1, TimeUnit.SECONDS);
+		assertEquals(request.getHeader("Content-Encoding"), "gzip", "Encoding");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try ( InputStream in = new GZIPInputStream(new ByteArrayInputStream(request.getBody().readByteArray())) )
+		{
+			byte[] buffer = new byte[1024];
+			for ( int n; ( n = in.read(buffer) ) > 0; )
+			{
+				out.write(buffer, 0, n);
+			}
+		}
+		assertEquals(new String(out.toByteArray(), StandardCharsets.UTF_8), "{\"index\":{}}\n" + result(80) + "\n", "Body");
+	}
+
+
+	@Test
+	public void retryTest ()
+	{
+		mockServer.enqueue(new MockResponse().setResponseCode(503));
+		mockServer.enqueue(new MockResponse().setResponseCode(429));
+		mockServer.enqueue(new MockResponse());
+
+		BulkSink aut = new BulkSink(uri, 10, BulkSink.BYTES_DEFAULT, false, 3, 1);
+		aut.accept(result(80));
+		aut.close();
+
+		assertEquals(mockServer.getRequestCount(), 3, "Retried");
+		assertEquals(aut.getFailed(), 0, "Failed");
+		assertEquals(aut.getStatus(), 200, "Status");
+	}
+
+
+	@Test
+	public void itemErrorsTest ()
+		throws InterruptedException
+	{
+		mockServer.enqueue(new MockResponse().setBody("{\"took\":3,\"errors\":true,\"items\":["
+				+ "{\"index\":{\"_index\":\"connectomatic\",\"status\":201}},"
+				+ "{\"index\":{\"_index\":\"connectomatic\",\"status\":429,\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"queue full\"}}},"
+				+ "{\"index\":{\"_index\":\"connectomatic\",\"status\":400,\"error\":{\"type\":\"mapper_parsing_exception\",\"caused_by\":{\"type\":\"x\",\"status\":500}}}}]}"));
+		mockServer.enqueue(new MockResponse().setBody("{\"took\":1,\"errors\":false,\"items\":[{\"index\":{\"status\":201}}]}"));
+
+		BulkSink aut = new BulkSink(uri, 3, BulkSink.BYTES_DEFAULT, false, 3, 1);
+		aut.accept(result(80));
+		aut.accept(result(81));
+		aut.accept(result(82));
+		aut.close();
+
+		assertEquals(mockServer.getRequestCount(), 2, "Rejected item resent");
+		assertEquals(aut.getFailed(), 0, "Failed batches");
+		assertEquals(aut.getFailedDocuments(), 1, "Mapping error not resent");
+
+		mockServer.takeRequest(1, TimeUnit.SECONDS);
+		RecordedRequest resent = mockServer.takeRequest(1, TimeUnit.SECONDS);
+		assertEquals(resent.getBody().readUtf8(), "{\"index\":{}}\n" + result(81) + "\n", "Only the 429 item resent");
+		assertEquals(resent.getSequenceNumber(), 1, "Connection kept alive");
+	}
+
+
+	@Test
+	public void unknownItemsTest ()
+	{
+		mockServer.enqueue(new MockResponse().setBody("{\"took\":3,\"errors\":true,\"items\":["
+				+ "{\"index\":{\"_index\":\"connectomatic\",\"status\":429}}]}"));
+		mockServer.enqueue(new MockResponse().setBody("{\"took\":1,\"errors\":false,\"items\":[{\"index\":{\"status\":201}}]}"));
+
+		BulkSink aut = new BulkSink(uri, 2, BulkSink.BYTES_DEFAULT, false, 3, 1);
+		aut.accept(result(80));
+		aut.accept(result(81));
+		aut.close();
+
+		assertEquals(mockServer.getRequestCount(), 1, "Unmatched items not resent");
+		assertEquals(aut.getFailed(), 1, "Failed batches");
+		assertEquals(aut.getFailedDocuments(), 2, "Documents in an unknown state");
+	}
+
+
+	@Test
+	public void itemRetriesTest ()
+	{
+		String busy = "{\"took\":3,\"errors\":true,\"items\":[{\"index\":{\"_index\":\"connectomatic\",\"status\":429}}]}";
+		mockServer.enqueue(new MockResponse().setBody(busy));
+		mockServer.enqueue(new MockResponse().setBody(busy));
+
+		BulkSink aut = new BulkSink(uri, 1, BulkSink.BYTES_DEFAULT, false, 1, 1);
+		aut.accept(result(80));
+		aut.close();
+
+		assertEquals(mockServer.getRequestCount(), 2, "Rejected item resent once");
+		assertEquals(aut.getFailed(), 0, "Failed batches");
+		assertEquals(aut.getFailedDocuments(), 1, "Rejected after retries");
+	}
+
+
+	@Test
+	public void failTest ()
+	{
+		mockServer.enqueue(new MockResponse().setResponseCode(400));
+		mockServer.enqueue(new MockResponse().setResponseCode(500));
+		mockServer.enqueue(new MockResponse().setResponseCode(500));
+
+		BulkSink aut = new BulkSink(uri, 1, BulkSink.BYTES_DEFAULT, false, 1, 1);
+		aut.accept(result(80));
+		aut.accept(result(81));
+		aut.close();
+
+		assertEquals(mockServer.getRequestCount(), 3, "No retry on 400, one retry on 500");
+		assertEquals(aut.getFailed(), 2, "Failed");
+		assertEquals(aut.getFailedDocuments(), 2, "Failed documents");
+		assertTrue(BulkSink.isRetryable(0), "I/O error");
+		assertFalse(BulkSink.isRetryable(404), "Client error");
+	}
+
+}
@@ -19,10 +19,15 @@
 package com.github.technosf.connectomatic;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -440,7 +445,7 @@ public class CLIReaderTest
 		assertEquals(clireader.isLocalIncluded (), local, testno+": Local flag");
 		assertEquals(clireader.isQuiet (), quiet, testno+": Quiet flag");
 		assertEquals(clireader.isJson (), json, testno+": JSON flag");
-		assertEquals(clireader.getPorts().size(), ports, testno+": Port count mismatch");
+		assertEquals(clireader.getPorts().cardinality(), ports, testno+": Port count mismatch");
 		assertEquals(clireader.getBadHosts().size(), hosts, testno+": Bad Host Name count mismatch");
 		assertEquals(clireader.getAttempts(), attempts, testno+": Attempts mismatch");		
 		assertEquals(clireader.getIpV4Addresses().size(), ipv4s, testno+": IPv4 Address count mismatch");
@@ -457,4 +462,180 @@ public class CLIReaderTest
 			assertEquals( clireader.getHttpUri().toURL(), url , testno+": URL mismatch");
 		}
 	}
+
+
+	@Test
+	public void intervalTest ()
+	{
+		CLIReader clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--interval", "1.5", "0.25" });
+		assertTrue(clireader.isValid(), "Valid");
+		assertEquals(clireader.getInterval(), 1500, "Interval");
+		assertEquals(clireader.getJitter(), 250, "Jitter");
+
+		clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--interval", "60" });
+		assertEquals(clireader.getJitter(), 6000, "Default jitter");
+
+		clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80" });
+		assertEquals(clireader.getInterval(), 0, "Single sweep");
+
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--interval", "0" }).isValid(), "Zero interval");
+	}
+
+
+	@Test
+	public void resumeTest ()
+	{
+		String journal = System.getProperty("java.io.tmpdir") + "/connectomatic.journal";
+
+		CLIReader clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--resume", journal });
+		assertTrue(clireader.isValid(), "Valid");
+		assertEquals(clireader.getResume().toString(), Paths.get(journal).toAbsolutePath().toString(), "Journal");
+
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--resume", "/nonexistent/journal" }).isValid(), "No directory");
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--resume", journal, "--interval", "60" }).isValid(), "Repeated");
+	}
+
+
+	@Test
+	public void prefixTest ()
+	{
+		CLIReader clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.0/29,::/126,127.0.0.2", "-p", "80", "--prefix", "4,usable" });
+		assertTrue(clireader.isValid(), "Valid");
+		assertEquals(clireader.getIpV4Addresses().size(), 1, "Addresses resolved");
+		assertEquals(clireader.getIpV4Prefixes().size(), 1, "IPv4 prefix");
+		assertEquals(clireader.getIpV6Prefixes().size(), 1, "IPv6 prefix");
+		assertEquals(clireader.getIpV4Prefixes().get(0).size(), 4, "Sampled");
+		assertEquals(clireader.getIpV6Prefixes().get(0).size(), 3, "Subnet-router anycast left out");
+		assertFalse(clireader.getIpV4Prefixes().get(0).iterator().next().getHostAddress().equals("127.0.0.0"), "Network address left out");
+
+		assertTrue(new CLIReader(LOCALIPSET, new String[] { "-h", "10.20.0.0/16", "-p", "80" }).isValid(), "Prefix only");
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "10.20.0.0/33", "-p", "80" }).isValid(), "Prefix length");
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "github.com/16", "-p", "80" }).isValid(), "Not a literal");
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "10.20.0.0/16", "-p", "80", "--prefix", "0" }).isValid(), "Sample");
+	}
+
+
+	@Test
+	public void adaptiveAttemptsTest ()
+	{
+		CLIReader clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "-a", "2-30", "5", "20%" });
+		assertTrue(clireader.isValid(), "Valid");
+		assertTrue(clireader.isAdaptiveAttempts(), "Adaptive");
+		assertEquals(clireader.getMinAttempts(), 2, "Min");
+		assertEquals(clireader.getAttempts(), 30, "Max");
+		assertEquals(clireader.getAttemptBudget(), 5, "Budget");
+		assertEquals(clireader.getPrecision(), 0.2, 0.0001, "Precision");
+
+		clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "-a", "2-30" });
+		assertEquals(clireader.getAttemptBudget(), CLIReader.CONNECTS_DEFAULT, "Default budget");
+		assertEquals(clireader.getPrecision(), ConnectAttempts.PRECISION_DEFAULT, 0.0001, "Default precision");
+
+		clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "-a", "7" });
+		assertFalse(clireader.isAdaptiveAttempts(), "Fixed");
+		assertEquals(clireader.getAttempts(), 7, "Fixed attempts");
+
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "-a", "10%" }).isValid(), "Precision only");
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "-a", "5-2" }).isValid(), "Inverted range");
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "-a", "2-30", "--order", "round" }).isValid(), "Interleaved");
+	}
+
+
+	@Test
+	public void routesTest ()
+	{
+		CLIReader clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80" });
+		assertEquals(clireader.getRouteConfirm(), RouteState.OFF, "Off by default");
+		assertEquals(clireader.getRouteSample(), RouteState.SAMPLE_DEFAULT, "Default sample");
+
+		clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--routes", "5", "64" });
+		assertTrue(clireader.isValid(), "Valid");
+		assertEquals(clireader.getRouteConfirm(), 5, "Confirm");
+		assertEquals(clireader.getRouteSample(), 64, "Sample");
+
+		clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--routes", "on", "32" });
+		assertEquals(clireader.getRouteConfirm(), RouteState.CONFIRM_DEFAULT, "On");
+		assertEquals(clireader.getRouteSample(), 32, "On with sample");
+
+		clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--routes", "off" });
+		assertEquals(clireader.getRouteConfirm(), RouteState.OFF, "Off");
+
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--routes", "0" }).isValid(), "Zero");
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--routes", "1", "2", "3" }).isValid(), "Too many");
+	}
+
+
+	@Test
+	public void teardownTest ()
+	{
+		CLIReader clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80" });
+		assertEquals(clireader.getTeardown(), TeardownTypeEnum.GRACEFUL, "Default teardown");
+		assertEquals(clireader.getPortThreshold(), PortBudget.THRESHOLD_DEFAULT, "Default threshold");
+
+		clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--teardown", "abort", "80" });
+		assertTrue(clireader.isValid(), "Valid");
+		assertEquals(clireader.getTeardown(), TeardownTypeEnum.ABORT, "Abort");
+		assertEquals(clireader.getPortThreshold(), 80, "Threshold");
+
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--teardown", "linger" }).isValid(), "Unknown");
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--teardown", "101" }).isValid(), "Percent");
+	}
+
+
+	@Test
+	public void sourcesTest ()
+	{
+		CLIReader clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80" });
+		assertEquals(clireader.getSourceFirst(), SourcePorts.EPHEMERAL, "Ephemeral");
+
+		clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--sources", "20000-29999" });
+		assertTrue(clireader.isValid(), "Valid");
+		assertEquals(clireader.getSourceFirst(), 20000, "First");
+		assertEquals(clireader.getSourceLast(), 29999, "Last");
+
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--sources", "80-1000" }).isValid(), "Privileged");
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--sources", "30000-20000" }).isValid(), "Inverted");
+		assertFalse(new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2", "-p", "80", "--sources", "20000" }).isValid(), "Not a range");
+	}
+
+
+	@Test
+	public void hostListTest ()
+		throws IOException
+	{
+		Path file = Files.createTempFile("connectomatic", ".hosts");
+		try
+		{
+			CLIReader clireader = new CLIReader(LOCALIPSET, new String[] { "-H", file.toString(), "-p", "80" });
+			assertTrue(clireader.isValid(), "Host list only");
+			assertEquals(clireader.getHostList(), file.toString(), "Host list");
+
+			assertTrue(new CLIReader(LOCALIPSET, new String[] { "-H", "-", "-p", "80" }).isValid(), "Stdin");
+			assertFalse(new CLIReader(LOCALIPSET, new String[] { "-H", "/nonexistent/hosts", "-p", "80" }).isValid(), "No file");
+			assertFalse(new CLIReader(LOCALIPSET, new String[] { "-H", file.toString(), "-p", "80", "--order", "round" }).isValid(), "Interleaved");
+			assertFalse(new CLIReader(LOCALIPSET, new String[] { "-H", "-", "-p", "80", "--interval", "60" }).isValid(), "Stdin repeated");
+			assertTrue(new CLIReader(LOCALIPSET, new String[] { "-H", file.toString(), "-p", "80", "--interval", "60" }).isValid(), "File repeated");
+		}
+		finally
+		{
+			Files.delete(file);
+		}
+	}
+
+
+	@Test
+	public void refreshTest ()
+	{
+		CLIReader clireader = new CLIReader(LOCALIPSET, new String[] { "-h", "127.0.0.2,127.0.0.1", "-p", "80", "--interval", "60" });
+		assertEquals(clireader.getIpV4Addresses().size(), 1, "Local address scrubbed");
+
+		clireader.refresh();
+		assertEquals(clireader.getIpV4Addresses().size(), 1, "Local address still scrubbed");
+		assertTrue(clireader.getResolutions().get("127.0.0.2").cached, "Unexpired entries are not resolved again");
+
+		HostResolver.clear();
+		clireader.refresh();
+		assertEquals(clireader.getIpV4Addresses().size(), 1, "Addresses re-resolved");
+		assertFalse(clireader.getResolutions().get("127.0.0.2").cached, "Expired entries are resolved again");
+	}
+
 }
@@ -0,0 +1,117 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.testng.annotations.Test;
+
+public class ConnectAttemptsTest
+{
+
+	private ConnectionResult result ()
+		throws UnknownHostException
+	{
+		InetAddress loopback = InetAddress.getByName("127.0.0.1");
+		return new ConnectionResult(false, "4", loopback, loopback, 80);
+	}
+
+
+	@Test
+	public void fixedTest ()
+		throws UnknownHostException
+	{
+		ConnectAttempts aut = new ConnectAttempts(3);
+		ConnectionResult result = result();
+		result.refused = 2;
+
+		assertFalse(aut.isAdaptive(), "Fixed");
+		assertTrue(aut.another(result, 2), "Refusals do not settle a fixed count");
+		aut.done(3);
+		assertEquals(aut.getMade(), 3, "Made");
+		assertEquals(aut.getSettled(), 0, "Settled");
+		assertEquals(aut.getPool(), 0, "Pool");
+	}
+
+
+	@Test
+	public void settledTest ()
+		throws UnknownHostException
+	{
+		ConnectAttempts aut = new ConnectAttempts(2, 20, 5, 0.1);
+
+		ConnectionResult result = result();
+		result.refused = 1;
+		assertTrue(aut.another(result, 1), "Below minimum");
+		result.refused = 2;
+		assertFalse(aut.another(result, 2), "Refused settles");
+
+		result = result();
+		result.timeouts.record(3000000000L);
+		result.timeouts.record(3000000000L);
+		assertFalse(aut.another(result, 2), "Timeouts settle");
+
+		result = result();
+		result.refused = 1;
+		result.timeouts.record(3000000000L);
+		assertTrue(aut.another(result, 2), "Mixed failures do not settle");
+
+		result = result();
+		result.connects.record(1000000);
+		result.connects.record(1000000);
+		result.connects.record(1000000);
+		assertFalse(aut.another(result, 3), "Steady connects settle");
+
+		result = result();
+		result.connects.record(1000000);
+		result.connects.record(9000000);
+		assertTrue(aut.another(result, 2), "Spread connects do not settle");
+	}
+
+
+	@Test
+	public void poolTest ()
+		throws UnknownHostException
+	{
+		ConnectAttempts aut = new ConnectAttempts(2, 8, 4, 0.1);
+
+		ConnectionResult spread = result();
+		for ( int i = 1; i <= 4; i++ )
+		{
+			spread.connects.record(i * 1000000);
+		}
+		assertFalse(aut.another(spread, 4), "At budget with an empty pool");
+
+		aut.done(2);
+		assertEquals(aut.getSettled(), 1, "Settled under budget");
+		assertEquals(aut.getPool(), 2, "Saved");
+
+		assertTrue(aut.another(spread, 4), "Drawn from the pool");
+		assertTrue(aut.another(spread, 5), "Drawn from the pool");
+		assertFalse(aut.another(spread, 6), "Pool spent");
+		assertEquals(aut.getExtended(), 2, "Extended");
+		assertFalse(aut.another(spread, 8), "At maximum");
+	}
+
+}
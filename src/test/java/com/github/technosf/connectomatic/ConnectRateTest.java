@@ -0,0 +1,132 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class ConnectRateTest
+{
+
+	InetAddress	host1, host2;
+
+
+	@BeforeClass
+	public void beforeClass ()
+		throws UnknownHostException
+	{
+		host1	= InetAddress.getByName("127.0.0.1");
+		host2	= InetAddress.getByName("127.0.0.2");
+	}
+
+
+	@Test
+	public void unlimitedTest ()
+	{
+		ConnectRate aut = new ConnectRate(ConnectRate.UNLIMITED, ConnectRate.UNLIMITED, ConnectRate.BURST_DEFAULT);
+		assertFalse(aut.isPaced(), "Not paced");
+		aut.acquire(host1);
+		assertEquals(aut.getStarts(), 0, "Unpaced starts are not counted");
+	}
+
+
+	@Test
+	public void globalTest ()
+	{
+		ConnectRate	aut		= new ConnectRate(1000, ConnectRate.UNLIMITED, ConnectRate.BURST_DEFAULT);
+		long		first	= aut.reserve(host1);
+		long		slot	= first;
+
+		for ( int i = 1; i <= 10; i++ )
+		{
+			slot = aut.reserve(i % 2 == 0 ? host1 : host2);
+		}
+
+		assertTrue(aut.isPaced(), "Paced");
+		assertTrue(slot - first >= 9999999, "Ten intervals of 1ms: " + ( slot - first ));
+		assertTrue(slot - first < 10000001 + 1000000, "No more than ten intervals: " + ( slot - first ));
+	}
+
+
+	@Test
+	public void perHostTest ()
+	{
+		ConnectRate	aut		= new ConnectRate(ConnectRate.UNLIMITED, 100, ConnectRate.BURST_DEFAULT);
+		long		now		= System.nanoTime();
+		long		a1		= aut.reserve(host1);
+		long		b1		= aut.reserve(host2);
+		long		a2		= aut.reserve(host1);
+
+		assertTrue(a1 - now < 5000000, "First start to a host is immediate");
+		assertTrue(b1 - now < 5000000, "Hosts are paced apart");
+		assertTrue(a2 - a1 >= 9999999, "Second start to a host waits 10ms: " + ( a2 - a1 ));
+	}
+
+
+	@Test
+	public void burstTest ()
+	{
+		ConnectRate	aut		= new ConnectRate(10, ConnectRate.UNLIMITED, 5);
+		long		now		= System.nanoTime();
+
+		for ( int i = 0; i < 5; i++ )
+		{
+			assertTrue(aut.reserve(host1) - now < 50000000, "Burst start " + i + " is immediate");
+		}
+		assertTrue(aut.reserve(host1) - now >= 99999999, "Start after the burst waits");
+	}
+
+
+	@Test
+	public void combinedTest ()
+	{
+		ConnectRate	aut		= new ConnectRate(100, 100, ConnectRate.BURST_DEFAULT);
+		long		a1		= aut.reserve(host1);
+		long		b1		= aut.reserve(host2);
+		long		a2		= aut.reserve(host1);
+
+		assertTrue(b1 - a1 >= 9999999, "Global interval between hosts");
+		assertTrue(a2 - b1 >= 9999999, "Global interval after the host");
+		assertTrue(a2 - a1 >= 19999999, "Host held back by the global bucket");
+	}
+
+
+	@Test
+	public void achievedTest ()
+	{
+		ConnectRate aut = new ConnectRate(2000, ConnectRate.UNLIMITED, ConnectRate.BURST_DEFAULT);
+
+		for ( int i = 0; i < 200; i++ )
+		{
+			aut.acquire(host1);
+		}
+
+		assertEquals(aut.getStarts(), 200, "Starts");
+		assertTrue(aut.getAchieved() <= 2000 * 1.01, "No faster than the rate: " + aut.getAchieved());
+		assertTrue(aut.getAchieved() >= 2000 * 0.5, "Near the rate: " + aut.getAchieved());
+	}
+
+}
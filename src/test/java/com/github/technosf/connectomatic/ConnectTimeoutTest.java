@@ -0,0 +1,103 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class ConnectTimeoutTest
+{
+
+	Route	route;
+
+
+	@BeforeClass
+	public void beforeClass ()
+		throws UnknownHostException
+	{
+		route = new Route(InetAddress.getByName("127.0.0.1"), InetAddress.getByName("127.0.0.2"));
+	}
+
+
+	@Test
+	public void fixedTest ()
+	{
+		ConnectTimeout aut = new ConnectTimeout(250, false);
+		aut.sample(route, 10f);
+		aut.expired(route);
+		assertEquals(aut.millis(route), 250, "Fixed");
+		assertEquals(new ConnectTimeout(ConnectTimeout.NONE, false).millis(route), ConnectTimeout.NONE, "None");
+	}
+
+
+	@Test
+	public void adaptiveTest ()
+	{
+		ConnectTimeout aut = new ConnectTimeout(1000, true);
+		assertEquals(aut.millis(route), 1000, "Unsampled uses ceiling");
+
+		aut.sample(route, 100f);
+		assertEquals(aut.millis(route), 300, "SRTT + 4 * RTTVAR");
+
+		aut.sample(route, 100f);
+		assertEquals(aut.millis(route), 250, "Variance decays");
+
+		aut.expired(route);
+		assertEquals(aut.millis(route), 500, "Backoff");
+
+		aut.expired(route);
+		assertEquals(aut.millis(route), 1000, "Backoff to ceiling");
+
+		aut.sample(route, 1f);
+		assertEquals(aut.millis(route), 300, "Sample resets backoff");
+
+		assertEquals(new ConnectTimeout(ConnectTimeout.NONE, true).millis(route), ConnectTimeout.ADAPTIVE_DEFAULT,
+				"Default ceiling");
+	}
+
+
+	@Test
+	public void adaptiveFloorTest ()
+	{
+		ConnectTimeout aut = new ConnectTimeout(1000, true);
+		aut.sample(route, 0.01f);
+		assertEquals(aut.millis(route), ConnectTimeout.ADAPTIVE_MIN, "Floor");
+	}
+
+
+	@Test
+	public void isTimeoutTest ()
+	{
+		assertTrue(ConnectTimeout.isTimeout(new SocketTimeoutException("connect timed out")), "Socket timeout");
+		assertTrue(ConnectTimeout.isTimeout(new ConnectException("Connection timed out")), "OS timeout");
+		assertFalse(ConnectTimeout.isTimeout(new ConnectException("Connection refused")), "Refused");
+		assertFalse(ConnectTimeout.isTimeout(new IOException("timed out")), "Other");
+	}
+
+}
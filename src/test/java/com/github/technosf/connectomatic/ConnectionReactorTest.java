@@ -0,0 +1,299 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class ConnectionReactorTest
+{
+
+	InetAddress		loopback;
+	ServerSocket	listener;
+	int				closedPort;
+
+
+	@BeforeClass
+	public void beforeClass ()
+		throws IOException
+	{
+		loopback	= InetAddress.getByName("127.0.0.1");
+		listener	= new ServerSocket(0, 1000, loopback);
+
+		Thread acceptor = new Thread(() ->
+		{
+			while ( !listener.isClosed() )
+			{
+				try
+				{
+					listener.accept().close();
+				}
+				catch ( IOException e )
+				{
+					// Listener closed
+				}
+			}
+		});
+		acceptor.setDaemon(true);
+		acceptor.start();
+
+		try ( ServerSocket closed = new ServerSocket(0, 1, loopback) )
+		{
+			closedPort = closed.getLocalPort();
+		}
+	}
+
+
+	@AfterClass
+	public void afterClass ()
+		throws IOException
+	{
+		listener.close();
+	}
+
+
+	@Test
+	public void connectTest ()
+		throws InterruptedException
+	{
+		BlockingQueue< ConnectionResult >	done	= new LinkedBlockingQueue<>();
+		ConnectionResult					result	= new ConnectionResult(false, "4", loopback, loopback, listener.getLocalPort());
+
+		ConnectionReactor.submit(result, loopback, loopback, listener.getLocalPort(), 5, done::add);
+
+		assertEquals(done.poll(10, TimeUnit.SECONDS), result, "Completion");
+		assertEquals(result.connects.count(), 5, "Connects");
+		assertEquals(result.refused, 0, "Refused");
+		assertTrue(result.connects.min() >= 0, "Timings");
+	}
+
+
+	@Test
+	public void refusedTest ()
+		throws InterruptedException
+	{
+		BlockingQueue< ConnectionResult >	done	= new LinkedBlockingQueue<>();
+		ConnectionResult					result	= new ConnectionResult(false, "4", loopback, loopback, closedPort);
+
+		ConnectionReactor.submit(result, loopback, loopback, closedPort, 3, done::add);
+
+		assertEquals(done.poll(10, TimeUnit.SECONDS), result, "Completion");
+		assertEquals(result.connects.count(), 0, "Connects");
+		assertEquals(result.refused, 3, "Refused");
+	}
+
+
+	@Test
+	public void bindFailureTest ()
+		throws IOException, InterruptedException
+	{
+		InetAddress							foreign	= InetAddress.getByName("192.0.2.123");
+		BlockingQueue< ConnectionResult >	done	= new LinkedBlockingQueue<>();
+		ConnectionResult					result	= new ConnectionResult(false, "4", foreign, loopback, listener.getLocalPort());
+
+		ConnectionReactor.submit(result, foreign, loopback, listener.getLocalPort(), 3, done::add);
+
+		assertEquals(done.poll(10, TimeUnit.SECONDS), result, "Completion");
+		assertEquals(result.connects.count(), 0, "Connects");
+	}
+
+
+	@Test
+	public void failureTest ()
+		throws InterruptedException
+	{
+		BlockingQueue< ConnectionResult >	failed	= new LinkedBlockingQueue<>();
+		BlockingQueue< ConnectionResult >	done	= new LinkedBlockingQueue<>();
+		int									tuples	= ConnectionReactor.REACTORS_DEFAULT * 2;
+
+		for ( int i = 0; i < tuples; i++ )
+		/*
+		 * Completions that throw land on every reactor
+		 */
+		{
+			ConnectionResult result = new ConnectionResult(false, "4", loopback, loopback, listener.getLocalPort());
+			ConnectionReactor.submit(result, loopback, loopback, listener.getLocalPort(), 2, r ->
+			{
+				failed.add(r);
+				throw new IllegalStateException("Failed completion");
+			});
+		}
+		for ( int i = 0; i < tuples; i++ )
+		{
+			assertTrue(failed.poll(10, TimeUnit.SECONDS) != null, "Completed once");
+		}
+
+		for ( int i = 0; i < tuples; i++ )
+		{
+			ConnectionResult result = new ConnectionResult(false, "4", loopback, loopback, listener.getLocalPort());
+			ConnectionReactor.submit(result, loopback, loopback, listener.getLocalPort(), 2, done::add);
+		}
+		for ( int i = 0; i < tuples; i++ )
+		{
+			assertEquals(done.poll(10, TimeUnit.SECONDS).connects.count(), 2, "Reactors still running");
+		}
+		assertTrue(failed.isEmpty(), "Not completed twice");
+	}
+
+
+	@Test
+	public void inferredTest ()
+		throws InterruptedException
+	{
+		RouteState		routes		= new RouteState(3, RouteState.SAMPLE_DEFAULT);
+		ConnectAttempts	attempts	= new ConnectAttempts(4);
+		Route			route		= new Route(loopback, loopback);
+
+		routes.unreachable(route, 1);
+		routes.unreachable(route, 2);
+		routes.unreachable(route, 3);
+		ConnectionTask.setRoutes(routes);
+		ConnectionTask.setAttempts(attempts);
+		try
+		{
+			BlockingQueue< ConnectionResult >	done	= new LinkedBlockingQueue<>();
+			ConnectionResult					result	= new ConnectionResult(false, "4", loopback, loopback, listener.getLocalPort());
+
+			ConnectionReactor.submit(result, loopback, loopback, listener.getLocalPort(), 4, done::add);
+
+			assertEquals(done.poll(10, TimeUnit.SECONDS), result, "Completion");
+			assertEquals(result.connects.count(), 0, "Not attempted");
+			assertEquals(result.unreachable, 4, "Unreachable");
+			assertEquals(result.inferred, 4, "Inferred");
+			assertEquals(attempts.getMade(), 4, "Accounted");
+		}
+		finally
+		{
+			ConnectionTask.setRoutes(new RouteState(RouteState.OFF, RouteState.SAMPLE_DEFAULT));
+			ConnectionTask.setAttempts(new ConnectAttempts(CLIReader.CONNECTS_DEFAULT));
+		}
+	}
+
+
+	@Test
+	public void timeoutTest ()
+		throws IOException, InterruptedException
+	{
+		List< Socket > fillers = new ArrayList<>();
+
+		try ( ServerSocket full = new ServerSocket(0, 1, loopback) )
+		/*
+		 * A listener that never accepts drops SYNs once its backlog is full
+		 */
+		{
+			for ( int i = 0; i < 4; i++ )
+			{
+				Socket filler = new Socket();
+				fillers.add(filler);
+				try
+				{
+					filler.connect(new InetSocketAddress(loopback, full.getLocalPort()), 200);
+				}
+				catch ( IOException e )
+				{
+					// Backlog full
+				}
+			}
+
+			BlockingQueue< ConnectionResult >	done	= new LinkedBlockingQueue<>();
+			ConnectionResult					result	= new ConnectionResult(false, "4", loopback, loopback, full.getLocalPort());
+
+			ConnectionTask.setTimeout(100, false);
+			ConnectionReactor.submit(result, loopback, loopback, full.getLocalPort(), 2, done::add);
+
+			assertEquals(done.poll(10, TimeUnit.SECONDS), result, "Completion");
+			assertEquals(result.connects.count(), 0, "Connects");
+			assertEquals(result.timeouts.count(), 2, "Timeouts");
+			assertTrue(result.timeouts.min() >= 100000000 && result.timeouts.max() < 1000000000, "Timeout timings");
+		}
+		finally
+		{
+			ConnectionTask.setTimeout(ConnectTimeout.NONE, false);
+			for ( Socket filler : fillers )
+			{
+				filler.close();
+			}
+		}
+	}
+
+
+	@Test
+	public void pacedTest ()
+		throws InterruptedException
+	{
+		BlockingQueue< ConnectionResult >	done	= new LinkedBlockingQueue<>();
+		ConnectionResult					result	= new ConnectionResult(false, "4", loopback, loopback, listener.getLocalPort());
+
+		ConnectionTask.setRate(ConnectRate.UNLIMITED, 500, ConnectRate.BURST_DEFAULT);
+		try
+		{
+			long nanotime = System.nanoTime();
+			ConnectionReactor.submit(result, loopback, loopback, listener.getLocalPort(), 20, done::add);
+
+			assertEquals(done.poll(10, TimeUnit.SECONDS), result, "Completion");
+			assertTrue(System.nanoTime() - nanotime >= 38000000, "Paced at 2ms per start");
+			assertEquals(result.connects.count() + result.refused, 20, "Attempts");
+			assertEquals(ConnectionTask.getRate().getStarts(), 20, "Starts");
+			assertTrue(ConnectionTask.getRate().getAchieved() <= 505, "Achieved: " + ConnectionTask.getRate().getAchieved());
+		}
+		finally
+		{
+			ConnectionTask.setRate(ConnectRate.UNLIMITED, ConnectRate.UNLIMITED, ConnectRate.BURST_DEFAULT);
+		}
+	}
+
+
+	@Test
+	public void manyInFlightTest ()
+		throws InterruptedException
+	{
+		int									tuples	= 500;
+		BlockingQueue< ConnectionResult >	done	= new LinkedBlockingQueue<>();
+
+		for ( int i = 0; i < tuples; i++ )
+		{
+			ConnectionReactor.submit(new ConnectionResult(false, "4", loopback, loopback, listener.getLocalPort()),
+					loopback, loopback, listener.getLocalPort(), 1, done::add);
+		}
+
+		int connects = 0;
+		for ( int i = 0; i < tuples; i++ )
+		{
+			ConnectionResult result = done.poll(10, TimeUnit.SECONDS);
+			connects += result.connects.count() + result.refused;
+		}
+		assertEquals(connects, tuples, "Attempts");
+	}
+
+}
@@ -31,6 +31,8 @@ public class ConnectionResultTest
 {
     private  static InetAddress HOST_ADDR;
     private  static String CSV_FMT1, CSV_FMT2, JSON_FMT1, JSON_FMT2;
+    private  static final double P50 = LatencyHistogram.highestEquivalent(LatencyHistogram.index(1000000)) / 1000000d;
+    private  static final double STDDEV = Math.sqrt(8e12) / 1000000d;
     // private  static String HOST_NAME;
 
     @BeforeClass
@@ -39,9 +41,9 @@ public class ConnectionResultTest
     {
         HOST_ADDR = InetAddress.getLocalHost();
         CSV_FMT1 = String.format("%%s,%1$s,%1$s,%2$s,%%d", HOST_ADDR.getHostAddress(),HOST_ADDR.getHostName());
-        CSV_FMT2 = String.format("%%s,%1$s,%1$s,%2$s,%%d,%%d,%%.1f,%%.1f,%%.1f,%%d,%%.1f,%%d,%%d", HOST_ADDR.getHostAddress(),HOST_ADDR.getHostName());
+        CSV_FMT2 = String.format("%%s,%1$s,%1$s,%2$s,%%d,%%d,%%.1f,%%.1f,%%.1f,%%s,%%s,%%s,%%s,%%d,%%.1f,%%d,%%d,%%d", HOST_ADDR.getHostAddress(),HOST_ADDR.getHostName());
         JSON_FMT1 = String.format("{\"IPv\":\"%%s\",\"Interface\":\"%1$s\",\"Remote Address\":\"%1$s\",\"Remote Hostname\":\"%2$s\",\"Remote Port\":%%d", HOST_ADDR.getHostAddress(),HOST_ADDR.getHostName());
-        JSON_FMT2 = String.format("{\"IPv\":\"%%s\",\"Interface\":\"%1$s\",\"Remote Address\":\"%1$s\",\"Remote Hostname\":\"%2$s\",\"Remote Port\":%%d,\"Connections\":%%d,\"Connection μs Avg\":%%f,\"Connection μs Min\":%%f,\"Connection μs Max\":%%f,\"Timeouts\":%%d,\"Timeout μs Avg\":%%f,\"Refused\":%%d,\"Unreachable\":%%d}", HOST_ADDR.getHostAddress(),HOST_ADDR.getHostName());
+        JSON_FMT2 = String.format("{\"IPv\":\"%%s\",\"Interface\":\"%1$s\",\"Remote Address\":\"%1$s\",\"Remote Hostname\":\"%2$s\",\"Remote Port\":%%d,\"Connections\":%%d,\"Connection μs Avg\":%%f,\"Connection μs Min\":%%f,\"Connection μs Max\":%%f,\"Connection μs P50\":%%f,\"Connection μs P90\":%%f,\"Connection μs P99\":%%f,\"Connection μs StdDev\":%%f,\"Timeouts\":%%d,\"Timeout μs Avg\":%%f,\"Refused\":%%d,\"Unreachable\":%%d,\"Inferred\":%%d}", HOST_ADDR.getHostAddress(),HOST_ADDR.getHostName());
     }
 
     /**
@@ -78,15 +80,15 @@ public class ConnectionResultTest
         ConnectionResult aut = new ConnectionResult(false, ipv, HOST_ADDR, HOST_ADDR, port); //, ping);
 
 		assertEquals(aut.toString(), String.format(CSV_FMT1, ipv, port), testno+": pre-collate");
-        aut.connects_millis.add(1f);
-        aut.connects_millis.add(1f);
-        aut.connects_millis.add(7f);
-        aut.timeouts_millis.add(5f);
+        aut.connects.record(1000000);
+        aut.connects.record(1000000);
+        aut.connects.record(7000000);
+        aut.timeouts.record(5000000);
         aut.collate();
-		assertEquals(aut.toString(),  String.format(CSV_FMT2, ipv, port,3,3f,1f,7f,1,5f,0,0), testno+": post-collate");
-        aut.connects_millis.add(99f);
-        aut.timeouts_millis.add(95f);
-		assertEquals(aut.toString(),  String.format(CSV_FMT2, ipv, port,3,3f,1f,7f,1,5f,0,0), testno+": post-collate");
+		assertEquals(aut.toString(),  String.format(CSV_FMT2, ipv, port,3,3f,1f,7f,P50,7d,7d,STDDEV,1,5f,0,0,0), testno+": post-collate");
+        aut.connects.record(99000000);
+        aut.timeouts.record(95000000);
+		assertEquals(aut.toString(),  String.format(CSV_FMT2, ipv, port,3,3f,1f,7f,P50,7d,7d,STDDEV,1,5f,0,0,0), testno+": post-collate");
     }
 
     @Test ( dataProvider = "dataMethod" )
@@ -95,14 +97,14 @@ public class ConnectionResultTest
         ConnectionResult aut = new ConnectionResult(true, ipv, HOST_ADDR, HOST_ADDR, port);
 
 		assertEquals(aut.toString(), String.format(JSON_FMT1, ipv, port), testno+": pre-collate");
-        aut.connects_millis.add(1f);
-        aut.connects_millis.add(1f);
-        aut.connects_millis.add(7f);
-        aut.timeouts_millis.add(5f);
+        aut.connects.record(1000000);
+        aut.connects.record(1000000);
+        aut.connects.record(7000000);
+        aut.timeouts.record(5000000);
         aut.collate();
-	    assertEquals(aut.toString(), String.format(JSON_FMT2, ipv, port,3,3f,1f,7f,1,5f,0,0), testno+": post-collate");
-        aut.connects_millis.add(99f);
-        aut.timeouts_millis.add(95f);
-	    assertEquals(aut.toString(),  String.format(JSON_FMT2, ipv, port,3,3f,1f,7f,1,5f,0,0), testno+": post-collate");
+	    assertEquals(aut.toString(), String.format(JSON_FMT2, ipv, port,3,3f,1f,7f,P50,7d,7d,STDDEV,1,5f,0,0,0), testno+": post-collate");
+        aut.connects.record(99000000);
+        aut.timeouts.record(95000000);
+	    assertEquals(aut.toString(),  String.format(JSON_FMT2, ipv, port,3,3f,1f,7f,P50,7d,7d,STDDEV,1,5f,0,0,0), testno+": post-collate");
         }
 }
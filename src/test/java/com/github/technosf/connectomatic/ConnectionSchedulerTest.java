@@ -0,0 +1,212 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class ConnectionSchedulerTest
+{
+
+	InetAddress	local1, local2, host1, host2;
+
+
+	@BeforeClass
+	public void beforeClass ()
+		throws UnknownHostException
+	{
+		local1	= InetAddress.getByName("127.0.0.1");
+		local2	= InetAddress.getByName("127.0.0.2");
+		host1	= InetAddress.getByName("127.0.1.1");
+		host2	= InetAddress.getByName("127.0.1.2");
+	}
+
+
+	@Test
+	public void globalCapTest ()
+	{
+		List< ConnectionTask >	started		= new ArrayList<>();
+		ConnectionScheduler		scheduler	= new ConnectionScheduler(started::add);
+		scheduler.setLimits(3, ConnectionScheduler.UNCAPPED, ConnectionScheduler.UNCAPPED);
+
+		for ( int port = 1; port <= 10; port++ )
+		{
+			scheduler.submit(new ConnectionTask(false, "4", local1, host1, port, 1));
+		}
+
+		assertEquals(started.size(), 3, "Started");
+		assertEquals(scheduler.getInFlight(), 3, "In flight");
+		assertEquals(scheduler.getQueueDepth(), 7, "Queued");
+		assertEquals(scheduler.getPeakQueueDepth(), 7, "Peak queued");
+
+		scheduler.release(started.get(0));
+		assertEquals(started.size(), 4, "Started after release");
+		assertEquals(scheduler.getQueueDepth(), 6, "Queued after release");
+
+		while ( scheduler.getInFlight() > 0 )
+		{
+			scheduler.release(started.get(started.size() - scheduler.getInFlight()));
+		}
+		assertEquals(started.size(), 10, "All started");
+		assertEquals(scheduler.getQueueDepth(), 0, "Drained");
+	}
+
+
+	@Test
+	public void throttleTest ()
+	{
+		List< ConnectionTask >	started		= new ArrayList<>();
+		ConnectionScheduler		scheduler	= new ConnectionScheduler(started::add);
+		scheduler.setLimits(100, ConnectionScheduler.UNCAPPED, ConnectionScheduler.UNCAPPED);
+
+		for ( int port = 1; port <= 8; port++ )
+		{
+			scheduler.submit(new ConnectionTask(false, "4", local1, host1, port, 1));
+		}
+		assertEquals(scheduler.getInFlight(), 8, "In flight");
+
+		scheduler.setThrottle(0.25);
+		for ( int port = 9; port <= 20; port++ )
+		{
+			scheduler.submit(new ConnectionTask(false, "4", local1, host1, port, 1));
+		}
+		for ( int i = 0; i < 7; i++ )
+		{
+			scheduler.release(started.get(i));
+		}
+		assertEquals(scheduler.getInFlight(), 2, "Throttled to a quarter of the load");
+
+		scheduler.setThrottle(0);
+		scheduler.release(started.get(7));
+		scheduler.release(started.get(8));
+		assertEquals(scheduler.getInFlight(), 1, "At least one in flight");
+
+		scheduler.setThrottle(1);
+		assertEquals(started.size(), 20, "Lifted");
+	}
+
+
+	@Test
+	public void perHostCapTest ()
+	{
+		List< ConnectionTask >	started		= new ArrayList<>();
+		ConnectionScheduler		scheduler	= new ConnectionScheduler(started::add);
+		scheduler.setLimits(100, ConnectionScheduler.UNCAPPED, 2);
+
+		for ( int port = 1; port <= 5; port++ )
+		{
+			scheduler.submit(new ConnectionTask(false, "4", local1, host1, port, 1));
+			scheduler.submit(new ConnectionTask(false, "4", local1, host2, port, 1));
+		}
+
+		assertEquals(started.size(), 4, "Started");
+		assertEquals(started.stream().filter(t -> t.getRemoteAddress().equals(host1)).count(), 2, "Host 1");
+		assertEquals(started.stream().filter(t -> t.getRemoteAddress().equals(host2)).count(), 2, "Host 2");
+
+		scheduler.release(started.get(0));
+		assertEquals(started.size(), 5, "Started after release");
+		assertEquals(started.get(4).getRemoteAddress(), started.get(0).getRemoteAddress(), "Released host refilled");
+	}
+
+
+	@Test
+	public void perInterfaceCapTest ()
+	{
+		List< ConnectionTask >	started		= new ArrayList<>();
+		ConnectionScheduler		scheduler	= new ConnectionScheduler(started::add);
+		scheduler.setLimits(100, 1, ConnectionScheduler.UNCAPPED);
+
+		for ( int port = 1; port <= 3; port++ )
+		{
+			scheduler.submit(new ConnectionTask(false, "4", local1, host1, port, 1));
+			scheduler.submit(new ConnectionTask(false, "4", local2, host1, port, 1));
+		}
+
+		assertEquals(started.size(), 2, "Started");
+		assertTrue(started.get(0).getLocalAddress() != started.get(1).getLocalAddress(), "One per interface");
+		assertEquals(scheduler.getQueueDepth(), 4, "Queued");
+	}
+
+
+	@Test
+	public void defaultInFlightTest ()
+	{
+		long limit = ConnectionScheduler.fileDescriptorLimit();
+
+		if ( limit > ConnectionScheduler.FD_RESERVE )
+		{
+			assertEquals(ConnectionScheduler.defaultInFlight(), limit - ConnectionScheduler.FD_RESERVE, "From fd limit");
+		}
+		else
+		{
+			assertEquals(ConnectionScheduler.defaultInFlight(), ConnectionScheduler.INFLIGHT_FALLBACK, "Fallback");
+		}
+	}
+
+
+	@Test
+	public void engineInFlightTest ()
+	{
+		assertEquals(ConnectionScheduler.defaultInFlight(EngineTypeEnum.NIO), ConnectionScheduler.defaultInFlight(), "Reactor from fd limit");
+		assertEquals(ConnectionScheduler.defaultInFlight(EngineTypeEnum.VIRTUAL), ConnectionScheduler.defaultInFlight(), "Virtual from fd limit");
+		assertEquals(ConnectionScheduler.defaultInFlight(EngineTypeEnum.BLOCKING),
+				Math.min(ConnectionScheduler.THREAD_BUDGET, ConnectionScheduler.defaultInFlight()), "Blocking within thread budget");
+	}
+
+
+	@Test
+	public void feedTest ()
+	{
+		int[]					made		= { 0 };
+		int						tasks		= ConnectionScheduler.WINDOW * 3;
+		List< ConnectionTask >	started		= new ArrayList<>();
+		ConnectionScheduler		scheduler	= new ConnectionScheduler(started::add);
+		scheduler.setLimits(10, ConnectionScheduler.UNCAPPED, ConnectionScheduler.UNCAPPED);
+
+		scheduler.feed(IntStream.rangeClosed(1, tasks).mapToObj(port ->
+		{
+			made[0]++;
+			return new ConnectionTask(false, "4", local1, host1, port, 1);
+		}).iterator());
+
+		assertEquals(started.size(), 10, "Started");
+		assertEquals(scheduler.getQueueDepth(), ConnectionScheduler.WINDOW, "Window queued");
+		assertTrue(made[0] <= 10 + ConnectionScheduler.WINDOW + 1, "Made lazily");
+		assertTrue(scheduler.isFeeding(), "Feeding");
+
+		while ( scheduler.getInFlight() > 0 )
+		{
+			scheduler.release(started.get(started.size() - scheduler.getInFlight()));
+			assertTrue(scheduler.getQueueDepth() <= ConnectionScheduler.WINDOW, "Bounded");
+		}
+		assertEquals(started.size(), tasks, "All started");
+		assertEquals(made[0], tasks, "All made");
+		assertTrue(!scheduler.isFeeding(), "Exhausted");
+	}
+
+}
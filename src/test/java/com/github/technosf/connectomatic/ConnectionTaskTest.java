@@ -19,6 +19,7 @@
 package com.github.technosf.connectomatic;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -30,7 +31,12 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.UnknownHostException;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
 
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -104,6 +110,115 @@ public class ConnectionTaskTest
 		});
 	}
 
+	@Test
+	public void splitTest ()
+		throws UnknownHostException
+	{
+		InetAddress					local	= InetAddress.getByName("127.0.0.1");
+		InetAddress					r1		= InetAddress.getByName("127.0.0.11");
+		InetAddress					r2		= InetAddress.getByName("127.0.0.12");
+		InetAddress					r3		= InetAddress.getByName("127.0.0.13");
+		List< ConnectionTask >		tuples	= Arrays.asList(new ConnectionTask(false, "4", local, r1, 80, 2),
+				new ConnectionTask(false, "4", local, r2, 80, 3), new ConnectionTask(false, "4", local, r3, 80, 1));
+
+		List< InetAddress > round = ConnectionTask.split(tuples, OrderTypeEnum.ROUND, new Random(1)).stream()
+				.map(ConnectionTask::getRemoteAddress).collect(Collectors.toList());
+		assertEquals(round, Arrays.asList(r1, r2, r3, r1, r2, r2), "Rounds");
+
+		List< InetAddress > random = ConnectionTask.split(tuples, OrderTypeEnum.RANDOM, new Random(1)).stream()
+				.map(ConnectionTask::getRemoteAddress).collect(Collectors.toList());
+		assertEquals(random.size(), 6, "Same attempts");
+		assertEquals(Collections.frequency(random, r2), 3, "Same attempts per tuple");
+	}
+
+
+	@Test ( dependsOnMethods = "getResultsTest" )
+	public void interleaveTest ()
+		throws IOException
+	{
+		Inet4Address local = (Inet4Address) Inet4Address.getByName("127.0.0.1");
+
+		try ( TargetFarm farm = new TargetFarm() )
+		{
+			List< Integer > ports = farm.listen(Collections.singletonList(local), 3, TargetFarm.Behaviour.ACCEPT, 0);
+
+			ConnectionTask.setOrder(OrderTypeEnum.RANDOM);
+			try
+			{
+				for ( int port : ports )
+				{
+					ConnectionTask.submit(false, local, local, port, 4);
+				}
+				ConnectionTask.interleave();
+			}
+			finally
+			{
+				ConnectionTask.setOrder(OrderTypeEnum.TUPLE);
+			}
+
+			Map< String, ConnectionResult > results = ConnectionTask.getResults();
+			assertEquals(results.size(), 3, "One result per tuple");
+			results.values().forEach(result -> assertEquals(result.connects.count() + result.refused, 4, "Attempts"));
+		}
+	}
+
+
+	@Test ( dependsOnMethods = "interleaveTest" )
+	public void pacedTest ()
+		throws IOException
+	{
+		Inet4Address local = (Inet4Address) Inet4Address.getByName("127.0.0.1");
+
+		try ( TargetFarm farm = new TargetFarm() )
+		{
+			List< Integer > ports = farm.listen(Collections.singletonList(local), 3, TargetFarm.Behaviour.ACCEPT, 0);
+
+			ConnectionTask.setRate(ConnectRate.UNLIMITED, 50, ConnectRate.BURST_DEFAULT);
+			try
+			{
+				long nanotime = System.nanoTime();
+				for ( int port : ports )
+				{
+					ConnectionTask.submit(false, local, local, port, 4);
+				}
+
+				Map< String, ConnectionResult > results = ConnectionTask.getResults();
+				assertTrue(System.nanoTime() - nanotime >= 200000000, "Paced at 20ms per start");
+				assertEquals(results.size(), 3, "One result per tuple");
+				results.values().forEach(result -> assertEquals(result.connects.count() + result.refused, 4, "Attempts"));
+				assertEquals(ConnectionTask.getRate().getStarts(), 12, "Starts");
+			}
+			finally
+			{
+				ConnectionTask.setRate(ConnectRate.UNLIMITED, ConnectRate.UNLIMITED, ConnectRate.BURST_DEFAULT);
+			}
+		}
+	}
+
+
+	@Test
+	public void concurrencyTest ()
+	{
+		try
+		{
+			ConnectionTask.setConcurrency(ConnectionScheduler.DERIVED, ConnectionScheduler.UNCAPPED, ConnectionScheduler.UNCAPPED);
+			assertEquals(ConnectionTask.getScheduler().getMaxInFlight(), ConnectionScheduler.defaultInFlight(EngineTypeEnum.BLOCKING),
+					"Blocking default");
+
+			ConnectionTask.setEngine(EngineTypeEnum.NIO);
+			assertEquals(ConnectionTask.getScheduler().getMaxInFlight(), ConnectionScheduler.defaultInFlight(), "Reactor default");
+
+			ConnectionTask.setConcurrency(64, ConnectionScheduler.UNCAPPED, ConnectionScheduler.UNCAPPED);
+			ConnectionTask.setEngine(EngineTypeEnum.BLOCKING);
+			assertEquals(ConnectionTask.getScheduler().getMaxInFlight(), 64, "Given cap");
+		}
+		finally
+		{
+			ConnectionTask.setEngine(EngineTypeEnum.BLOCKING);
+			ConnectionTask.setConcurrency(ConnectionScheduler.DERIVED, ConnectionScheduler.UNCAPPED, ConnectionScheduler.UNCAPPED);
+		}
+	}
+
 	/*
 	 * ------------------------- Fixtures -------------------------------
 	 */
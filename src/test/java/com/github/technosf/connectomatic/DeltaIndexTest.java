@@ -0,0 +1,194 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class DeltaIndexTest
+{
+
+	private ConnectionResult result ( boolean json, int port, long nanos, int refused )
+	{
+		return ResultFixture.result(port).json(json).connects(nanos > 0 ? new long[] { nanos } : new long[0]).refused(refused).collate();
+	}
+
+
+	private Path previous ( boolean json )
+		throws IOException
+	{
+		ByteArrayOutputStream	bytes	= new ByteArrayOutputStream();
+		PrintStream				out		= new PrintStream(bytes, true, "UTF-8");
+		StreamSink				sink	= new StreamSink(out, json);
+
+		out.println("\nConnect-O-Matic\t\tVersion: 1.3.0\n");
+		sink.open();
+		sink.accept(result(json, 80, 1000000, 0));
+		sink.accept(result(json, 81, 0, 5));
+		sink.accept(result(json, 82, 1000000, 0));
+		sink.close();
+		out.println("\tSummary \tConnects: 2 \tTimeouts: 0 \tRefused: 5 \tUnreachable: 0");
+
+		Path file = Files.createTempFile("connectomatic", json ? ".json" : ".csv");
+		file.toFile().deleteOnExit();
+		Files.write(file, bytes.toByteArray());
+		return file;
+	}
+
+
+	@DataProvider
+	public static Object[][] formats ()
+	{
+		return new Object[][] { { false }, { true } };
+	}
+
+
+	@Test ( dataProvider = "formats" )
+	public void deltaTest ( boolean json )
+		throws IOException
+	{
+		DeltaIndex aut = DeltaIndex.load(previous(json), DeltaIndex.THRESHOLD_DEFAULT);
+		assertEquals(aut.size(), 3, "Indexed");
+
+		assertFalse(aut.isChanged(result(false, 80, 1100000, 0)), "Within threshold");
+		assertTrue(aut.isChanged(result(false, 80, 2000000, 0)), "Latency moved");
+		assertTrue(aut.isChanged(result(false, 81, 1000000, 0)), "Refused to connected");
+		assertTrue(aut.isChanged(result(false, 83, 1000000, 0)), "New tuple");
+
+		assertEquals(aut.getChanged(), 3, "Changed");
+		assertEquals(aut.getUnchanged(), 1, "Unchanged");
+		assertEquals(aut.getMissing(), 1, "Missing");
+
+		aut.reset();
+		assertEquals(aut.getMissing(), 3, "Reset");
+	}
+
+
+	@Test
+	public void filterTest ()
+		throws IOException
+	{
+		DeltaIndex				aut		= DeltaIndex.load(previous(false), 0);
+		ByteArrayOutputStream	bytes	= new ByteArrayOutputStream();
+		ResultSink				sink	= aut.filter(new StreamSink(new PrintStream(bytes, true, "UTF-8"), false));
+
+		sink.open();
+		sink.accept(result(false, 81, 0, 5));
+		sink.accept(result(false, 82, 0, 0));
+		sink.close();
+
+		String[] lines = new String(bytes.toByteArray(), "UTF-8").split("\n");
+		assertEquals(lines.length, 2, "Header and the changed result");
+		assertTrue(lines[1].startsWith("4,127.0.0.1,127.0.0.2,"), "Changed result");
+		assertTrue(lines[1].contains(",82,"), "Changed port");
+	}
+
+
+	@Test
+	public void binaryTest ()
+		throws IOException
+	{
+		ByteArrayOutputStream	bytes	= new ByteArrayOutputStream();
+		BinarySink				sink	= new BinarySink(bytes);
+
+		sink.open();
+		sink.accept(result(false, 80, 1000000, 0));
+		sink.accept(result(false, 81, 0, 5));
+		sink.close();
+
+		Path file = Files.createTempFile("connectomatic", ".bin");
+		file.toFile().deleteOnExit();
+		Files.write(file, bytes.toByteArray());
+
+		DeltaIndex aut = DeltaIndex.load(file, DeltaIndex.THRESHOLD_DEFAULT);
+		assertEquals(aut.size(), 2, "Indexed");
+		assertFalse(aut.isChanged(result(false, 80, 1000000, 0)), "Unchanged");
+		assertTrue(aut.isChanged(result(false, 81, 1000000, 0)), "Refused to connected");
+	}
+
+
+	@Test
+	public void growTest ()
+		throws IOException
+	{
+		StringBuilder csv = new StringBuilder(ConnectionResult.CSV_HEADER).append('\n');
+		for ( int port = 1; port <= 3000; port++ )
+		{
+			csv.append(result(false, port, port % 2 == 0 ? 1000000 : 0, port % 2)).append('\n');
+		}
+
+		Path file = Files.createTempFile("connectomatic", ".csv");
+		file.toFile().deleteOnExit();
+		Files.write(file, csv.toString().getBytes("UTF-8"));
+
+		DeltaIndex aut = DeltaIndex.load(file, DeltaIndex.THRESHOLD_DEFAULT);
+		assertEquals(aut.size(), 3000, "Indexed past the initial table");
+		for ( int port = 1; port <= 3000; port++ )
+		{
+			assertFalse(aut.isChanged(result(false, port, port % 2 == 0 ? 1000000 : 0, port % 2)), "Unchanged " + port);
+		}
+		assertEquals(aut.getMissing(), 0, "All seen");
+	}
+
+
+	@Test
+	public void outcomeTest ()
+	{
+		assertEquals(DeltaIndex.outcome(0, 0, 0, 0), 0, "None");
+		assertEquals(DeltaIndex.outcome(3, 1, 0, 0), DeltaIndex.CONNECTED | DeltaIndex.TIMEDOUT, "Mixed");
+		assertEquals(DeltaIndex.outcome(0, 0, 2, 1), DeltaIndex.REFUSED | DeltaIndex.UNREACHABLE, "Failed");
+	}
+
+
+	@Test
+	public void inferredTest ()
+		throws IOException
+	{
+		ConnectionResult	probed		= ResultFixture.result(80).unreachable(3).collate();
+		ConnectionResult	inferred	= ResultFixture.result(80).unreachable(3).inferred(3).collate();
+
+		Path file = Files.createTempFile("connectomatic", ".csv");
+		file.toFile().deleteOnExit();
+		Files.write(file, ( ConnectionResult.CSV_HEADER + "\n" + probed + "\n" ).getBytes("UTF-8"));
+
+		DeltaIndex aut = DeltaIndex.load(file, DeltaIndex.THRESHOLD_DEFAULT);
+		assertFalse(aut.isChanged(probed), "Probed unreachable");
+		assertFalse(aut.isChanged(inferred), "Inferred is unreachable");
+
+		// Results from before the inferred column
+		String	header	= ConnectionResult.CSV_HEADER.substring(0, ConnectionResult.CSV_HEADER.lastIndexOf(','));
+		String	row		= probed.toString().substring(0, probed.toString().lastIndexOf(','));
+		Files.write(file, ( header + "\n" + row + "\n" ).getBytes("UTF-8"));
+
+		aut = DeltaIndex.load(file, DeltaIndex.THRESHOLD_DEFAULT);
+		assertEquals(aut.size(), 1, "Indexed without inferred");
+		assertFalse(aut.isChanged(inferred), "Inferred then");
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class HostResolverTest
+{
+
+	@BeforeMethod
+	public void beforeMethod ()
+	{
+		HostResolver.clear();
+	}
+
+
+	@Test
+	public void resolveTest ()
+	{
+		List< String >							hosts	= Arrays.asList("127.0.0.3", "localhost", "127.0.0.1", "bad host");
+		Map< String, HostResolver.Resolution >	aut		= HostResolver.resolve(hosts, 2);
+
+		assertEquals(aut.keySet().toArray(), hosts.toArray(), "Host order");
+		assertEquals(aut.get("127.0.0.3").addresses[0].getHostAddress(), "127.0.0.3", "Literal");
+		assertTrue(aut.get("localhost").isResolved(), "Hostname");
+		assertFalse(aut.get("bad host").isResolved(), "Failure");
+		assertEquals(aut.get("bad host").addresses.length, 0, "Failure addresses");
+
+		for ( HostResolver.Resolution r : aut.values() )
+		{
+			assertFalse(r.cached, "First resolution");
+			assertTrue(r.nanos > 0, "Timed");
+		}
+	}
+
+
+	@Test
+	public void cacheTest ()
+	{
+		HostResolver.Resolution first = HostResolver.resolve("localhost");
+		HostResolver.Resolution second = HostResolver.resolve("localhost");
+
+		assertFalse(first.cached, "First");
+		assertTrue(second.cached, "Cached");
+		assertEquals(second.nanos, 0, "No time resolving");
+		assertEquals(second.addresses, first.addresses, "Same addresses");
+
+		HostResolver.clear();
+		assertFalse(HostResolver.resolve("localhost").cached, "Cleared");
+	}
+
+
+	@Test
+	public void emptyTest ()
+	{
+		assertTrue(HostResolver.resolve(Arrays.asList(), 4).isEmpty(), "No hosts");
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+public class HostStreamTest
+{
+
+	private static final String LIST = "# inventory\n127.0.0.2, 127.0.0.3\r\n127.0.0.2\n\n10.0.0.0/31 127.0.0.1 # local\nno-such-host.invalid\n10.0.0.0/40\n127.0.0.4";
+
+
+	private static List< String > read ( HostStream aut )
+		throws IOException
+	{
+		List< String > addresses = new ArrayList<>();
+		aut.forEach(a -> addresses.add(a.getHostAddress()));
+		aut.close();
+		return addresses;
+	}
+
+
+	private static HostStream stdin ( String list )
+		throws IOException
+	{
+		return new HostStream(HostStream.STDIN, new ByteArrayInputStream(list.getBytes(StandardCharsets.UTF_8)), 2,
+				cidr -> new AddressPrefix(cidr, AddressPrefix.SAMPLE_DEFAULT, false, null), Collections.singleton("127.0.0.1"));
+	}
+
+
+	@Test
+	public void stdinTest ()
+		throws IOException
+	{
+		HostStream aut = stdin(LIST);
+		aut.seed(Collections.singleton(InetAddress.getByName("127.0.0.3")));
+
+		assertEquals(read(aut), Arrays.asList("127.0.0.2", "10.0.0.0", "10.0.0.1", "127.0.0.4"), "Addresses");
+		assertEquals(aut.getEntries(), 8, "Entries");
+		assertEquals(aut.getAddresses(), 4, "New addresses");
+		assertEquals(aut.getDuplicates(), 2, "Duplicates, seeded and repeated");
+		assertEquals(aut.getUnresolved(), 2, "Unresolved host and invalid prefix");
+	}
+
+
+	@Test
+	public void fileTest ()
+		throws IOException
+	{
+		Path file = Files.createTempFile("connectomatic", ".hosts");
+		try
+		{
+			Files.write(file, LIST.getBytes(StandardCharsets.UTF_8));
+
+			List< String > expected = read(stdin(LIST));
+			for ( int chunk : new int[] { 7, 16, 1 << 20 } )
+			{
+				HostStream aut = new HostStream(file.toString(), null, 2,
+						cidr -> new AddressPrefix(cidr, AddressPrefix.SAMPLE_DEFAULT, false, null), Collections.singleton("127.0.0.1"), chunk);
+				assertEquals(read(aut), expected, "Mapped " + chunk + " bytes at a time");
+				assertEquals(aut.getEntries(), 8, "Entries");
+			}
+
+			Files.write(file, new byte[0]);
+			assertEquals(read(new HostStream(file.toString(), null, 2, null, Collections.emptySet())).size(), 0, "Empty");
+		}
+		finally
+		{
+			Files.delete(file);
+		}
+	}
+
+}
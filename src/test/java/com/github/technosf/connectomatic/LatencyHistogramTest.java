@@ -0,0 +1,121 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+public class LatencyHistogramTest
+{
+
+	@Test
+	public void emptyTest ()
+	{
+		LatencyHistogram aut = new LatencyHistogram();
+		assertEquals(aut.count(), 0, "Count");
+		assertEquals(aut.min(), 0, "Min");
+		assertEquals(aut.max(), 0, "Max");
+		assertEquals(aut.valueAtPercentile(99), 0, "P99");
+		assertEquals(aut.stddev(), 0d, "StdDev");
+	}
+
+
+	@Test
+	public void exactTest ()
+	{
+		LatencyHistogram aut = new LatencyHistogram();
+		for ( long v = 1; v <= 100; v++ )
+		{
+			aut.record(v);
+		}
+
+		assertEquals(aut.count(), 100, "Count");
+		assertEquals(aut.valueAtPercentile(50), 50, "P50");
+		assertEquals(aut.valueAtPercentile(90), 90, "P90");
+		assertEquals(aut.valueAtPercentile(99), 99, "P99");
+		assertEquals(aut.valueAtPercentile(100), 100, "P100");
+		assertEquals(aut.mean(), 50.5d, "Mean");
+		assertEquals(aut.stddev(), Math.sqrt(( 100d * 100 - 1 ) / 12), 1e-9, "StdDev");
+	}
+
+
+	@Test
+	public void precisionTest ()
+	{
+		Random rand = new Random(42);
+
+		for ( int i = 0; i < 10000; i++ )
+		{
+			long value = rand.nextLong() >>> 1 + rand.nextInt(40);
+			long top = LatencyHistogram.highestEquivalent(LatencyHistogram.index(value));
+			assertTrue(top >= value && top - value <= value / LatencyHistogram.SUB_BUCKET_HALF, "Bucket of " + value);
+		}
+	}
+
+
+	@Test
+	public void mergeTest ()
+	{
+		LatencyHistogram	low		= new LatencyHistogram();
+		LatencyHistogram	high	= new LatencyHistogram();
+		LatencyHistogram	all		= new LatencyHistogram();
+
+		for ( long v = 1; v <= 1000; v++ )
+		{
+			( v <= 500 ? low : high ).record(v * 1000000);
+			all.record(v * 1000000);
+		}
+
+		LatencyHistogram aut = new LatencyHistogram();
+		aut.merge(high);
+		aut.merge(new LatencyHistogram());
+		aut.merge(low);
+
+		assertEquals(aut.count(), all.count(), "Count");
+		assertEquals(aut.min(), 1000000, "Min");
+		assertEquals(aut.max(), 1000000000, "Max");
+		for ( double p : new double[] { 50, 90, 99, 99.9 } )
+		{
+			assertEquals(aut.valueAtPercentile(p), all.valueAtPercentile(p), "P" + p);
+		}
+		assertEquals(aut.stddev(), all.stddev(), 1e-3, "StdDev");
+	}
+
+
+
+	@Test
+	public void countAtOrBelowTest ()
+	{
+		LatencyHistogram aut = new LatencyHistogram();
+		for ( long v = 1; v <= 1000; v++ )
+		{
+			aut.record(v * 1000000);
+		}
+
+		assertEquals(aut.countAtOrBelow(0), 0, "Below min");
+		assertEquals(aut.countAtOrBelow(1000000000), 1000, "At max");
+		assertEquals(aut.countAtOrBelow(100000000), 100, 2, "Within precision");
+		assertEquals(aut.sum(), 500500d * 1000000, "Sum");
+	}
+
+}
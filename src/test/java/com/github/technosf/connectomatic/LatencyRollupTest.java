@@ -0,0 +1,67 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.testng.annotations.Test;
+
+public class LatencyRollupTest
+{
+
+	@Test
+	public void rollupTest ()
+		throws UnknownHostException
+	{
+		InetAddress		local	= InetAddress.getByName("127.0.0.1");
+		InetAddress		hostA	= InetAddress.getByName("127.0.0.2");
+		InetAddress		hostB	= InetAddress.getByName("127.0.0.3");
+		LatencyRollup	aut		= new LatencyRollup(false);
+
+		for ( int port : new int[] { 22, 80 } )
+		{
+			for ( InetAddress host : new InetAddress[] { hostA, hostB } )
+			{
+				ConnectionResult result = new ConnectionResult(false, "4", local, host, port);
+				result.connects.record(port * 1000000L);
+				result.timeouts.record(1000000000L);
+				aut.accept(result);
+			}
+		}
+
+		assertEquals(aut.get(LatencyRollup.HOST, "127.0.0.2").count(), 2, "Host count");
+		assertEquals(aut.get(LatencyRollup.HOST, "127.0.0.2").min(), 22000000, "Host min");
+		assertEquals(aut.get(LatencyRollup.PORT, "80").count(), 2, "Port count");
+		assertEquals(aut.get(LatencyRollup.PORT, "80").max(), 80000000, "Port max");
+		assertEquals(aut.get(LatencyRollup.INTERFACE, "127.0.0.1").count(), 4, "Interface count");
+		assertNull(aut.get(LatencyRollup.PORT, "443"), "Unknown port");
+
+		String[] lines = aut.toString().split("\n");
+		assertEquals(lines[0], LatencyRollup.CSV_HEADER, "Header");
+		assertEquals(lines.length, 6, "Rollup lines");
+		assertTrue(lines[5].startsWith("interface,127.0.0.1,4,51.0,"), "Interface line");
+		assertTrue(lines[5].endsWith(",4"), "Interface timeouts");
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static com.github.technosf.connectomatic.ResultFixture.LOOPBACK;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.testng.annotations.Test;
+
+public class MetricsSinkTest
+{
+
+	private ResultFixture result ( int port, long... nanos )
+	{
+		return ResultFixture.result(port).connects(nanos).refused(1);
+	}
+
+
+	@Test
+	public void scrapeTest ()
+	{
+		MetricsSink aut = new MetricsSink(new InetSocketAddress(0));
+		aut.accept(result(80, 200000, 3000000).collate());
+		aut.accept(result(80, 200000).collate());
+		aut.accept(result(443).collate());
+
+		String	scrape	= aut.scrape();
+		String	labels	= "{ipv=\"4\",interface=\"127.0.0.1\",address=\"127.0.0.2\",port=\"80\"";
+
+		assertTrue(scrape.contains("# TYPE connectomatic_connects_total counter\n"), "Type");
+		assertTrue(scrape.contains("connectomatic_connects_total" + labels + "} 3\n"), "Connects accumulate");
+		assertTrue(scrape.contains("connectomatic_refused_total" + labels + "} 2\n"), "Refused accumulate");
+		assertTrue(scrape.contains("connectomatic_connect_seconds_bucket" + labels + ",le=\"0.0001\"} 0\n"), "Bucket below");
+		assertTrue(scrape.contains("connectomatic_connect_seconds_bucket" + labels + ",le=\"0.00025\"} 2\n"), "Bucket");
+		assertTrue(scrape.contains("connectomatic_connect_seconds_bucket" + labels + ",le=\"+Inf\"} 3\n"), "Bucket +Inf");
+		assertTrue(scrape.contains("connectomatic_connect_seconds_count" + labels + "} 3\n"), "Count");
+		assertTrue(scrape.contains("connectomatic_tuples 2\n"), "Tuples");
+		assertTrue(scrape.contains("# TYPE connectomatic_in_flight gauge\n"), "Gauge");
+	}
+
+
+	@Test
+	public void inferredTest ()
+	{
+		MetricsSink aut = new MetricsSink(new InetSocketAddress(0));
+		aut.accept(result(80).unreachable(3).inferred(2).collate());
+
+		String	scrape	= aut.scrape();
+		String	labels	= "{ipv=\"4\",interface=\"127.0.0.1\",address=\"127.0.0.2\",port=\"80\"";
+
+		assertTrue(scrape.contains("connectomatic_unreachable_total" + labels + "} 3\n"), "Unreachable");
+		assertTrue(scrape.contains("connectomatic_inferred_total" + labels + "} 2\n"), "Inferred");
+	}
+
+
+	@Test
+	public void serveTest ()
+		throws IOException
+	{
+		MetricsSink aut = new MetricsSink(new InetSocketAddress(LOOPBACK, 0));
+		aut.start();
+		try
+		{
+			aut.accept(result(22, 1000000).collate());
+
+			HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + aut.getPort() + MetricsSink.PATH)
+					.openConnection();
+			assertEquals(connection.getResponseCode(), 200, "Status");
+			assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"), "Content type");
+
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			try ( InputStream in = connection.getInputStream() )
+			{
+				byte[] buffer = new byte[4096];
+				for ( int n; ( n = in.read(buffer) ) > 0; )
+				{
+					body.write(buffer, 0, n);
+				}
+			}
+			assertEquals(new String(body.toByteArray(), StandardCharsets.UTF_8), aut.scrape(), "Body");
+		}
+		finally
+		{
+			aut.stop();
+		}
+	}
+
+
+	@Test
+	public void escapeTest ()
+	{
+		assertEquals(MetricsSink.escape("a\"b\\c\nd"), "a\\\"b\\\\c\\nd", "Escaped");
+	}
+
+}
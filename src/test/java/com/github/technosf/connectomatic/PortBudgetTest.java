@@ -0,0 +1,84 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+public class PortBudgetTest
+{
+
+	private static final String TCP
+		= "  sl  local_address rem_address   st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode\n"
+			+ "   0: 0100007F:1F90 00000000:0000 0A 00000000:00000000 00:00000000 00000000     0        0 1 1 0 100 0 0 10 0\n"
+			+ "   1: 0100007F:9C40 0100007F:1F90 06 00000000:00000000 03:00000F9E 00000000     0        0 0 3 0\n"
+			+ "   2: 0100007F:9C41 0100007F:1F90 06 00000000:00000000 03:00000F9E 00000000     0        0 0 3 0\n"
+			+ "   3: 0200007F:9C40 0100007F:1F90 06 00000000:00000000 03:00000F9E 00000000     0        0 0 3 0\n"
+			+ "   4: 0100007F:1F91 0100007F:1F90 06 00000000:00000000 03:00000F9E 00000000     0        0 0 3 0\n"
+			+ "   5: 0100007F:9C42 0100007F:1F90 01 00000000:00000000 00:00000000 00000000     0        0 2 1 0 20 4 30 10 -1\n";
+
+
+	@Test
+	public void timeWaitsTest ()
+		throws IOException
+	{
+		Map< String, Integer > counts = new HashMap<>();
+		PortBudget.timeWaits(new BufferedReader(new StringReader(TCP)), counts, 40000, 40001);
+
+		assertEquals(counts.size(), 2, "Local addresses");
+		assertEquals(counts.get("0100007F").intValue(), 2, "TIME_WAIT in range on 127.0.0.1");
+		assertEquals(counts.get("0200007F").intValue(), 1, "TIME_WAIT on 127.0.0.2");
+	}
+
+
+	@Test
+	public void throttleTest ()
+	{
+		PortBudget aut = new PortBudget(50, 1, 1000);
+
+		assertEquals(aut.throttle(0), 1.0, "Empty");
+		assertEquals(aut.throttle(500), 1.0, "At threshold");
+		assertEquals(aut.throttle(750), 0.5, 0.0001, "Half way to full");
+		assertEquals(aut.throttle(1000), 0.0, "Full");
+		assertEquals(aut.throttle(2000), 0.0, "Over full");
+		assertEquals(new PortBudget(100, 1, 1000).throttle(1000), 1.0, "Never slowed");
+	}
+
+
+	@Test
+	public void sampleTest ()
+	{
+		PortBudget aut = new PortBudget(50, 1, 1000);
+
+		aut.sample(900);
+		aut.sample(100);
+
+		assertEquals(aut.getPeak(), 900, "Peak");
+		assertEquals(aut.getSlowest(), 0.2, 0.0001, "Slowest");
+		assertEquals(aut.getRange(), 1000, "Range");
+	}
+
+}
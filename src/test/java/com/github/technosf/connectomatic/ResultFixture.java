@@ -0,0 +1,146 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+
+/**
+ * Test fixture building collated results of a tuple from the loopback address, for the sink and index tests
+ * <p>
+ * Reverse lookups are turned off as each result is built, even after tests that turn them back on, so a
+ * result's remote hostname is its address and it formats the same on every run.
+ */
+final class ResultFixture
+{
+
+	static final InetAddress	LOOPBACK	= address("127.0.0.1");
+	static final InetAddress	REMOTE		= address("127.0.0.2");
+
+	private final int			port;
+	private boolean				json;
+	private InetAddress			remote		= REMOTE;
+	private long[]				connects	= {};
+	private long[]				timeouts	= {};
+	private int					refused, unreachable, inferred;
+
+
+	private ResultFixture ( int port )
+	{
+		this.port = port;
+	}
+
+
+	/**
+	 * A CSV result from the loopback address to the remote address and port, with no attempts
+	 */
+	static ResultFixture result ( int port )
+	{
+		return new ResultFixture(port);
+	}
+
+
+	ResultFixture json ( boolean json )
+	{
+		this.json = json;
+		return this;
+	}
+
+
+	ResultFixture remote ( InetAddress remote )
+	{
+		this.remote = remote;
+		return this;
+	}
+
+
+	ResultFixture connects ( long... nanos )
+	{
+		connects = nanos;
+		return this;
+	}
+
+
+	ResultFixture timeouts ( long... nanos )
+	{
+		timeouts = nanos;
+		return this;
+	}
+
+
+	ResultFixture refused ( int refused )
+	{
+		this.refused = refused;
+		return this;
+	}
+
+
+	ResultFixture unreachable ( int unreachable )
+	{
+		this.unreachable = unreachable;
+		return this;
+	}
+
+
+	ResultFixture inferred ( int inferred )
+	{
+		this.inferred = inferred;
+		return this;
+	}
+
+
+	/**
+	 * The result, collated as the engines pass it to the sinks
+	 */
+	ConnectionResult collate ()
+	{
+		ReverseNameCache.setEnabled(false);
+
+		ConnectionResult result = new ConnectionResult(json, "4", LOOPBACK, remote, port);
+		for ( long n : connects )
+		{
+			result.connects.record(n);
+		}
+		for ( long n : timeouts )
+		{
+			result.timeouts.record(n);
+		}
+		result.refused		= refused;
+		result.unreachable	= unreachable;
+		result.inferred		= inferred;
+		result.collate();
+		return result;
+	}
+
+
+	private static InetAddress address ( String literal )
+	{
+		try
+		{
+			return InetAddress.getByName(literal);
+		}
+		catch ( UnknownHostException e )
+		// Not thrown for a literal
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
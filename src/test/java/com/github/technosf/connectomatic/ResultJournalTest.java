@@ -0,0 +1,154 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static com.github.technosf.connectomatic.ResultFixture.LOOPBACK;
+import static com.github.technosf.connectomatic.ResultFixture.REMOTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ResultJournalTest
+{
+
+	Path		file;
+
+
+	@BeforeMethod
+	public void setup ()
+		throws IOException
+	{
+		file = Files.createTempFile("connectomatic", ".journal");
+	}
+
+
+	@AfterMethod
+	public void teardown ()
+		throws IOException
+	{
+		Files.deleteIfExists(file);
+	}
+
+
+	private ConnectionResult result ( int port )
+	{
+		return ResultFixture.result(port).connects(1000000).collate();
+	}
+
+
+	/**
+	 * Journal results for the ports, leaving the journal open as a process that died would
+	 */
+	private ResultJournal journal ( int from, int to )
+		throws IOException
+	{
+		ResultJournal aut = ResultJournal.open(file);
+		aut.open();
+		for ( int port = from; port <= to; port++ )
+		{
+			aut.accept(result(port));
+		}
+		return aut;
+	}
+
+
+	private String convert ()
+		throws IOException
+	{
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		BinaryReader.convert(Files.newInputStream(file), new PrintStream(csv, true, "UTF-8"), false);
+		return new String(csv.toByteArray(), "UTF-8");
+	}
+
+
+	@Test
+	public void resumeTest ()
+		throws IOException
+	{
+		assertEquals(journal(1, 3).getJournaled(), 3, "Journaled");
+
+		ResultJournal aut = journal(4, 5);
+		assertEquals(aut.getCompleted(), 3, "Replayed");
+		assertTrue(aut.isCompleted(LOOPBACK, REMOTE, 2), "Completed");
+		assertFalse(aut.isCompleted(LOOPBACK, REMOTE, 4), "Not completed when replayed");
+		assertFalse(aut.isCompleted(REMOTE, LOOPBACK, 2), "Other tuple");
+		aut.close();
+		assertNull(aut.getError(), "Error");
+
+		String[] lines = convert().split("\n");
+		assertEquals(lines.length, 6, "Header and results");
+		assertEquals(lines[5], result(5).toString(), "Resumed result");
+	}
+
+
+	@Test
+	public void tornTest ()
+		throws IOException
+	{
+		journal(1, 2);
+		long length = Files.size(file);
+		Files.write(file, new byte[] { BinarySink.RESULT, 0, 0, 0, 0, 0, 0 }, StandardOpenOption.APPEND);
+
+		ResultJournal aut = ResultJournal.open(file);
+		assertEquals(aut.getCompleted(), 2, "Replayed");
+		assertEquals(Files.size(file), length, "Torn record truncated");
+
+		aut.open();
+		aut.accept(result(3));
+		aut.close();
+		assertEquals(convert().split("\n").length, 4, "Header and results");
+	}
+
+
+	@Test
+	public void completedTest ()
+		throws IOException
+	{
+		journal(1, 2).close();
+
+		ResultJournal aut = journal(3, 3);
+		assertEquals(aut.getCompleted(), 2, "Replayed");
+		aut.close();
+
+		assertEquals(ResultJournal.open(file).getCompleted(), 3, "Streams concatenated");
+		assertEquals(convert().split("\n").length, 4, "Header and results");
+	}
+
+
+	@Test ( expectedExceptions = IOException.class )
+	public void notJournalTest ()
+		throws IOException
+	{
+		Files.write(file, ConnectionResult.CSV_HEADER.getBytes("UTF-8"));
+		ResultJournal.open(file);
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class ReverseNameCacheTest
+{
+
+	@AfterMethod
+	public void afterMethod ()
+	{
+		ReverseNameCache.setEnabled(true);
+	}
+
+
+	@Test
+	public void forwardNameTest ()
+		throws UnknownHostException
+	{
+		InetAddress literal = InetAddress.getByName("192.0.2.1");
+		assertNull(ReverseNameCache.forwardName(literal), "Literal");
+
+		InetAddress named = InetAddress.getByAddress("example.test", new byte[] { (byte) 192, 0, 2, 1 });
+		assertEquals(ReverseNameCache.forwardName(named), "example.test", "Named");
+	}
+
+
+	@Test
+	public void numericTest ()
+		throws UnknownHostException
+	{
+		ReverseNameCache.setEnabled(false);
+		InetAddress literal = InetAddress.getByName("192.0.2.2");
+
+		ConnectionResult result = new ConnectionResult(false, "4", literal, literal, 80);
+		assertEquals(result.toString(), "4,192.0.2.2,192.0.2.2,192.0.2.2,80", "No PTR lookup");
+	}
+
+
+	@Test
+	public void resolvedTest ()
+		throws UnknownHostException
+	{
+		InetAddress named = InetAddress.getByAddress("example.test", new byte[] { (byte) 192, 0, 2, 3 });
+		assertEquals(ReverseNameCache.getName(named), "example.test", "Forward name kept");
+
+		InetAddress loopback = InetAddress.getByName("127.0.0.1");
+		ReverseNameCache.resolve(loopback).join();
+		assertEquals(ReverseNameCache.getName(loopback), InetAddress.getByName("127.0.0.1").getHostName(), "Reverse name");
+	}
+
+}
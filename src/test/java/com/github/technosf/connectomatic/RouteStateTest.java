@@ -0,0 +1,115 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+
+import org.testng.annotations.Test;
+
+public class RouteStateTest
+{
+
+	private Route route ( String remote )
+		throws UnknownHostException
+	{
+		return new Route(InetAddress.getByName("127.0.0.1"), InetAddress.getByName(remote));
+	}
+
+
+	@Test
+	public void confirmTest ()
+		throws UnknownHostException
+	{
+		RouteState	aut		= new RouteState(3, 4);
+		Route		down	= route("10.0.0.1");
+		Route		up		= route("10.0.0.2");
+
+		aut.unreachable(down, 80);
+		aut.unreachable(down, 80);
+		aut.unreachable(down, 80);
+		assertFalse(aut.infer(down), "One port's attempts count once");
+		aut.unreachable(down, 81);
+		assertFalse(aut.infer(down), "Not yet confirmed");
+		aut.unreachable(down, 82);
+		assertEquals(aut.getDown(), 1, "Held down");
+		assertFalse(aut.infer(up), "Other route");
+
+		assertTrue(aut.infer(down), "Inferred");
+		assertTrue(aut.infer(down), "Inferred");
+		assertTrue(aut.infer(down), "Inferred");
+		assertFalse(aut.infer(down), "Sampled");
+		assertTrue(aut.infer(down), "Inferred");
+		assertEquals(aut.getInferred(), 4, "Inferred tuples");
+	}
+
+
+	@Test
+	public void reachedTest ()
+		throws UnknownHostException
+	{
+		RouteState	aut		= new RouteState(2, 4);
+		Route		route	= route("10.0.0.1");
+
+		aut.unreachable(route, 80);
+		aut.reached(route);
+		aut.unreachable(route, 81);
+		assertFalse(aut.infer(route), "Not in a row");
+
+		aut.unreachable(route, 82);
+		assertTrue(aut.infer(route), "Held down");
+		aut.reached(route);
+		assertEquals(aut.getDown(), 0, "Lifted");
+		assertFalse(aut.infer(route), "Probed once lifted");
+	}
+
+
+	@Test
+	public void networkUnreachableTest ()
+	{
+		assertTrue(RouteState.isNetworkUnreachable(new NoRouteToHostException("Network is unreachable")), "ENETUNREACH");
+		assertTrue(RouteState.isNetworkUnreachable(new SocketException("Network is unreachable (connect failed)")), "ENETUNREACH blocking");
+		assertFalse(RouteState.isNetworkUnreachable(new NoRouteToHostException("No route to host")), "EHOSTUNREACH");
+		assertFalse(RouteState.isNetworkUnreachable(new SocketException()), "No message");
+	}
+
+
+	@Test
+	public void offTest ()
+		throws UnknownHostException
+	{
+		RouteState	aut		= new RouteState(RouteState.OFF, 4);
+		Route		route	= route("10.0.0.1");
+
+		for ( int i = 0; i < 10; i++ )
+		{
+			aut.unreachable(route, i);
+		}
+		assertFalse(aut.isEnabled(), "Off");
+		assertFalse(aut.infer(route), "Always probed");
+		assertEquals(aut.getDown(), 0, "Never held down");
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+
+import org.testng.annotations.Test;
+
+public class SourcePortsTest
+{
+
+	@Test
+	public void rotateTest ()
+		throws IOException
+	{
+		InetAddress	local1	= InetAddress.getByName("127.0.0.1");
+		InetAddress	local2	= InetAddress.getByName("127.0.0.2");
+		SourcePorts	aut		= new SourcePorts(41000, 41002);
+
+		assertTrue(aut.isExplicit(), "Explicit");
+		assertEquals(aut.next(local1), 41000, "First");
+		assertEquals(aut.next(local1), 41001, "Next");
+		assertEquals(aut.next(local2), 41000, "Own cursor per address");
+		assertEquals(aut.next(local1), 41002, "Last");
+		assertEquals(aut.next(local1), 41000, "Rotated");
+		assertEquals(aut.toString(), "41000-41002", "Range");
+
+		SourcePorts ephemeral = new SourcePorts();
+		assertFalse(ephemeral.isExplicit(), "Ephemeral");
+		assertEquals(ephemeral.next(local1), SourcePorts.EPHEMERAL, "Port zero");
+	}
+
+
+	@Test
+	public void bindTest ()
+		throws IOException
+	{
+		InetAddress loopback = InetAddress.getByName("127.0.0.1");
+
+		try ( ServerSocket held = new ServerSocket() )
+		{
+			held.bind(new InetSocketAddress(loopback, 0));
+			int			port	= held.getLocalPort();
+			SourcePorts	aut		= new SourcePorts(port, port);
+
+			try ( Socket socket = new Socket() )
+			{
+				aut.bind(loopback, socket::bind);
+				assertTrue(socket.isBound(), "Bound");
+				assertTrue(socket.getLocalPort() != port, "Fell back to an ephemeral port");
+			}
+
+			try ( SocketChannel channel = SocketChannel.open() )
+			{
+				aut.bind(loopback, channel::bind);
+				assertTrue(channel.socket().getLocalPort() != port, "Channel fell back");
+			}
+
+			assertEquals(aut.getCollisions(), 2, "In use");
+			assertEquals(aut.getFallbacks(), 2, "Fell back");
+		}
+	}
+
+}
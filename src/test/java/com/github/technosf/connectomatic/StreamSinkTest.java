@@ -0,0 +1,97 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class StreamSinkTest
+{
+
+	InetAddress	loopback;
+
+
+	@BeforeClass
+	public void beforeClass ()
+		throws UnknownHostException
+	{
+		loopback = InetAddress.getByName("127.0.0.1");
+	}
+
+
+	private String stream ( boolean json, int results )
+		throws UnsupportedEncodingException
+	{
+		ByteArrayOutputStream	bytes	= new ByteArrayOutputStream();
+		StreamSink				aut		= new StreamSink(new PrintStream(bytes, true, "UTF-8"), json);
+
+		aut.open();
+		for ( int port = 1; port <= results; port++ )
+		{
+			ConnectionResult result = new ConnectionResult(json, "4", loopback, loopback, port);
+			result.collate();
+			aut.accept(result);
+		}
+		aut.close();
+
+		return bytes.toString("UTF-8");
+	}
+
+
+	@Test
+	public void csvTest ()
+		throws UnsupportedEncodingException
+	{
+		String[] lines = stream(false, 2).split("\n");
+		assertEquals(lines.length, 3, "Lines");
+		assertEquals(lines[0], ConnectionResult.CSV_HEADER, "Header first");
+		assertEquals(lines[1].split(",")[4], "1", "First result");
+		assertEquals(lines[2].split(",")[4], "2", "Second result");
+	}
+
+
+	@Test
+	public void jsonTest ()
+		throws UnsupportedEncodingException
+	{
+		String[] lines = stream(true, 2).split("\n");
+		assertEquals(lines.length, 4, "Lines");
+		assertEquals(lines[0], "[", "Array open");
+		assertEquals(lines[1].charAt(0), '{', "First result");
+		assertEquals(lines[2].substring(0, 2), ",{", "Second result");
+		assertEquals(lines[3], "]", "Array close");
+	}
+
+
+	@Test
+	public void emptyJsonTest ()
+		throws UnsupportedEncodingException
+	{
+		assertEquals(stream(true, 0), "[\n]\n", "Empty array");
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TargetFarmTest
+{
+
+	TargetFarm	aut;
+
+
+	@BeforeMethod
+	public void beforeMethod ()
+		throws IOException
+	{
+		aut = new TargetFarm();
+	}
+
+
+	@AfterMethod
+	public void afterMethod ()
+		throws IOException
+	{
+		aut.close();
+	}
+
+
+	@Test
+	public void loopbacksTest ()
+		throws IOException
+	{
+		List< InetAddress > addresses = TargetFarm.loopbacks(300, true);
+
+		assertEquals(addresses.size(), 301, "Count");
+		assertEquals(addresses.get(0).getHostAddress(), "127.0.0.1", "First");
+		assertEquals(addresses.get(299).getHostAddress(), "127.0.1.44", "Last IPv4");
+		assertTrue(addresses.get(300).isLoopbackAddress(), "IPv6");
+	}
+
+
+	@Test
+	public void acceptTest ()
+		throws IOException, InterruptedException
+	{
+		List< InetAddress >	addresses	= TargetFarm.loopbacks(3, false);
+		List< Integer >		ports		= aut.listen(addresses, 5, TargetFarm.Behaviour.ACCEPT, 0);
+
+		assertEquals(ports.size(), 5, "Ports");
+		for ( InetAddress address : addresses )
+		{
+			for ( int port : ports )
+			{
+				try ( Socket socket = new Socket() )
+				{
+					socket.connect(new InetSocketAddress(address, port), 1000);
+				}
+			}
+		}
+
+		for ( int i = 0; i < 100 && aut.getAccepted() < 15; i++ )
+		{
+			Thread.sleep(10);
+		}
+		assertEquals(aut.getAccepted(), 15, "Accepted");
+	}
+
+
+	@Test
+	public void refuseTest ()
+		throws IOException
+	{
+		List< Integer > ports = aut.listen(TargetFarm.loopbacks(1, false), 1, TargetFarm.Behaviour.REFUSE, 0);
+
+		try ( Socket socket = new Socket() )
+		{
+			socket.connect(new InetSocketAddress("127.0.0.1", ports.get(0)), 1000);
+			fail("Connected to a refusing port");
+		}
+		catch ( ConnectException e )
+		{
+			// Refused
+		}
+	}
+
+
+	@Test
+	public void delayTest ()
+		throws IOException, InterruptedException
+	{
+		List< Integer > ports = aut.listen(TargetFarm.loopbacks(1, false), 1, TargetFarm.Behaviour.DELAY, 300);
+
+		long nanotime = System.nanoTime();
+		try ( Socket socket = new Socket() )
+		{
+			socket.connect(new InetSocketAddress("127.0.0.1", ports.get(0)), 1000);
+			Thread.sleep(100);
+			assertEquals(aut.getAccepted(), 0, "Not yet accepted");
+
+			while ( aut.getAccepted() == 0 && System.nanoTime() - nanotime < 5000000000L )
+			{
+				Thread.sleep(10);
+			}
+		}
+		assertEquals(aut.getAccepted(), 1, "Accepted after delay");
+		assertTrue(System.nanoTime() - nanotime >= 300000000L, "Delayed");
+	}
+
+}
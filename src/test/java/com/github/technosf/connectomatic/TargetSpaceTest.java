@@ -0,0 +1,118 @@
+/*
+ * Connect-O-Matic - IP network connection tester [https://github.com/technosf/Connect-O-Matic]
+ * 
+ * Copyright 2023 technosf [https://github.com/technosf]
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.technosf.connectomatic;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class TargetSpaceTest
+{
+
+	Inet4Address	local4, remote4a, remote4b;
+	Inet6Address	local6, remote6;
+	BitSet			ports;
+
+
+	@BeforeClass
+	public void beforeClass ()
+		throws UnknownHostException
+	{
+		local4		= (Inet4Address) InetAddress.getByName("127.0.0.1");
+		remote4a	= (Inet4Address) InetAddress.getByName("127.0.0.2");
+		remote4b	= (Inet4Address) InetAddress.getByName("127.0.0.3");
+		local6		= (Inet6Address) InetAddress.getByName("::1");
+		remote6		= (Inet6Address) InetAddress.getByName("::2");
+		ports		= new BitSet();
+		ports.set(80);
+		ports.set(1000, 1003);
+	}
+
+
+	@Test
+	public void iterateTest ()
+	{
+		TargetSpace aut = new TargetSpace(ports, Collections.singleton(local4), Arrays.asList(remote4a, remote4b),
+				Collections.singleton(local6), Collections.singleton(remote6));
+		assertEquals(aut.size(), 4 * 3, "Size");
+
+		List< String > targets = new ArrayList<>();
+		aut.forEach(t -> targets.add(t.ipv + "," + t.localaddress.getHostAddress() + "," + t.remoteaddress.getHostAddress() + "," + t.port));
+
+		assertEquals(targets.size(), 12, "Enumerated");
+		assertEquals(targets.get(0), "4,127.0.0.1,127.0.0.2,80", "First");
+		assertEquals(targets.get(1), "4,127.0.0.1,127.0.0.3,80", "Next pair");
+		assertEquals(targets.get(2), "6,0:0:0:0:0:0:0:1,0:0:0:0:0:0:0:2,80", "IPv6 pair");
+		assertEquals(targets.get(3), "4,127.0.0.1,127.0.0.2,1000", "Next port");
+		assertEquals(targets.get(11), "6,0:0:0:0:0:0:0:1,0:0:0:0:0:0:0:2,1002", "Last");
+	}
+
+
+	@Test
+	public void prefixTest ()
+	{
+		TargetSpace aut = new TargetSpace(ports, Collections.singleton(local4), Collections.singleton(remote4a),
+				Collections.singleton(new AddressPrefix("10.0.0.0/31", 1, false, null)), Collections.emptySet(), Collections.emptySet(),
+				Collections.singleton(new AddressPrefix("::/64", 4, false, null)));
+		assertEquals(aut.size(), 4 * 2, "Size, without IPv6 locals");
+
+		List< String > targets = new ArrayList<>();
+		aut.forEach(t -> targets.add(t.localaddress.getHostAddress() + "," + t.remoteaddress.getHostAddress() + "," + t.port));
+
+		assertEquals(targets.size(), 8, "Enumerated");
+		assertEquals(targets.get(0), "127.0.0.1,127.0.0.2,80", "Addresses first");
+		assertEquals(targets.get(1), "127.0.0.1,10.0.0.0,80", "Then prefixes, sampled");
+		assertEquals(targets.get(2), "127.0.0.1,127.0.0.2,1000", "Next port");
+	}
+
+
+	@Test
+	public void copyTest ()
+	{
+		BitSet		copied	= (BitSet) ports.clone();
+		TargetSpace	aut		= new TargetSpace(copied, Collections.singleton(local4), Collections.singleton(remote4a),
+				Collections.emptySet(), Collections.emptySet());
+
+		copied.clear();
+		assertEquals(aut.size(), 4, "Ports copied");
+	}
+
+
+	@Test
+	public void emptyTest ()
+	{
+		assertFalse(new TargetSpace(ports, Collections.emptySet(), Collections.singleton(remote4a), Collections.singleton(local6),
+				Collections.emptySet()).iterator().hasNext(), "No pairs");
+		assertFalse(new TargetSpace(new BitSet(), Collections.singleton(local4), Collections.singleton(remote4a),
+				Collections.emptySet(), Collections.emptySet()).iterator().hasNext(), "No ports");
+	}
+
+}